@@ -20,20 +20,26 @@
 
 package org.mxupdate.eclipse;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.ui.console.ConsolePlugin;
 import org.eclipse.ui.console.IConsole;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.mxupdate.eclipse.adapter.IDeploymentAdapter;
 import org.mxupdate.eclipse.console.Console;
+import org.mxupdate.eclipse.mxadapter.MXAdapter;
+import org.mxupdate.eclipse.mxadapter.metrics.MetricsRegistry;
 import org.mxupdate.eclipse.properties.ProjectMode;
 import org.osgi.framework.BundleContext;
 
@@ -68,6 +74,44 @@ public class Activator
      */
     private final Map<String,IDeploymentAdapter> adapters = new HashMap<String,IDeploymentAdapter>();
 
+    /**
+     * Lock used while a deployment adapter is initialized, so that the
+     * {@link #adapters} are not locked during the initialization.
+     *
+     * @see #getAdapter(IProject)
+     */
+    private final Object adapterInitLock = new Object();
+
+    /**
+     * Registry of the metrics for all Dispatcher calls of all projects.
+     *
+     * @see #getMetrics()
+     */
+    private final MetricsRegistry metrics = new MetricsRegistry();
+
+    /**
+     * Is the Dispatcher traffic of all MX adapters recorded? If set, the
+     * recording is also started for adapters initialized later.
+     *
+     * @see #setTrafficRecording(boolean)
+     */
+    private volatile boolean trafficRecording;
+
+    /**
+     * Listener for closed or deleted projects. The deployment adapter of
+     * such a project is removed from the {@link #adapters} and disposed.
+     *
+     * @see #removeAdapter(IProject)
+     */
+    private final IResourceChangeListener projectListener = new IResourceChangeListener()  {
+        public void resourceChanged(final IResourceChangeEvent _event)
+        {
+            if (_event.getResource() instanceof IProject)  {
+                Activator.this.removeAdapter((IProject) _event.getResource());
+            }
+        }
+    };
+
 
 	/*
 	 * (non-Javadoc)
@@ -85,6 +129,9 @@ try  {
         this.console.activate();
         ConsolePlugin.getDefault().getConsoleManager().addConsoles(new IConsole[]{this.console});
 
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(this.projectListener,
+                                                                 IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.PRE_DELETE);
+
 } catch (final Throwable e)  {
     e.printStackTrace(System.out);
     this.console.logError("ERROR", e); //$NON-NLS-1$
@@ -92,7 +139,7 @@ try  {
     }
 
     /**
-     * Disconnects all {@link #adapters} and removes the {@link #console}.
+     * Disposes all {@link #adapters} and removes the {@link #console}.
      *
      * @param _context      bundle context
      * @throws Exception if an internal exception was thrown
@@ -101,11 +148,13 @@ try  {
     public void stop(final BundleContext _context)
         throws Exception
     {
-        // disconnect all adapters
+        ResourcesPlugin.getWorkspace().removeResourceChangeListener(this.projectListener);
+
+        // dispose all adapters
         final List<Exception> exceptions = new ArrayList<Exception>();
         for (final IDeploymentAdapter adapter : this.adapters.values())  {
             try  {
-                adapter.disconnect();
+                adapter.dispose();
             } catch (final Exception e) {
                 exceptions.add(e);
             }
@@ -148,6 +197,81 @@ try  {
         return this.console;
     }
 
+    /**
+     * Returns the registry of the metrics for all Dispatcher calls. The
+     * method is the getter method for instance variable {@link #metrics}.
+     *
+     * @return metrics registry of the plug-in
+     * @see #metrics
+     */
+    public MetricsRegistry getMetrics()
+    {
+        return this.metrics;
+    }
+
+    /**
+     * Checks if the Dispatcher traffic of all MX adapters is recorded.
+     *
+     * @return <i>true</i> if the traffic is recorded; otherwise <i>false</i>
+     * @see #trafficRecording
+     */
+    public boolean isTrafficRecording()
+    {
+        return this.trafficRecording;
+    }
+
+    /**
+     * Starts or stops the traffic recording for all MX adapters. If the
+     * recording is started, the recording is also started for all adapters
+     * initialized later (until the recording is stopped).
+     *
+     * @param _record   <i>true</i> to start the recording; <i>false</i> to
+     *                  stop the recording
+     * @see #trafficRecording
+     * @see #recordTraffic(String, IDeploymentAdapter, boolean)
+     */
+    public void setTrafficRecording(final boolean _record)
+    {
+        synchronized (this.adapterInitLock)  {
+            this.trafficRecording = _record;
+            for (final Map.Entry<String,IDeploymentAdapter> entry : this.getAdapters().entrySet())  {
+                this.recordTraffic(entry.getKey(), entry.getValue(), _record);
+            }
+        }
+    }
+
+    /**
+     * Starts or stops the traffic recording for given <code>_adapter</code>
+     * (if the adapter is a MX adapter).
+     *
+     * @param _projectName  name of the project of the adapter
+     * @param _adapter      deployment adapter
+     * @param _record       <i>true</i> to start the recording; <i>false</i>
+     *                      to stop the recording
+     * @see MXAdapter#startTrafficRecording()
+     * @see MXAdapter#stopTrafficRecording()
+     */
+    protected void recordTraffic(final String _projectName,
+                                 final IDeploymentAdapter _adapter,
+                                 final boolean _record)
+    {
+        if (_adapter instanceof MXAdapter)  {
+            final MXAdapter mxAdapter = (MXAdapter) _adapter;
+            try  {
+                if (_record)  {
+                    this.console.logInfo(Messages.getString("Activator.RecordTrafficStarted", //$NON-NLS-1$
+                                                            _projectName,
+                                                            mxAdapter.startTrafficRecording().toString()));
+                } else if (mxAdapter.isTrafficRecording())  {
+                    mxAdapter.stopTrafficRecording();
+                    this.console.logInfo(Messages.getString("Activator.RecordTrafficStopped", _projectName)); //$NON-NLS-1$
+                }
+            } catch (final IOException e)  {
+                this.console.logError(Messages.getString("Activator.RecordTrafficFailed", _projectName), e); //$NON-NLS-1$
+            }
+        }
+    }
+
     /**
      * Shows the MxUpdate plug-in console.
      *
@@ -176,7 +300,40 @@ try  {
     }
 
     /**
-     * Returns the deployment adapter depending on the project.
+     * Returns all currently initialized deployment adapters.
+     *
+     * @return map of project names and related deployment adapters (sorted
+     *         by project names)
+     * @see #adapters
+     */
+    public Map<String,IDeploymentAdapter> getAdapters()
+    {
+        synchronized (this.adapters)  {
+            return new TreeMap<String,IDeploymentAdapter>(this.adapters);
+        }
+    }
+
+    /**
+     * Returns the deployment adapter depending on the project only if the
+     * adapter is already initialized. The adapter is not initialized by this
+     * method, so that the method never blocks.
+     *
+     * @param _project      project for which the deployment adapter is
+     *                      searched
+     * @return deployment adapter; <code>null</code> if not initialized
+     * @see #getAdapter(IProject)
+     */
+    public IDeploymentAdapter getInitializedAdapter(final IProject _project)
+    {
+        synchronized (this.adapters)  {
+            return this.adapters.get(_project.getName());
+        }
+    }
+
+    /**
+     * Returns the deployment adapter depending on the project. If the
+     * {@link #trafficRecording traffic is recorded}, the recording is started
+     * for a new initialized adapter.
      *
      * @param _project      project for which the deployment adapter is
      *                      searched
@@ -187,12 +344,43 @@ try  {
         throws Exception
     {
         final String projectKey = _project.getName();
-        if (!this.adapters.containsKey(projectKey))  {
-            final IDeploymentAdapter adapter = ProjectMode.initAdapter(_project, this.console);
-            if (adapter != null)  {
-                this.adapters.put(projectKey, adapter);
+        synchronized (this.adapterInitLock)  {
+            IDeploymentAdapter adapter = this.getInitializedAdapter(_project);
+            if (adapter == null)  {
+                adapter = ProjectMode.initAdapter(_project, this.console);
+                if (adapter != null)  {
+                    synchronized (this.adapters)  {
+                        this.adapters.put(projectKey, adapter);
+                    }
+                    if (this.trafficRecording)  {
+                        this.recordTraffic(projectKey, adapter, true);
+                    }
+                }
+            }
+            return adapter;
+        }
+    }
+
+    /**
+     * Removes the deployment adapter of given <code>_project</code> (if
+     * initialized) from the {@link #adapters} and disposes the adapter.
+     *
+     * @param _project      project for which the deployment adapter must be
+     *                      removed
+     * @see #projectListener
+     */
+    protected void removeAdapter(final IProject _project)
+    {
+        final IDeploymentAdapter adapter;
+        synchronized (this.adapters)  {
+            adapter = this.adapters.remove(_project.getName());
+        }
+        if (adapter != null)  {
+            try  {
+                adapter.dispose();
+            } catch (final Exception e)  {
+                this.console.logError(Messages.getString("Activator.ExceptionDisposeAdapter", _project.getName()), e); //$NON-NLS-1$
             }
         }
-        return this.adapters.get(projectKey);
     }
 }
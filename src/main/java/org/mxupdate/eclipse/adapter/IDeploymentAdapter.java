@@ -20,10 +20,12 @@
 
 package org.mxupdate.eclipse.adapter;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.resource.ImageDescriptor;
 
 /**
@@ -59,16 +61,76 @@ public interface IDeploymentAdapter
     boolean disconnect()
         throws Exception;
 
+    /**
+     * Disposes the adapter (e.g. if the related project is closed or
+     * deleted). If the adapter is connected, the adapter disconnects from
+     * the database. All resources of the adapter are released.
+     *
+     * @throws Exception if dispose failed
+     */
+    void dispose()
+        throws Exception;
+
     /**
      * Updates given update <code>_files</code> in the database.
      *
      * @param _files    update files to update in the database
      * @param _compile  if <i>true</i> all program files are compiled; if
      *                  <i>false</i> no files are compiled
+     * @return merged update result with the status of each file
+     * @throws Exception if update failed (or connect failed)
+     */
+    IUpdateResult update(final List<IFile> _files,
+                         final boolean _compile)
+        throws Exception;
+
+    /**
+     * Updates given update <code>_files</code> in the database. If
+     * <code>_onlyChanged</code> is <i>true</i>, only the files changed since
+     * their last successful deploy are sent.
+     *
+     * @param _files        update files to update in the database
+     * @param _compile      if <i>true</i> all program files are compiled; if
+     *                      <i>false</i> no files are compiled
+     * @param _onlyChanged  if <i>true</i> only changed files are updated
+     * @return merged update result with the status of each file
      * @throws Exception if update failed (or connect failed)
      */
-    void update(final List<IFile> _files,
-                final boolean _compile)
+    IUpdateResult update(final List<IFile> _files,
+                         final boolean _compile,
+                         final boolean _onlyChanged)
+        throws Exception;
+
+    /**
+     * Updates given update <code>_files</code> in the database. The progress
+     * is reported to given <code>_monitor</code>; if the monitor is
+     * canceled, the files not already sent are not updated (and not included
+     * in the result).
+     *
+     * @param _files        update files to update in the database
+     * @param _compile      if <i>true</i> all program files are compiled; if
+     *                      <i>false</i> no files are compiled
+     * @param _onlyChanged  if <i>true</i> only changed files are updated
+     * @param _monitor      progress monitor
+     * @return merged update result with the status of each file
+     * @throws Exception if update failed (or connect failed)
+     */
+    IUpdateResult update(final List<IFile> _files,
+                         final boolean _compile,
+                         final boolean _onlyChanged,
+                         final IProgressMonitor _monitor)
+        throws Exception;
+
+    /**
+     * Scans all configuration item files of the project for drifts against
+     * the database. Only the hashes of the local files and of the exported
+     * objects are compared; the content itself is not transferred.
+     *
+     * @param _monitor  progress monitor
+     * @return list of all drifted items (sorted by type definition and name)
+     * @throws Exception if the scan failed (or connect failed)
+     */
+    List<IDriftItem> scanDrift(final IProgressMonitor _monitor)
         throws Exception;
 
     /**
@@ -82,6 +144,20 @@ public interface IDeploymentAdapter
     IExportItem export(final IFile _file)
         throws Exception;
 
+    /**
+     * Exports the configuration items of given local update
+     * <code>_files</code> (if possible within batches). The
+     * <code>_listener</code> is called for each exported item.
+     *
+     * @param _files    update files for which the update code must be
+     *                  extracted
+     * @param _listener listener called for each exported file
+     * @throws Exception if export failed (or connect failed)
+     */
+    void exportFiles(final List<IFile> _files,
+                     final IFileExportListener _listener)
+        throws Exception;
+
     /**
      * Exports defined <code>_item</code> with depending <code>_typeDef</code>.
      *
@@ -94,6 +170,20 @@ public interface IDeploymentAdapter
                        final String _item)
         throws Exception;
 
+    /**
+     * Exports all given <code>_items</code> (defined by their type definition
+     * and MX name). The items are exported in a few calls of bounded size
+     * and the <code>_listener</code> is called for each item as soon as the
+     * item is exported.
+     *
+     * @param _items    items to export
+     * @param _listener listener called for each exported item
+     * @throws Exception if export failed (or connect failed)
+     */
+    void export(final Collection<? extends ISearchItem> _items,
+                final IExportListener _listener)
+        throws Exception;
+
     /**
      * Executes given <code>_command</code> within the console.
      *
@@ -115,6 +205,21 @@ public interface IDeploymentAdapter
     List<ISearchItem> search(final Set<String> _typeDefList,
                              final String _match);
 
+    /**
+     * Searches for given type definitions <code>_typeDefList</code> which
+     * matches <code>_match</code>. The found objects are fetched page by page
+     * and the <code>_listener</code> is called for each page.
+     *
+     * @param _typeDefList  set of searched type definitions
+     * @param _match        match for the search
+     * @param _listener     listener called for each page of found objects
+     * @throws Exception if the search failed (or connect failed)
+     */
+    void search(final Set<String> _typeDefList,
+                final String _match,
+                final ISearchListener _listener)
+        throws Exception;
+
     /**
      * Evaluates the type tree hierarchy and returns the root.
      *
@@ -132,6 +237,18 @@ public interface IDeploymentAdapter
      */
     ImageDescriptor getImageDescriptor(final IFile _file);
 
+    /**
+     * Checks if a file with given <code>_fileName</code> is a configuration
+     * item file depending on the prefix and suffix configuration of the type
+     * definitions. Only the name is checked, so that the check could be done
+     * while traversing resource proxies without creating the resources.
+     *
+     * @param _fileName name of the file to check
+     * @return <i>true</i> if the file is a configuration item file; otherwise
+     *         <i>false</i>
+     */
+    boolean isUpdateFile(final String _fileName);
+
     /**
      * Returns for given type definition <code>_typeDef</code> related image
      * descriptor.
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.adapter;
+
+import org.eclipse.core.resources.IFile;
+
+/**
+ * Defines one item of a drift scan, means a configuration item where the
+ * local update file and the object within the data base differ.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see IDeploymentAdapter#scanDrift(org.eclipse.core.runtime.IProgressMonitor)
+ */
+public interface IDriftItem
+{
+    /**
+     * Kind of the drift.
+     */
+    enum Kind
+    {
+        /** The content of the local file and the data base differs. */
+        DIFFERENT,
+
+        /** The local file exists, but the object is missing in the data base. */
+        MISSING,
+
+        /** The object exists in the data base, but no local file exists. */
+        EXTRA,
+
+        /** The local file could not be read, so the drift is not known. */
+        ERROR;
+    }
+
+    /**
+     * Returns the kind of the drift.
+     *
+     * @return kind of the drift
+     */
+    Kind getKind();
+
+    /**
+     * Returns the type definition of this item.
+     *
+     * @return type definition
+     */
+    String getTypeDef();
+
+    /**
+     * Returns the name of this item.
+     *
+     * @return name
+     */
+    String getName();
+
+    /**
+     * Returns the file name of this item.
+     *
+     * @return file name
+     */
+    String getFileName();
+
+    /**
+     * Returns the local file of this item.
+     *
+     * @return local file; <code>null</code> for {@link Kind#EXTRA extra}
+     *         items
+     */
+    IFile getFile();
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.adapter;
+
+/**
+ * Listener called from a batch export for each exported configuration item
+ * as soon as the item is exported.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see IDeploymentAdapter#export(java.util.Collection, IExportListener)
+ */
+public interface IExportListener
+{
+    /**
+     * Called if a configuration item is exported.
+     *
+     * @param _item     exported item
+     */
+    void exported(final IExportItem _item);
+
+    /**
+     * Called if the export of a configuration item failed.
+     *
+     * @param _typeDef  type definition of the item
+     * @param _name     MX name of the item
+     * @param _ex       exception why the export failed
+     */
+    void failed(final String _typeDef,
+                final String _name,
+                final Exception _ex);
+
+    /**
+     * Checks if the batch export must be canceled. The check is done before
+     * the next Dispatcher call.
+     *
+     * @return <i>true</i> if the batch export must be canceled; otherwise
+     *         <i>false</i>
+     */
+    boolean isCanceled();
+}
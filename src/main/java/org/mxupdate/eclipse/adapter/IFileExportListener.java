@@ -0,0 +1,62 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.adapter;
+
+import org.eclipse.core.resources.IFile;
+
+/**
+ * Listener called from the export of local update files for each exported
+ * configuration item as soon as the item is exported.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see IDeploymentAdapter#exportFiles(java.util.List, IFileExportListener)
+ */
+public interface IFileExportListener
+{
+    /**
+     * Called if the configuration item of a local update file is exported.
+     *
+     * @param _file     local update file
+     * @param _item     exported item
+     */
+    void exported(final IFile _file,
+                  final IExportItem _item);
+
+    /**
+     * Called if the export of the configuration item of a local update file
+     * failed.
+     *
+     * @param _file     local update file
+     * @param _ex       exception why the export failed
+     */
+    void failed(final IFile _file,
+                final Exception _ex);
+
+    /**
+     * Checks if the export must be canceled. The check is done before the
+     * next Dispatcher call.
+     *
+     * @return <i>true</i> if the export must be canceled; otherwise
+     *         <i>false</i>
+     */
+    boolean isCanceled();
+}
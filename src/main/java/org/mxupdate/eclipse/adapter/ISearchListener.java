@@ -0,0 +1,50 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.adapter;
+
+import java.util.List;
+
+/**
+ * Listener called from a search for each page of found configuration items
+ * as soon as the page is received from MX.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see IDeploymentAdapter#search(java.util.Set, String, ISearchListener)
+ */
+public interface ISearchListener
+{
+    /**
+     * Called for each page of found configuration items.
+     *
+     * @param _items    found items of the page
+     */
+    void found(final List<ISearchItem> _items);
+
+    /**
+     * Checks if the search must be canceled. The check is done before the
+     * next page is fetched.
+     *
+     * @return <i>true</i> if the search must be canceled; otherwise
+     *         <i>false</i>
+     */
+    boolean isCanceled();
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.adapter;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+
+/**
+ * Defines the merged result of an update with the status of each updated
+ * file.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ */
+public interface IUpdateResult
+{
+    /**
+     * Returns all successfully updated files.
+     *
+     * @return set of updated files
+     */
+    Set<IFile> getUpdatedFiles();
+
+    /**
+     * Returns all files where the update failed with the related error
+     * message.
+     *
+     * @return map of failed files and error messages
+     */
+    Map<IFile,String> getFailedFiles();
+
+    /**
+     * Checks if all files are updated successfully.
+     *
+     * @return <i>true</i> if no update failed; otherwise <i>false</i>
+     */
+    boolean isSuccessful();
+}
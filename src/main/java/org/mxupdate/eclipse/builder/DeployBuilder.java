@@ -0,0 +1,298 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.builder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.ICommand;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.mxupdate.eclipse.Activator;
+import org.mxupdate.eclipse.Messages;
+import org.mxupdate.eclipse.adapter.IDeploymentAdapter;
+import org.mxupdate.eclipse.adapter.IUpdateResult;
+import org.mxupdate.eclipse.handlers.ProjectSchedulingRule;
+
+/**
+ * Incremental project builder which deploys changed configuration item files
+ * automatically. The changed files are collected from the resource deltas of
+ * the builds; the saves within {@link #DEPLOY_DELAY} are coalesced and
+ * deployed within one background {@link DeployJob job}. Failed files are
+ * marked with a {@link #MARKER_ID problem marker}.
+ *
+ * <p>Only resource deltas are deployed. Full builds (e.g. for a clean or
+ * for the first build without previous state) are ignored, so that a
+ * complete project is never deployed by the builder.</p>
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see #configure(IProject, boolean)
+ */
+public class DeployBuilder
+    extends IncrementalProjectBuilder
+{
+    /**
+     * Identifier of the builder.
+     */
+    public static final String BUILDER_ID = "org.mxupdate.eclipse.deployBuilder"; //$NON-NLS-1$
+
+    /**
+     * Identifier of the problem marker for failed deploys.
+     */
+    public static final String MARKER_ID = "org.mxupdate.eclipse.deployProblem"; //$NON-NLS-1$
+
+    /**
+     * Delay in milliseconds after the last save before the collected files
+     * are deployed.
+     */
+    private static final long DEPLOY_DELAY = 2000;
+
+    /**
+     * Job deploying the collected files of the project.
+     */
+    private DeployJob deployJob;
+
+    /**
+     * {@inheritDoc}
+     * For incremental and automatic builds the changed configuration item
+     * files are collected from the resource delta and the
+     * {@link #deployJob deploy job} is (re)scheduled. A file is a
+     * configuration item file if the deployment adapter knows an image for
+     * the file. Full builds are ignored.
+     *
+     * @return always <code>null</code>
+     */
+    @Override()
+    @SuppressWarnings("unchecked")
+    protected IProject[] build(final int _kind,
+                               final Map _args,
+                               final IProgressMonitor _monitor)
+        throws CoreException
+    {
+        final IResourceDelta delta = (_kind != IncrementalProjectBuilder.FULL_BUILD)
+                                     ? this.getDelta(this.getProject())
+                                     : null;
+        IDeploymentAdapter adapter = null;
+        if (delta != null)  {
+            try  {
+                adapter = Activator.getDefault().getAdapter(this.getProject());
+            } catch (final Exception e)  {
+                Activator.getDefault().getConsole().logError(
+                        Messages.getString("DeployBuilder.DeployFailed", this.getProject().getName()), e); //$NON-NLS-1$
+            }
+        }
+        if (adapter != null)  {
+            final IDeploymentAdapter deployAdapter = adapter;
+            final List<IFile> files = new ArrayList<IFile>();
+            delta.accept(new IResourceDeltaVisitor()  {
+                public boolean visit(final IResourceDelta _delta)
+                {
+                    final IResource resource = _delta.getResource();
+                    if ((resource.getType() == IResource.FILE)
+                            && ((_delta.getKind() == IResourceDelta.ADDED)
+                                    || ((_delta.getKind() == IResourceDelta.CHANGED)
+                                            && ((_delta.getFlags() & IResourceDelta.CONTENT) != 0)))
+                            && (deployAdapter.getImageDescriptor((IFile) resource) != null))  {
+                        files.add((IFile) resource);
+                    }
+                    return true;
+                }
+            });
+            if (!files.isEmpty())  {
+                synchronized (this)  {
+                    if (this.deployJob == null)  {
+                        this.deployJob = new DeployJob(this.getProject());
+                    }
+                    this.deployJob.add(files);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds or removes the {@link #BUILDER_ID deploy builder} to or from the
+     * build specification of given <code>_project</code>.
+     *
+     * @param _project  project to configure
+     * @param _enabled  <i>true</i> if the builder must be added; <i>false</i>
+     *                  if the builder must be removed
+     * @throws CoreException if the project description could not be updated
+     */
+    public static void configure(final IProject _project,
+                                 final boolean _enabled)
+        throws CoreException
+    {
+        final IProjectDescription desc = _project.getDescription();
+        final List<ICommand> commands = new ArrayList<ICommand>(Arrays.asList(desc.getBuildSpec()));
+        ICommand found = null;
+        for (final ICommand command : commands)  {
+            if (DeployBuilder.BUILDER_ID.equals(command.getBuilderName()))  {
+                found = command;
+                break;
+            }
+        }
+        if (_enabled && (found == null))  {
+            final ICommand command = desc.newCommand();
+            command.setBuilderName(DeployBuilder.BUILDER_ID);
+            commands.add(command);
+        } else if (!_enabled && (found != null))  {
+            commands.remove(found);
+        }
+        if (_enabled == (found == null))  {
+            desc.setBuildSpec(commands.toArray(new ICommand[commands.size()]));
+            _project.setDescription(desc, new NullProgressMonitor());
+        }
+    }
+
+    /**
+     * Background job which deploys all collected files of a project within
+     * one update. Each time new files are added, the job is scheduled again
+     * with the {@link DeployBuilder#DEPLOY_DELAY delay}, so that saves in
+     * quick succession are deployed together. The job uses the
+     * {@link ProjectSchedulingRule} so that it does not run in parallel to
+     * other MX operations of the project.
+     */
+    private static final class DeployJob
+        extends Job
+    {
+        /**
+         * Project of the deployed files.
+         */
+        private final IProject project;
+
+        /**
+         * Collected files which must be deployed.
+         */
+        private final Set<IFile> pending = new LinkedHashSet<IFile>();
+
+        /**
+         * Initializes the deploy job.
+         *
+         * @param _project  project of the deployed files
+         */
+        private DeployJob(final IProject _project)
+        {
+            super(Messages.getString("DeployBuilder.DeployJob", _project.getName())); //$NON-NLS-1$
+            this.project = _project;
+            this.setRule(new ProjectSchedulingRule(_project));
+        }
+
+        /**
+         * Adds given <code>_files</code> to the {@link #pending pending
+         * files} and schedules the job with the
+         * {@link DeployBuilder#DEPLOY_DELAY delay}.
+         *
+         * @param _files    files to deploy
+         */
+        private void add(final List<IFile> _files)
+        {
+            synchronized (this.pending)  {
+                this.pending.addAll(_files);
+            }
+            // a waiting job is not rescheduled, so the delay must be
+            // restarted by cancel (a running deploy is not canceled)
+            if (this.getState() != Job.RUNNING)  {
+                this.cancel();
+            }
+            this.schedule(DeployBuilder.DEPLOY_DELAY);
+        }
+
+        /**
+         * {@inheritDoc}
+         * All {@link #pending} files are updated with the deployment adapter
+         * (only files changed since their last deploy are sent). For failed
+         * files a problem marker is created; the markers of successfully
+         * updated files are removed.
+         */
+        @Override()
+        protected IStatus run(final IProgressMonitor _monitor)
+        {
+            final List<IFile> files = new ArrayList<IFile>();
+            synchronized (this.pending)  {
+                for (final IFile file : this.pending)  {
+                    if (file.exists())  {
+                        files.add(file);
+                    }
+                }
+                this.pending.clear();
+            }
+
+            if (!files.isEmpty() && !_monitor.isCanceled())  {
+                try  {
+                    final IDeploymentAdapter adapter = Activator.getDefault().getAdapter(this.project);
+                    final IUpdateResult result = adapter.update(files, false, true, _monitor);
+                    for (final IFile file : result.getUpdatedFiles())  {
+                        file.deleteMarkers(DeployBuilder.MARKER_ID, false, IResource.DEPTH_ZERO);
+                    }
+                    for (final Map.Entry<IFile,String> entry : result.getFailedFiles().entrySet())  {
+                        this.mark(entry.getKey(), entry.getValue());
+                    }
+                } catch (final Exception e)  {
+                    Activator.getDefault().getConsole().logError(
+                            Messages.getString("DeployBuilder.DeployFailed", this.project.getName()), e); //$NON-NLS-1$
+                    for (final IFile file : files)  {
+                        this.mark(file, e.getMessage());
+                    }
+                }
+            }
+            return Status.OK_STATUS;
+        }
+
+        /**
+         * Replaces the deploy problem markers of given <code>_file</code> by
+         * a new marker with given <code>_message</code>.
+         *
+         * @param _file     failed file
+         * @param _message  error message
+         */
+        private void mark(final IFile _file,
+                          final String _message)
+        {
+            try  {
+                _file.deleteMarkers(DeployBuilder.MARKER_ID, false, IResource.DEPTH_ZERO);
+                final IMarker marker = _file.createMarker(DeployBuilder.MARKER_ID);
+                marker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
+                marker.setAttribute(IMarker.MESSAGE, (_message != null) ? _message : ""); //$NON-NLS-1$
+            } catch (final CoreException e)  {
+                Activator.getDefault().getConsole().logError(
+                        Messages.getString("DeployBuilder.MarkerFailed", _file.getName()), e); //$NON-NLS-1$
+            }
+        }
+    }
+}
@@ -64,6 +64,19 @@ public class Console
 
     private final static int LOG_TRACE_LENGTH = LOG_TRACE_TEXT.length();
 
+    /**
+     * Low water mark of the console document in characters. If the
+     * {@link #HIGH_WATER_MARK high water mark} is reached, the oldest output is
+     * removed until the document has this size.
+     */
+    private static final int LOW_WATER_MARK = 800000;
+
+    /**
+     * High water mark of the console document in characters, so that the
+     * memory used by the console is bounded independent of the log size.
+     */
+    private static final int HIGH_WATER_MARK = 1000000;
+
     /**
      * Map of all console streams depending on the log level (and the different
      * colors for each console).
@@ -80,6 +93,7 @@ public class Console
     public Console()
     {
         super(Messages.getString("plugin.console.label"), null); //$NON-NLS-1$
+        this.setWaterMarks(Console.LOW_WATER_MARK, Console.HIGH_WATER_MARK);
         for (final ConsolePreference pref : ConsolePreference.values())  {
             final MessageConsoleStream stream = this.newMessageStream();
             stream.setActivateOnWrite(true);
@@ -89,22 +103,58 @@ public class Console
         ConsolePreference.addListener(this);
     }
 
+    /**
+     * Appends the log returned from the MX server to the console. The log is
+     * parsed line by line (without splitting the complete log at once) and
+     * each line is printed with the log level defined by the line prefix.
+     * The console is shown only once for the complete log, so that the log
+     * of each update chunk could be streamed into the console as soon as it
+     * arrives.
+     *
+     * @param _log      log to append (could be <code>null</code>)
+     */
     public void appendLog(final String _log)
     {
-        if (_log != null)  {
-            for (final String line : _log.split("\n"))  {
-                if (line.startsWith(Console.LOG_DEBUG_TEXT))  {
-                    this.println(ConsolePreference.DEBUG, line.substring(Console.LOG_DEBUG_LENGTH), null);
-                } else if (line.startsWith(Console.LOG_ERROR_TEXT))  {
-                    this.println(ConsolePreference.ERROR, line.substring(Console.LOG_ERROR_LENGTH), null);
-                } else if (line.startsWith(Console.LOG_INFO_TEXT))  {
-                    this.println(ConsolePreference.INFO, line.substring(Console.LOG_INFO_LENGTH), null);
-                } else if (line.startsWith(Console.LOG_TRACE_TEXT))  {
-                    this.println(ConsolePreference.TRACE, line.substring(Console.LOG_TRACE_LENGTH), null);
-                } else if (line.startsWith(Console.LOG_WARNING_TEXT))  {
-                    this.println(ConsolePreference.WARN, line.substring(Console.LOG_WARNING_LENGTH), null);
+        if ((_log != null) && (_log.length() > 0))  {
+            ConsolePlugin.getDefault().getConsoleManager().showConsoleView(this);
+            final int length = _log.length();
+            int start = 0;
+            while (start < length)  {
+                int end = _log.indexOf('\n', start);
+                if (end < 0)  {
+                    end = length;
                 }
+                this.appendLogLine(_log, start, end);
+                start = end + 1;
             }
+            this.flush();
+        }
+    }
+
+    /**
+     * Prints one line of the log returned from the MX server depending on the
+     * log level prefix of the line. Lines without log level prefix are
+     * ignored.
+     *
+     * @param _log      complete log
+     * @param _start    start index of the line within <code>_log</code>
+     * @param _end      end index of the line within <code>_log</code>
+     *                  (exclusive)
+     */
+    private void appendLogLine(final String _log,
+                               final int _start,
+                               final int _end)
+    {
+        if (_log.startsWith(Console.LOG_DEBUG_TEXT, _start))  {
+            this.printLine(ConsolePreference.DEBUG, _log.substring(_start + Console.LOG_DEBUG_LENGTH, _end));
+        } else if (_log.startsWith(Console.LOG_ERROR_TEXT, _start))  {
+            this.printLine(ConsolePreference.ERROR, _log.substring(_start + Console.LOG_ERROR_LENGTH, _end));
+        } else if (_log.startsWith(Console.LOG_INFO_TEXT, _start))  {
+            this.printLine(ConsolePreference.INFO, _log.substring(_start + Console.LOG_INFO_LENGTH, _end));
+        } else if (_log.startsWith(Console.LOG_TRACE_TEXT, _start))  {
+            this.printLine(ConsolePreference.TRACE, _log.substring(_start + Console.LOG_TRACE_LENGTH, _end));
+        } else if (_log.startsWith(Console.LOG_WARNING_TEXT, _start))  {
+            this.printLine(ConsolePreference.WARN, _log.substring(_start + Console.LOG_WARNING_LENGTH, _end));
         }
     }
 
@@ -180,7 +230,6 @@ public class Console
                          final Throwable _e)
     {
         ConsolePlugin.getDefault().getConsoleManager().showConsoleView(this);
-        final MessageConsoleStream stream = this.streams.get(_logLevel);
         final StringBuilder text = new StringBuilder().append(_text);
 
         if (_e != null)  {
@@ -190,15 +239,38 @@ public class Console
                 .append(sw.toString());
         }
         for (final String line : text.toString().split("\n"))  {
-            stream.print(_logLevel.getConsoleText());
-            stream.print(" ");
-            stream.println(line);
+            this.printLine(_logLevel, line);
         }
-        try {
-            stream.flush();
-        } catch (final IOException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace(System.out);
+        this.flush();
+    }
+
+    /**
+     * Prints one line with the log level prefix into the related stream.
+     *
+     * @param _logLevel   log level (used to add to the output)
+     * @param _line       line to print
+     */
+    private void printLine(final ConsolePreference _logLevel,
+                           final String _line)
+    {
+        this.streams.get(_logLevel).println(new StringBuilder()
+                .append(_logLevel.getConsoleText())
+                .append(' ')
+                .append(_line)
+                .toString());
+    }
+
+    /**
+     * Flushes all {@link #streams}.
+     */
+    private void flush()
+    {
+        for (final MessageConsoleStream stream : this.streams.values())  {
+            try {
+                stream.flush();
+            } catch (final IOException e) {
+                e.printStackTrace(System.out);
+            }
         }
     }
 
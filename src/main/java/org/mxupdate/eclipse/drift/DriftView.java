@@ -0,0 +1,146 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.drift;
+
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Listener;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
+import org.eclipse.ui.PartInitException;
+import org.eclipse.ui.ide.IDE;
+import org.eclipse.ui.part.ViewPart;
+import org.mxupdate.eclipse.Activator;
+import org.mxupdate.eclipse.Messages;
+import org.mxupdate.eclipse.adapter.IDriftItem;
+
+/**
+ * View showing the result of the last drift scan of a project. For each
+ * drifted configuration item the kind of the drift (different, missing in
+ * the data base or extra in the data base), the type definition, the name
+ * and the file name are shown. A double click on an item with a local file
+ * opens the file.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see org.mxupdate.eclipse.handlers.DriftHandler
+ */
+public class DriftView
+    extends ViewPart
+{
+    /**
+     * Identifier of the view.
+     */
+    public static final String VIEW_ID = "org.mxupdate.eclipse.drift.DriftView"; //$NON-NLS-1$
+
+    /**
+     * Table with the drifted items.
+     */
+    private Table table;
+
+    /**
+     * Creates the {@link #table} with the drifted items.
+     *
+     * @param _parent   parent composite element where the new GUI elements
+     *                  must be added
+     */
+    @Override()
+    public void createPartControl(final Composite _parent)
+    {
+        this.table = new Table(_parent, SWT.FULL_SELECTION | SWT.BORDER | SWT.V_SCROLL | SWT.H_SCROLL);
+        this.table.setHeaderVisible(true);
+        this.table.setLinesVisible(true);
+        for (final String column : new String[]{"DriftView.ColumnKind", //$NON-NLS-1$
+                                                "DriftView.ColumnTypeDef", //$NON-NLS-1$
+                                                "DriftView.ColumnName", //$NON-NLS-1$
+                                                "DriftView.ColumnFileName"})  { //$NON-NLS-1$
+            final TableColumn tableColumn = new TableColumn(this.table, SWT.NONE);
+            tableColumn.setText(Messages.getString(column));
+            tableColumn.setWidth(150);
+        }
+        this.table.addListener(SWT.DefaultSelection, new Listener()  {
+            public void handleEvent(final Event _event)
+            {
+                DriftView.this.openFile((TableItem) _event.item);
+            }
+        });
+    }
+
+    /**
+     * Shows the drifted <code>_items</code> of the <code>_project</code>.
+     *
+     * @param _project  project of the drift scan
+     * @param _items    drifted items
+     */
+    public void setDrift(final IProject _project,
+                         final List<IDriftItem> _items)
+    {
+        this.setContentDescription(Messages.getString("DriftView.Description", //$NON-NLS-1$
+                                                      _project.getName(),
+                                                      _items.size()));
+        this.table.setRedraw(false);
+        this.table.removeAll();
+        for (final IDriftItem driftItem : _items)  {
+            final TableItem item = new TableItem(this.table, SWT.NONE);
+            item.setData(driftItem);
+            item.setText(new String[]{
+                    Messages.getString("DriftView.Kind" + driftItem.getKind().name()), //$NON-NLS-1$
+                    driftItem.getTypeDef(),
+                    driftItem.getName(),
+                    (driftItem.getFileName() != null) ? driftItem.getFileName() : ""}); //$NON-NLS-1$
+        }
+        this.table.setRedraw(true);
+    }
+
+    /**
+     * Opens the local file of the drifted item of given table
+     * <code>_item</code> (if the item has a local file).
+     *
+     * @param _item     selected table item
+     */
+    protected void openFile(final TableItem _item)
+    {
+        final IFile file = (_item != null) ? ((IDriftItem) _item.getData()).getFile() : null;
+        if (file != null)  {
+            try  {
+                IDE.openEditor(this.getSite().getPage(), file);
+            } catch (final PartInitException e)  {
+                Activator.getDefault().getConsole().logError(
+                        Messages.getString("DriftView.OpenFileFailed", file.getName()), e); //$NON-NLS-1$
+            }
+        }
+    }
+
+    /**
+     * Sets the focus to the table.
+     */
+    @Override()
+    public void setFocus()
+    {
+        this.table.setFocus();
+    }
+}
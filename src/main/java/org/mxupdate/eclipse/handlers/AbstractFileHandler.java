@@ -29,16 +29,20 @@ import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.jface.viewers.ISelection;
-import org.eclipse.jface.viewers.TreeSelection;
+import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IFileEditorInput;
+import org.eclipse.ui.IWorkingSet;
 import org.eclipse.ui.handlers.HandlerUtil;
 
 /**
- * The abstract class handles selection of files (or selected file of editor)
- * and calls method {@link #execute(List)}.
+ * The abstract class handles selection of files, folders, projects and
+ * working sets (or selected file of editor) and calls method
+ * {@link #executeResources(Map)}.
  *
  * @author The MxUpdate Team
  * @version $Id$
@@ -47,9 +51,11 @@ public abstract class AbstractFileHandler
         extends AbstractHandler
 {
     /**
-     * Depending where the handler is called, the list of files is prepared.
-     * For pop-up commands, the selected files are used. If the current
-     * selection is within an editor, current file of opened editor is used.
+     * Depending where the handler is called, the list of resources is
+     * prepared. For pop-up commands, the selected files, folders and projects
+     * are used; for selected working sets the resources of the working sets
+     * are used. If the current selection is within an editor (or no resource
+     * is selected), current file of opened editor is used.
      *
      * @param _event    execution event
      * @return always <code>null</code>
@@ -58,37 +64,90 @@ public abstract class AbstractFileHandler
     {
         final ISelection selection = HandlerUtil.getCurrentSelection(_event);
 
-        final Map<IProject,List<IFile>> files = new HashMap<IProject,List<IFile>>();
+        final Map<IProject,List<IResource>> resources = new HashMap<IProject,List<IResource>>();
 
         // selection from the navigator? (popup)
-        if (selection instanceof TreeSelection)  {
-            final TreeSelection treeSel = (TreeSelection) selection;
-            for (final Object obj : treeSel.toList())  {
-                final IFile file = (IFile) obj;
-                if (!files.containsKey(file.getProject()))  {
-                    files.put(file.getProject(), new ArrayList<IFile>());
+        if (selection instanceof IStructuredSelection)  {
+            for (final Object obj : ((IStructuredSelection) selection).toList())  {
+                if (obj instanceof IWorkingSet)  {
+                    for (final IAdaptable element : ((IWorkingSet) obj).getElements())  {
+                        AbstractFileHandler.addResource(resources, element);
+                    }
+                } else  {
+                    AbstractFileHandler.addResource(resources, obj);
                 }
-                files.get(file.getProject()).add(file);
             }
+        }
         // started within editor or as toolbar command
-        } else  {
+        if (resources.isEmpty())  {
             final IEditorPart activeEditor = HandlerUtil.getActiveEditor(_event);
             if (activeEditor != null)  {
                 final IEditorInput input = activeEditor.getEditorInput();
                 if (input instanceof IFileEditorInput)  {
-                    final IFile file = ((IFileEditorInput) input).getFile();
-                    final ArrayList<IFile> tmpFiles = new ArrayList<IFile>();
-                    tmpFiles.add(file);
-                    files.put(file.getProject(), tmpFiles);
+                    AbstractFileHandler.addResource(resources, ((IFileEditorInput) input).getFile());
                 }
             }
         }
 
-        this.execute(files);
+        this.executeResources(resources);
 
         return null;
     }
 
+    /**
+     * Adds the resource of given selected object <code>_obj</code> to the
+     * <code>_resources</code> of the related project. The object must be a
+     * resource or adaptable to a resource; otherwise (and for the workspace
+     * root) the object is ignored.
+     *
+     * @param _resources    map of resources depending on the project
+     * @param _obj          selected object
+     */
+    private static void addResource(final Map<IProject,List<IResource>> _resources,
+                                    final Object _obj)
+    {
+        final IResource resource;
+        if (_obj instanceof IResource)  {
+            resource = (IResource) _obj;
+        } else if (_obj instanceof IAdaptable)  {
+            resource = (IResource) ((IAdaptable) _obj).getAdapter(IResource.class);
+        } else  {
+            resource = null;
+        }
+        if ((resource != null) && (resource.getType() != IResource.ROOT))  {
+            if (!_resources.containsKey(resource.getProject()))  {
+                _resources.put(resource.getProject(), new ArrayList<IResource>());
+            }
+            _resources.get(resource.getProject()).add(resource);
+        }
+    }
+
+    /**
+     * A list of resources is selected, a command is called and for this
+     * command the handler must be executed. As default only the selected
+     * files are used and {@link #execute(Map)} is called; handlers supporting
+     * folders and projects must overwrite this method.
+     *
+     * @param _resources    set of resources depending on the related project
+     *                      for which this handler is called
+     */
+    protected void executeResources(final Map<IProject,List<IResource>> _resources)
+    {
+        final Map<IProject,List<IFile>> files = new HashMap<IProject,List<IFile>>();
+        for (final Map.Entry<IProject,List<IResource>> entry : _resources.entrySet())  {
+            final List<IFile> tmpFiles = new ArrayList<IFile>();
+            for (final IResource resource : entry.getValue())  {
+                if (resource.getType() == IResource.FILE)  {
+                    tmpFiles.add((IFile) resource);
+                }
+            }
+            if (!tmpFiles.isEmpty())  {
+                files.put(entry.getKey(), tmpFiles);
+            }
+        }
+        this.execute(files);
+    }
+
     /**
      * A list of files is selected, a command is called and for this command
      * the handler must be executed.
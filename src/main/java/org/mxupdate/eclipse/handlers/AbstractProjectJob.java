@@ -0,0 +1,144 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.handlers;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.dialogs.ErrorDialog;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.mxupdate.eclipse.Activator;
+import org.mxupdate.eclipse.Messages;
+import org.mxupdate.eclipse.adapter.IDeploymentAdapter;
+
+/**
+ * Background job for an MX operation of one project started from a command
+ * handler. The job uses the {@link ProjectSchedulingRule} of the project, so
+ * that the operations of one project are serialized and the operations of
+ * different projects run concurrently. If the operation fails, the error is
+ * logged and shown within an error dialog.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ */
+public abstract class AbstractProjectJob
+    extends Job
+{
+    /**
+     * Related project of the MX operation.
+     */
+    private final IProject project;
+
+    /**
+     * Message key of the error dialog title (and the error message with the
+     * suffix <code>.Message</code>) used if the operation failed.
+     */
+    private final String errorKey;
+
+    /**
+     * Initializes the job.
+     *
+     * @param _project  project of the MX operation
+     * @param _nameKey  message key of the job name (with the project name as
+     *                  parameter)
+     * @param _errorKey message key prefix of the error dialog
+     */
+    protected AbstractProjectJob(final IProject _project,
+                                 final String _nameKey,
+                                 final String _errorKey)
+    {
+        super(Messages.getString(_nameKey, _project.getName()));
+        this.project = _project;
+        this.errorKey = _errorKey;
+        this.setRule(new ProjectSchedulingRule(_project));
+        this.setUser(true);
+    }
+
+    /**
+     * Returns the project of the MX operation.
+     *
+     * @return project
+     * @see #project
+     */
+    protected IProject getProject()
+    {
+        return this.project;
+    }
+
+    /**
+     * Returns the deployment adapter of the {@link #project}.
+     *
+     * @return deployment adapter
+     * @throws Exception if the adapter could not be initialized
+     */
+    protected IDeploymentAdapter getAdapter()
+        throws Exception
+    {
+        return Activator.getDefault().getAdapter(this.project);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Executes the MX operation. If the operation failed, the error is
+     * logged into the console and an error dialog is opened.
+     *
+     * @see #execute(IProgressMonitor)
+     */
+    @Override()
+    protected IStatus run(final IProgressMonitor _monitor)
+    {
+        IStatus ret = Status.OK_STATUS;
+        try  {
+            this.execute(_monitor);
+            if (_monitor.isCanceled())  {
+                ret = Status.CANCEL_STATUS;
+            }
+        } catch (final Throwable ex)  {
+            final String msg = Messages.getString(this.errorKey + ".Message", this.project.getName()); //$NON-NLS-1$
+            Activator.getDefault().getConsole().logError(msg, ex);
+            Display.getDefault().asyncExec(new Runnable()  {
+                public void run()
+                {
+                    ErrorDialog.openError(
+                            (Shell) null,
+                            Messages.getString(AbstractProjectJob.this.errorKey + ".Title"), //$NON-NLS-1$
+                            msg,
+                            new Status(IStatus.ERROR, Activator.PLUGIN_ID, 0, ex.getMessage(), ex));
+                }
+            });
+        } finally  {
+            _monitor.done();
+        }
+        return ret;
+    }
+
+    /**
+     * Executes the MX operation of the job.
+     *
+     * @param _monitor  progress monitor
+     * @throws Exception if the MX operation failed
+     */
+    protected abstract void execute(final IProgressMonitor _monitor)
+        throws Exception;
+}
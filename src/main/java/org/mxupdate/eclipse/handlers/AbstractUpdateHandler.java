@@ -0,0 +1,283 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.handlers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubProgressMonitor;
+import org.mxupdate.eclipse.Activator;
+import org.mxupdate.eclipse.adapter.IDeploymentAdapter;
+import org.mxupdate.eclipse.properties.ProjectProperties;
+
+/**
+ * Abstract handler for the update commands. Selected files are updated
+ * directly; selected folders and projects are traversed with a
+ * {@link IResourceProxyVisitor resource proxy visitor} and only the
+ * configuration item files (depending on the prefix and suffix configuration
+ * of the {@link IDeploymentAdapter#isUpdateFile(String) deployment adapter})
+ * are updated. If an {@link ProjectProperties#getUpdateChunkSize() update
+ * chunk size} is defined for the project, each time this number of files is
+ * found, they are updated, so that the update starts while the traversal is
+ * still running. Otherwise all found files are updated within one call of the
+ * deployment adapter.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ */
+public abstract class AbstractUpdateHandler
+        extends AbstractFileHandler
+{
+    /**
+     * Message key of the job name.
+     */
+    private final String jobKey;
+
+    /**
+     * Message key prefix of the error dialog.
+     */
+    private final String errorKey;
+
+    /**
+     * Initializes the update handler.
+     *
+     * @param _jobKey   message key of the job name
+     * @param _errorKey message key prefix of the error dialog
+     */
+    protected AbstractUpdateHandler(final String _jobKey,
+                                    final String _errorKey)
+    {
+        this.jobKey = _jobKey;
+        this.errorKey = _errorKey;
+    }
+
+    /**
+     * Schedules for each project a background {@link UpdateJob job} with the
+     * update of the resources. The updates of different projects run
+     * concurrently. If within a project an update failed, an error message
+     * is shown.
+     *
+     * @param _resources    set of resources for which this handler is called
+     * @see UpdateJob
+     */
+    @Override()
+    protected void executeResources(final Map<IProject,List<IResource>> _resources)
+    {
+        for (final Map.Entry<IProject,List<IResource>> entry : _resources.entrySet())  {
+            new UpdateJob(entry.getKey(), entry.getValue()).schedule();
+        }
+    }
+
+    /**
+     * The files are updated as resources.
+     *
+     * @param _files    set of files for which this handler is called
+     * @see #executeResources(Map)
+     */
+    @Override()
+    protected void execute(final Map<IProject,List<IFile>> _files)
+    {
+        final Map<IProject,List<IResource>> resources = new HashMap<IProject,List<IResource>>();
+        for (final Map.Entry<IProject,List<IFile>> entry : _files.entrySet())  {
+            resources.put(entry.getKey(), new ArrayList<IResource>(entry.getValue()));
+        }
+        this.executeResources(resources);
+    }
+
+    /**
+     * Updates one batch of files with the deployment adapter.
+     *
+     * @param _adapter  deployment adapter of the project
+     * @param _files    files to update
+     * @param _monitor  progress monitor of the batch
+     * @throws Exception if the update failed
+     */
+    protected abstract void update(final IDeploymentAdapter _adapter,
+                                   final List<IFile> _files,
+                                   final IProgressMonitor _monitor)
+        throws Exception;
+
+    /**
+     * Removes from given <code>_resources</code> all resources located within
+     * another selected folder or project, so that no file is updated twice.
+     *
+     * @param _resources    selected resources
+     * @return resources without nested resources
+     */
+    private static List<IResource> removeNested(final List<IResource> _resources)
+    {
+        final Set<IPath> containers = new HashSet<IPath>();
+        for (final IResource resource : _resources)  {
+            if (resource instanceof IContainer)  {
+                containers.add(resource.getFullPath());
+            }
+        }
+        final Set<IPath> found = new HashSet<IPath>();
+        final List<IResource> ret = new ArrayList<IResource>();
+        for (final IResource resource : _resources)  {
+            boolean nested = false;
+            for (IContainer parent = resource.getParent(); (parent != null) && !nested; parent = parent.getParent())  {
+                nested = containers.contains(parent.getFullPath());
+            }
+            if (!nested && found.add(resource.getFullPath()))  {
+                ret.add(resource);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Background job updating the selected resources of one project in
+     * batches of the {@link ProjectProperties#getUpdateChunkSize() update
+     * chunk size} of the project.
+     */
+    private class UpdateJob
+        extends AbstractProjectJob
+    {
+        /**
+         * Selected resources of the project.
+         */
+        private final List<IResource> resources;
+
+        /**
+         * Current batch of found files which must be updated.
+         */
+        private final List<IFile> batch = new ArrayList<IFile>();
+
+        /**
+         * Maximum number of files within one {@link #batch}; zero if all
+         * files are updated within one batch.
+         */
+        private final int batchSize;
+
+        /**
+         * Initializes the update job.
+         *
+         * @param _project      project of the resources
+         * @param _resources    selected resources of the project
+         */
+        UpdateJob(final IProject _project,
+                  final List<IResource> _resources)
+        {
+            super(_project, AbstractUpdateHandler.this.jobKey, AbstractUpdateHandler.this.errorKey);
+            this.resources = _resources;
+            this.batchSize = new ProjectProperties(_project).getUpdateChunkSize();
+        }
+
+        /**
+         * {@inheritDoc}
+         * Selected files are added directly to the batch. Selected folders
+         * and projects are traversed with a resource proxy visitor; only
+         * configuration item files are added, derived resources are skipped.
+         */
+        @Override()
+        protected void execute(final IProgressMonitor _monitor)
+            throws Exception
+        {
+            final IDeploymentAdapter adapter = this.getAdapter();
+            _monitor.beginTask(this.getName(), IProgressMonitor.UNKNOWN);
+            for (final IResource resource : AbstractUpdateHandler.removeNested(this.resources))  {
+                if (_monitor.isCanceled())  {
+                    break;
+                }
+                if (resource.getType() == IResource.FILE)  {
+                    this.add(adapter, (IFile) resource, _monitor);
+                } else if (resource.isAccessible())  {
+                    resource.accept(new IResourceProxyVisitor()  {
+                        public boolean visit(final IResourceProxy _proxy)
+                            throws CoreException
+                        {
+                            final boolean ret = !_monitor.isCanceled() && !_proxy.isDerived();
+                            if (ret && (_proxy.getType() == IResource.FILE) && adapter.isUpdateFile(_proxy.getName()))  {
+                                try  {
+                                    UpdateJob.this.add(adapter, (IFile) _proxy.requestResource(), _monitor);
+                                } catch (final CoreException e)  {
+                                    throw e;
+                                } catch (final Exception e)  {
+                                    throw new CoreException(new Status(IStatus.ERROR, Activator.PLUGIN_ID, 0, e.getMessage(), e));
+                                }
+                            }
+                            return ret;
+                        }
+                    }, IResource.NONE);
+                }
+            }
+            this.flush(adapter, _monitor);
+        }
+
+        /**
+         * Adds given <code>_file</code> to the {@link #batch}. If a
+         * {@link #batchSize batch size} is defined and the batch is full, the
+         * batch is updated.
+         *
+         * @param _adapter  deployment adapter
+         * @param _file     file to add
+         * @param _monitor  progress monitor of the job
+         * @throws Exception if the update of the batch failed
+         * @see #flush(IDeploymentAdapter, IProgressMonitor)
+         */
+        private void add(final IDeploymentAdapter _adapter,
+                         final IFile _file,
+                         final IProgressMonitor _monitor)
+            throws Exception
+        {
+            this.batch.add(_file);
+            if ((this.batchSize > 0) && (this.batch.size() >= this.batchSize))  {
+                this.flush(_adapter, _monitor);
+            }
+        }
+
+        /**
+         * Updates all files of the current {@link #batch} and clears the
+         * batch.
+         *
+         * @param _adapter  deployment adapter
+         * @param _monitor  progress monitor of the job
+         * @throws Exception if the update failed
+         */
+        private void flush(final IDeploymentAdapter _adapter,
+                           final IProgressMonitor _monitor)
+            throws Exception
+        {
+            if (!this.batch.isEmpty() && !_monitor.isCanceled())  {
+                AbstractUpdateHandler.this.update(_adapter,
+                                                  new ArrayList<IFile>(this.batch),
+                                                  new SubProgressMonitor(_monitor, 1));
+            }
+            this.batch.clear();
+        }
+    }
+}
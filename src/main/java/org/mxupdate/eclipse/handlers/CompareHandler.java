@@ -21,30 +21,39 @@
 package org.mxupdate.eclipse.handlers;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import org.eclipse.compare.CompareConfiguration;
+import org.eclipse.compare.CompareEditorInput;
 import org.eclipse.compare.CompareUI;
 import org.eclipse.compare.IStreamContentAccessor;
 import org.eclipse.compare.ITypedElement;
+import org.eclipse.compare.rangedifferencer.IRangeComparator;
+import org.eclipse.compare.rangedifferencer.RangeDifference;
+import org.eclipse.compare.rangedifferencer.RangeDifferencer;
 import org.eclipse.compare.structuremergeviewer.DiffNode;
+import org.eclipse.compare.structuremergeviewer.Differencer;
 import org.eclipse.compare.structuremergeviewer.ICompareInput;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
-import org.eclipse.jface.dialogs.ErrorDialog;
 import org.eclipse.swt.graphics.Image;
-import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.team.ui.synchronize.SaveableCompareEditorInput;
 import org.mxupdate.eclipse.Activator;
 import org.mxupdate.eclipse.Messages;
+import org.mxupdate.eclipse.adapter.IDeploymentAdapter;
 import org.mxupdate.eclipse.adapter.IExportItem;
+import org.mxupdate.eclipse.adapter.IFileExportListener;
 
 /**
  * The class is used as handler for commands to compare local update files
@@ -57,32 +66,289 @@ public class CompareHandler
     extends AbstractFileHandler
 {
     /**
-     * Opens for each defined file a compare editor.
+     * Pattern to split a text into lines.
+     *
+     * @see #countChangedLines(String, String)
+     */
+    private static final Pattern PATTERN_LINES = Pattern.compile("\\r\\n|\\r|\\n"); //$NON-NLS-1$
+
+    /**
+     * Size of the buffer to read a local file.
+     *
+     * @see #readFile(IFile)
+     */
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    /**
+     * Opens the compare for the defined files. The connect to the data base
+     * is done within a background job. If only one file of a project is
+     * selected, a compare editor is opened (the export itself is done from
+     * the compare editor with progress). If more files are selected, all
+     * files are exported and compared within the background job and one
+     * {@link SummaryCompareInput summary} of all changed files is opened.
+     * The summary (and its compare configuration) is created within the
+     * display thread.
      *
      * @param _files    files to compare
      * @see CompareEditor
+     * @see #prepareSummary(IDeploymentAdapter, List, IProgressMonitor)
      */
     @Override()
     protected void execute(final Map<IProject,List<IFile>> _files)
     {
         for (final Map.Entry<IProject,List<IFile>> fileEntry : _files.entrySet())  {
             final IProject project = fileEntry.getKey();
-            try  {
-                if (!Activator.getDefault().getAdapter(project).isConnected())  {
-                    Activator.getDefault().getAdapter(project).connect();
+            final List<IFile> files = fileEntry.getValue();
+            new AbstractProjectJob(project, "CompareHandler.Job", "CompareHandler.ExecuteException")  { //$NON-NLS-1$ //$NON-NLS-2$
+                @Override()
+                protected void execute(final IProgressMonitor _monitor)
+                    throws Exception
+                {
+                    if (!this.getAdapter().isConnected())  {
+                        this.getAdapter().connect();
+                    }
+                    if (files.size() > 1)  {
+                        final DiffNode root = CompareHandler.this.prepareSummary(this.getAdapter(), files, _monitor);
+                        if (!_monitor.isCanceled())  {
+                            Display.getDefault().asyncExec(new Runnable()  {
+                                public void run()
+                                {
+                                    CompareUI.openCompareEditor(new SummaryCompareInput(project, root, files.size()));
+                                }
+                            });
+                        }
+                    } else  {
+                        Display.getDefault().asyncExec(new Runnable()  {
+                            public void run()
+                            {
+                                for (final IFile file : files)  {
+                                    CompareUI.openCompareEditor(new CompareEditor(project, file));
+                                }
+                            }
+                        });
+                    }
                 }
-                for (final IFile file : fileEntry.getValue())  {
-                    CompareUI.openCompareEditor(new CompareEditor(project, file));
+            }.schedule();
+        }
+    }
+
+    /**
+     * Exports all <code>_files</code> (within batches, see
+     * {@link IDeploymentAdapter#exportFiles(List, IFileExportListener)}) and
+     * computes for each exported file the changed lines against the local
+     * file. Only files with changed lines are included in the returned
+     * root node of the summary; failed exports are logged.
+     *
+     * @param _adapter  deployment adapter of the project
+     * @param _files    files to compare
+     * @param _monitor  progress monitor
+     * @return root node with one child node for each changed file
+     * @throws Exception if the export failed
+     * @see SummaryCompareInput
+     */
+    protected DiffNode prepareSummary(final IDeploymentAdapter _adapter,
+                                      final List<IFile> _files,
+                                      final IProgressMonitor _monitor)
+        throws Exception
+    {
+        _monitor.beginTask(Messages.getString("CompareHandler.TaskPrefetch", _files.size()), _files.size()); //$NON-NLS-1$
+        final DiffNode root = new DiffNode(Differencer.NO_CHANGE);
+        _adapter.exportFiles(_files, new IFileExportListener()  {
+            public void exported(final IFile _file,
+                                 final IExportItem _item)
+            {
+                try  {
+                    final int changed = CompareHandler.countChangedLines(CompareHandler.readFile(_file),
+                                                                         _item.getContent());
+                    if (changed > 0)  {
+                        final byte[] buf = _item.getContent().getBytes("UTF8"); //$NON-NLS-1$
+                        new DiffNode(root,
+                                     Differencer.CHANGE,
+                                     null,
+                                     SaveableCompareEditorInput.createFileElement(_file),
+                                     new ByteBufferType(buf))  {
+                            @Override()
+                            public String getName()
+                            {
+                                return Messages.getString("CompareHandler.SummaryItem", _file.getName(), changed); //$NON-NLS-1$
+                            }
+                        };
+                    }
+                    _monitor.worked(1);
+                } catch (final Exception e)  {
+                    this.failed(_file, e);
                 }
-            } catch (final Throwable ex) {
-                final String msg = Messages.getString("CompareHandler.ExecuteException.Message", fileEntry.getKey().getName()); //$NON-NLS-1$
-                Activator.getDefault().getConsole().logError(msg, ex);
-                ErrorDialog.openError(
-                        (Shell) null,
-                        Messages.getString("CompareHandler.ExecuteException.Title"), //$NON-NLS-1$
-                        msg,
-                        new Status(IStatus.ERROR, Activator.PLUGIN_ID, 0, ex.getMessage(), ex));
             }
+            public void failed(final IFile _file,
+                               final Exception _ex)
+            {
+                Activator.getDefault().getConsole().logError(
+                        Messages.getString("CompareHandler.ExceptionExportFailed", _file.getName()), _ex); //$NON-NLS-1$
+                _monitor.worked(1);
+            }
+            public boolean isCanceled()
+            {
+                return _monitor.isCanceled();
+            }
+        });
+        return root;
+    }
+
+    /**
+     * Counts the changed lines between the <code>_left</code> and the
+     * <code>_right</code> text. For each difference the maximum of the
+     * changed lines on both sides is counted.
+     *
+     * @param _left     left text
+     * @param _right    right text
+     * @return number of changed lines
+     */
+    protected static int countChangedLines(final String _left,
+                                           final String _right)
+    {
+        final RangeDifference[] diffs = RangeDifferencer.findDifferences(
+                new LineComparator(CompareHandler.PATTERN_LINES.split(_left)),
+                new LineComparator(CompareHandler.PATTERN_LINES.split(_right)));
+        int ret = 0;
+        for (final RangeDifference diff : diffs)  {
+            ret += Math.max(diff.leftLength(), diff.rightLength());
+        }
+        return ret;
+    }
+
+    /**
+     * Reads the content of given local <code>_file</code> with the character
+     * set of the file.
+     *
+     * @param _file     file to read
+     * @return content of the file
+     * @throws CoreException    if the content or the character set could not
+     *                          be fetched
+     * @throws IOException      if the file could not be read
+     */
+    protected static String readFile(final IFile _file)
+        throws CoreException, IOException
+    {
+        final InputStream in = _file.getContents();
+        try  {
+            final Reader reader = new InputStreamReader(in, _file.getCharset());
+            final StringBuilder ret = new StringBuilder();
+            final char[] buffer = new char[CompareHandler.READ_BUFFER_SIZE];
+            int length;
+            while ((length = reader.read(buffer)) >= 0)  {
+                ret.append(buffer, 0, length);
+            }
+            return ret.toString();
+        } finally  {
+            in.close();
+        }
+    }
+
+    /**
+     * Compare input showing the summary of a multi-file compare. All changed
+     * files are shown within the structure compare with the number of
+     * changed lines; the selection of a file opens the content compare of
+     * the file. The summary must be created within the display thread.
+     */
+    class SummaryCompareInput
+        extends CompareEditorInput
+    {
+        /**
+         * Root node with one child node for each changed file.
+         */
+        private final DiffNode root;
+
+        /**
+         * Initializes the summary.
+         *
+         * @param _project  project of the compared files
+         * @param _root     root node of the changed files
+         * @param _count    number of compared files
+         */
+        SummaryCompareInput(final IProject _project,
+                            final DiffNode _root,
+                            final int _count)
+        {
+            super(new CompareConfiguration());
+            this.getCompareConfiguration().setLeftLabel(Messages.getString("CompareHandler.LocaleFile")); //$NON-NLS-1$
+            this.getCompareConfiguration().setRightLabel(Messages.getString("CompareHandler.DataBase")); //$NON-NLS-1$
+            this.setTitle(Messages.getString("CompareHandler.SummaryTitle", //$NON-NLS-1$
+                                             _project.getName(),
+                                             _root.getChildren().length,
+                                             _count));
+            this.root = _root;
+        }
+
+        /**
+         * The summary is already prepared within the background job.
+         *
+         * @param _monitor  progress monitor (not used)
+         * @return root node of the changed files; <code>null</code> if no
+         *         file is changed
+         */
+        @Override()
+        protected Object prepareInput(final IProgressMonitor _monitor)
+        {
+            return this.root.hasChildren() ? this.root : null;
+        }
+    }
+
+    /**
+     * Range comparator for the lines of a text used to compute the line
+     * differences.
+     *
+     * @see CompareHandler#countChangedLines(String, String)
+     */
+    static class LineComparator
+        implements IRangeComparator
+    {
+        /**
+         * Lines of the text.
+         */
+        private final String[] lines;
+
+        /**
+         * Initializes the comparator.
+         *
+         * @param _lines    lines of the text
+         */
+        LineComparator(final String[] _lines)
+        {
+            this.lines = _lines;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @return number of {@link #lines}
+         */
+        public int getRangeCount()
+        {
+            return this.lines.length;
+        }
+
+        /**
+         * {@inheritDoc}
+         * The lines are equal if the text of the lines is equal.
+         */
+        public boolean rangesEqual(final int _thisIndex,
+                                   final IRangeComparator _other,
+                                   final int _otherIndex)
+        {
+            return this.lines[_thisIndex].equals(((LineComparator) _other).lines[_otherIndex]);
+        }
+
+        /**
+         * {@inheritDoc}
+         * All lines are always compared.
+         *
+         * @return always <i>false</i>
+         */
+        public boolean skipRangeComparison(final int _length,
+                                           final int _maxLength,
+                                           final IRangeComparator _other)
+        {
+            return false;
         }
     }
 
@@ -24,6 +24,7 @@ import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.dialogs.ErrorDialog;
@@ -43,7 +44,7 @@ public class ConnectHandler
     extends AbstractHandler
 {
     /**
-     * Calls the connect to data base method.
+     * Calls the connect to data base method within a background job.
      *
      * @param _event  execution event
      * @return always <code>null</code>
@@ -61,17 +62,14 @@ public class ConnectHandler
         } else  {
             final IAdaptable adaptable = (IAdaptable) treeSel.getFirstElement();
             final IProject project = (IProject) adaptable.getAdapter(IProject.class);
-            try {
-                Activator.getDefault().getAdapter(project).connect();
-            } catch (final Exception ex) {
-                final String msg = Messages.getString("ConnectHandler.ConnectFailed.Message", project.getName()); //$NON-NLS-1$
-                Activator.getDefault().getConsole().logError(msg, ex); //$NON-NLS-1$
-                ErrorDialog.openError(
-                        (Shell) null,
-                        Messages.getString("ConnectHandler.ConnectFailed.Title"), //$NON-NLS-1$
-                        msg,
-                        new Status(IStatus.ERROR, Activator.PLUGIN_ID, 0, ex.getMessage(), ex));
-            }
+            new AbstractProjectJob(project, "ConnectHandler.Job", "ConnectHandler.ConnectFailed")  { //$NON-NLS-1$ //$NON-NLS-2$
+                @Override()
+                protected void execute(final IProgressMonitor _monitor)
+                    throws Exception
+                {
+                    this.getAdapter().connect();
+                }
+            }.schedule();
         }
         return null;
     }
@@ -24,6 +24,7 @@ import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.dialogs.ErrorDialog;
@@ -44,7 +45,7 @@ public class DisconnectHandler
     extends AbstractHandler
 {
     /**
-     * Calls the disconnect method.
+     * Calls the disconnect method within a background job.
      *
      * @param _event  execution event
      * @return always <code>null</code>
@@ -62,17 +63,14 @@ public class DisconnectHandler
         } else  {
             final IAdaptable adaptable = (IAdaptable) treeSel.getFirstElement();
             final IProject project = (IProject) adaptable.getAdapter(IProject.class);
-            try {
-                Activator.getDefault().getAdapter(project).disconnect();
-            } catch (final Exception ex) {
-                final String msg = Messages.getString("DisconnectHandler.DisconnectFailed.Message", project.getName()); //$NON-NLS-1$
-                Activator.getDefault().getConsole().logError(msg, ex); //$NON-NLS-1$
-                ErrorDialog.openError(
-                        (Shell) null,
-                        Messages.getString("DisconnectHandler.DisconnectFailed.Title"), //$NON-NLS-1$
-                        msg,
-                        new Status(IStatus.ERROR, Activator.PLUGIN_ID, 0, ex.getMessage(), ex));
-            }
+            new AbstractProjectJob(project, "DisconnectHandler.Job", "DisconnectHandler.DisconnectFailed")  { //$NON-NLS-1$ //$NON-NLS-2$
+                @Override()
+                protected void execute(final IProgressMonitor _monitor)
+                    throws Exception
+                {
+                    this.getAdapter().disconnect();
+                }
+            }.schedule();
         }
         return null;
     }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.handlers;
+
+import java.util.List;
+
+import org.eclipse.core.commands.AbstractHandler;
+import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.dialogs.ErrorDialog;
+import org.eclipse.jface.viewers.TreeSelection;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.ui.PartInitException;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.handlers.HandlerUtil;
+import org.mxupdate.eclipse.Activator;
+import org.mxupdate.eclipse.Messages;
+import org.mxupdate.eclipse.adapter.IDriftItem;
+import org.mxupdate.eclipse.drift.DriftView;
+
+/**
+ * Eclipse Handler called from the drift scan command used to find all
+ * configuration items of the selected project which differ between the local
+ * files and the MX data base. The result is shown within the
+ * {@link DriftView drift view}.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ */
+public class DriftHandler
+    extends AbstractHandler
+{
+    /**
+     * Calls the drift scan within a background job and shows the result in
+     * the drift view.
+     *
+     * @param _event  execution event
+     * @return always <code>null</code>
+     * @see org.mxupdate.eclipse.adapter.IDeploymentAdapter#scanDrift(IProgressMonitor)
+     */
+    public Object execute(final ExecutionEvent _event)
+    {
+        final TreeSelection treeSel = (TreeSelection) HandlerUtil.getCurrentSelection(_event);
+        if (treeSel.size() != 1)  {
+            ErrorDialog.openError(
+                    (Shell) null,
+                    Messages.getString("DriftHandler.NotOrMoreThanOneProjectSelected.Title"), //$NON-NLS-1$
+                    Messages.getString("DriftHandler.NotOrMoreThanOneProjectSelected.Message"), //$NON-NLS-1$
+                    new Status(IStatus.ERROR, Activator.PLUGIN_ID, 0, null, null));
+        } else  {
+            final IAdaptable adaptable = (IAdaptable) treeSel.getFirstElement();
+            final IProject project = (IProject) adaptable.getAdapter(IProject.class);
+            new AbstractProjectJob(project, "DriftHandler.Job", "DriftHandler.ExecuteException")  { //$NON-NLS-1$ //$NON-NLS-2$
+                @Override()
+                protected void execute(final IProgressMonitor _monitor)
+                    throws Exception
+                {
+                    final List<IDriftItem> items = this.getAdapter().scanDrift(_monitor);
+                    if (!_monitor.isCanceled())  {
+                        Display.getDefault().asyncExec(new Runnable()  {
+                            public void run()
+                            {
+                                try  {
+                                    final DriftView view = (DriftView) PlatformUI.getWorkbench()
+                                            .getActiveWorkbenchWindow().getActivePage().showView(DriftView.VIEW_ID);
+                                    view.setDrift(project, items);
+                                } catch (final PartInitException e)  {
+                                    Activator.getDefault().getConsole().logError(
+                                            Messages.getString("DriftHandler.ShowViewFailed"), e); //$NON-NLS-1$
+                                }
+                            }
+                        });
+                    }
+                }
+            }.schedule();
+        }
+        return null;
+    }
+}
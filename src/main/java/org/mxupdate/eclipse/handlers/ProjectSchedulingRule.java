@@ -0,0 +1,104 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.handlers;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.MultiRule;
+
+/**
+ * Scheduling rule for the MX operations of one project. Jobs with the rule of
+ * the same project are executed one after the other; jobs of different
+ * projects could run concurrently.
+ *
+ * <p>The rule contains all resource rules of the resources within the
+ * project, so that the jobs could do workspace operations on the project
+ * (e.g. refresh and store the project properties, touch the project);
+ * otherwise such an operation fails because its resource rule does not
+ * match the rule of the job. The rule does not conflict with the resource
+ * rules, so that the files of the project could be changed while an MX
+ * operation is running. The resource rules of other projects are neither
+ * contained nor conflicting.</p>
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ */
+public class ProjectSchedulingRule
+    implements ISchedulingRule
+{
+    /**
+     * Related project.
+     */
+    private final IProject project;
+
+    /**
+     * Name of the related project.
+     */
+    private final String projectName;
+
+    /**
+     * Initializes the scheduling rule for given <code>_project</code>.
+     *
+     * @param _project  project of the MX operations
+     */
+    public ProjectSchedulingRule(final IProject _project)
+    {
+        this.project = _project;
+        this.projectName = _project.getName();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The rule contains all rules of the same project and the resource rules
+     * of all resources within the project. A multi rule is contained if all
+     * child rules are contained.
+     *
+     * @see #isConflicting(ISchedulingRule)
+     */
+    public boolean contains(final ISchedulingRule _rule)
+    {
+        boolean ret;
+        if (_rule instanceof MultiRule)  {
+            ret = true;
+            for (final ISchedulingRule child : ((MultiRule) _rule).getChildren())  {
+                if (!this.contains(child))  {
+                    ret = false;
+                    break;
+                }
+            }
+        } else  {
+            ret = this.isConflicting(_rule)
+                    || ((_rule instanceof IResource) && this.project.contains((IResource) _rule));
+        }
+        return ret;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The rule conflicts with all rules of the same project.
+     */
+    public boolean isConflicting(final ISchedulingRule _rule)
+    {
+        return (_rule instanceof ProjectSchedulingRule)
+                && this.projectName.equals(((ProjectSchedulingRule) _rule).projectName);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.handlers;
+
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.mxupdate.eclipse.adapter.IDeploymentAdapter;
+
+/**
+ * Eclipse Handler called from the update changed command used to update
+ * selected update files (or the update files within selected folders,
+ * projects and working sets) changed since their last successful deploy.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ */
+public class UpdateChangedHandler
+        extends AbstractUpdateHandler
+{
+    /**
+     * Initializes the handler with the message keys of the job.
+     */
+    public UpdateChangedHandler()
+    {
+        super("UpdateChangedHandler.Job", "UpdateChangedHandler.ExecuteException"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    protected void update(final IDeploymentAdapter _adapter,
+                          final List<IFile> _files,
+                          final IProgressMonitor _monitor)
+        throws Exception
+    {
+        _adapter.update(_files, false, true, _monitor);
+    }
+}
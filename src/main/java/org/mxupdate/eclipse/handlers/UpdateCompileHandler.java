@@ -21,50 +21,39 @@
 package org.mxupdate.eclipse.handlers;
 
 import java.util.List;
-import java.util.Map;
 
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IProject;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
-import org.eclipse.jface.dialogs.ErrorDialog;
-import org.eclipse.swt.widgets.Shell;
-import org.mxupdate.eclipse.Activator;
-import org.mxupdate.eclipse.Messages;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.mxupdate.eclipse.adapter.IDeploymentAdapter;
 
 /**
  * Eclipse Handler called from the update and compile command used to update
- * and compile selected update files.
+ * and compile selected update files (or the update files within selected
+ * folders, projects and working sets).
  *
  * @author The MxUpdate Team
  * @version $Id$
  */
 public class UpdateCompileHandler
-        extends AbstractFileHandler
+        extends AbstractUpdateHandler
 {
     /**
-     * Executes the update with compile depending step by step for each
-     * project. If within a project an update failed, an error message is
-     * shown.
-     *
-     * @param _files    set of files for which this handler is called
-     * @see Activator#update(String)
+     * Initializes the handler with the message keys of the job.
+     */
+    public UpdateCompileHandler()
+    {
+        super("UpdateCompileHandler.Job", "UpdateCompileHandler.ExecuteException"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * {@inheritDoc}
      */
     @Override()
-    protected void execute(final Map<IProject,List<IFile>> _files)
+    protected void update(final IDeploymentAdapter _adapter,
+                          final List<IFile> _files,
+                          final IProgressMonitor _monitor)
+        throws Exception
     {
-        for (final Map.Entry<IProject,List<IFile>> fileEntry : _files.entrySet())  {
-            try  {
-                Activator.getDefault().getAdapter(fileEntry.getKey()).update(fileEntry.getValue(), true);
-            } catch (final Throwable ex) {
-                final String msg = Messages.getString("UpdateCompileHandler.ExecuteException.Message", fileEntry.getKey().getName()); //$NON-NLS-1$
-                Activator.getDefault().getConsole().logError(msg, ex);
-                ErrorDialog.openError(
-                        (Shell) null,
-                        Messages.getString("UpdateCompileHandler.ExecuteException.Title"), //$NON-NLS-1$
-                        msg,
-                        new Status(IStatus.ERROR, Activator.PLUGIN_ID, 0, ex.getMessage(), ex));
-            }
-        }
+        _adapter.update(_files, true, false, _monitor);
     }
 }
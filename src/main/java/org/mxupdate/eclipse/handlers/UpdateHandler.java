@@ -21,49 +21,39 @@
 package org.mxupdate.eclipse.handlers;
 
 import java.util.List;
-import java.util.Map;
 
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IProject;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
-import org.eclipse.jface.dialogs.ErrorDialog;
-import org.eclipse.swt.widgets.Shell;
-import org.mxupdate.eclipse.Activator;
-import org.mxupdate.eclipse.Messages;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.mxupdate.eclipse.adapter.IDeploymentAdapter;
 
 /**
  * Eclipse Handler called from the update command used to update selected
- * update files.
+ * update files (or the update files within selected folders, projects and
+ * working sets).
  *
  * @author The MxUpdate Team
  * @version $Id$
  */
 public class UpdateHandler
-        extends AbstractFileHandler
+        extends AbstractUpdateHandler
 {
     /**
-     * Executes the update depending step by step for each project. If within a
-     * project an update failed, an error message is shown.
-     *
-     * @param _files    set of files for which this handler is called
-     * @see Activator#update(String)
+     * Initializes the handler with the message keys of the job.
+     */
+    public UpdateHandler()
+    {
+        super("UpdateHandler.Job", "UpdateHandler.ExecuteException"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * {@inheritDoc}
      */
     @Override()
-    protected void execute(final Map<IProject,List<IFile>> _files)
+    protected void update(final IDeploymentAdapter _adapter,
+                          final List<IFile> _files,
+                          final IProgressMonitor _monitor)
+        throws Exception
     {
-        for (final Map.Entry<IProject,List<IFile>> fileEntry : _files.entrySet())  {
-            try  {
-                Activator.getDefault().getAdapter(fileEntry.getKey()).update(fileEntry.getValue(), false);
-            } catch (final Throwable ex) {
-                final String msg = Messages.getString("UpdateHandler.ExecuteException.Message", fileEntry.getKey().getName()); //$NON-NLS-1$
-                Activator.getDefault().getConsole().logError(msg, ex);
-                ErrorDialog.openError(
-                        (Shell) null,
-                        Messages.getString("UpdateHandler.ExecuteException.Title"), //$NON-NLS-1$
-                        msg,
-                        new Status(IStatus.ERROR, Activator.PLUGIN_ID, 0, ex.getMessage(), ex));
-            }
-        }
+        _adapter.update(_files, false, false, _monitor);
     }
 }
@@ -45,6 +45,7 @@ import org.mxupdate.eclipse.Activator;
 import org.mxupdate.eclipse.Messages;
 import org.mxupdate.eclipse.adapter.IDeploymentAdapter;
 import org.mxupdate.eclipse.adapter.IExportItem;
+import org.mxupdate.eclipse.adapter.IExportListener;
 import org.mxupdate.eclipse.adapter.ISearchItem;
 
 /**
@@ -112,37 +113,33 @@ public class ImportWizard
             final IRunnableWithProgress op = new IRunnableWithProgress() {
                 public void run(final IProgressMonitor _monitor)
                 {
-                    for (final ISearchItem selected : selectedItems)  {
-
-                        Activator.getDefault().getConsole().logInfo(Messages.getString("ImportWizard.PerformFinish.Log", //$NON-NLS-1$
-                                                                                       selected.getFileName()));
-
-                        // export file from MX
-                        IExportItem exportItem = null;
-                        try {
-                            exportItem = finalAdapter.export(selected.getTypeDef(), selected.getName());
-                        } catch (final Exception ex) {
-                            Activator.getDefault().getConsole().logError(Messages.getString("ImportWizard.PerformFinish.Exception"), ex); //$NON-NLS-1$
-                        }
-                        // and create file in Eclipse
-                        if (exportItem != null)  {
-                            final IPath newPath = targetPath.append(exportItem.getFilePath()).append(exportItem.getFileName());
-                            final IFile newFileHandle = ResourcesPlugin.getWorkspace().getRoot().getFile(newPath);
-
-                            final CreateFileOperation op = new CreateFileOperation(
-                                    newFileHandle,
-                                    null,
-                                    new ByteArrayInputStream(exportItem.getContent().getBytes()),
-                                    Messages.getString("ImportWizard.PerformFinish.Title")); //$NON-NLS-1$
-                            try
+                    _monitor.beginTask(Messages.getString("ImportWizard.PerformFinish.Title"), selectedItems.size()); //$NON-NLS-1$
+                    try  {
+                        // export files from MX in batches
+                        finalAdapter.export(selectedItems, new IExportListener()  {
+                            public void exported(final IExportItem _item)
                             {
-                                op.execute(_monitor, WorkspaceUndoUtil.getUIInfoAdapter(ImportWizard.this.getContainer().getShell()));
+                                Activator.getDefault().getConsole().logInfo(Messages.getString("ImportWizard.PerformFinish.Log", //$NON-NLS-1$
+                                                                                               _item.getFileName()));
+                                ImportWizard.this.createFile(targetPath, _item, _monitor);
+                                _monitor.worked(1);
                             }
-                            catch(final ExecutionException ex)
+                            public void failed(final String _typeDef,
+                                               final String _name,
+                                               final Exception _ex)
                             {
-                                Activator.getDefault().getConsole().logError(Messages.getString("ImportWizard.PerformFinish.Exception"), ex); //$NON-NLS-1$
+                                Activator.getDefault().getConsole().logError(Messages.getString("ImportWizard.PerformFinish.Exception"), _ex); //$NON-NLS-1$
+                                _monitor.worked(1);
                             }
-                        }
+                            public boolean isCanceled()
+                            {
+                                return _monitor.isCanceled();
+                            }
+                        });
+                    } catch (final Exception ex) {
+                        Activator.getDefault().getConsole().logError(Messages.getString("ImportWizard.PerformFinish.Exception"), ex); //$NON-NLS-1$
+                    } finally  {
+                        _monitor.done();
                     }
                 }
             };
@@ -162,6 +159,35 @@ public class ImportWizard
         return true;
     }
 
+    /**
+     * Creates the file for the exported <code>_item</code> in the Eclipse
+     * workspace.
+     *
+     * @param _targetPath   target path where the file is created
+     * @param _item         exported item
+     * @param _monitor      progress monitor
+     */
+    protected void createFile(final IPath _targetPath,
+                              final IExportItem _item,
+                              final IProgressMonitor _monitor)
+    {
+        final IPath newPath = _targetPath.append(_item.getFilePath()).append(_item.getFileName());
+        final IFile newFileHandle = ResourcesPlugin.getWorkspace().getRoot().getFile(newPath);
+
+        final CreateFileOperation op = new CreateFileOperation(
+                newFileHandle,
+                null,
+                new ByteArrayInputStream(_item.getContent().getBytes()),
+                Messages.getString("ImportWizard.PerformFinish.Title")); //$NON-NLS-1$
+        try
+        {
+            op.execute(_monitor, WorkspaceUndoUtil.getUIInfoAdapter(this.getContainer().getShell()));
+        }
+        catch(final ExecutionException ex)
+        {
+            Activator.getDefault().getConsole().logError(Messages.getString("ImportWizard.PerformFinish.Exception"), ex); //$NON-NLS-1$
+        }
+    }
 
     /**
      * Initializes the two different steps for this wizard.
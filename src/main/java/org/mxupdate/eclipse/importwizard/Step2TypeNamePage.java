@@ -26,6 +26,10 @@ import java.util.List;
 import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.wizard.WizardPage;
 import org.eclipse.swt.SWT;
@@ -37,6 +41,7 @@ import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.swt.widgets.Tree;
 import org.eclipse.swt.widgets.TreeItem;
@@ -164,9 +169,11 @@ public class Step2TypeNamePage
      * on the selected project from the first step of the import wizard. The
      * list of the configuration items will be only updated if the list was not
      * created before or if {@link #currentProject current project} is not the
-     * selected project from first step.
+     * selected project from first step. The type definition tree is loaded in
+     * a background job so that the user interface does not wait for MX.
      *
      * @param _visible  must be <i>true</i> that the search is executed
+     * @see #loadTypeDefRoot(IProject)
      */
     @Override()
     public void setVisible(final boolean _visible)
@@ -175,20 +182,88 @@ public class Step2TypeNamePage
             final IProject project = ((ImportWizard) this.getWizard()).getProject();
 
             if ((this.currentProject == null) || !this.currentProject.equals(project))  {
-                this.tree.removeAll();
+                this.currentProject = project;
+                this.loadTypeDefRoot(project);
+            }
+        }
+        super.setVisible(_visible);
+    }
+
+    /**
+     * Loads the type definition tree for given <code>_project</code> in a
+     * background job. Until the tree is loaded, a loading information is
+     * shown in the {@link #tree}.
+     *
+     * @param _project  project for which the type definitions are loaded
+     */
+    protected void loadTypeDefRoot(final IProject _project)
+    {
+        this.tree.removeAll();
+        new TreeItem(this.tree, SWT.NONE).setText(Messages.getString("ImportWizard.Wizard.Step2.Loading")); //$NON-NLS-1$
+        this.tree.setEnabled(false);
+
+        final Job job = new Job(Messages.getString("ImportWizard.Wizard.Step2.Loading"))  { //$NON-NLS-1$
+            @Override()
+            protected IStatus run(final IProgressMonitor _monitor)
+            {
+                ITypeDefRoot typeDefRoot = null;
+                Exception ex = null;
                 try {
-                    final ITypeDefRoot typeDefRoot = Activator.getDefault().getAdapter(project).getTypeDefRoot();
-                    for (final ITypeDefNode typeDefNode : typeDefRoot.getSubTypeDef())  {
-                        this.append(typeDefNode, new TreeItem(this.tree, SWT.NONE));
-                    }
+                    typeDefRoot = Activator.getDefault().getAdapter(_project).getTypeDefRoot();
                 } catch (final Exception e) {
-// TODO!!
-                    throw new Error(e);
+                    ex = e;
                 }
-                this.currentProject = project;
+                final ITypeDefRoot finalTypeDefRoot = typeDefRoot;
+                final Exception finalEx = ex;
+                final Display display = Step2TypeNamePage.this.tree.isDisposed()
+                                        ? null
+                                        : Step2TypeNamePage.this.tree.getDisplay();
+                if (display != null)  {
+                    display.asyncExec(new Runnable()  {
+                        public void run()
+                        {
+                            Step2TypeNamePage.this.showTypeDefRoot(_project, finalTypeDefRoot, finalEx);
+                        }
+                    });
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        job.setSystem(true);
+        job.schedule();
+    }
+
+    /**
+     * Shows the loaded type definition tree (if the related project is still
+     * the {@link #currentProject current project}).
+     *
+     * @param _project      project for which the tree was loaded
+     * @param _typeDefRoot  loaded type definition tree (or <code>null</code>
+     *                      if the tree could not be loaded)
+     * @param _ex           exception if the load failed
+     */
+    protected void showTypeDefRoot(final IProject _project,
+                                   final ITypeDefRoot _typeDefRoot,
+                                   final Exception _ex)
+    {
+        if (!this.tree.isDisposed() && _project.equals(this.currentProject))  {
+            this.tree.removeAll();
+            this.tree.setEnabled(true);
+            if (_typeDefRoot != null)  {
+                for (final ITypeDefNode typeDefNode : _typeDefRoot.getSubTypeDef())  {
+                    this.append(typeDefNode, new TreeItem(this.tree, SWT.NONE));
+                }
+                this.validate();
+            } else  {
+                final String msg = Messages.getString("ImportWizard.Wizard.Step2.LoadFailed", _project.getName()); //$NON-NLS-1$
+                if (_ex != null)  {
+                    Activator.getDefault().getConsole().logError(msg, _ex);
+                }
+                // allows to load the tree again
+                this.currentProject = null;
+                this.setErrorMessage(msg);
             }
         }
-        super.setVisible(_visible);
     }
 
     /**
@@ -20,6 +20,7 @@
 
 package org.mxupdate.eclipse.importwizard;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -28,6 +29,10 @@ import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.ITreeContentProvider;
@@ -39,15 +44,18 @@ import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Group;
+import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableColumn;
 import org.eclipse.swt.widgets.TableItem;
 import org.eclipse.ui.dialogs.WizardResourceImportPage;
 import org.mxupdate.eclipse.Activator;
 import org.mxupdate.eclipse.Messages;
-import org.mxupdate.eclipse.adapter.IDeploymentAdapter;
 import org.mxupdate.eclipse.adapter.ISearchItem;
+import org.mxupdate.eclipse.adapter.ISearchListener;
 
 /**
  * Second step of the import wizard for configuration items. On the page first
@@ -82,6 +90,22 @@ public class Step3ConfigurationItemsPage
      */
     private final Map<String,Image> images = new HashMap<String,Image>();
 
+    /**
+     * Found configuration items shown in the virtual {@link #table}. The list
+     * is only accessed from the UI thread.
+     *
+     * @see #setVisible(boolean)
+     * @see #showItem(TableItem, int)
+     */
+    private final List<ISearchItem> items = new ArrayList<ISearchItem>();
+
+    /**
+     * Current running search job; <code>null</code> if no search is running.
+     *
+     * @see #setVisible(boolean)
+     */
+    private Job searchJob;
+
     /**
      * Initializes step 3 page of the import wizard.
      *
@@ -117,48 +141,124 @@ public class Step3ConfigurationItemsPage
     /**
      * If this page is shown the search for configuration items is performed
      * depending on the defined values from the {@link #step2 first step} of
-     * the wizard.
+     * the wizard. The search runs in a background job; the found items are
+     * appended page by page to the virtual {@link #table} and the number of
+     * found items is shown as message. If the page is hidden, a running
+     * search is canceled.
      *
      * @param _visible  must be <i>true</i> that the search is executed
      */
     @Override()
     public void setVisible(final boolean _visible)
     {
+        if (this.searchJob != null)  {
+            this.searchJob.cancel();
+            this.searchJob = null;
+        }
         if (_visible)  {
+            this.items.clear();
             this.table.removeAll();
+            this.table.setItemCount(0);
 
             final IProject project = ((ImportWizard) this.getWizard()).getProject();
-            IDeploymentAdapter adapter;
-            try {
-                adapter = Activator.getDefault().getAdapter(project);
-            } catch (final Exception e)  {
-// TODO Auto-generated catch block
-                e.printStackTrace();
-                throw new Error(e);
-            }
-
-            final List<ISearchItem> items = adapter.search(this.step2.getTypeDefs(), this.step2.getMatch());
-
-            for (final ISearchItem item : items)  {
-                final TableItem tableItem = new TableItem(this.table, SWT.NONE);
-                tableItem.setText(new String[]{item.getName(), item.getFileName(), item.getFilePath()});
-                tableItem.setData(item);
+            final Set<String> typeDefs = this.step2.getTypeDefs();
+            final String match = this.step2.getMatch();
+            final Display display = this.table.getDisplay();
+            this.setMessage(Messages.getString("ImportWizard.Wizard.Step3.Searching", 0)); //$NON-NLS-1$
 
-                final String typeDef = item.getTypeDef();
-                if (!this.images.containsKey(typeDef))  {
-                    final ImageDescriptor imageDescr = adapter.getImageDescriptor(typeDef);
-                    if (imageDescr != null)  {
-                        this.images.put(typeDef, imageDescr.createImage());
-                    } else  {
-                        this.images.put(typeDef, null);
+            final Job job = new Job(Messages.getString("ImportWizard.Wizard.Step3.SearchJob"))  { //$NON-NLS-1$
+                @Override()
+                protected IStatus run(final IProgressMonitor _monitor)
+                {
+                    final Job thisJob = this;
+                    try  {
+                        Activator.getDefault().getAdapter(project).search(typeDefs, match, new ISearchListener()  {
+                            public void found(final List<ISearchItem> _items)
+                            {
+                                final List<ISearchItem> page = new ArrayList<ISearchItem>(_items);
+                                display.asyncExec(new Runnable()  {
+                                    public void run()
+                                    {
+                                        Step3ConfigurationItemsPage.this.appendItems(thisJob, page, false);
+                                    }
+                                });
+                            }
+                            public boolean isCanceled()
+                            {
+                                return _monitor.isCanceled();
+                            }
+                        });
+                    } catch (final Exception e)  {
+                        Activator.getDefault().getConsole().logError(Messages.getString("MXAdapter.ExceptionSearchFailed"), e); //$NON-NLS-1$
                     }
+                    display.asyncExec(new Runnable()  {
+                        public void run()
+                        {
+                            Step3ConfigurationItemsPage.this.appendItems(thisJob, new ArrayList<ISearchItem>(), true);
+                        }
+                    });
+                    return _monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
                 }
-                tableItem.setImage(this.images.get(typeDef));
-            }
+            };
+            this.searchJob = job;
+            job.schedule();
         }
         super.setVisible(_visible);
     }
 
+    /**
+     * Appends the found <code>_newItems</code> of given search
+     * <code>_job</code> to the virtual {@link #table}. Pages from an old
+     * search job are ignored.
+     *
+     * @param _job          search job which found the items
+     * @param _newItems     found items
+     * @param _finished     <i>true</i> if the search is finished
+     */
+    protected void appendItems(final Job _job,
+                               final List<ISearchItem> _newItems,
+                               final boolean _finished)
+    {
+        if ((_job == this.searchJob) && !this.table.isDisposed())  {
+            this.items.addAll(_newItems);
+            this.table.setItemCount(this.items.size());
+            if (_finished)  {
+                this.searchJob = null;
+                this.setMessage(Messages.getString("ImportWizard.Wizard.Step3.Found", this.items.size())); //$NON-NLS-1$
+            } else  {
+                this.setMessage(Messages.getString("ImportWizard.Wizard.Step3.Searching", this.items.size())); //$NON-NLS-1$
+            }
+        }
+    }
+
+    /**
+     * Shows for the virtual <code>_tableItem</code> the related found item.
+     * The image of the type definition is created only once.
+     *
+     * @param _tableItem    table item to show
+     * @param _index        index of the table item
+     */
+    protected void showItem(final TableItem _tableItem,
+                            final int _index)
+    {
+        final ISearchItem item = this.items.get(_index);
+        _tableItem.setText(new String[]{item.getName(), item.getFileName(), item.getFilePath()});
+        _tableItem.setData(item);
+
+        final String typeDef = item.getTypeDef();
+        if (!this.images.containsKey(typeDef))  {
+            ImageDescriptor imageDescr = null;
+            try  {
+                final IProject project = ((ImportWizard) this.getWizard()).getProject();
+                imageDescr = Activator.getDefault().getAdapter(project).getImageDescriptor(typeDef);
+            } catch (final Exception e)  {
+                Activator.getDefault().getConsole().logError(e.getMessage(), e);
+            }
+            this.images.put(typeDef, (imageDescr != null) ? imageDescr.createImage() : null);
+        }
+        _tableItem.setImage(this.images.get(typeDef));
+    }
+
     /**
      * Creates the control for the second step of the wizard. The original
      * method is overwritten so that the destination group is shown above the
@@ -210,7 +310,7 @@ public class Step3ConfigurationItemsPage
         group.setText(Messages.getString("ImportWizard.Wizard.Step3.TableGroupTitle")); //$NON-NLS-1$
 
         // result table
-        this.table = new Table(group, SWT.MULTI | SWT.BORDER | SWT.H_SCROLL | SWT.V_SCROLL);
+        this.table = new Table(group, SWT.MULTI | SWT.BORDER | SWT.H_SCROLL | SWT.V_SCROLL | SWT.VIRTUAL);
         final GridData tableGridData = new GridData();
         tableGridData.verticalAlignment = GridData.FILL;
         tableGridData.grabExcessVerticalSpace = true;
@@ -219,6 +319,14 @@ public class Step3ConfigurationItemsPage
         tableGridData.grabExcessHorizontalSpace = true;
         this.table.setLayoutData(tableGridData);
         this.table.setHeaderVisible(true);
+        this.table.addListener(SWT.SetData, new Listener()
+        {
+            public void handleEvent(final Event _event)
+            {
+                final TableItem tableItem = (TableItem) _event.item;
+                Step3ConfigurationItemsPage.this.showItem(tableItem, Step3ConfigurationItemsPage.this.table.indexOf(tableItem));
+            }
+        });
         this.table.addSelectionListener(new SelectionListener()
         {
             public void widgetDefaultSelected(final SelectionEvent _event)
@@ -322,8 +430,8 @@ public class Step3ConfigurationItemsPage
     public Set<ISearchItem> getSelectedItems()
     {
         final Set<ISearchItem> ret = new HashSet<ISearchItem>();
-        for (final TableItem item : this.table.getSelection())  {
-            ret.add((ISearchItem) item.getData());
+        for (final int index : this.table.getSelectionIndices())  {
+            ret.add(this.items.get(index));
         }
         return ret;
     }
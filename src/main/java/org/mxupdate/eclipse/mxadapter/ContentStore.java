@@ -0,0 +1,171 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.mxadapter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Store of the last deployed contents of the files. The content is stored in
+ * a file named by the hash of the file path and the hash of the content, so
+ * that the content of a file could be used as base for a delta update. Because
+ * the stored content is owned by one file path, the remove of the content of
+ * one file does not remove the base of other files with the same content.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see DeploymentIndex#hash(byte[])
+ */
+public class ContentStore
+{
+    /**
+     * Size of the buffer to read a stored content.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Charset used to hash the file paths.
+     *
+     * @see #getFile(String, String)
+     */
+    private static final Charset PATH_CHARSET = Charset.forName("UTF-8"); //$NON-NLS-1$
+
+    /**
+     * Directory of the stored contents.
+     */
+    private final File dir;
+
+    /**
+     * Initializes the store.
+     *
+     * @param _dir      directory of the stored contents
+     */
+    public ContentStore(final File _dir)
+    {
+        this.dir = _dir;
+    }
+
+    /**
+     * Returns the file of the stored content for given <code>_path</code>
+     * and <code>_hash</code>.
+     *
+     * @param _path     path of the deployed file
+     * @param _hash     hash of the content
+     * @return file of the stored content
+     */
+    private File getFile(final String _path,
+                         final String _hash)
+    {
+        return new File(this.dir,
+                        new StringBuilder()
+                                .append(DeploymentIndex.hash(_path.getBytes(ContentStore.PATH_CHARSET)))
+                                .append('.').append(_hash)
+                                .toString());
+    }
+
+    /**
+     * Returns the stored content for given <code>_path</code> with given
+     * <code>_hash</code>.
+     *
+     * @param _path     path of the deployed file
+     * @param _hash     hash of the content
+     * @return stored content; <code>null</code> if no content with the hash
+     *         is stored for the path
+     * @throws IOException if the stored content could not be read
+     */
+    public byte[] get(final String _path,
+                      final String _hash)
+        throws IOException
+    {
+        final File file = this.getFile(_path, _hash);
+        byte[] ret = null;
+        if (file.exists())  {
+            final InputStream in = new FileInputStream(file);
+            try  {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream((int) file.length());
+                final byte[] buffer = new byte[ContentStore.BUFFER_SIZE];
+                int length;
+                while ((length = in.read(buffer)) >= 0)  {
+                    out.write(buffer, 0, length);
+                }
+                ret = out.toByteArray();
+            } finally  {
+                in.close();
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Stores given <code>_content</code> for the <code>_path</code> with the
+     * <code>_hash</code>. The content is written into a temporary file which
+     * is renamed afterwards, so that a partly written content is never used.
+     *
+     * @param _path     path of the deployed file
+     * @param _hash     hash of the content
+     * @param _content  content to store
+     * @throws IOException if the content could not be written
+     */
+    public void put(final String _path,
+                    final String _hash,
+                    final byte[] _content)
+        throws IOException
+    {
+        final File file = this.getFile(_path, _hash);
+        if (!file.exists())  {
+            this.dir.mkdirs();
+            final File tmp = File.createTempFile(file.getName(), ".tmp", this.dir); //$NON-NLS-1$
+            try  {
+                final OutputStream out = new FileOutputStream(tmp);
+                try  {
+                    out.write(_content);
+                } finally  {
+                    out.close();
+                }
+                if (!tmp.renameTo(file) && !file.exists())  {
+                    throw new IOException("could not rename '" + tmp + "' to '" + file + "'"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                }
+            } finally  {
+                tmp.delete();
+            }
+        }
+    }
+
+    /**
+     * Removes the stored content for given <code>_path</code> with given
+     * <code>_hash</code>. Stored contents of other paths are not removed,
+     * also if they have the same hash.
+     *
+     * @param _path     path of the deployed file
+     * @param _hash     hash of the content
+     */
+    public void remove(final String _path,
+                       final String _hash)
+    {
+        this.getFile(_path, _hash).delete();
+    }
+}
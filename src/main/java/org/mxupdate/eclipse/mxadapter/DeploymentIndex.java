@@ -0,0 +1,376 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.mxadapter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Persistent per-project index of the deployed configuration items. For each
+ * file (path relative to the project) the hash of the deployed content, the
+ * time of the last successful deploy and the identifier of the MX server is
+ * stored. The index is used to update only files which are changed since
+ * their last successful deploy.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ */
+public class DeploymentIndex
+{
+    /**
+     * Algorithm used to calculate the hash of the file content. The same
+     * algorithm is requested from the MX server for the drift scan.
+     */
+    static final String HASH_ALGORITHM = "SHA-1"; //$NON-NLS-1$
+
+    /**
+     * Separator of the values for one file in the index file.
+     */
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Size of the buffer used to read the files for the hash calculation.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * File where the index is stored.
+     */
+    private final File file;
+
+    /**
+     * Mapping between the file paths and the related deploy entries.
+     */
+    private final Map<String,Entry> entries = new HashMap<String,Entry>();
+
+    /**
+     * Initializes the deployment index and loads the index from the
+     * <code>_file</code> (if the file exists).
+     *
+     * @param _file     file where the index is stored
+     * @throws IOException if the index file could not be read
+     */
+    public DeploymentIndex(final File _file)
+        throws IOException
+    {
+        this.file = _file;
+        if (_file.exists())  {
+            final Properties props = new Properties();
+            final InputStream in = new FileInputStream(_file);
+            try  {
+                props.load(in);
+            } finally  {
+                in.close();
+            }
+            for (final String path : props.stringPropertyNames())  {
+                final String value = props.getProperty(path);
+                final int idx1 = value.indexOf(DeploymentIndex.SEPARATOR);
+                final int idx2 = value.indexOf(DeploymentIndex.SEPARATOR, idx1 + 1);
+                if ((idx1 > 0) && (idx2 > idx1))  {
+                    try  {
+                        this.entries.put(path, new Entry(value.substring(0, idx1),
+                                                         Long.parseLong(value.substring(idx1 + 1, idx2)),
+                                                         value.substring(idx2 + 1)));
+                    } catch (final NumberFormatException e)  {
+                        // ignore wrong entries, file is deployed again
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculates the hash of the content of given <code>_file</code>.
+     *
+     * @param _file     file for which the hash is calculated
+     * @return hex string of the hash
+     * @throws IOException if the file could not be read
+     */
+    public static String hash(final File _file)
+        throws IOException
+    {
+        final InputStream in = new FileInputStream(_file);
+        try  {
+            final MessageDigest digest = DeploymentIndex.newDigest();
+            final byte[] buffer = new byte[DeploymentIndex.BUFFER_SIZE];
+            int length;
+            while ((length = in.read(buffer)) >= 0)  {
+                digest.update(buffer, 0, length);
+            }
+            return DeploymentIndex.toHex(digest.digest());
+        } finally  {
+            in.close();
+        }
+    }
+
+    /**
+     * Calculates the hash of the canonical text form of given
+     * <code>_file</code>. The canonical form is independent of the character
+     * set and the line ends of the file:
+     * <ul>
+     * <li>the content is decoded with the <code>_charset</code> of the
+     *     file,</li>
+     * <li>a leading byte order mark is removed,</li>
+     * <li>all line ends (CR LF and single CR) are replaced by LF, and</li>
+     * <li>the text is encoded with UTF-8.</li>
+     * </ul>
+     * The file is read with a fixed size buffer, so the memory does not
+     * depend on the file size.
+     *
+     * @param _file     file for which the hash is calculated
+     * @param _charset  character set of the file
+     * @return hex string of the hash
+     * @throws IOException if the file could not be read
+     */
+    public static String hashText(final File _file,
+                                  final String _charset)
+        throws IOException
+    {
+        final Reader reader = new InputStreamReader(new FileInputStream(_file), _charset);
+        try  {
+            final MessageDigest digest = DeploymentIndex.newDigest();
+            final char[] buffer = new char[DeploymentIndex.BUFFER_SIZE];
+            final StringBuilder text = new StringBuilder(DeploymentIndex.BUFFER_SIZE);
+            boolean first = true;
+            boolean lastCR = false;
+            int length;
+            while ((length = reader.read(buffer)) >= 0)  {
+                for (int idx = 0; idx < length; idx++)  {
+                    final char ch = buffer[idx];
+                    if (first && (ch == '\uFEFF'))  {
+                        // byte order mark
+                    } else if (ch == '\r')  {
+                        text.append('\n');
+                    } else if ((ch != '\n') || !lastCR)  {
+                        text.append(ch);
+                    }
+                    first = false;
+                    lastCR = (ch == '\r');
+                }
+                // a high surrogate is encoded together with the next read block
+                final int end = ((text.length() > 0) && Character.isHighSurrogate(text.charAt(text.length() - 1)))
+                                ? text.length() - 1
+                                : text.length();
+                digest.update(text.substring(0, end).getBytes("UTF-8")); //$NON-NLS-1$
+                text.delete(0, end);
+            }
+            digest.update(text.toString().getBytes("UTF-8")); //$NON-NLS-1$
+            return DeploymentIndex.toHex(digest.digest());
+        } finally  {
+            reader.close();
+        }
+    }
+
+    /**
+     * Calculates the hash of given <code>_bytes</code>.
+     *
+     * @param _bytes    bytes for which the hash is calculated
+     * @return hex string of the hash
+     */
+    public static String hash(final byte[] _bytes)
+    {
+        return DeploymentIndex.toHex(DeploymentIndex.newDigest().digest(_bytes));
+    }
+
+    /**
+     * Creates a new message digest for {@link #HASH_ALGORITHM}.
+     *
+     * @return new message digest
+     */
+    private static MessageDigest newDigest()
+    {
+        try  {
+            return MessageDigest.getInstance(DeploymentIndex.HASH_ALGORITHM);
+        } catch (final NoSuchAlgorithmException e)  {
+            throw new Error(e);
+        }
+    }
+
+    /**
+     * Converts given <code>_bytes</code> into a hex string.
+     *
+     * @param _bytes    bytes to convert
+     * @return hex string
+     */
+    private static String toHex(final byte[] _bytes)
+    {
+        final StringBuilder ret = new StringBuilder(_bytes.length * 2);
+        for (final byte b : _bytes)  {
+            ret.append(Character.forDigit((b >> 4) & 0xF, 16))
+               .append(Character.forDigit(b & 0xF, 16));
+        }
+        return ret.toString();
+    }
+
+    /**
+     * Checks if the file with given <code>_path</code> must be deployed,
+     * because the file was never deployed to the server with the
+     * <code>_serverId</code> or the content hash differs from the last
+     * successful deploy.
+     *
+     * @param _path         path of the file relative to the project
+     * @param _hash         current hash of the file content
+     * @param _serverId     identifier of the MX server
+     * @return <i>true</i> if the file is changed; otherwise <i>false</i>
+     */
+    public synchronized boolean isChanged(final String _path,
+                                          final String _hash,
+                                          final String _serverId)
+    {
+        final Entry entry = this.entries.get(_path);
+        return (entry == null) || !entry.hash.equals(_hash) || !entry.serverId.equals(_serverId);
+    }
+
+    /**
+     * Returns the deploy entry for given <code>_path</code>.
+     *
+     * @param _path     path of the file relative to the project
+     * @return deploy entry; <code>null</code> if not deployed
+     */
+    public synchronized Entry get(final String _path)
+    {
+        return this.entries.get(_path);
+    }
+
+    /**
+     * Stores a successful deploy of the file with given <code>_path</code>.
+     *
+     * @param _path         path of the file relative to the project
+     * @param _hash         hash of the deployed content
+     * @param _serverId     identifier of the MX server
+     * @param _time         time of the deploy
+     */
+    public synchronized void put(final String _path,
+                                 final String _hash,
+                                 final String _serverId,
+                                 final long _time)
+    {
+        this.entries.put(_path, new Entry(_hash, _time, _serverId));
+    }
+
+    /**
+     * Removes the entry for given <code>_path</code>.
+     *
+     * @param _path     path of the file relative to the project
+     */
+    public synchronized void remove(final String _path)
+    {
+        this.entries.remove(_path);
+    }
+
+    /**
+     * Stores the index into the {@link #file}.
+     *
+     * @throws IOException if the index could not be written
+     */
+    public synchronized void store()
+        throws IOException
+    {
+        final Properties props = new Properties();
+        for (final Map.Entry<String,Entry> entry : this.entries.entrySet())  {
+            props.setProperty(entry.getKey(),
+                              new StringBuilder()
+                                    .append(entry.getValue().hash).append(DeploymentIndex.SEPARATOR)
+                                    .append(entry.getValue().time).append(DeploymentIndex.SEPARATOR)
+                                    .append(entry.getValue().serverId)
+                                    .toString());
+        }
+        this.file.getParentFile().mkdirs();
+        final OutputStream out = new FileOutputStream(this.file);
+        try  {
+            props.store(out, null);
+        } finally  {
+            out.close();
+        }
+    }
+
+    /**
+     * Deploy entry of one file.
+     */
+    public static final class Entry
+    {
+        /** Hash of the deployed content. */
+        private final String hash;
+
+        /** Time of the last successful deploy. */
+        private final long time;
+
+        /** Identifier of the MX server. */
+        private final String serverId;
+
+        /**
+         * Initializes the deploy entry.
+         *
+         * @param _hash         hash of the deployed content
+         * @param _time         time of the deploy
+         * @param _serverId     identifier of the MX server
+         */
+        private Entry(final String _hash,
+                      final long _time,
+                      final String _serverId)
+        {
+            this.hash = _hash;
+            this.time = _time;
+            this.serverId = _serverId;
+        }
+
+        /**
+         * Returns the hash of the deployed content.
+         *
+         * @return hash
+         */
+        public String getHash()
+        {
+            return this.hash;
+        }
+
+        /**
+         * Returns the time of the last successful deploy.
+         *
+         * @return time in milliseconds
+         */
+        public long getTime()
+        {
+            return this.time;
+        }
+
+        /**
+         * Returns the identifier of the MX server.
+         *
+         * @return server identifier
+         */
+        public String getServerId()
+        {
+            return this.serverId;
+        }
+    }
+}
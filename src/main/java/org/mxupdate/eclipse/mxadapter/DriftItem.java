@@ -0,0 +1,149 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.mxadapter;
+
+import org.eclipse.core.resources.IFile;
+import org.mxupdate.eclipse.adapter.IDriftItem;
+
+/**
+ * Drifted configuration item found by the drift scan. The items are sorted
+ * by type definition and name.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see MXAdapter#scanDrift(org.eclipse.core.runtime.IProgressMonitor)
+ */
+public class DriftItem
+    implements IDriftItem, Comparable<DriftItem>
+{
+    /**
+     * Kind of the drift.
+     */
+    private final IDriftItem.Kind kind;
+
+    /**
+     * Type definition of the item.
+     */
+    private final String typeDef;
+
+    /**
+     * MX name of the item.
+     */
+    private final String name;
+
+    /**
+     * File name of the item.
+     */
+    private final String fileName;
+
+    /**
+     * Local file of the item; <code>null</code> for extra items.
+     */
+    private final IFile file;
+
+    /**
+     * Initializes the drift item.
+     *
+     * @param _kind         kind of the drift
+     * @param _typeDef      type definition
+     * @param _name         MX name
+     * @param _fileName     file name
+     * @param _file         local file (or <code>null</code>)
+     */
+    public DriftItem(final IDriftItem.Kind _kind,
+                     final String _typeDef,
+                     final String _name,
+                     final String _fileName,
+                     final IFile _file)
+    {
+        this.kind = _kind;
+        this.typeDef = _typeDef;
+        this.name = _name;
+        this.fileName = _fileName;
+        this.file = _file;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see #kind
+     */
+    public IDriftItem.Kind getKind()
+    {
+        return this.kind;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see #typeDef
+     */
+    public String getTypeDef()
+    {
+        return this.typeDef;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see #name
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see #fileName
+     */
+    public String getFileName()
+    {
+        return this.fileName;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see #file
+     */
+    public IFile getFile()
+    {
+        return this.file;
+    }
+
+    /**
+     * Compares this drift item with given <code>_other</code> drift item by
+     * the type definition and the name.
+     *
+     * @param _other    other drift item
+     * @return compare result
+     */
+    public int compareTo(final DriftItem _other)
+    {
+        int ret = this.typeDef.compareTo(_other.typeDef);
+        if (ret == 0)  {
+            ret = this.name.compareTo(_other.name);
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.mxadapter;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of exported configuration items. The entries are identified by the
+ * type definition and the MX name; additionally the file name of each entry
+ * is indexed so that the entries could be found (and invalidated) for update
+ * files. Each entry holds the modification stamp returned from the MX server,
+ * so that the cached content is only used if the server confirms that the
+ * configuration item is not changed. If more than the maximum number of
+ * entries are cached, the least recently used entry is evicted.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ */
+public class ExportCache
+{
+    /**
+     * Maximum number of cached entries.
+     */
+    private final int maxEntries;
+
+    /**
+     * Cached entries depending on the key build from type definition and
+     * name (in access order).
+     *
+     * @see #key(String, String)
+     */
+    private final LinkedHashMap<String,Entry> entries;
+
+    /**
+     * Mapping between the file names and the keys of the {@link #entries}.
+     */
+    private final Map<String,String> fileNames = new HashMap<String,String>();
+
+    /**
+     * Initializes the export cache.
+     *
+     * @param _maxEntries   maximum number of cached entries
+     */
+    public ExportCache(final int _maxEntries)
+    {
+        this.maxEntries = _maxEntries;
+        this.entries = new LinkedHashMap<String,Entry>(16, 0.75f, true)  {
+            private static final long serialVersionUID = 1L;
+
+            @Override()
+            protected boolean removeEldestEntry(final Map.Entry<String,ExportCache.Entry> _eldest)
+            {
+                final boolean ret = this.size() > ExportCache.this.maxEntries;
+                if (ret)  {
+                    ExportCache.this.removeFileName(_eldest.getValue().fileName, _eldest.getKey());
+                }
+                return ret;
+            }
+        };
+    }
+
+    /**
+     * Evaluates the key for the {@link #entries}.
+     *
+     * @param _typeDef  type definition
+     * @param _name     MX name
+     * @return key
+     */
+    private static String key(final String _typeDef,
+                              final String _name)
+    {
+        return _typeDef + '\0' + _name;
+    }
+
+    /**
+     * Returns the cached entry for given type definition and name.
+     *
+     * @param _typeDef  type definition
+     * @param _name     MX name
+     * @return cached entry; <code>null</code> if not cached
+     */
+    public synchronized Entry get(final String _typeDef,
+                                  final String _name)
+    {
+        return this.entries.get(ExportCache.key(_typeDef, _name));
+    }
+
+    /**
+     * Returns the cached entry for given file name.
+     *
+     * @param _fileName     file name of the update file
+     * @return cached entry; <code>null</code> if not cached
+     */
+    public synchronized Entry getByFileName(final String _fileName)
+    {
+        final String key = this.fileNames.get(_fileName);
+        return (key != null) ? this.entries.get(key) : null;
+    }
+
+    /**
+     * Stores the exported <code>_values</code> of a configuration item. An
+     * entry of another configuration item with the same file name is
+     * removed, so that each file name is related to one entry.
+     *
+     * @param _typeDef  type definition
+     * @param _name     MX name
+     * @param _fileName file name of the update file
+     * @param _stamp    modification stamp from the MX server
+     * @param _values   exported values
+     */
+    public synchronized void put(final String _typeDef,
+                                 final String _name,
+                                 final String _fileName,
+                                 final String _stamp,
+                                 final Map<?,?> _values)
+    {
+        final String key = ExportCache.key(_typeDef, _name);
+        final Entry old = this.entries.put(key, new Entry(_typeDef, _name, _fileName, _stamp, _values));
+        if (old != null)  {
+            this.removeFileName(old.fileName, key);
+        }
+        // the new entry itself could be evicted
+        if ((_fileName != null) && this.entries.containsKey(key))  {
+            final String oldKey = this.fileNames.put(_fileName, key);
+            if ((oldKey != null) && !oldKey.equals(key))  {
+                this.entries.remove(oldKey);
+            }
+        }
+    }
+
+    /**
+     * Removes the mapping of given <code>_fileName</code> from the
+     * {@link #fileNames} if the file name is mapped to given
+     * <code>_key</code>. A file name mapped to another entry is not
+     * changed.
+     *
+     * @param _fileName     file name (or <code>null</code>)
+     * @param _key          key of the entry
+     */
+    private void removeFileName(final String _fileName,
+                                final String _key)
+    {
+        if ((_fileName != null) && _key.equals(this.fileNames.get(_fileName)))  {
+            this.fileNames.remove(_fileName);
+        }
+    }
+
+    /**
+     * Removes the cached entry for given file name.
+     *
+     * @param _fileName     file name of the update file
+     */
+    public synchronized void invalidate(final String _fileName)
+    {
+        final String key = this.fileNames.remove(_fileName);
+        if (key != null)  {
+            this.entries.remove(key);
+        }
+    }
+
+    /**
+     * Removes all cached entries.
+     */
+    public synchronized void clear()
+    {
+        this.entries.clear();
+        this.fileNames.clear();
+    }
+
+    /**
+     * Cached export of one configuration item.
+     */
+    public static final class Entry
+    {
+        /** Type definition of the configuration item. */
+        private final String typeDef;
+
+        /** MX name of the configuration item. */
+        private final String name;
+
+        /** File name of the update file. */
+        private final String fileName;
+
+        /** Modification stamp from the MX server. */
+        private final String stamp;
+
+        /** Exported values. */
+        private final Map<?,?> values;
+
+        /**
+         * Initializes the cached entry.
+         *
+         * @param _typeDef  type definition
+         * @param _name     MX name
+         * @param _fileName file name of the update file
+         * @param _stamp    modification stamp
+         * @param _values   exported values
+         */
+        private Entry(final String _typeDef,
+                      final String _name,
+                      final String _fileName,
+                      final String _stamp,
+                      final Map<?,?> _values)
+        {
+            this.typeDef = _typeDef;
+            this.name = _name;
+            this.fileName = _fileName;
+            this.stamp = _stamp;
+            this.values = _values;
+        }
+
+        /**
+         * Returns the type definition of the configuration item.
+         *
+         * @return type definition
+         */
+        public String getTypeDef()
+        {
+            return this.typeDef;
+        }
+
+        /**
+         * Returns the MX name of the configuration item.
+         *
+         * @return MX name
+         */
+        public String getName()
+        {
+            return this.name;
+        }
+
+        /**
+         * Returns the modification stamp from the MX server.
+         *
+         * @return modification stamp
+         */
+        public String getStamp()
+        {
+            return this.stamp;
+        }
+
+        /**
+         * Returns the exported values.
+         *
+         * @return exported values
+         */
+        public Map<?,?> getValues()
+        {
+            return this.values;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.mxadapter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Matches file names against a configuration of file prefixes and file
+ * suffixes. The configuration is compiled into a reverse trie for the
+ * suffixes where each suffix node holds a trie for the prefixes, so that a
+ * file name is matched with one walk from the end of the name and one walk
+ * from the start of the name instead of checking each configured suffix and
+ * prefix. The results are cached depending on the file name.
+ *
+ * <p>If more than one configuration matches, the longest matching suffix and
+ * within the suffix the longest matching prefix wins. If no prefix matches
+ * for the longest suffix, the next shorter matching suffix is checked.</p>
+ *
+ * <p>The matcher is not changed after the initialization; only the result
+ * cache is updated. So the matcher could be used from different threads.</p>
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @param <T>   type of the matched values
+ */
+public class FileNameMatcher<T>
+{
+    /**
+     * Maximum number of cached results; if more results are cached, the
+     * complete cache is cleared.
+     */
+    private static final int MAX_CACHE_SIZE = 50000;
+
+    /**
+     * Marker for file names without matching value within the
+     * {@link #cache}.
+     */
+    private static final Object NO_MATCH = new Object();
+
+    /**
+     * Root of the reverse trie for the suffixes.
+     */
+    private final Node<Node<T>> suffixRoot = new Node<Node<T>>();
+
+    /**
+     * Cached results depending on the file name.
+     */
+    private final Map<String,Object> cache = new ConcurrentHashMap<String,Object>();
+
+    /**
+     * Initializes the matcher for given <code>_config</code>.
+     *
+     * @param _config   map of the suffixes to a map of prefixes and the
+     *                  related values; <code>null</code> prefixes or
+     *                  suffixes are handled as empty strings
+     */
+    public FileNameMatcher(final Map<String,Map<String,T>> _config)
+    {
+        for (final Map.Entry<String,Map<String,T>> suffixEntry : _config.entrySet())  {
+            final String suffix = (suffixEntry.getKey() != null) ? suffixEntry.getKey() : ""; //$NON-NLS-1$
+            Node<Node<T>> suffixNode = this.suffixRoot;
+            for (int idx = suffix.length() - 1; idx >= 0; idx--)  {
+                suffixNode = suffixNode.getOrCreate(suffix.charAt(idx));
+            }
+            if (suffixNode.value == null)  {
+                suffixNode.value = new Node<T>();
+            }
+            for (final Map.Entry<String,T> prefixEntry : suffixEntry.getValue().entrySet())  {
+                final String prefix = (prefixEntry.getKey() != null) ? prefixEntry.getKey() : ""; //$NON-NLS-1$
+                Node<T> prefixNode = suffixNode.value;
+                for (int idx = 0; idx < prefix.length(); idx++)  {
+                    prefixNode = prefixNode.getOrCreate(prefix.charAt(idx));
+                }
+                prefixNode.value = prefixEntry.getValue();
+            }
+        }
+    }
+
+    /**
+     * Returns the value for given file <code>_name</code>.
+     *
+     * @param _name     file name
+     * @return matched value; <code>null</code> if no configuration matches
+     */
+    @SuppressWarnings("unchecked")
+    public T match(final String _name)
+    {
+        Object ret = this.cache.get(_name);
+        if (ret == null)  {
+            ret = this.evaluate(_name);
+            if (ret == null)  {
+                ret = FileNameMatcher.NO_MATCH;
+            }
+            if (this.cache.size() >= FileNameMatcher.MAX_CACHE_SIZE)  {
+                this.cache.clear();
+            }
+            this.cache.put(_name, ret);
+        }
+        return (ret == FileNameMatcher.NO_MATCH) ? null : (T) ret;
+    }
+
+    /**
+     * Evaluates the value for given file <code>_name</code> without using the
+     * {@link #cache}.
+     *
+     * @param _name     file name
+     * @return matched value; <code>null</code> if no configuration matches
+     */
+    protected T evaluate(final String _name)
+    {
+        // collect all matching suffixes (shortest first)
+        final List<Node<T>> prefixRoots = new ArrayList<Node<T>>();
+        Node<Node<T>> suffixNode = this.suffixRoot;
+        for (int idx = _name.length(); (suffixNode != null); )  {
+            if (suffixNode.value != null)  {
+                prefixRoots.add(suffixNode.value);
+            }
+            idx--;
+            suffixNode = (idx >= 0) ? suffixNode.get(_name.charAt(idx)) : null;
+        }
+
+        // check prefixes beginning with the longest suffix
+        T ret = null;
+        for (int rootIdx = prefixRoots.size() - 1; (rootIdx >= 0) && (ret == null); rootIdx--)  {
+            Node<T> prefixNode = prefixRoots.get(rootIdx);
+            for (int idx = 0; prefixNode != null; )  {
+                if (prefixNode.value != null)  {
+                    ret = prefixNode.value;
+                }
+                prefixNode = (idx < _name.length()) ? prefixNode.get(_name.charAt(idx)) : null;
+                idx++;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Node of a trie.
+     *
+     * @param <V>   type of the value
+     */
+    private static final class Node<V>
+    {
+        /** Child nodes depending on the next character. */
+        private Map<Character,Node<V>> children;
+
+        /** Value of this node; <code>null</code> if not defined. */
+        private V value;
+
+        /**
+         * Returns the child node for given character.
+         *
+         * @param _ch   character
+         * @return child node; <code>null</code> if not defined
+         */
+        private Node<V> get(final char _ch)
+        {
+            return (this.children != null) ? this.children.get(_ch) : null;
+        }
+
+        /**
+         * Returns the child node for given character; if not defined, a new
+         * child node is created.
+         *
+         * @param _ch   character
+         * @return child node
+         */
+        private Node<V> getOrCreate(final char _ch)
+        {
+            if (this.children == null)  {
+                this.children = new HashMap<Character,Node<V>>();
+            }
+            Node<V> ret = this.children.get(_ch);
+            if (ret == null)  {
+                ret = new Node<V>();
+                this.children.put(_ch, ret);
+            }
+            return ret;
+        }
+    }
+}
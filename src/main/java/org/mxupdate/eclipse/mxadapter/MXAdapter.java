@@ -21,40 +21,67 @@
 package org.mxupdate.eclipse.mxadapter;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.codec.binary.Base64;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.swt.graphics.ImageData;
 import org.mxupdate.eclipse.Activator;
 import org.mxupdate.eclipse.Messages;
 import org.mxupdate.eclipse.adapter.IDeploymentAdapter;
+import org.mxupdate.eclipse.adapter.IDriftItem;
 import org.mxupdate.eclipse.adapter.IExportItem;
+import org.mxupdate.eclipse.adapter.IExportListener;
+import org.mxupdate.eclipse.adapter.IFileExportListener;
 import org.mxupdate.eclipse.adapter.ISearchItem;
+import org.mxupdate.eclipse.adapter.ISearchListener;
 import org.mxupdate.eclipse.adapter.ITypeDefNode;
 import org.mxupdate.eclipse.adapter.ITypeDefRoot;
+import org.mxupdate.eclipse.adapter.IUpdateResult;
 import org.mxupdate.eclipse.console.Console;
 import org.mxupdate.eclipse.mxadapter.connectors.IConnector;
+import org.mxupdate.eclipse.mxadapter.metrics.FlightRecorderEvents;
+import org.mxupdate.eclipse.mxadapter.metrics.MethodMetrics;
+import org.mxupdate.eclipse.mxadapter.metrics.MetricsRegistry;
+import org.mxupdate.eclipse.mxadapter.traffic.TrafficRecorder;
 import org.mxupdate.eclipse.properties.ProjectProperties;
 import org.mxupdate.eclipse.util.CommunicationUtil;
+import org.mxupdate.eclipse.util.LineDelta;
 
 /**
  * Adapter to the MX database.
@@ -109,20 +136,193 @@ public class MXAdapter
     private static final String RETURN_KEY_VALUES = "values";
 
     /**
-     * Regular expression for the package line. The package name must be
-     * extracted to get the real name of the JPO used within MX.
+     * End of a file name which represents a JPO.
      *
+     * @see #export(IFile)
      * @see #extractMxName(IFile)
      */
-    private static final Pattern PATTERN_PACKAGE = Pattern.compile("(?<=package)[ \\t]+[A-Za-z0-9\\._]*[ \\t]*;");
+    private static final String END_JPO_FILE = "_mxJPO.java";
 
     /**
-     * End of a file name which represents a JPO.
+     * Name of the Dispatcher capability (and method) to upload the content
+     * of a file block by block.
      *
-     * @see #export(IFile)
-     * @see #extractMxName(IFile)
+     * @see #uploadFiles(IConnector, List, UpdateResult, List)
      */
-    private static final String END_JPO_FILE = "_mxJPO.java";
+    private static final String CAPABILITY_UPLOAD_FILE_BLOCK = "UploadFileBlock"; //$NON-NLS-1$
+
+    /**
+     * Maximum size in bytes of one uploaded file block. The client heap used
+     * for an upload depends only on this size and not on the size of the
+     * updated files.
+     *
+     * @see #uploadFiles(IConnector, List, UpdateResult, List)
+     */
+    private static final int UPLOAD_BLOCK_SIZE = 256 * 1024;
+
+    /**
+     * Name of the Dispatcher capability (and method) to export a batch of
+     * configuration items within one call.
+     *
+     * @see #export(Collection, IExportListener)
+     */
+    private static final String CAPABILITY_EXPORT_BATCH = "ExportBatch"; //$NON-NLS-1$
+
+    /**
+     * Maximum number of configuration items exported within one Dispatcher
+     * call.
+     *
+     * @see #export(Collection, IExportListener)
+     */
+    private static final int EXPORT_BATCH_SIZE = 50;
+
+    /**
+     * Name of the Dispatcher capability that the method &quot;Export&quot;
+     * returns a modification stamp and accepts the stamp of an already
+     * exported configuration item so that the content is only transferred
+     * again if the item was changed.
+     *
+     * @see #exportCache
+     */
+    private static final String CAPABILITY_EXPORT_STAMP = "ExportStamp"; //$NON-NLS-1$
+
+    /**
+     * Maximum number of cached exported configuration items.
+     *
+     * @see #exportCache
+     */
+    private static final int EXPORT_CACHE_SIZE = 500;
+
+    /**
+     * Name of the Dispatcher capability that the method &quot;Search&quot;
+     * supports the arguments &quot;Offset&quot; and &quot;Limit&quot; to
+     * return the found objects page by page.
+     *
+     * @see #search(Set, String, ISearchListener)
+     */
+    private static final String CAPABILITY_SEARCH_PAGED = "SearchPaged"; //$NON-NLS-1$
+
+    /**
+     * Number of found objects within one search page.
+     *
+     * @see #search(Set, String, ISearchListener)
+     */
+    private static final int SEARCH_PAGE_SIZE = 500;
+
+    /**
+     * Name of the Dispatcher capability (and method) returning all
+     * configuration items changed since a given synchronization stamp.
+     *
+     * @see #syncNameIndex()
+     */
+    private static final String CAPABILITY_SEARCH_CHANGED = "SearchChanged"; //$NON-NLS-1$
+
+    /**
+     * Minimum time in milliseconds between two synchronizations of the
+     * {@link #nameIndex}.
+     *
+     * @see #syncNameIndex()
+     */
+    private static final long NAME_INDEX_SYNC_INTERVAL = 60000;
+
+    /**
+     * Name of the Dispatcher capability that the Dispatcher method
+     * &quot;Update&quot; accepts line deltas against the last deployed
+     * content within the argument &quot;Deltas&quot; (together with the
+     * other files of the update). The MX server rebuilds the contents and
+     * verifies the hashes before anything is updated; if a delta could not be
+     * applied, nothing is updated and the paths of these files are returned,
+     * so that the complete chunk is updated again with the complete contents.
+     *
+     * @see #evalDeltas(IConnector, List, Map, List)
+     * @see #updateChunk(IConnector, List, boolean, UpdateResult)
+     * @see LineDelta
+     */
+    private static final String CAPABILITY_UPDATE_DELTA = "UpdateDelta"; //$NON-NLS-1$
+
+    /**
+     * Minimum size in bytes of a file so that the file is updated with a
+     * delta (and the deployed content is stored as base for the next delta).
+     *
+     * @see #CAPABILITY_UPDATE_DELTA
+     */
+    private static final long DELTA_MIN_SIZE = 16 * 1024;
+
+    /**
+     * Name of the Dispatcher capability (and method) to query and fill the
+     * size bounded, content addressed cache of the MX server. The method
+     * only returns the unknown hashes of the argument &quot;Hashes&quot; and
+     * stores the raw bytes of the argument &quot;Contents&quot;; nothing is
+     * updated. The Dispatcher method &quot;Update&quot; then references the
+     * cached contents with the arguments &quot;Hashes&quot; and
+     * &quot;Charsets&quot; (together with the other files of the update); if
+     * a referenced content is not cached anymore, nothing is updated and the
+     * paths of these files are returned. The hash is the SHA-1 of the raw
+     * bytes of the file (as for the {@link DeploymentIndex deployment index}),
+     * so the MX server could also cache the contents uploaded with
+     * {@link #CAPABILITY_UPLOAD_FILE_BLOCK} by the hash of the uploaded
+     * bytes.
+     *
+     * @see #uploadCache(IConnector, List, boolean, Map, Map, List)
+     */
+    private static final String CAPABILITY_UPLOAD_CACHE = "UploadCache"; //$NON-NLS-1$
+
+    /**
+     * Name of the Dispatcher capability (and method) returning the content
+     * hashes of all exported configuration items of given type definitions
+     * within one call.
+     *
+     * @see #scanDrift(IProgressMonitor)
+     */
+    private static final String CAPABILITY_EXPORT_HASH = "ExportHash"; //$NON-NLS-1$
+
+    /**
+     * Name of the capability that the Dispatcher understands (and answers
+     * with) arguments and return values compressed with GZIP.
+     *
+     * @see CommunicationUtil#encode(Object, boolean)
+     */
+    private static final String CAPABILITY_CODEC_GZIP = "CodecGZip"; //$NON-NLS-1$
+
+    /**
+     * All capabilities supported from this plug-in. The list is sent to the
+     * MX server within the negotiation so that the server could also use
+     * only the modes supported from both sides.
+     *
+     * @see #handshake()
+     * @see #evalCapabilities()
+     */
+    private static final List<String> CLIENT_CAPABILITIES = Collections.unmodifiableList(Arrays.asList(
+            MXAdapter.CAPABILITY_CODEC_GZIP,
+            MXAdapter.CAPABILITY_UPLOAD_FILE_BLOCK,
+            MXAdapter.CAPABILITY_EXPORT_BATCH,
+            MXAdapter.CAPABILITY_EXPORT_STAMP,
+            MXAdapter.CAPABILITY_SEARCH_PAGED,
+            MXAdapter.CAPABILITY_SEARCH_CHANGED,
+            MXAdapter.CAPABILITY_EXPORT_HASH,
+            MXAdapter.CAPABILITY_UPDATE_DELTA,
+            MXAdapter.CAPABILITY_UPLOAD_CACHE));
+
+    /**
+     * MX servers (defined by their server id) which answered the Dispatcher
+     * method &quot;Handshake&quot; with an exception (older MxUpdate
+     * versions). The value is the MxUpdate version of the server. For these
+     * servers the handshake is not tried again, until the MxUpdate version
+     * of the server changes.
+     *
+     * @see #negotiate()
+     */
+    private static final Map<String,String> NO_HANDSHAKE = new HashMap<String,String>();
+
+    /**
+     * MX servers (defined by their server id) which answered the Dispatcher
+     * method &quot;GetCapabilities&quot; with an exception. The value is the
+     * MxUpdate version of the server. The map is synchronized together with
+     * {@link #NO_HANDSHAKE}.
+     *
+     * @see #negotiate()
+     */
+    private static final Map<String,String> NO_CAPABILITIES = new HashMap<String,String>();
 
     /** Properties for the project. */
     private final ProjectProperties properties;
@@ -144,6 +344,26 @@ public class MXAdapter
     private final Map<String,Map<String,ImageDescriptor>> imageMap
             = new HashMap<String,Map<String,ImageDescriptor>>();
 
+    /**
+     * Matcher compiled from the {@link #imageMap} used to find the image
+     * for a file name.
+     *
+     * @see #initImageDescriptors()
+     * @see #getImageDescriptor(IFile)
+     */
+    private volatile FileNameMatcher<ImageDescriptor> imageMatcher
+            = new FileNameMatcher<ImageDescriptor>(new HashMap<String,Map<String,ImageDescriptor>>());
+
+    /**
+     * Matcher for the file names used from the {@link #resourceIndex}. The
+     * matched value is an array with the type definition, the file prefix
+     * and the file suffix.
+     *
+     * @see #initImageDescriptors()
+     */
+    private volatile FileNameMatcher<String[]> typeDefMatcher
+            = new FileNameMatcher<String[]>(new HashMap<String,Map<String,String[]>>());
+
     /**
      * Mapping between type definition and related image descriptors.
      *
@@ -160,7 +380,114 @@ public class MXAdapter
     /**
      * Connector to the database.
      */
-    private IConnector connector;
+    private volatile IConnector connector;
+
+    /**
+     * Number of Dispatcher calls currently executed by the
+     * {@link #connector} (and parallel update sessions).
+     *
+     * @see #getInFlightRequests()
+     */
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+
+    /**
+     * Number of Dispatcher calls currently waiting for the
+     * {@link #connector} (and parallel update sessions).
+     *
+     * @see #getQueuedRequests()
+     */
+    private final AtomicInteger queuedRequests = new AtomicInteger();
+
+    /**
+     * Recorder of the Dispatcher traffic; <code>null</code> if no traffic is
+     * recorded.
+     *
+     * @see #startTrafficRecording()
+     * @see #stopTrafficRecording()
+     */
+    private volatile TrafficRecorder trafficRecorder;
+
+    /**
+     * Index of the deployed files; loaded on first access.
+     *
+     * @see #getDeploymentIndex()
+     */
+    private DeploymentIndex deploymentIndex;
+
+    /**
+     * Index of the configuration item files within the workspace; loaded on
+     * first access.
+     *
+     * @see #getResourceIndex()
+     */
+    private ResourceIndex resourceIndex;
+
+    /**
+     * Store of the last deployed contents used as base for delta updates;
+     * created on first access.
+     *
+     * @see #getContentStore()
+     */
+    private ContentStore contentStore;
+
+    /**
+     * Capabilities (names of optional Dispatcher methods) supported from the
+     * connected MX server.
+     *
+     * @see #evalCapabilities()
+     */
+    private volatile Set<String> capabilities = Collections.emptySet();
+
+    /**
+     * Cache of the exported configuration items. The cache is only used if
+     * the MX server supports {@link #CAPABILITY_EXPORT_STAMP}.
+     */
+    private final ExportCache exportCache = new ExportCache(MXAdapter.EXPORT_CACHE_SIZE);
+
+    /**
+     * Version of the MxUpdate Update Deployment Tool on the connected MX
+     * server.
+     *
+     * @see #checkVersions(String)
+     */
+    private volatile String serverVersion;
+
+    /**
+     * Hash of the plug-in properties fetched from the connected MX server.
+     *
+     * @see #connect()
+     */
+    private volatile String propertiesHash;
+
+    /**
+     * Persistent cache of the type definition tree; initialized on first
+     * access.
+     *
+     * @see #getTypeDefRoot()
+     */
+    private TypeDefTreeCache typeDefTreeCache;
+
+    /**
+     * Local index of the names of all configuration items; initialized on
+     * first access.
+     *
+     * @see #syncNameIndex()
+     */
+    private NameIndex nameIndex;
+
+    /**
+     * Time of the last synchronization of the {@link #nameIndex}.
+     *
+     * @see #syncNameIndex()
+     */
+    private long nameIndexSyncTime;
+
+    /**
+     * Registry where the metrics of all Dispatcher calls are collected.
+     *
+     * @see #executeEncoded(String[], String, Object[])
+     */
+    private final MetricsRegistry metrics;
 
     /**
      * Initializes the MX adapter.
@@ -176,6 +503,9 @@ public class MXAdapter
         this.properties = _properties;
         this.project = _project;
         this.console = _console;
+        this.metrics = (Activator.getDefault() != null)
+                       ? Activator.getDefault().getMetrics()
+                       : new MetricsRegistry();
         this.initImageDescriptors();
     }
 
@@ -209,6 +539,7 @@ public class MXAdapter
         this.imageMap.clear();
 
         // prepare image cache
+        final Map<String,Map<String,String[]>> typeDefMap = new HashMap<String,Map<String,String[]>>();
         for (final String admin : admins)  {
             final String prefix = imageConfig.getProperty(admin + ".FilePrefix"); //$NON-NLS-1$
             final String suffix = imageConfig.getProperty(admin + ".FileSuffix"); //$NON-NLS-1$
@@ -227,9 +558,26 @@ public class MXAdapter
             }
             mapPrefix.put(prefix, imageDesriptor);
 
+            // mapping between file prefix / extension and type definition
+            Map<String,String[]> typeDefPrefix = typeDefMap.get(suffix);
+            if (typeDefPrefix == null)  {
+                typeDefPrefix = new HashMap<String,String[]>();
+                typeDefMap.put(suffix, typeDefPrefix);
+            }
+            typeDefPrefix.put(prefix, new String[]{admin, prefix, suffix});
+
             // mapping between type definition and image
             this.typeDef2Image.put(admin, imageDesriptor);
         }
+
+        // compile image map and type definition map for file names
+        this.imageMatcher = new FileNameMatcher<ImageDescriptor>(this.imageMap);
+        this.typeDefMatcher = new FileNameMatcher<String[]>(typeDefMap);
+        synchronized (this)  {
+            if (this.resourceIndex != null)  {
+                this.resourceIndex.setMatcher(this.typeDefMatcher);
+            }
+        }
     }
 
     /**
@@ -245,12 +593,172 @@ public class MXAdapter
     }
 
     /**
-     * Connects to the MX database.
+     * Checks if the communication channel of the {@link #connector} is still
+     * alive.
+     *
+     * @return <i>true</i> if connected and the communication channel is alive;
+     *         otherwise <i>false</i>
+     * @see IConnector#isAlive()
+     */
+    public boolean isConnectorAlive()
+    {
+        final IConnector tmp = this.connector;
+        return (tmp != null) && tmp.isAlive();
+    }
+
+    /**
+     * Returns the number of Dispatcher calls currently executed.
+     *
+     * @return number of in-flight Dispatcher calls
+     * @see #inFlightRequests
+     */
+    public int getInFlightRequests()
+    {
+        return this.inFlightRequests.get();
+    }
+
+    /**
+     * Returns the number of Dispatcher calls currently waiting to be
+     * executed.
+     *
+     * @return number of queued Dispatcher calls
+     * @see #queuedRequests
+     */
+    public int getQueuedRequests()
+    {
+        return this.queuedRequests.get();
+    }
+
+    /**
+     * Returns the name of the related Eclipse project.
+     *
+     * @return name of the project
+     * @see #project
+     */
+    public String getProjectName()
+    {
+        return this.project.getName();
+    }
+
+    /**
+     * Starts the recording of the Dispatcher traffic. The traffic is written
+     * into a new file in the sub directory <code>traffic</code> of the
+     * project state location.
+     *
+     * @return file where the traffic is recorded
+     * @throws IOException if the traffic file could not be created
+     * @see #trafficRecorder
+     */
+    public File startTrafficRecording()
+        throws IOException
+    {
+        this.stopTrafficRecording();
+        final File file = new File(Activator.getDefault().getStateLocation().append(this.project.getName()).toFile(),
+                                   "traffic/" //$NON-NLS-1$
+                                        + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) //$NON-NLS-1$
+                                        + ".mxtraffic"); //$NON-NLS-1$
+        this.trafficRecorder = new TrafficRecorder(file);
+        return file;
+    }
+
+    /**
+     * Stops the recording of the Dispatcher traffic (if started).
+     *
+     * @throws IOException if the traffic file could not be closed
+     * @see #trafficRecorder
+     */
+    public void stopTrafficRecording()
+        throws IOException
+    {
+        final TrafficRecorder recorder = this.trafficRecorder;
+        this.trafficRecorder = null;
+        if (recorder != null)  {
+            recorder.close();
+        }
+    }
+
+    /**
+     * Checks if the Dispatcher traffic is currently recorded.
+     *
+     * @return <i>true</i> if the traffic is recorded; otherwise <i>false</i>
+     * @see #trafficRecorder
+     */
+    public boolean isTrafficRecording()
+    {
+        return this.trafficRecorder != null;
+    }
+
+    /**
+     * Returns the index of the deployed files stored in the file
+     * <code>deployment.index</code> of the project state location. The index
+     * is loaded on first access.
+     *
+     * @return deployment index
+     * @throws IOException if the index could not be read
+     * @see #deploymentIndex
+     */
+    public synchronized DeploymentIndex getDeploymentIndex()
+        throws IOException
+    {
+        if (this.deploymentIndex == null)  {
+            this.deploymentIndex = new DeploymentIndex(
+                    new File(Activator.getDefault().getStateLocation().append(this.project.getName()).toFile(),
+                             "deployment.index")); //$NON-NLS-1$
+        }
+        return this.deploymentIndex;
+    }
+
+    /**
+     * Returns the store of the last deployed contents within the directory
+     * <code>deployed</code> of the project state location.
+     *
+     * @return content store
+     * @see #contentStore
+     */
+    public synchronized ContentStore getContentStore()
+    {
+        if (this.contentStore == null)  {
+            this.contentStore = new ContentStore(
+                    new File(Activator.getDefault().getStateLocation().append(this.project.getName()).toFile(),
+                             "deployed")); //$NON-NLS-1$
+        }
+        return this.contentStore;
+    }
+
+    /**
+     * Returns the index of the configuration item files within the workspace
+     * stored in the file <code>resource.index</code> of the project state
+     * location. The index is loaded on first access and registered as
+     * resource change listener so that the index is updated incrementally.
+     *
+     * @return resource index
+     * @throws IOException if the index could not be read
+     * @see #resourceIndex
+     */
+    public synchronized ResourceIndex getResourceIndex()
+        throws IOException
+    {
+        if (this.resourceIndex == null)  {
+            this.resourceIndex = new ResourceIndex(
+                    this.project,
+                    new File(Activator.getDefault().getStateLocation().append(this.project.getName()).toFile(),
+                             "resource.index"), //$NON-NLS-1$
+                    this.typeDefMatcher);
+            ResourcesPlugin.getWorkspace().addResourceChangeListener(this.resourceIndex,
+                                                                     IResourceChangeEvent.POST_CHANGE);
+        }
+        return this.resourceIndex;
+    }
+
+    /**
+     * Connects to the MX database. If the negotiation with the MX server
+     * failed because of a communication problem, the plug-in is disconnected
+     * from MX again.
      *
      * @throws Exception if connect failed
      * @see #connected
      * @see #mxContext
-     * @see #checkVersions()
+     * @see #negotiate()
      */
     public void connect()
         throws Exception
@@ -258,46 +766,204 @@ public class MXAdapter
         if (this.connector != null)  {
             this.console.logInfo(Messages.getString("MXAdapter.AlreadyConnected")); //$NON-NLS-1$
         } else  {
-            this.connector = this.properties.getMode().initConnector(this.project, this.console);
+            final FlightRecorderEvents.Span span = FlightRecorderEvents.begin(FlightRecorderEvents.EventType.CONNECT,
+                                                                              this.project.getName());
+            if (span.isEnabled())  {
+                span.set("mode", String.valueOf(this.properties.getMode())); //$NON-NLS-1$
+            }
+            try  {
+                this.connector = this.properties.getMode().initConnector(this.project, this.console);
+            } finally  {
+                span.commit();
+            }
 
-            // check versions
-            this.checkVersions();
+            try  {
+                this.negotiate();
+            } catch (final Exception e)  {
+                this.console.logError(Messages.getString("MXAdapter.ConnectFailed"), e); //$NON-NLS-1$
+                try  {
+                    this.disconnect();
+                } catch (final Exception ex)  {
+                    this.console.logError(Messages.getString("MXAdapter.ConnectFailed"), ex); //$NON-NLS-1$
+                }
+                throw e;
+            }
+        }
+    }
 
-            try {
-                // read properties
-                final String newProps = (String) this.executeEncoded(null, "GetProperty", null).get(MXAdapter.RETURN_KEY_VALUES);
-                final String curProps = this.properties.getImageConfig();
+    /**
+     * Negotiates with the connected MX server the version, the capabilities
+     * and the plug-in properties. First the combined {@link #handshake()} is
+     * tried. Older MX servers answer the handshake with an exception; then
+     * the plug-in falls back to the single Dispatcher methods. The failed
+     * handshake and capabilities calls are remembered per server id (see
+     * {@link #NO_HANDSHAKE} and {@link #NO_CAPABILITIES}) so that later
+     * connects to the same server (with the same MxUpdate version) do not
+     * call them again.
+     *
+     * @throws Exception if the communication with the MX server failed
+     * @see #connect()
+     */
+    protected void negotiate()
+        throws Exception
+    {
+        final String serverId = this.connector.getServerId();
+        final String noHandshake;
+        synchronized (MXAdapter.NO_HANDSHAKE)  {
+            noHandshake = MXAdapter.NO_HANDSHAKE.get(serverId);
+        }
 
-                // update if required
-                if (!newProps.equals(curProps))  {
-                    this.properties.storeImageConfig(newProps);
-                    this.console.logInfo(Messages.getString("MXAdapter.PluginPropertiesChanged")); //$NON-NLS-1$
+        // handshake with fallback for older MxUpdate versions
+        if ((noHandshake != null) || !this.handshake())  {
+            final String updateVersion = this.getUpdateVersion();
+            this.checkVersions(updateVersion);
+            final String version = String.valueOf(updateVersion);
+
+            final boolean evalCapabilities;
+            synchronized (MXAdapter.NO_HANDSHAKE)  {
+                if (noHandshake == null)  {
+                    MXAdapter.NO_HANDSHAKE.put(serverId, version);
+                } else if (!noHandshake.equals(version))  {
+                    // server was updated => try handshake with next connect
+                    MXAdapter.NO_HANDSHAKE.remove(serverId);
+                }
+                evalCapabilities = !version.equals(MXAdapter.NO_CAPABILITIES.get(serverId));
+            }
 
-                    // reload image descriptors
-                    this.initImageDescriptors();
+            // capabilities
+            if (!evalCapabilities)  {
+                this.capabilities = Collections.emptySet();
+            } else if (!this.evalCapabilities())  {
+                synchronized (MXAdapter.NO_HANDSHAKE)  {
+                    MXAdapter.NO_CAPABILITIES.put(serverId, version);
+                }
+            }
 
-                    // and refresh project
-                    this.project.touch(new NullProgressMonitor());
+            // read properties
+            final Map<?,?> bck = this.executeEncoded(null, "GetProperty", null); //$NON-NLS-1$
+            if (bck.get(MXAdapter.RETURN_KEY_EXCEPTION) != null)  {
+                this.console.logError(Messages.getString("MXAdapter.ConnectFailed"), //$NON-NLS-1$
+                                      (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION));
+            } else  {
+                try {
+                    this.updateProperties((String) bck.get(MXAdapter.RETURN_KEY_VALUES));
+                } catch (final Exception e) {
+                    this.console.logError(Messages.getString("MXAdapter.ConnectFailed"), e); //$NON-NLS-1$
                 }
+            }
+        }
+    }
 
-            } catch (final Exception e) {
+    /**
+     * Executes the combined handshake with the MX server within one
+     * Dispatcher call. The handshake returns the version of the MxUpdate
+     * server, the capabilities and the hash of the plug-in properties. The
+     * plug-in properties itself are only returned if the hash differs from
+     * the hash of the properties stored in the {@link #properties project
+     * properties}.
+     *
+     * @return <i>true</i> if the handshake was done; <i>false</i> if the MX
+     *         server answered the handshake with an exception (the server
+     *         does not support the handshake)
+     * @throws Exception if the communication with the MX server failed
+     * @see #negotiate()
+     */
+    protected boolean handshake()
+        throws Exception
+    {
+        final String curProps = this.properties.getImageConfig();
+        final String curHash = (curProps != null) ? DeploymentIndex.hash(curProps.getBytes("UTF-8")) : ""; //$NON-NLS-1$ //$NON-NLS-2$
+        final Map<?,?> bck = this.executeEncoded(null,
+                                                 "Handshake", //$NON-NLS-1$
+                                                 new Object[]{"PropertiesHash", curHash, //$NON-NLS-1$
+                                                              "ClientCapabilities", new ArrayList<String>(MXAdapter.CLIENT_CAPABILITIES)}); //$NON-NLS-1$
+        final Map<?,?> values = (Map<?,?>) bck.get(MXAdapter.RETURN_KEY_VALUES);
+        final boolean ret = (bck.get(MXAdapter.RETURN_KEY_EXCEPTION) == null) && (values != null);
+        if (ret)  {
+            // check versions
+            this.checkVersions((String) values.get("Version")); //$NON-NLS-1$
+
+            // capabilities
+            this.capabilities = MXAdapter.negotiateCapabilities(values.get("Capabilities")); //$NON-NLS-1$
+
+            // properties (only transferred if changed)
+            final String newProps = (String) values.get("Properties"); //$NON-NLS-1$
+            try  {
+                if (newProps != null)  {
+                    this.updateProperties(newProps);
+                } else  {
+                    this.propertiesHash = curHash;
+                }
+            } catch (final Exception e)  {
                 this.console.logError(Messages.getString("MXAdapter.ConnectFailed"), e); //$NON-NLS-1$
             }
+        }
+        return ret;
+    }
 
+    /**
+     * Updates the plug-in properties from the MX server. If the properties
+     * are changed, the properties are stored, the image descriptors are
+     * reloaded and the project is refreshed.
+     *
+     * @param _newProps     plug-in properties from the MX server
+     * @throws Exception if the properties could not be stored or the project
+     *                   not refreshed
+     */
+    protected void updateProperties(final String _newProps)
+        throws Exception
+    {
+        final String curProps = this.properties.getImageConfig();
+        this.propertiesHash = DeploymentIndex.hash(_newProps.getBytes("UTF-8")); //$NON-NLS-1$
+
+        // update if required
+        if (!_newProps.equals(curProps))  {
+            this.properties.storeImageConfig(_newProps);
+            this.console.logInfo(Messages.getString("MXAdapter.PluginPropertiesChanged")); //$NON-NLS-1$
+
+            // reload image descriptors
+            this.initImageDescriptors();
+
+            // and refresh project
+            this.project.touch(new NullProgressMonitor());
+        }
+    }
+
+    /**
+     * Fetches the version of the MxUpdate Update Deployment Tool from the MX
+     * server.
+     *
+     * @return version of the MxUpdate Update Deployment Tool; <code>null</code>
+     *         if the MX server answered with an exception
+     * @throws Exception if the communication with the MX server failed
+     * @see #negotiate()
+     */
+    protected String getUpdateVersion()
+        throws Exception
+    {
+        final Map<?,?> bck = this.executeEncoded(null, "GetVersion", null); //$NON-NLS-1$
+        String ret = null;
+        if (bck.get(MXAdapter.RETURN_KEY_EXCEPTION) != null)  {
+            this.console.logError(Messages.getString("MXAdapter.ExceptionGetUpdateVersion"), //$NON-NLS-1$
+                                  (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION));
+        } else  {
+            ret = (String) bck.get(MXAdapter.RETURN_KEY_VALUES);
         }
+        return ret;
     }
 
     /**
-     * Checks that the version of the MxUpdate Eclipse Plug-In and the version
-     * of the MxUpdate Update Deployment Tool have the same major and minor
-     * number within their versions. If not equal the plug-in automatically
-     * disconnects from MX.
+     * Checks that the version of the MxUpdate Eclipse Plug-In and given
+     * version of the MxUpdate Update Deployment Tool have the same major and
+     * minor number.
      *
+     * @param _updateVersion    version of the MxUpdate Update Deployment Tool
+     *                          (or <code>null</code> if not known)
      * @see #disconnect()
      * @see #getPlugInVersion()
-     * @see #connect()
+     * @see #negotiate()
      */
-    protected void checkVersions()
+    protected void checkVersions(final String _updateVersion)
     {
         String pluginVersion = null;
         try {
@@ -306,12 +972,8 @@ public class MXAdapter
             this.console.logError(Messages.getString("MXAdapter.ExceptionGetPlugInVersion"), e); //$NON-NLS-1$
         }
 
-        String updateVersionOrg = null;
-        try {
-            updateVersionOrg = (String) this.executeEncoded(null, "GetVersion", null).get(MXAdapter.RETURN_KEY_VALUES);
-        } catch (final Exception e) {
-            this.console.logError(Messages.getString("MXAdapter.ExceptionGetUpdateVersion"), e); //$NON-NLS-1$
-        }
+        final String updateVersionOrg = _updateVersion;
+        this.serverVersion = updateVersionOrg;
         final String updateVersion = (updateVersionOrg != null) ? updateVersionOrg.replace('-', '.') : null;
 
         final String[] pluginVersions = (pluginVersion != null) ? pluginVersion.split("\\.") : null; //$NON-NLS-1$
@@ -325,6 +987,58 @@ public class MXAdapter
         }
     }
 
+    /**
+     * Evaluates the optional capabilities of the MX server. If the server does
+     * not support the Dispatcher method &quot;GetCapabilities&quot; (older
+     * MxUpdate versions), no optional capabilities are used.
+     *
+     * @return <i>true</i> if the capabilities are evaluated; <i>false</i> if
+     *         the MX server answered with an exception (the server does not
+     *         support the capabilities)
+     * @throws Exception if the communication with the MX server failed
+     * @see #capabilities
+     */
+    protected boolean evalCapabilities()
+        throws Exception
+    {
+        final Map<?,?> bck = this.executeEncoded(null,
+                                                 "GetCapabilities", //$NON-NLS-1$
+                                                 new Object[]{"ClientCapabilities", new ArrayList<String>(MXAdapter.CLIENT_CAPABILITIES)}); //$NON-NLS-1$
+        final boolean ret = (bck.get(MXAdapter.RETURN_KEY_EXCEPTION) == null);
+        if (ret)  {
+            this.capabilities = MXAdapter.negotiateCapabilities(bck.get(MXAdapter.RETURN_KEY_VALUES));
+        } else  {
+            this.capabilities = Collections.emptySet();
+        }
+        return ret;
+    }
+
+    /**
+     * Negotiates the capabilities used for the communication with the MX
+     * server. Only capabilities supported from the MX server and from this
+     * plug-in (defined in {@link #CLIENT_CAPABILITIES}) are used; for all
+     * other features the plug-in falls back to the standard Dispatcher
+     * methods.
+     *
+     * @param _serverCapabilities   collection of capabilities returned from
+     *                              the MX server (or <code>null</code>)
+     * @return negotiated capabilities
+     * @see #capabilities
+     */
+    protected static Set<String> negotiateCapabilities(final Object _serverCapabilities)
+    {
+        final Set<String> ret = new HashSet<String>();
+        if (_serverCapabilities instanceof Collection<?>)  {
+            for (final Object capability : (Collection<?>) _serverCapabilities)  {
+                final String name = String.valueOf(capability);
+                if (MXAdapter.CLIENT_CAPABILITIES.contains(name))  {
+                    ret.add(name);
+                }
+            }
+        }
+        return ret;
+    }
+
     /**
      * Returns for this plug-in the version stored within manifest file.
      *
@@ -371,101 +1085,892 @@ public class MXAdapter
         } else  {
             this.connector.disconnect();
             this.connector = null;
+            this.capabilities = Collections.emptySet();
+            this.exportCache.clear();
+            this.serverVersion = null;
+            this.propertiesHash = null;
+            synchronized (this)  {
+                this.nameIndexSyncTime = 0;
+            }
+            this.closeResourceIndex();
             this.console.logInfo(Messages.getString("MXAdapter.Disconnected")); //$NON-NLS-1$
         }
         return disconnect;
     }
 
+    /**
+     * {@inheritDoc}
+     * The {@link #resourceIndex resource index} is stored and removed as
+     * resource change listener from the workspace and a started traffic
+     * recording is stopped.
+     *
+     * @see #disconnect()
+     * @see #closeResourceIndex()
+     * @see #stopTrafficRecording()
+     */
+    public void dispose()
+        throws Exception
+    {
+        this.stopTrafficRecording();
+        if (this.connector != null)  {
+            this.disconnect();
+        } else  {
+            this.closeResourceIndex();
+        }
+    }
+
+    /**
+     * Stores the {@link #resourceIndex resource index} and removes the index
+     * as resource change listener from the workspace, so that neither the
+     * listener nor the project is referenced from the workspace anymore. The
+     * index is loaded again on next {@link #getResourceIndex() access}.
+     */
+    protected synchronized void closeResourceIndex()
+    {
+        if (this.resourceIndex != null)  {
+            ResourcesPlugin.getWorkspace().removeResourceChangeListener(this.resourceIndex);
+            try  {
+                this.resourceIndex.store();
+            } catch (final IOException e)  {
+                this.console.logError(Messages.getString("MXAdapter.ExceptionStoreResourceIndexFailed"), e); //$NON-NLS-1$
+            }
+            this.resourceIndex = null;
+        }
+    }
+
     /**
      * Updates given MX update files in the MX database. If
      * {@link #PREF_UPDATE_FILE_CONTENT} is set, also the file content is
      * transfered within the update (e.g. if an update on another server is
-     * done).
+     * done).<br/>
+     * Per default all files are updated within one Dispatcher call, so that
+     * MxUpdate orders the files by their dependencies (e.g. attributes before
+     * the types using them). Only if a
+     * {@link ProjectProperties#getUpdateChunkSize() chunk size} is defined
+     * for the project, the files are updated in chunks and the update log of
+     * each chunk is streamed into the console as soon as the chunk is
+     * updated. If also a
+     * {@link ProjectProperties#getUpdateParallelism() parallelism} greater
+     * than one is defined, the chunks are updated in parallel on
+     * {@link IConnector#newSession() new MX sessions}. The results of all
+     * chunks are merged into one per-file result.
      *
      * @param _files    MxUpdate file which must be updated
      * @param _compile  if <i>true</i> all JPOs are compiled; if <i>false</i>
      *                  no JPOs are compiled, only an update is done
+     * @return merged update result
      * @throws Exception if update failed (or included connect)
      * @see #execMql(CharSequence)
+     * @see #updateChunk(IConnector, List, boolean, UpdateResult)
      */
-    public void update(final List<IFile> _files,
-                       final boolean _compile)
+    public IUpdateResult update(final List<IFile> _files,
+                                final boolean _compile)
+        throws Exception
+    {
+        return this.update(_files, _compile, false);
+    }
+
+    /**
+     * Updates given MxUpdate <code>_files</code>. If <code>_onlyChanged</code>
+     * is <i>true</i>, only the files whose content hash differs from their
+     * last successful deploy to the current MX server (depending on the
+     * {@link #getDeploymentIndex() deployment index}) are sent. After the
+     * update the deployment index is updated for all successfully updated
+     * files.
+     *
+     * @param _files        MxUpdate file which must be updated
+     * @param _compile      if <i>true</i> all JPOs are compiled; if
+     *                      <i>false</i> no JPOs are compiled, only an update
+     *                      is done
+     * @param _onlyChanged  if <i>true</i> only changed files are updated
+     * @return merged update result
+     * @throws Exception if update failed (or included connect)
+     * @see #update(List, boolean)
+     */
+    public IUpdateResult update(final List<IFile> _files,
+                                final boolean _compile,
+                                final boolean _onlyChanged)
+        throws Exception
+    {
+        return this.update(_files, _compile, _onlyChanged, new NullProgressMonitor());
+    }
+
+    /**
+     * {@inheritDoc}
+     * One unit of work is reported for each updated chunk. The cancel of the
+     * <code>_monitor</code> is checked before each chunk is sent. The update
+     * log of each chunk is appended to the console when the chunk is
+     * finished; so the log is only shown while the update runs if the
+     * update is split into chunks (see
+     * {@link ProjectProperties#getUpdateChunkSize()}).
+     *
+     * @see #update(List, boolean, boolean)
+     */
+    public IUpdateResult update(final List<IFile> _files,
+                                final boolean _compile,
+                                final boolean _onlyChanged,
+                                final IProgressMonitor _monitor)
         throws Exception
     {
         if (this.connector == null)  {
             this.connect();
         }
 
-        // update by file content
-        if (this.connector.isUpdateByFileContent())  {
-            final Map<String,String> files = new HashMap<String,String>();
-            for (final IFile file: _files)  {
+        // evaluate hashes and skip unchanged files
+        final DeploymentIndex index = this.getDeploymentIndex();
+        final ResourceIndex resIndex = this.getResourceIndex();
+        final String serverId = this.connector.getServerId();
+        final Map<IFile,String> hashes = new HashMap<IFile,String>();
+        final List<IFile> files = new ArrayList<IFile>();
+        for (final IFile file : _files)  {
+            String hash = null;
+            try  {
+                hash = resIndex.getHash(file);
+                hashes.put(file, hash);
+            } catch (final IOException e)  {
+                // hash not known, so the file is always updated
+            }
+            if (!_onlyChanged || (hash == null)
+                    || index.isChanged(file.getProjectRelativePath().toString(), hash, serverId))  {
+                files.add(file);
+            }
+        }
+        if (_onlyChanged)  {
+            this.console.logInfo(Messages.getString("MXAdapter.UpdateSkippedUnchanged", //$NON-NLS-1$
+                                                    _files.size() - files.size()));
+        }
+
+        // split into chunks (only if a chunk size is defined)
+        final int chunkSize = (this.properties.getUpdateChunkSize() > 0)
+                              ? this.properties.getUpdateChunkSize()
+                              : files.size();
+        final List<List<IFile>> chunks = new ArrayList<List<IFile>>();
+        for (int start = 0; start < files.size(); start += chunkSize)  {
+            chunks.add(files.subList(start, Math.min(start + chunkSize, files.size())));
+        }
+
+        final UpdateResult result = new UpdateResult();
+        final int parallelism = Math.min(this.properties.getUpdateParallelism(), chunks.size());
+        _monitor.beginTask(Messages.getString("MXAdapter.UpdateTask", files.size()), chunks.size()); //$NON-NLS-1$
+        try  {
+            if (parallelism <= 1)  {
+                for (final List<IFile> chunk : chunks)  {
+                    if (_monitor.isCanceled())  {
+                        break;
+                    }
+                    this.updateChunk(this.connector, chunk, _compile, result);
+                    _monitor.worked(1);
+                }
+            } else  {
+                this.updateParallel(chunks, parallelism, _compile, result, _monitor);
+            }
+        } finally  {
+            _monitor.done();
+        }
+
+        // log summary
+        final Map<IFile,String> failed = result.getFailedFiles();
+        if (failed.isEmpty())  {
+            this.console.logInfo(Messages.getString("MXAdapter.UpdateSummary", //$NON-NLS-1$
+                                                    result.getUpdatedFiles().size()));
+        } else  {
+            final StringBuilder text = new StringBuilder();
+            for (final Map.Entry<IFile,String> entry : failed.entrySet())  {
+                text.append('\n').append(entry.getKey().getLocation().toString()).append(": ").append(entry.getValue()); //$NON-NLS-1$
+            }
+            this.console.logError(Messages.getString("MXAdapter.UpdateSummaryFailed", //$NON-NLS-1$
+                                                     result.getUpdatedFiles().size(),
+                                                     failed.size(),
+                                                     text.toString()));
+        }
+
+        // invalidate cached exports of the updated files and the name index
+        for (final IFile file : files)  {
+            this.exportCache.invalidate(file.getName());
+        }
+        synchronized (this)  {
+            this.nameIndexSyncTime = 0;
+        }
+
+        // update deployment index (and the deployed contents for delta updates)
+        final boolean delta = this.connector.isUpdateByFileContent()
+                && this.capabilities.contains(MXAdapter.CAPABILITY_UPDATE_DELTA);
+        final long time = System.currentTimeMillis();
+        for (final IFile file : result.getUpdatedFiles())  {
+            final String hash = hashes.get(file);
+            if (hash != null)  {
+                final DeploymentIndex.Entry previous = index.get(file.getProjectRelativePath().toString());
+                index.put(file.getProjectRelativePath().toString(), hash, serverId, time);
+                if (delta)  {
+                    this.storeDeployedContent(file, hash, previous);
+                }
+            }
+        }
+        for (final IFile file : failed.keySet())  {
+            final DeploymentIndex.Entry previous = index.get(file.getProjectRelativePath().toString());
+            if (previous != null)  {
+                this.getContentStore().remove(file.getProjectRelativePath().toString(), previous.getHash());
+            }
+            index.remove(file.getProjectRelativePath().toString());
+        }
+        try  {
+            index.store();
+        } catch (final IOException e)  {
+            this.console.logError(Messages.getString("MXAdapter.ExceptionStoreDeploymentIndexFailed"), e); //$NON-NLS-1$
+        }
+        try  {
+            resIndex.store();
+        } catch (final IOException e)  {
+            this.console.logError(Messages.getString("MXAdapter.ExceptionStoreResourceIndexFailed"), e); //$NON-NLS-1$
+        }
+
+        return result;
+    }
+
+    /**
+     * Stores the deployed content of given <code>_file</code> in the
+     * {@link #getContentStore() content store} as base for the next delta
+     * update and removes the content of the <code>_previous</code> deploy.
+     * The content is only stored for files with at least
+     * {@link #DELTA_MIN_SIZE} bytes and if the file was not changed since the
+     * <code>_hash</code> was calculated.
+     *
+     * @param _file     deployed file
+     * @param _hash     hash of the deployed content
+     * @param _previous previous deploy entry of the file (or
+     *                  <code>null</code>)
+     */
+    protected void storeDeployedContent(final IFile _file,
+                                        final String _hash,
+                                        final DeploymentIndex.Entry _previous)
+    {
+        final ContentStore store = this.getContentStore();
+        final String path = _file.getProjectRelativePath().toString();
+        try  {
+            if ((_previous != null) && !_hash.equals(_previous.getHash()))  {
+                store.remove(path, _previous.getHash());
+            }
+            final File file = _file.getLocation().toFile();
+            if (file.length() >= MXAdapter.DELTA_MIN_SIZE)  {
+                final byte[] content = MXAdapter.readFile(file);
+                if (_hash.equals(DeploymentIndex.hash(content)))  {
+                    store.put(path, _hash, content);
+                }
+            }
+        } catch (final IOException e)  {
+            this.console.logError(Messages.getString("MXAdapter.ExceptionStoreDeployedContentFailed", //$NON-NLS-1$
+                                                     _file.getLocation().toString()),
+                                  e);
+        }
+    }
+
+    /**
+     * Updates given <code>_chunks</code> in parallel. The main
+     * {@link #connector} and up to <code>_parallelism - 1</code> new sessions
+     * are used. If a new session could not be opened, the update is done with
+     * the already opened sessions.
+     *
+     * @param _chunks       chunks of files to update
+     * @param _parallelism  number of parallel sessions
+     * @param _compile      if <i>true</i> all JPOs are compiled
+     * @param _result       result where the status of the files is stored
+     * @param _monitor      progress monitor; canceled chunks are not sent
+     * @throws InterruptedException if the update is interrupted
+     * @see #updateChunk(IConnector, List, boolean, UpdateResult)
+     */
+    protected void updateParallel(final List<List<IFile>> _chunks,
+                                  final int _parallelism,
+                                  final boolean _compile,
+                                  final UpdateResult _result,
+                                  final IProgressMonitor _monitor)
+        throws InterruptedException
+    {
+        // open sessions
+        final List<IConnector> newSessions = new ArrayList<IConnector>();
+        final BlockingQueue<IConnector> sessions = new LinkedBlockingQueue<IConnector>();
+        sessions.add(this.connector);
+        try  {
+            for (int idx = 1; idx < _parallelism; idx++)  {
                 try  {
-                    final InputStream in = new FileInputStream(file.getLocation().toFile());
-                    final byte[] bytes = new byte[in.available()];
-                    in.read(bytes);
-                    in.close();
-                    files.put(file.getLocation().toString(),
-                              new String(bytes, file.getCharset()));
+                    final IConnector session = this.connector.newSession();
+                    newSessions.add(session);
+                    sessions.add(session);
+                } catch (final Exception e)  {
+                    this.console.logError(Messages.getString("MXAdapter.ExceptionNewSessionFailed"), e); //$NON-NLS-1$
+                    break;
+                }
+            }
+
+            // update chunks (each task uses one free session)
+            final ExecutorService executor = Executors.newFixedThreadPool(sessions.size());
+            try  {
+                final List<Future<?>> futures = new ArrayList<Future<?>>();
+                for (final List<IFile> chunk : _chunks)  {
+                    futures.add(executor.submit(new Runnable()  {
+                        public void run()
+                        {
+                            try  {
+                                final IConnector session = sessions.take();
+                                try  {
+                                    if (!_monitor.isCanceled())  {
+                                        MXAdapter.this.updateChunk(session, chunk, _compile, _result);
+                                        synchronized (_monitor)  {
+                                            _monitor.worked(1);
+                                        }
+                                    }
+                                } finally  {
+                                    sessions.add(session);
+                                }
+                            } catch (final Exception e)  {
+                                MXAdapter.this.console.logError(
+                                        Messages.getString("MXAdapter.ExceptionUpdateFailed", chunk.toString()), e); //$NON-NLS-1$
+                                _result.addFailed(chunk, e.toString());
+                            }
+                        }
+                    }));
+                }
+                for (int idx = 0; idx < futures.size(); idx++)  {
+                    try  {
+                        futures.get(idx).get();
+                    } catch (final ExecutionException e)  {
+                        final List<IFile> chunk = _chunks.get(idx);
+                        this.console.logError(Messages.getString("MXAdapter.ExceptionUpdateFailed", chunk.toString()), //$NON-NLS-1$
+                                              e.getCause());
+                        _result.addFailed(chunk, e.getCause().toString());
+                    }
+                }
+            } finally  {
+                executor.shutdownNow();
+            }
+        } finally  {
+            // close new sessions
+            for (final IConnector session : newSessions)  {
+                try  {
+                    session.disconnect();
+                } catch (final Exception e)  {
+                    this.console.logError(Messages.getString("MXAdapter.ExceptionDisconnectSessionFailed"), e); //$NON-NLS-1$
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates given chunk of MxUpdate <code>_files</code> within one
+     * Dispatcher call on given <code>_connector</code>. The update log is
+     * appended to the console and the status of the files is stored in
+     * <code>_result</code>. If the MX server rejects the update because a
+     * {@link #CAPABILITY_UPDATE_DELTA delta} could not be applied or a
+     * {@link #CAPABILITY_UPLOAD_CACHE cached content} is not known anymore,
+     * nothing is updated and the complete chunk is updated again with the
+     * complete contents, so that the files of the chunk are always updated
+     * within one call (and MxUpdate could order them by their dependencies).
+     *
+     * @param _connector    connector used for the update
+     * @param _files        MxUpdate files which must be updated
+     * @param _compile      if <i>true</i> all JPOs are compiled; if
+     *                      <i>false</i> no JPOs are compiled, only an update
+     *                      is done
+     * @param _result       result where the status of the files is stored
+     * @see #update(List, boolean)
+     */
+    protected void updateChunk(final IConnector _connector,
+                               final List<IFile> _files,
+                               final boolean _compile,
+                               final UpdateResult _result)
+    {
+        final FlightRecorderEvents.Span span = FlightRecorderEvents.begin(FlightRecorderEvents.EventType.UPDATE_BATCH,
+                                                                          this.project.getName())
+                .set("files", _files.size()) //$NON-NLS-1$
+                .set("compile", _compile); //$NON-NLS-1$
+        try  {
+            if (_connector.isUpdateByFileContent())  {
+                final boolean references = this.capabilities.contains(MXAdapter.CAPABILITY_UPDATE_DELTA)
+                        || this.capabilities.contains(MXAdapter.CAPABILITY_UPLOAD_CACHE);
+                if (!this.updateContents(_connector, _files, references, _compile, _result))  {
+                    this.updateContents(_connector, _files, false, _compile, _result);
+                }
+            // update by file names
+            } else  {
+                final Set<String> fileNames = new HashSet<String>();
+                for (final IFile file: _files)  {
+                    fileNames.add(file.getLocation().toString());
+                }
+                this.updateChunk(_connector, _files, fileNames.toString(),
+                                 new Object[]{"FileNames", fileNames}, //$NON-NLS-1$
+                                 _compile, _result);
+            }
+        } finally  {
+            span.commit();
+        }
+    }
+
+    /**
+     * Updates given <code>_files</code> with their contents within one call
+     * of the Dispatcher method &quot;Update&quot;. If
+     * <code>_references</code> is set, the files with a known base are sent
+     * as {@link #evalDeltas(IConnector, List, Map, List) line deltas} and the
+     * files with a content {@link #uploadCache(IConnector, List, boolean, Map, Map, List)
+     * cached on the MX server} are sent with their content hashes. All other
+     * files are sent with the complete content; if possible the file blocks
+     * are uploaded before (so that the used heap does not depend on the file
+     * sizes) and the update references the upload.
+     *
+     * @param _connector    connector used for the update
+     * @param _files        MxUpdate files which must be updated
+     * @param _references   if <i>true</i> line deltas and cached contents are
+     *                      referenced
+     * @param _compile      if <i>true</i> all JPOs are compiled
+     * @param _result       result where the status of the files is stored
+     * @return <i>true</i> if the update was done; <i>false</i> if the MX
+     *         server rejected a delta or cached content and nothing was
+     *         updated
+     */
+    private boolean updateContents(final IConnector _connector,
+                                   final List<IFile> _files,
+                                   final boolean _references,
+                                   final boolean _compile,
+                                   final UpdateResult _result)
+    {
+        final List<Object> arguments = new ArrayList<Object>();
+        final List<IFile> sent = new ArrayList<IFile>();
+
+        // line deltas
+        List<IFile> files = _files;
+        if (_references && this.capabilities.contains(MXAdapter.CAPABILITY_UPDATE_DELTA))  {
+            final Map<String,Map<String,Object>> deltas = new HashMap<String,Map<String,Object>>();
+            files = this.evalDeltas(_connector, _files, deltas, sent);
+            if (!deltas.isEmpty())  {
+                arguments.add("Deltas"); //$NON-NLS-1$
+                arguments.add(deltas);
+            }
+        }
+
+        // contents already cached on the MX server are not sent again
+        final boolean blocks = this.capabilities.contains(MXAdapter.CAPABILITY_UPLOAD_FILE_BLOCK);
+        if (_references && !files.isEmpty() && this.capabilities.contains(MXAdapter.CAPABILITY_UPLOAD_CACHE))  {
+            final Map<String,String> hashes = new HashMap<String,String>();
+            final Map<String,String> charsets = new HashMap<String,String>();
+            files = this.uploadCache(_connector, files, !blocks, hashes, charsets, sent);
+            if (!hashes.isEmpty())  {
+                arguments.add("Hashes"); //$NON-NLS-1$
+                arguments.add(hashes);
+                arguments.add("Charsets"); //$NON-NLS-1$
+                arguments.add(charsets);
+            }
+        }
+
+        if (files.isEmpty())  {
+            // nothing else to update
+        // complete contents by uploaded file blocks
+        } else if (blocks)  {
+            final List<IFile> uploaded = new ArrayList<IFile>();
+            final String uploadId = this.uploadFiles(_connector, files, _result, uploaded);
+            if (!uploaded.isEmpty())  {
+                arguments.add("Upload"); //$NON-NLS-1$
+                arguments.add(uploadId);
+                sent.addAll(uploaded);
+            }
+        // complete contents within the update
+        } else  {
+            final Map<String,String> contents = new HashMap<String,String>();
+            for (final IFile file: files)  {
+                try  {
+                    contents.put(file.getLocation().toString(),
+                              new String(MXAdapter.readFile(file.getLocation().toFile()), file.getCharset()));
+                    sent.add(file);
                 } catch (final UnsupportedEncodingException e)  {
                     this.console.logError(Messages.getString("MXAdapter.ExceptionConvertFileContent", //$NON-NLS-1$
                                                              file.getLocation().toString()),
                                           e);
+                    _result.addFailed(file, e.toString());
                 } catch (final CoreException e) {
                     this.console.logError(Messages.getString("MXAdapter.ExceptionFileCharSet", //$NON-NLS-1$
                                                              file.getLocation().toString()),
                                           e);
+                    _result.addFailed(file, e.toString());
                 } catch (final IOException e) {
                     this.console.logError(Messages.getString("MXAdapter.ExceptionReadFileContentFailed", //$NON-NLS-1$
                                                              file.getLocation().toString()),
                                           e);
+                    _result.addFailed(file, e.toString());
                 }
             }
-            try {
-                final Map<?,?> bck = this.executeEncoded(new String[]{"Compile", String.valueOf(_compile)},
-                                                         "Update",
-                                                         new Object[]{"FileContents", files});
-                this.console.appendLog((String) bck.get(MXAdapter.RETURN_KEY_LOG));
-                final Exception ex = (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION);
-                if (ex != null)  {
-                    this.console.logError(Messages.getString("MXAdapter.ExceptionUpdateFailed",  //$NON-NLS-1$
-                                                             files.keySet().toString()),
-                                          ex);
+            if (!contents.isEmpty())  {
+                arguments.add("FileContents"); //$NON-NLS-1$
+                arguments.add(contents);
+            }
+        }
+
+        boolean ret = true;
+        if (!sent.isEmpty())  {
+            final Collection<?> rejected = this.updateChunk(_connector, sent, sent.toString(),
+                                                            arguments.toArray(), _compile, _result);
+            if (!rejected.isEmpty())  {
+                this.console.logInfo(Messages.getString("MXAdapter.UpdateRejected", rejected.size())); //$NON-NLS-1$
+                ret = false;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Evaluates the {@link LineDelta line deltas} of the <code>_files</code>
+     * with a known base content. A delta is only used if the file was
+     * deployed to the same MX server, the deployed content is stored in the
+     * {@link #getContentStore() content store}, the file has at least
+     * {@link #DELTA_MIN_SIZE} bytes and the delta is smaller than the half
+     * of the content. Nothing is sent to the MX server.
+     *
+     * @param _connector    connector used for the update
+     * @param _files        MxUpdate files which must be updated
+     * @param _deltas       map where the deltas are stored (depending on the
+     *                      path of the file)
+     * @param _deltaFiles   list where the files with a delta are added
+     * @return files which must be updated with the complete content
+     */
+    private List<IFile> evalDeltas(final IConnector _connector,
+                                   final List<IFile> _files,
+                                   final Map<String,Map<String,Object>> _deltas,
+                                   final List<IFile> _deltaFiles)
+    {
+        final List<IFile> ret = new ArrayList<IFile>();
+        for (final IFile file : _files)  {
+            Map<String,Object> delta = null;
+            try  {
+                final File localFile = file.getLocation().toFile();
+                final DeploymentIndex.Entry entry = this.getDeploymentIndex().get(file.getProjectRelativePath().toString());
+                final byte[] base = ((entry != null)
+                                            && _connector.getServerId().equals(entry.getServerId())
+                                            && (localFile.length() >= MXAdapter.DELTA_MIN_SIZE))
+                                    ? this.getContentStore().get(file.getProjectRelativePath().toString(), entry.getHash())
+                                    : null;
+                if (base != null)  {
+                    final String charset = file.getCharset();
+                    final byte[] content = MXAdapter.readFile(localFile);
+                    final String target = new String(content, charset);
+                    final List<Object> operations = LineDelta.create(new String(base, charset), target);
+                    if ((LineDelta.getInsertedLength(operations) * 2) < target.length())  {
+                        delta = new HashMap<String,Object>();
+                        delta.put("Charset", charset); //$NON-NLS-1$
+                        delta.put("BaseHash", entry.getHash()); //$NON-NLS-1$
+                        delta.put("Hash", DeploymentIndex.hash(content)); //$NON-NLS-1$
+                        delta.put("Delta", operations); //$NON-NLS-1$
+                    }
                 }
             } catch (final Exception e)  {
-                this.console.logError(Messages.getString("MXAdapter.ExceptionUpdateFailed",  //$NON-NLS-1$
-                                                         files.keySet().toString()),
-                                      e);
+                // delta could not be evaluated, so the complete content is sent
+                delta = null;
             }
-        // update by file names
-        } else  {
-            final Set<String> fileNames = new HashSet<String>();
-            for (final IFile file: _files)  {
-                fileNames.add(file.getLocation().toString());
+            if (delta != null)  {
+                _deltas.put(file.getLocation().toString(), delta);
+                _deltaFiles.add(file);
+            } else  {
+                ret.add(file);
             }
-            try {
-                final Map<?,?> bck = this.executeEncoded(new String[]{"Compile", String.valueOf(_compile)},
-                                                         "Update",
-                                                         new Object[]{"FileNames", fileNames});
-                this.console.appendLog((String) bck.get(MXAdapter.RETURN_KEY_LOG));
-                final Exception ex = (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION);
-                if (ex != null)  {
-                    this.console.logError(Messages.getString("MXAdapter.ExceptionUpdateFailed",  //$NON-NLS-1$
-                                                             fileNames.toString()),
-                                          ex);
+        }
+        return ret;
+    }
+
+    /**
+     * Evaluates the <code>_files</code> whose content is cached on the MX
+     * server with the Dispatcher method {@link #CAPABILITY_UPLOAD_CACHE}. The
+     * hash of a file is the hash of the raw bytes of the file (see
+     * {@link DeploymentIndex#hash(File)}); the hashes are cached within the
+     * {@link #getResourceIndex() resource index}, so unchanged files are not
+     * read. The first call sends only the hashes and the MX server returns
+     * the unknown hashes. If <code>_sendContents</code> is set, the raw bytes
+     * of the unknown hashes (each content only once, also if used from more
+     * than one file) are uploaded into the cache within a second call. No
+     * file is updated by these calls; the hashes and charsets of the cached
+     * files are returned, so that the files are updated together with all
+     * other files of the chunk. Files without cached content are returned and
+     * must be updated with the complete content (e.g. with an upload of the
+     * file blocks, so that the used heap does not depend on the file sizes).
+     *
+     * @param _connector    connector used for the calls
+     * @param _files        MxUpdate files which must be updated
+     * @param _sendContents if <i>true</i> the contents of the unknown hashes
+     *                      are uploaded within a second call
+     * @param _hashes       map where the hashes of the cached files are
+     *                      stored (depending on the path of the file)
+     * @param _charsets     map where the charsets of the cached files are
+     *                      stored (depending on the path of the file)
+     * @param _cachedFiles  list where the cached files are added
+     * @return files which must be updated with the complete content
+     */
+    private List<IFile> uploadCache(final IConnector _connector,
+                                    final List<IFile> _files,
+                                    final boolean _sendContents,
+                                    final Map<String,String> _hashes,
+                                    final Map<String,String> _charsets,
+                                    final List<IFile> _cachedFiles)
+    {
+        final List<IFile> ret = new ArrayList<IFile>();
+        final Map<String,String> hashes = new HashMap<String,String>();
+        final Map<String,String> charsets = new HashMap<String,String>();
+        final Map<String,IFile> files = new HashMap<String,IFile>();
+        for (final IFile file : _files)  {
+            final String path = file.getLocation().toString();
+            try  {
+                hashes.put(path, this.getResourceIndex().getHash(file));
+                charsets.put(path, file.getCharset());
+                files.put(path, file);
+            } catch (final CoreException e)  {
+                hashes.remove(path);
+                ret.add(file);
+            } catch (final IOException e)  {
+                hashes.remove(path);
+                ret.add(file);
+            }
+        }
+
+        // first call with hashes only, second call with the unknown contents
+        Collection<?> missing = null;
+        try  {
+            missing = this.queryCache(_connector, new HashSet<String>(hashes.values()), new HashMap<String,byte[]>());
+            final int hits = files.size() - this.countMissing(hashes, missing);
+            if (hits > 0)  {
+                this.console.logInfo(Messages.getString("MXAdapter.UpdateCacheHits", hits, _files.size())); //$NON-NLS-1$
+            }
+            if (_sendContents && !missing.isEmpty())  {
+                final Map<String,byte[]> blobs = new HashMap<String,byte[]>();
+                for (final Map.Entry<String,IFile> entry : files.entrySet())  {
+                    final String hash = hashes.get(entry.getKey());
+                    if (missing.contains(hash) && !blobs.containsKey(hash))  {
+                        try  {
+                            blobs.put(hash, MXAdapter.readFile(entry.getValue().getLocation().toFile()));
+                        } catch (final IOException e)  {
+                            // file is returned and updated with the complete content
+                        }
+                    }
+                }
+                if (!blobs.isEmpty())  {
+                    final Set<String> notUploaded = new HashSet<String>();
+                    for (final Object hash : missing)  {
+                        if (!blobs.containsKey(hash))  {
+                            notUploaded.add((String) hash);
+                        }
+                    }
+                    for (final Object hash : this.queryCache(_connector, new HashSet<String>(blobs.keySet()), blobs))  {
+                        notUploaded.add((String) hash);
+                    }
+                    missing = notUploaded;
                 }
+            }
+        } catch (final Exception e)  {
+            // cache could not be used, so the complete contents are sent
+            missing = null;
+        }
+
+        for (final Map.Entry<String,IFile> entry : files.entrySet())  {
+            final String hash = hashes.get(entry.getKey());
+            if ((missing != null) && !missing.contains(hash))  {
+                _hashes.put(entry.getKey(), hash);
+                _charsets.put(entry.getKey(), charsets.get(entry.getKey()));
+                _cachedFiles.add(entry.getValue());
+            } else  {
+                ret.add(entry.getValue());
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Calls the Dispatcher method {@link #CAPABILITY_UPLOAD_CACHE} with given
+     * <code>_hashes</code> and <code>_contents</code>. The MX server stores
+     * the uploaded contents in the cache and returns the hashes whose
+     * contents are still unknown. Nothing is updated.
+     *
+     * @param _connector    connector used for the call
+     * @param _hashes       hashes to check
+     * @param _contents     raw bytes to upload depending on their hashes
+     * @return unknown hashes
+     * @throws Exception if the call failed
+     */
+    private Collection<?> queryCache(final IConnector _connector,
+                                     final Set<String> _hashes,
+                                     final Map<String,byte[]> _contents)
+        throws Exception
+    {
+        final Map<?,?> bck = this.executeEncoded(_connector,
+                                                 null,
+                                                 MXAdapter.CAPABILITY_UPLOAD_CACHE,
+                                                 new Object[]{"Hashes", _hashes, //$NON-NLS-1$
+                                                              "Contents", _contents}); //$NON-NLS-1$
+        if (bck.get(MXAdapter.RETURN_KEY_EXCEPTION) != null)  {
+            throw (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION);
+        }
+        final Collection<?> ret = (Collection<?>) bck.get(MXAdapter.RETURN_KEY_VALUES);
+        return (ret != null) ? ret : Collections.emptyList();
+    }
+
+    /**
+     * Counts the files whose hash is within the <code>_missing</code>
+     * hashes.
+     *
+     * @param _hashes   hashes depending on the file paths
+     * @param _missing  unknown hashes
+     * @return number of files with unknown hash
+     */
+    private int countMissing(final Map<String,String> _hashes,
+                             final Collection<?> _missing)
+    {
+        int ret = 0;
+        for (final String hash : _hashes.values())  {
+            if (_missing.contains(hash))  {
+                ret++;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Uploads the content of given <code>_files</code> block by block with
+     * the Dispatcher method {@link #CAPABILITY_UPLOAD_FILE_BLOCK}. The files
+     * are read through a file channel into one reused buffer of
+     * {@link #UPLOAD_BLOCK_SIZE} bytes and sent as raw bytes together with
+     * the charset of the file, so that the content is not converted on the
+     * client and the used heap does not depend on the file sizes. The
+     * uploaded files could be updated with the returned upload identifier.
+     *
+     * @param _connector    connector used for the upload
+     * @param _files        files to upload
+     * @param _result       result where the failed files are stored
+     * @param _uploaded     list where the successfully uploaded files are
+     *                      added
+     * @return identifier of the upload
+     */
+    private String uploadFiles(final IConnector _connector,
+                               final List<IFile> _files,
+                               final UpdateResult _result,
+                               final List<IFile> _uploaded)
+    {
+        final String uploadId = UUID.randomUUID().toString();
+        final ByteBuffer buffer = ByteBuffer.allocate(MXAdapter.UPLOAD_BLOCK_SIZE);
+        for (final IFile file : _files)  {
+            final String path = file.getLocation().toString();
+            try  {
+                final String charset = file.getCharset();
+                final FileChannel channel = new FileInputStream(file.getLocation().toFile()).getChannel();
+                try  {
+                    long offset = 0;
+                    boolean last = false;
+                    while (!last)  {
+                        buffer.clear();
+                        while (buffer.hasRemaining() && !last)  {
+                            last = (channel.read(buffer) < 0);
+                        }
+                        final byte[] block = Arrays.copyOf(buffer.array(), buffer.position());
+                        final Map<?,?> bck = this.executeEncoded(_connector,
+                                                                 null,
+                                                                 MXAdapter.CAPABILITY_UPLOAD_FILE_BLOCK,
+                                                                 new Object[]{"Upload", uploadId, //$NON-NLS-1$
+                                                                              "File", path, //$NON-NLS-1$
+                                                                              "Charset", charset, //$NON-NLS-1$
+                                                                              "Offset", offset, //$NON-NLS-1$
+                                                                              "Bytes", block, //$NON-NLS-1$
+                                                                              "Last", last}); //$NON-NLS-1$
+                        if (bck.get(MXAdapter.RETURN_KEY_EXCEPTION) != null)  {
+                            throw (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION);
+                        }
+                        offset += block.length;
+                    }
+                } finally  {
+                    channel.close();
+                }
+                _uploaded.add(file);
             } catch (final Exception e)  {
-                this.console.logError(Messages.getString("MXAdapter.ExceptionUpdateFailed", //$NON-NLS-1$
-                                                         fileNames.toString()),
-                                      e);
+                this.console.logError(Messages.getString("MXAdapter.ExceptionUploadFileFailed", path), e); //$NON-NLS-1$
+                _result.addFailed(file, e.toString());
+            }
+        }
+        return uploadId;
+    }
+
+    /**
+     * Reads the complete content of given <code>_file</code> through a file
+     * channel.
+     *
+     * @param _file     file to read
+     * @return content of the file
+     * @throws IOException if the file could not be read
+     */
+    private static byte[] readFile(final File _file)
+        throws IOException
+    {
+        final FileChannel channel = new FileInputStream(_file).getChannel();
+        try  {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE)  {
+                throw new IOException("file '" + _file + "' is too large"); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && (channel.read(buffer) >= 0))  {
+                // read until buffer is full or end of file
+            }
+            return (buffer.position() == buffer.capacity())
+                   ? buffer.array()
+                   : Arrays.copyOf(buffer.array(), buffer.position());
+        } finally  {
+            channel.close();
+        }
+    }
+
+    /**
+     * Calls the Dispatcher method &quot;Update&quot; for one chunk of files.
+     * If the MX server rejects the update (because a delta could not be
+     * applied or a referenced cached content is not known), nothing is updated, the status of the files is not stored and
+     * the rejected files are returned.
+     *
+     * @param _connector    connector used for the update
+     * @param _files        files of the chunk
+     * @param _names        names of the files used for logging
+     * @param _arguments    Dispatcher arguments (pairs of argument name and
+     *                      value, e.g. file contents or file names)
+     * @param _compile      if <i>true</i> all JPOs are compiled
+     * @param _result       result where the status of the files is stored
+     * @return paths of the rejected files; empty if the update was done (or
+     *         failed)
+     */
+    private Collection<?> updateChunk(final IConnector _connector,
+                                      final List<IFile> _files,
+                                      final String _names,
+                                      final Object[] _arguments,
+                                      final boolean _compile,
+                                      final UpdateResult _result)
+    {
+        Collection<?> ret = Collections.emptyList();
+        try {
+            final Map<?,?> bck = this.executeEncoded(_connector,
+                                                     new String[]{"Compile", String.valueOf(_compile)},
+                                                     "Update",
+                                                     _arguments);
+            this.console.appendLog((String) bck.get(MXAdapter.RETURN_KEY_LOG));
+            final Exception ex = (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION);
+            final Collection<?> rejected = (Collection<?>) bck.get(MXAdapter.RETURN_KEY_VALUES);
+            if (ex != null)  {
+                this.console.logError(Messages.getString("MXAdapter.ExceptionUpdateFailed", _names), ex); //$NON-NLS-1$
+                _result.addFailed(_files, ex.toString());
+            } else if ((rejected != null) && !rejected.isEmpty())  {
+                ret = rejected;
+            } else  {
+                _result.addUpdated(_files);
             }
+        } catch (final Exception e) {
+            this.console.logError(Messages.getString("MXAdapter.ExceptionUpdateFailed", _names), e); //$NON-NLS-1$
+            _result.addFailed(_files, e.toString());
         }
+        return ret;
     }
 
     /**
      * {@inheritDoc}
      * The type definition root is evaluated directly in MX and only converted
-     * in the required format.
+     * in the required format. The tree is cached persistently; the cached
+     * tree is used as long as the version of the MxUpdate server and the
+     * hash of the plug-in properties are not changed.
+     *
+     * @see #typeDefTreeCache
      */
     public ITypeDefRoot getTypeDefRoot()
         throws Exception
@@ -474,22 +1979,44 @@ public class MXAdapter
             this.connect();
         }
 
-        Map<?,?> bck = null;
-        try {
-            bck = this.executeEncoded(null, "TypeDefTreeList", null);
-        } catch (final Exception e) {
-            this.console.logError(Messages.getString("MXAdapter.ExceptionRootTypeDefFailed"), e); //$NON-NLS-1$
+        // use the cached tree if the server version and properties are equal
+        final TypeDefTreeCache cache;
+        synchronized (this)  {
+            if (this.typeDefTreeCache == null)  {
+                this.typeDefTreeCache = new TypeDefTreeCache(
+                        new File(Activator.getDefault().getStateLocation().append(this.project.getName()).toFile(),
+                                 "typedef.tree")); //$NON-NLS-1$
+            }
+            cache = this.typeDefTreeCache;
+        }
+        Map<?,?> treeMap = cache.get(this.serverVersion, this.propertiesHash);
+
+        if (treeMap == null)  {
+            Map<?,?> bck = null;
+            try {
+                bck = this.executeEncoded(null, "TypeDefTreeList", null);
+            } catch (final Exception e) {
+                this.console.logError(Messages.getString("MXAdapter.ExceptionRootTypeDefFailed"), e); //$NON-NLS-1$
+            }
+            if ((bck != null) && (bck.get(MXAdapter.RETURN_KEY_EXCEPTION) != null))  {
+                this.console.logError(Messages.getString("MXAdapter.ExceptionRootTypeDefFailed"), //$NON-NLS-1$
+                                      (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION));
+            } else if (bck != null)  {
+                treeMap = (Map<?,?>) bck.get(MXAdapter.RETURN_KEY_VALUES);
+                if ((this.serverVersion != null) && (this.propertiesHash != null))  {
+                    try  {
+                        cache.put(this.serverVersion, this.propertiesHash, treeMap);
+                    } catch (final IOException e)  {
+                        this.console.logError(Messages.getString("MXAdapter.ExceptionStoreTypeDefTreeFailed"), e); //$NON-NLS-1$
+                    }
+                }
+            }
         }
 
         final ITypeDefRoot ret;
-        if (bck == null)  {
+        if (treeMap == null)  {
             ret = null;
-        } else if (bck.get(MXAdapter.RETURN_KEY_EXCEPTION) != null)  {
-            ret = null;
-            this.console.logError(Messages.getString("MXAdapter.ExceptionRootTypeDefFailed"), //$NON-NLS-1$
-                                  (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION));
         } else  {
-            final Map<?,?> treeMap = (Map<?,?>) bck.get(MXAdapter.RETURN_KEY_VALUES);
             ret = new ITypeDefRoot()  {
                 private final Collection<ITypeDefNode> typeDefNodes = new ArrayList<ITypeDefNode>();
                 public Collection<ITypeDefNode> getSubTypeDef()
@@ -562,42 +2089,175 @@ public class MXAdapter
     public List<ISearchItem> search(final Set<String> _typeDefList,
                                     final String _match)
     {
-        Map<?,?> bck = null;
+        List<ISearchItem> ret = new ArrayList<ISearchItem>();
         try {
-            bck = this.executeEncoded(null,
-                                      "Search",
-                                      new Object[]{"TypeDefList", _typeDefList,
-                                                   "Match", _match});
+            ret = this.searchPage(_typeDefList, _match, null);
         } catch (final Exception e) {
-            this.console.logError(Messages.getString("MXAdapter.ExceptionExportFailed"), e); //$NON-NLS-1$
+            this.console.logError(Messages.getString("MXAdapter.ExceptionSearchFailed"), e); //$NON-NLS-1$
         }
+        return ret;
+    }
 
-        final List<ISearchItem> ret = new ArrayList<ISearchItem>();
-        if (bck.get(MXAdapter.RETURN_KEY_EXCEPTION) != null)  {
-            this.console.logError(Messages.getString("MXAdapter.ExceptionSearchFailed"), //$NON-NLS-1$
-                                  (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION));
+    /**
+     * {@inheritDoc}
+     * If the MX server supports {@link #CAPABILITY_SEARCH_CHANGED}, the
+     * search is done within the local {@link #nameIndex} (which is
+     * synchronized before if required). Otherwise, if the MX server
+     * supports {@link #CAPABILITY_SEARCH_PAGED}, each page
+     * with {@link #SEARCH_PAGE_SIZE} found objects is fetched with its own
+     * Dispatcher call. Otherwise all found objects are fetched with one call
+     * and handed over to the <code>_listener</code> in pages.
+     */
+    public void search(final Set<String> _typeDefList,
+                       final String _match,
+                       final ISearchListener _listener)
+        throws Exception
+    {
+        if (this.connector == null)  {
+            this.connect();
+        }
+
+        final NameIndex index = this.syncNameIndex();
+        if (index != null)  {
+            final List<ISearchItem> items = new ArrayList<ISearchItem>();
+            for (final Map<String,String> value : index.search(_typeDefList, _match))  {
+                items.add(this.newSearchItem(value));
+            }
+            for (int start = 0; (start < items.size()) && !_listener.isCanceled(); start += MXAdapter.SEARCH_PAGE_SIZE)  {
+                _listener.found(items.subList(start, Math.min(start + MXAdapter.SEARCH_PAGE_SIZE, items.size())));
+            }
+        } else if (this.capabilities.contains(MXAdapter.CAPABILITY_SEARCH_PAGED))  {
+            int offset = 0;
+            boolean more = true;
+            while (more && !_listener.isCanceled())  {
+                final List<ISearchItem> page = this.searchPage(_typeDefList, _match, offset);
+                if (!page.isEmpty())  {
+                    _listener.found(page);
+                }
+                offset += page.size();
+                more = (page.size() >= MXAdapter.SEARCH_PAGE_SIZE);
+            }
         } else  {
-            final List<?> values = (List<?>) bck.get(MXAdapter.RETURN_KEY_VALUES);
-            for (final Object valueObj : values)  {
-                final Map<?,?> value = (Map<?,?>) valueObj;
-                ret.add(new ISearchItem() {
-                    public String getFileName()
-                    {
-                        return (String) value.get("FileName");
-                    }
-                    public String getFilePath()
-                    {
-                        return (String) value.get("FilePath");
-                    }
-                    public String getName()
-                    {
-                        return (String) value.get("Name");
+            final List<ISearchItem> items = this.searchPage(_typeDefList, _match, null);
+            for (int start = 0; (start < items.size()) && !_listener.isCanceled(); start += MXAdapter.SEARCH_PAGE_SIZE)  {
+                _listener.found(items.subList(start, Math.min(start + MXAdapter.SEARCH_PAGE_SIZE, items.size())));
+            }
+        }
+    }
+
+    /**
+     * Searches for configuration items within MX with one Dispatcher call.
+     *
+     * @param _typeDefList  list with searched type definitions
+     * @param _match        string for the names with must match
+     * @param _offset       offset of the page; <code>null</code> if all
+     *                      found objects are fetched
+     * @return found search items
+     * @throws Exception if the search failed
+     */
+    private List<ISearchItem> searchPage(final Set<String> _typeDefList,
+                                         final String _match,
+                                         final Integer _offset)
+        throws Exception
+    {
+        final Map<?,?> bck = this.executeEncoded(null,
+                                                 "Search",
+                                                 (_offset == null)
+                                                        ? new Object[]{"TypeDefList", _typeDefList,
+                                                                       "Match", _match}
+                                                        : new Object[]{"TypeDefList", _typeDefList,
+                                                                       "Match", _match,
+                                                                       "Offset", _offset,
+                                                                       "Limit", MXAdapter.SEARCH_PAGE_SIZE});
+        if (bck.get(MXAdapter.RETURN_KEY_EXCEPTION) != null)  {
+            throw (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION);
+        }
+
+        final List<?> values = (List<?>) bck.get(MXAdapter.RETURN_KEY_VALUES);
+        final List<ISearchItem> ret = new ArrayList<ISearchItem>(values.size());
+        for (final Object valueObj : values)  {
+            ret.add(this.newSearchItem((Map<?,?>) valueObj));
+        }
+        return ret;
+    }
+
+    /**
+     * Creates a new search item for the values of one found configuration
+     * item.
+     *
+     * @param _value    map with the values of the found item
+     * @return new search item
+     */
+    private ISearchItem newSearchItem(final Map<?,?> _value)
+    {
+        return new ISearchItem() {
+            public String getFileName()
+            {
+                return (String) _value.get("FileName");
+            }
+            public String getFilePath()
+            {
+                return (String) _value.get("FilePath");
+            }
+            public String getName()
+            {
+                return (String) _value.get("Name");
+            }
+            public String getTypeDef()
+            {
+                return (String) _value.get("TypeDef");
+            }
+        };
+    }
+
+    /**
+     * Synchronizes the local {@link #nameIndex} with the MX server if the
+     * last synchronization is older than {@link #NAME_INDEX_SYNC_INTERVAL}.
+     * Only the configuration items changed since the last synchronization
+     * are fetched from the MX server (with the Dispatcher method
+     * {@link #CAPABILITY_SEARCH_CHANGED}).
+     *
+     * @return synchronized name index; <code>null</code> if the MX server
+     *         does not support the name index or the synchronization failed
+     */
+    protected synchronized NameIndex syncNameIndex()
+    {
+        NameIndex ret = null;
+        if (this.capabilities.contains(MXAdapter.CAPABILITY_SEARCH_CHANGED))  {
+            if (this.nameIndex == null)  {
+                this.nameIndex = new NameIndex(
+                        new File(Activator.getDefault().getStateLocation().append(this.project.getName()).toFile(),
+                                 "name.index")); //$NON-NLS-1$
+            }
+            final long now = System.currentTimeMillis();
+            if ((now - this.nameIndexSyncTime) < MXAdapter.NAME_INDEX_SYNC_INTERVAL)  {
+                ret = this.nameIndex;
+            } else  {
+                final String serverId = this.connector.getServerId();
+                final String stamp = this.nameIndex.getSyncStamp(serverId);
+                try  {
+                    final Map<?,?> bck = this.executeEncoded(null,
+                                                             MXAdapter.CAPABILITY_SEARCH_CHANGED,
+                                                             (stamp != null) ? new Object[]{"Since", stamp} : null); //$NON-NLS-1$
+                    if (bck.get(MXAdapter.RETURN_KEY_EXCEPTION) != null)  {
+                        throw (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION);
                     }
-                    public String getTypeDef()
-                    {
-                        return (String) value.get("TypeDef");
+                    final Map<?,?> values = (Map<?,?>) bck.get(MXAdapter.RETURN_KEY_VALUES);
+                    this.nameIndex.sync(serverId,
+                                        String.valueOf(values.get("Stamp")), //$NON-NLS-1$
+                                        stamp == null,
+                                        (List<?>) values.get("Changed"), //$NON-NLS-1$
+                                        (List<?>) values.get("Deleted")); //$NON-NLS-1$
+                    this.nameIndexSyncTime = now;
+                    ret = this.nameIndex;
+                    try  {
+                        this.nameIndex.store();
+                    } catch (final IOException e)  {
+                        this.console.logError(Messages.getString("MXAdapter.ExceptionStoreNameIndexFailed"), e); //$NON-NLS-1$
                     }
-                });
+                } catch (final Exception e)  {
+                    this.console.logError(Messages.getString("MXAdapter.ExceptionSyncNameIndexFailed"), e); //$NON-NLS-1$
+                }
             }
         }
         return ret;
@@ -625,47 +2285,96 @@ public class MXAdapter
             // hard coded for the workaround that the package of a JPO must read
             ret = this.export("JPO", this.extractMxName(_file));
         } else  {
-            final Map<?,?> bck = this.executeEncoded(null, "Export", new Object[]{"FileName", _file.getName()});
+            final ExportCache.Entry cached = this.capabilities.contains(MXAdapter.CAPABILITY_EXPORT_STAMP)
+                                             ? this.exportCache.getByFileName(_file.getName())
+                                             : null;
+            if (cached != null)  {
+                ret = this.exportItem(cached.getTypeDef(), cached.getName());
+            } else  {
+                final Map<?,?> bck = this.executeEncoded(null, "Export", new Object[]{"FileName", _file.getName()});
+
+                if (bck.get(MXAdapter.RETURN_KEY_EXCEPTION) != null)  {
+                    throw (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION);
+                }
 
-            if (bck.get(MXAdapter.RETURN_KEY_EXCEPTION) != null)  {
-                throw (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION);
+                final Map<?,?> values = (Map<?,?>) bck.get(MXAdapter.RETURN_KEY_VALUES);
+                this.cacheExport(values);
+                ret = this.newExportItem(values);
+                this.console.appendLog((String) bck.get(MXAdapter.RETURN_KEY_LOG));
             }
+        }
 
-            final Map<?,?> value = (Map<?,?>) bck.get(MXAdapter.RETURN_KEY_VALUES);
-            Activator.getDefault().getConsole().logInfo(Messages.getString("MXAdapter.ExportLog", //$NON-NLS-1$
-                                                                           (String) value.get("FileName"))); //$NON-NLS-1$
-            Activator.getDefault().getConsole().appendLog((String) bck.get(MXAdapter.RETURN_KEY_LOG));
-            ret = new IExportItem() {
-                public String getFileName()
-                {
-                    return (String) value.get("FileName");
-                }
-                public String getFilePath()
-                {
-                    return (String) value.get("FilePath");
-                }
-                public String getName()
-                {
-                    return (String) value.get("Name");
-                }
-                public String getTypeDef()
-                {
-                    return (String) value.get("TypeDef");
-                }
-                public String getContent()
-                {
-                    return (String) value.get("Code");
+        return ret;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The type definition and the MX name of the files are taken from the
+     * {@link #getResourceIndex() resource index}, so that the items are
+     * exported with {@link #export(Collection, IExportListener)} (within
+     * batches if the MX server supports {@link #CAPABILITY_EXPORT_BATCH}).
+     * Files which are not indexed are exported one by one with
+     * {@link #export(IFile)}.
+     */
+    public void exportFiles(final List<IFile> _files,
+                            final IFileExportListener _listener)
+        throws Exception
+    {
+        if (this.connector == null)  {
+            this.connect();
+        }
+
+        final ResourceIndex resIndex = this.getResourceIndex();
+        final Map<String,IFile> keys = new HashMap<String,IFile>();
+        final List<ISearchItem> items = new ArrayList<ISearchItem>();
+        for (final IFile file : _files)  {
+            final ResourceIndex.Entry entry = resIndex.get(file);
+            if (entry != null)  {
+                final Map<String,String> value = new HashMap<String,String>();
+                value.put("TypeDef", entry.getTypeDef()); //$NON-NLS-1$
+                value.put("Name", entry.getName()); //$NON-NLS-1$
+                value.put("FileName", file.getName()); //$NON-NLS-1$
+                keys.put(entry.getTypeDef() + '\t' + entry.getName(), file);
+                items.add(this.newSearchItem(value));
+            } else if (!_listener.isCanceled())  {
+                try  {
+                    _listener.exported(file, this.export(file));
+                } catch (final Exception e)  {
+                    _listener.failed(file, e);
                 }
-            };
+            }
         }
 
-        return ret;
+        this.export(items, new IExportListener()  {
+            public void exported(final IExportItem _item)
+            {
+                final IFile file = keys.get(_item.getTypeDef() + '\t' + _item.getName());
+                if (file != null)  {
+                    _listener.exported(file, _item);
+                }
+            }
+            public void failed(final String _typeDef,
+                               final String _name,
+                               final Exception _ex)
+            {
+                final IFile file = keys.get(_typeDef + '\t' + _name);
+                if (file != null)  {
+                    _listener.failed(file, _ex);
+                }
+            }
+            public boolean isCanceled()
+            {
+                return _listener.isCanceled();
+            }
+        });
     }
 
     /**
      * If a file is a JPO (checked by calling the extraxtMxName method from
      * super class), the package is extracted from file and returned together
-     * with the extracted MxName from the file.
+     * with the extracted MxName from the file. The name is taken from the
+     * {@link #getResourceIndex() resource index}, so that the file is only
+     * read again if changed.
      *
      * @param _file         file for which the MX name is searched
      * @return MX name or <code>null</code> if the file is not an update file
@@ -673,27 +2382,15 @@ public class MXAdapter
      * @throws CoreException    if file content incl. character set could not
      *                          be fetched
      * @throws IOException      if file could not be read
-     * @see #PATTERN_PACKAGE
+     * @see ResourceIndex#extractJPOName(IFile)
      */
     protected String extractMxName(final IFile _file)
         throws CoreException, IOException
     {
-        final InputStream in = _file.getContents();
-        final byte[] bytes = new byte[in.available()];
-        in.read(bytes);
-        in.close();
-
-        final String code = new String(bytes, _file.getCharset());
-
-        String mxName = _file.getName().substring(0, _file.getName().length() - MXAdapter.END_JPO_FILE.length());
-        for (final String line : code.split("\n"))  {
-            final Matcher pckMatch = MXAdapter.PATTERN_PACKAGE.matcher(line);
-            if (pckMatch.find())  {
-                mxName = pckMatch.group().replace(';', ' ').trim() + "." + mxName;
-                break;
-            }
-        }
-        return mxName;
+        final ResourceIndex.Entry entry = this.getResourceIndex().get(_file);
+        return ((entry != null) && ResourceIndex.TYPEDEF_JPO.equals(entry.getTypeDef()))
+               ? entry.getName()
+               : ResourceIndex.extractJPOName(_file);
     }
 
 
@@ -703,75 +2400,337 @@ public class MXAdapter
     public IExportItem export(final String _typeDef,
                               final String _item)
     {
-        Map<?,?> bck = null;
+        IExportItem ret = null;
         try {
-            bck = this.executeEncoded(null,
-                                      "Export",
-                                      new Object[]{"TypeDef", _typeDef,
-                                                   "Name", _item});
+            ret = this.exportItem(_typeDef, _item);
         } catch (final Exception e) {
             this.console.logError(Messages.getString("MXAdapter.ExceptionExportFailed"), e); //$NON-NLS-1$
         }
+        return ret;
+    }
 
-        final IExportItem ret;
-        if (bck.get(MXAdapter.RETURN_KEY_EXCEPTION) != null)  {
-            ret = null;
-            this.console.logError(Messages.getString("MXAdapter.ExceptionExportFailed"), //$NON-NLS-1$
-                                  (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION));
-        } else  {
-            final Map<?,?> value = (Map<?,?>) bck.get(MXAdapter.RETURN_KEY_VALUES);
-            Activator.getDefault().getConsole().logInfo(Messages.getString("MXAdapter.ExportLog", //$NON-NLS-1$
-                                                                           (String) value.get("FileName")));
-            Activator.getDefault().getConsole().appendLog((String) bck.get(MXAdapter.RETURN_KEY_LOG));
-            ret = new IExportItem() {
-                public String getFileName()
-                {
-                    return (String) value.get("FileName");
-                }
-                public String getFilePath()
-                {
-                    return (String) value.get("FilePath");
-                }
-                public String getName()
-                {
-                    return (String) value.get("Name");
-                }
-                public String getTypeDef()
-                {
-                    return (String) value.get("TypeDef");
-                }
-                public String getContent()
-                {
-                    return (String) value.get("Code");
+    /**
+     * {@inheritDoc}
+     * If the MX server supports the Dispatcher method
+     * {@link #CAPABILITY_EXPORT_BATCH}, up to {@link #EXPORT_BATCH_SIZE}
+     * items are exported within one call. Otherwise (older MxUpdate
+     * versions) each item is exported with its own call.
+     */
+    public void export(final Collection<? extends ISearchItem> _items,
+                       final IExportListener _listener)
+        throws Exception
+    {
+        if (this.connector == null)  {
+            this.connect();
+        }
+
+        final List<ISearchItem> items = new ArrayList<ISearchItem>(_items);
+        final boolean batch = this.capabilities.contains(MXAdapter.CAPABILITY_EXPORT_BATCH);
+        final int batchSize = batch ? MXAdapter.EXPORT_BATCH_SIZE : 1;
+        for (int start = 0; (start < items.size()) && !_listener.isCanceled(); start += batchSize)  {
+            final List<ISearchItem> subItems = items.subList(start, Math.min(start + batchSize, items.size()));
+            if (batch)  {
+                this.exportBatch(subItems, _listener);
+            } else  {
+                for (final ISearchItem item : subItems)  {
+                    try  {
+                        _listener.exported(this.exportItem(item.getTypeDef(), item.getName()));
+                    } catch (final Exception e)  {
+                        _listener.failed(item.getTypeDef(), item.getName(), e);
+                    }
                 }
-            };
+            }
+        }
+    }
+
+    /**
+     * Exports given <code>_items</code> within one call of the Dispatcher
+     * method {@link #CAPABILITY_EXPORT_BATCH}.
+     *
+     * @param _items        items to export
+     * @param _listener     listener called for each exported item
+     * @see #export(Collection, IExportListener)
+     */
+    private void exportBatch(final List<ISearchItem> _items,
+                             final IExportListener _listener)
+    {
+        final boolean useCache = this.capabilities.contains(MXAdapter.CAPABILITY_EXPORT_STAMP);
+        final List<Map<String,String>> request = new ArrayList<Map<String,String>>(_items.size());
+        final List<ExportCache.Entry> cached = new ArrayList<ExportCache.Entry>(_items.size());
+        for (final ISearchItem item : _items)  {
+            final Map<String,String> itemMap = new HashMap<String,String>();
+            itemMap.put("TypeDef", item.getTypeDef()); //$NON-NLS-1$
+            itemMap.put("Name", item.getName()); //$NON-NLS-1$
+            final ExportCache.Entry entry = useCache ? this.exportCache.get(item.getTypeDef(), item.getName()) : null;
+            if (entry != null)  {
+                itemMap.put("Stamp", entry.getStamp()); //$NON-NLS-1$
+            }
+            cached.add(entry);
+            request.add(itemMap);
+        }
+
+        Exception ex;
+        List<?> values = null;
+        try  {
+            final Map<?,?> bck = this.executeEncoded(null, MXAdapter.CAPABILITY_EXPORT_BATCH, new Object[]{"Items", request}); //$NON-NLS-1$
+            this.console.appendLog((String) bck.get(MXAdapter.RETURN_KEY_LOG));
+            ex = (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION);
+            values = (List<?>) bck.get(MXAdapter.RETURN_KEY_VALUES);
+        } catch (final Exception e)  {
+            ex = e;
         }
 
+        for (int idx = 0; idx < _items.size(); idx++)  {
+            final ISearchItem item = _items.get(idx);
+            final Map<?,?> value = ((ex == null) && (values != null) && (idx < values.size()))
+                                   ? (Map<?,?>) values.get(idx)
+                                   : null;
+            if (value == null)  {
+                _listener.failed(item.getTypeDef(), item.getName(), (ex != null) ? ex : new Exception(item.getName()));
+            } else if (value.get("Exception") != null)  { //$NON-NLS-1$
+                _listener.failed(item.getTypeDef(), item.getName(), (Exception) value.get("Exception")); //$NON-NLS-1$
+            } else if ((cached.get(idx) != null) && Boolean.TRUE.equals(value.get("NotModified")))  { //$NON-NLS-1$
+                _listener.exported(this.newExportItem(cached.get(idx).getValues()));
+            } else  {
+                this.cacheExport(value);
+                _listener.exported(this.newExportItem(value));
+            }
+        }
+    }
+
+    /**
+     * Exports one configuration item defined by the <code>_typeDef</code> and
+     * the MX name <code>_item</code> within one Dispatcher call.
+     *
+     * @param _typeDef  type definition
+     * @param _item     MX name to export
+     * @return exported item
+     * @throws Exception if the export failed
+     */
+    private IExportItem exportItem(final String _typeDef,
+                                   final String _item)
+        throws Exception
+    {
+        final ExportCache.Entry cached = this.capabilities.contains(MXAdapter.CAPABILITY_EXPORT_STAMP)
+                                         ? this.exportCache.get(_typeDef, _item)
+                                         : null;
+        final Map<?,?> bck = this.executeEncoded(null,
+                                                 "Export",
+                                                 (cached == null)
+                                                        ? new Object[]{"TypeDef", _typeDef,
+                                                                       "Name", _item}
+                                                        : new Object[]{"TypeDef", _typeDef,
+                                                                       "Name", _item,
+                                                                       "Stamp", cached.getStamp()});
+        if (bck.get(MXAdapter.RETURN_KEY_EXCEPTION) != null)  {
+            throw (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION);
+        }
+        Map<?,?> values = (Map<?,?>) bck.get(MXAdapter.RETURN_KEY_VALUES);
+        if ((cached != null) && Boolean.TRUE.equals(values.get("NotModified")))  { //$NON-NLS-1$
+            values = cached.getValues();
+        } else  {
+            this.cacheExport(values);
+        }
+        final IExportItem ret = this.newExportItem(values);
+        this.console.appendLog((String) bck.get(MXAdapter.RETURN_KEY_LOG));
         return ret;
     }
 
+    /**
+     * Stores the exported <code>_values</code> in the {@link #exportCache} if
+     * the MX server returned a modification stamp.
+     *
+     * @param _values   exported values
+     */
+    private void cacheExport(final Map<?,?> _values)
+    {
+        if ((_values != null) && (_values.get("Stamp") != null))  { //$NON-NLS-1$
+            this.exportCache.put((String) _values.get("TypeDef"), //$NON-NLS-1$
+                                 (String) _values.get("Name"), //$NON-NLS-1$
+                                 (String) _values.get("FileName"), //$NON-NLS-1$
+                                 String.valueOf(_values.get("Stamp")), //$NON-NLS-1$
+                                 _values);
+        }
+    }
+
+    /**
+     * Creates a new export item for the values returned from the Dispatcher.
+     *
+     * @param _value    map with the exported values
+     * @return new export item
+     */
+    private IExportItem newExportItem(final Map<?,?> _value)
+    {
+        this.console.logInfo(Messages.getString("MXAdapter.ExportLog", //$NON-NLS-1$
+                                                (String) _value.get("FileName"))); //$NON-NLS-1$
+        return new IExportItem() {
+            public String getFileName()
+            {
+                return (String) _value.get("FileName");
+            }
+            public String getFilePath()
+            {
+                return (String) _value.get("FilePath");
+            }
+            public String getName()
+            {
+                return (String) _value.get("Name");
+            }
+            public String getTypeDef()
+            {
+                return (String) _value.get("TypeDef");
+            }
+            public String getContent()
+            {
+                return (String) _value.get("Code");
+            }
+        };
+    }
+
     /**
      * {@inheritDoc}
+     * The hashes of the local configuration item files are calculated in
+     * parallel (the hashes are cached within the
+     * {@link #getResourceIndex() resource index}, so only changed files are
+     * read again). Meanwhile the hashes of all objects of the configured type
+     * definitions are fetched from the MX server within one call of the
+     * Dispatcher method {@link #CAPABILITY_EXPORT_HASH}.
+     * <p>Both hashes are calculated for the canonical text form of the
+     * configuration items (see {@link DeploymentIndex#hashText(File, String)}),
+     * so that the character set and the line ends of the local files do not
+     * result in drifts: the MX server must hash the exported code with
+     * {@link DeploymentIndex#HASH_ALGORITHM} after all line ends are replaced
+     * by LF and the text is encoded with UTF-8 (without byte order mark).
+     * Local files which could not be read are reported as
+     * {@link IDriftItem.Kind#ERROR error} items.</p>
      *
-     * @see #imageMap
+     * @throws Exception if the MX server does not support
+     *                   {@link #CAPABILITY_EXPORT_HASH} or the scan failed
      */
-    public ImageDescriptor getImageDescriptor(final IFile _file)
+    public List<IDriftItem> scanDrift(final IProgressMonitor _monitor)
+        throws Exception
     {
-        final String name = _file.getName();
+        if (this.connector == null)  {
+            this.connect();
+        }
+        if (!this.capabilities.contains(MXAdapter.CAPABILITY_EXPORT_HASH))  {
+            throw new Exception(Messages.getString("MXAdapter.ExceptionDriftNotSupported")); //$NON-NLS-1$
+        }
 
-        ImageDescriptor ret = null;
-        for (final Map.Entry<String,Map<String,ImageDescriptor>> suffixEntry : this.imageMap.entrySet())  {
-            if (name.endsWith(suffixEntry.getKey()))  {
-                for (final Map.Entry<String, ImageDescriptor> entry : suffixEntry.getValue().entrySet())  {
-                    if (name.startsWith(entry.getKey()))  {
-                        ret = entry.getValue();
-                        break;
+        final ResourceIndex resIndex = this.getResourceIndex();
+        final List<IFile> files = resIndex.getFiles();
+        final List<DriftItem> items = new ArrayList<DriftItem>();
+
+        _monitor.beginTask(Messages.getString("MXAdapter.DriftTask", files.size()), files.size() + 1); //$NON-NLS-1$
+        final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try  {
+            // calculate local hashes in parallel
+            final Map<IFile,Future<String>> localHashes = new LinkedHashMap<IFile,Future<String>>();
+            for (final IFile file : files)  {
+                localHashes.put(file, executor.submit(new Callable<String>()  {
+                    public String call()
+                        throws CoreException, IOException
+                    {
+                        return _monitor.isCanceled() ? null : resIndex.getTextHash(file);
                     }
+                }));
+            }
+
+            // fetch hashes of the MX server
+            final Map<?,?> bck = this.executeEncoded(null,
+                                                     MXAdapter.CAPABILITY_EXPORT_HASH,
+                                                     new Object[]{"Algorithm", DeploymentIndex.HASH_ALGORITHM, //$NON-NLS-1$
+                                                                  "TypeDefs", new ArrayList<String>(this.typeDef2Image.keySet())}); //$NON-NLS-1$
+            if (bck.get(MXAdapter.RETURN_KEY_EXCEPTION) != null)  {
+                throw (Exception) bck.get(MXAdapter.RETURN_KEY_EXCEPTION);
+            }
+            this.console.appendLog((String) bck.get(MXAdapter.RETURN_KEY_LOG));
+            final Map<String,Map<?,?>> serverItems = new HashMap<String,Map<?,?>>();
+            for (final Object value : (List<?>) bck.get(MXAdapter.RETURN_KEY_VALUES))  {
+                final Map<?,?> valueMap = (Map<?,?>) value;
+                serverItems.put(valueMap.get("TypeDef") + "\t" + valueMap.get("Name"), valueMap); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            }
+            _monitor.worked(1);
+
+            // compare local hashes against hashes of the MX server
+            for (final Map.Entry<IFile,Future<String>> entry : localHashes.entrySet())  {
+                if (_monitor.isCanceled())  {
+                    break;
+                }
+                final IFile file = entry.getKey();
+                final ResourceIndex.Entry indexEntry = resIndex.get(file);
+                if (indexEntry != null)  {
+                    final Map<?,?> serverItem = serverItems.remove(indexEntry.getTypeDef() + '\t' + indexEntry.getName());
+                    if (serverItem == null)  {
+                        items.add(new DriftItem(IDriftItem.Kind.MISSING,
+                                                indexEntry.getTypeDef(), indexEntry.getName(), file.getName(), file));
+                    } else  {
+                        try  {
+                            final String hash = entry.getValue().get();
+                            if ((hash != null) && !hash.equals(serverItem.get("Hash")))  { //$NON-NLS-1$
+                                items.add(new DriftItem(IDriftItem.Kind.DIFFERENT,
+                                                        indexEntry.getTypeDef(), indexEntry.getName(), file.getName(), file));
+                            }
+                        } catch (final ExecutionException e)  {
+                            this.console.logError(Messages.getString("MXAdapter.ExceptionReadFileContentFailed", //$NON-NLS-1$
+                                                                     file.getName()),
+                                                  e.getCause());
+                            items.add(new DriftItem(IDriftItem.Kind.ERROR,
+                                                    indexEntry.getTypeDef(), indexEntry.getName(), file.getName(), file));
+                        }
+                    }
+                }
+                _monitor.worked(1);
+            }
+
+            // remaining objects of the MX server exists not locally
+            if (!_monitor.isCanceled())  {
+                for (final Map<?,?> serverItem : serverItems.values())  {
+                    items.add(new DriftItem(IDriftItem.Kind.EXTRA,
+                                            (String) serverItem.get("TypeDef"), //$NON-NLS-1$
+                                            (String) serverItem.get("Name"), //$NON-NLS-1$
+                                            (String) serverItem.get("FileName"), //$NON-NLS-1$
+                                            null));
                 }
-                break;
             }
+        } finally  {
+            executor.shutdownNow();
+            _monitor.done();
         }
-        return ret;
+
+        try  {
+            resIndex.store();
+        } catch (final IOException e)  {
+            this.console.logError(Messages.getString("MXAdapter.ExceptionStoreResourceIndexFailed"), e); //$NON-NLS-1$
+        }
+
+        Collections.sort(items);
+        this.console.logInfo(Messages.getString("MXAdapter.DriftSummary", files.size(), items.size())); //$NON-NLS-1$
+        return new ArrayList<IDriftItem>(items);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The image is searched with the {@link #imageMatcher} compiled from the
+     * {@link #imageMap}.
+     *
+     * @see #imageMatcher
+     */
+    public ImageDescriptor getImageDescriptor(final IFile _file)
+    {
+        return this.imageMatcher.match(_file.getName());
+    }
+
+    /**
+     * {@inheritDoc}
+     * The file name is checked with the {@link #typeDefMatcher} compiled from
+     * the prefixes and suffixes of the type definitions.
+     *
+     * @see #typeDefMatcher
+     */
+    public boolean isUpdateFile(final String _fileName)
+    {
+        return this.typeDefMatcher.match(_fileName) != null;
     }
 
     /**
@@ -832,6 +2791,48 @@ public class MXAdapter
                                       final Object[] _arguments)
         throws Exception
     {
+        return this.executeEncoded(this.connector, _parameters, _method, _arguments);
+    }
+
+    /**
+     * Calls given <code>_method</code> in of the MxUpdate eclipse plug-in
+     * dispatcher on given <code>_connector</code>. The connector is checked
+     * before the call is counted as queued, so that a concurrent disconnect
+     * could not leave a queued call in the statistics.
+     *
+     * <p>Only one call is executed at the same time on one connector. The
+     * connectors write the request into one stream (the standard input of
+     * the {@link org.mxupdate.eclipse.mxadapter.connectors.URLConnector
+     * URL connector server process} or the MQL channel of the
+     * {@link org.mxupdate.eclipse.mxadapter.connectors.SSHConnector SSH
+     * connector}) and read the answer from one stream, so calls of different
+     * threads (e.g. background jobs and the decorator) must not be
+     * interleaved. Calls on different sessions of the same adapter (see
+     * {@link IConnector#newSession()}) are still executed in parallel.</p>
+     *
+     * @param _connector    connector used to execute the call
+     * @param _parameters   parameters
+     * @param _method       method of the called <code>_jpo</code>
+     * @param _arguments    list of all parameters for the <code>_jpo</code>
+     *                      which are automatically encoded encoded
+     * @return returned value from the called <code>_jpo</code>
+     * @throws Exception    if not connected (<code>_connector</code> is
+     *                      <code>null</code>), if the parameter could not be
+     *                      encoded, or if the called <code>_jpo</code> throws
+     *                      an exception, or if the class which is decoded
+     *                      from the returned string value could not be found
+     * @see #executeEncoded(String[], String, Object[])
+     */
+    protected Map<?,?> executeEncoded(final IConnector _connector,
+                                      final String[] _parameters,
+                                      final String _method,
+                                      final Object[] _arguments)
+        throws Exception
+    {
+        if (_connector == null)  {
+            throw new Exception(Messages.getString("MXAdapter.ExceptionNotConnected", this.project.getName())); //$NON-NLS-1$
+        }
+
         // prepare parameters in a map
         final Map<String,String> parameters;
         if ((_parameters == null) || (_parameters.length == 0))  {
@@ -854,11 +2855,93 @@ public class MXAdapter
             }
         }
 
-        final String bck = this.connector.execute(
-                CommunicationUtil.encode(parameters),
-                CommunicationUtil.encode(_method),
-                CommunicationUtil.encode(arguments));
-
-        return CommunicationUtil.<Map<?,?>>decode(bck);
+        // call dispatcher and collect metrics
+        final MethodMetrics methodMetrics = this.metrics.getMethodMetrics(this.project.getName(), _method);
+        final FlightRecorderEvents.Span dispatchSpan
+                = FlightRecorderEvents.begin(FlightRecorderEvents.EventType.DISPATCH, this.project.getName())
+                        .set("method", _method); //$NON-NLS-1$
+        final long start = System.nanoTime();
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        long requestBytes = 0;
+        long responseBytes = 0;
+        boolean error = true;
+        try  {
+            final FlightRecorderEvents.Span encodeSpan
+                    = FlightRecorderEvents.begin(FlightRecorderEvents.EventType.ENCODE, this.project.getName())
+                            .set("method", _method); //$NON-NLS-1$
+            final boolean compress = this.capabilities.contains(MXAdapter.CAPABILITY_CODEC_GZIP);
+            final String encParameters = CommunicationUtil.encode(parameters, compress);
+            final String encMethod = CommunicationUtil.encode(_method);
+            final String encArguments = CommunicationUtil.encode(arguments, compress);
+            encodeNanos = System.nanoTime() - start;
+            requestBytes = encParameters.length() + encMethod.length() + encArguments.length();
+            encodeSpan.set("bytes", requestBytes).commit(); //$NON-NLS-1$
+
+            final String bck;
+            boolean queued = true;
+            this.queuedRequests.incrementAndGet();
+            try  {
+                synchronized (_connector)  {
+                    this.queuedRequests.decrementAndGet();
+                    queued = false;
+                    this.inFlightRequests.incrementAndGet();
+                    final TrafficRecorder recorder = this.trafficRecorder;
+                    final long offset = (recorder != null) ? recorder.getOffsetNanos() : 0;
+                    String response = null;
+                    String failure = null;
+                    try  {
+                        bck = _connector.execute(encParameters, encMethod, encArguments);
+                        response = bck;
+                    } catch (final Exception e)  {
+                        failure = e.toString();
+                        throw e;
+                    } finally  {
+                        this.inFlightRequests.decrementAndGet();
+                        if (recorder != null)  {
+                            try  {
+                                recorder.record(offset,
+                                                recorder.getOffsetNanos() - offset,
+                                                new String[]{encParameters, encMethod, encArguments},
+                                                response,
+                                                failure);
+                            } catch (final IOException e)  {
+                                this.console.logError(Messages.getString("MXAdapter.ExceptionTrafficRecordFailed", //$NON-NLS-1$
+                                                                         recorder.getFile().toString()),
+                                                      e);
+                            }
+                        }
+                    }
+                }
+            } finally  {
+                if (queued)  {
+                    this.queuedRequests.decrementAndGet();
+                }
+            }
+            responseBytes = (bck != null) ? bck.length() : 0;
+
+            final FlightRecorderEvents.Span decodeSpan
+                    = FlightRecorderEvents.begin(FlightRecorderEvents.EventType.DECODE, this.project.getName())
+                            .set("method", _method) //$NON-NLS-1$
+                            .set("bytes", responseBytes); //$NON-NLS-1$
+            final long startDecode = System.nanoTime();
+            final Map<?,?> ret = CommunicationUtil.<Map<?,?>>decode(bck);
+            decodeNanos = System.nanoTime() - startDecode;
+            decodeSpan.commit();
+
+            error = (ret == null) || (ret.get(MXAdapter.RETURN_KEY_EXCEPTION) != null);
+            return ret;
+        } finally  {
+            methodMetrics.record(System.nanoTime() - start,
+                                 encodeNanos,
+                                 decodeNanos,
+                                 requestBytes,
+                                 responseBytes,
+                                 error);
+            dispatchSpan.set("requestBytes", requestBytes) //$NON-NLS-1$
+                        .set("responseBytes", responseBytes) //$NON-NLS-1$
+                        .set("error", error) //$NON-NLS-1$
+                        .commit();
+        }
     }
 }
@@ -20,84 +20,176 @@
 
 package org.mxupdate.eclipse.mxadapter;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.viewers.IDecoration;
-import org.eclipse.jface.viewers.ILabelProviderListener;
 import org.eclipse.jface.viewers.ILightweightLabelDecorator;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.LabelProviderChangedEvent;
+import org.eclipse.swt.widgets.Display;
 import org.mxupdate.eclipse.Activator;
+import org.mxupdate.eclipse.Messages;
 import org.mxupdate.eclipse.adapter.IDeploymentAdapter;
 
 /**
  * MX Update Eclipse plug-in specific decorator which evaluates depending on
  * the file prefixes and suffixes the related images.
  *
+ * <p>The decorator never initializes a deployment adapter itself. If the
+ * adapter of a project is not initialized, the adapter (including the image
+ * configuration) is initialized in a background job and the decorated files
+ * of the project are updated as soon as the adapter is initialized.</p>
+ *
  * @author The MxUpdate Team
  * @version $Id$
  */
 public class MXDecorator
+    extends LabelProvider
     implements ILightweightLabelDecorator
 {
+    /**
+     * Time in milliseconds after which a project without deployment adapter
+     * is checked again (because the project properties could be changed).
+     */
+    private static final long UNSUPPORTED_RECHECK = 60000;
+
+    /**
+     * Files waiting for the initialization of the deployment adapter
+     * depending on the project name. If a project name is included, the
+     * initialization job is already scheduled.
+     */
+    private final Map<String,Set<IFile>> pending = new HashMap<String,Set<IFile>>();
+
+    /**
+     * Projects without deployment adapter and the time of the check.
+     */
+    private final Map<String,Long> unsupported = new HashMap<String,Long>();
 
     /**
      * Depending on the file suffixes and prefixes the related image descriptor
-     * is selected and shown as decorator image.
+     * is selected and shown as decorator image. If the deployment adapter of
+     * the project is not initialized, the decoration is done after the
+     * adapter is initialized in the background.
      *
      * @param _obj          object which must be checked for decoration
      * @param _decoration   decoration from Eclipse where the images are
      *                      &quot;overlayed&quot; on the top left
+     * @see #initAdapter(IProject, IFile)
      */
     public void decorate(final Object _obj,
                          final IDecoration _decoration)
     {
         final IFile file = (IFile) _obj;
-        try {
-            final IDeploymentAdapter adapter = Activator.getDefault().getAdapter(file.getProject());
-            if (adapter != null)  {
-                final ImageDescriptor imageDesc = adapter.getImageDescriptor(file);
-                if (imageDesc != null)  {
-                    _decoration.addOverlay(imageDesc, IDecoration.TOP_LEFT);
-                }
+        final IDeploymentAdapter adapter = Activator.getDefault().getInitializedAdapter(file.getProject());
+        if (adapter != null)  {
+            final ImageDescriptor imageDesc = adapter.getImageDescriptor(file);
+            if (imageDesc != null)  {
+                _decoration.addOverlay(imageDesc, IDecoration.TOP_LEFT);
             }
-        } catch (final Exception e)  {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
+        } else  {
+            this.initAdapter(file.getProject(), file);
         }
     }
 
     /**
-     * Method stub to implement interface {@link ILightweightLabelDecorator}.
+     * Schedules the initialization of the deployment adapter for given
+     * <code>_project</code> (if not already scheduled and if the project is
+     * not known as project without deployment adapter). The
+     * <code>_file</code> is decorated again after the initialization.
      *
-     * @param _ilabelproviderlistener   not used
+     * @param _project  project for which the adapter is initialized
+     * @param _file     file which must be decorated again
      */
-    public void addListener(final ILabelProviderListener _ilabelproviderlistener)
+    protected void initAdapter(final IProject _project,
+                               final IFile _file)
     {
+        final String projectName = _project.getName();
+        synchronized (this.pending)  {
+            final Long checked = this.unsupported.get(projectName);
+            if ((checked != null) && ((System.currentTimeMillis() - checked) < MXDecorator.UNSUPPORTED_RECHECK))  {
+                return;
+            }
+            Set<IFile> files = this.pending.get(projectName);
+            if (files != null)  {
+                files.add(_file);
+                return;
+            }
+            files = new HashSet<IFile>();
+            files.add(_file);
+            this.pending.put(projectName, files);
+        }
+
+        final Job job = new Job(Messages.getString("MXDecorator.InitAdapterJob", projectName))  { //$NON-NLS-1$
+            @Override()
+            protected IStatus run(final IProgressMonitor _monitor)
+            {
+                IDeploymentAdapter adapter = null;
+                try  {
+                    adapter = Activator.getDefault().getAdapter(_project);
+                } catch (final Exception e)  {
+                    Activator.getDefault().getConsole().logError(
+                            Messages.getString("MXDecorator.InitAdapterFailed", projectName), e); //$NON-NLS-1$
+                }
+                final Set<IFile> files;
+                synchronized (MXDecorator.this.pending)  {
+                    files = MXDecorator.this.pending.remove(projectName);
+                    if (adapter == null)  {
+                        MXDecorator.this.unsupported.put(projectName, System.currentTimeMillis());
+                    } else  {
+                        MXDecorator.this.unsupported.remove(projectName);
+                    }
+                }
+                if ((adapter != null) && (files != null))  {
+                    MXDecorator.this.fireChanged(files.toArray());
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        job.setSystem(true);
+        job.setPriority(Job.DECORATE);
+        job.schedule();
     }
 
     /**
-     * Method stub to implement interface {@link ILightweightLabelDecorator}.
+     * Informs the listeners on the UI thread that the decoration of given
+     * <code>_elements</code> is changed.
+     *
+     * @param _elements     changed elements
      */
-    public void dispose()
+    protected void fireChanged(final Object[] _elements)
     {
+        final Display display = Display.getDefault();
+        if (!display.isDisposed())  {
+            display.asyncExec(new Runnable()  {
+                public void run()
+                {
+                    MXDecorator.this.fireLabelProviderChanged(new LabelProviderChangedEvent(MXDecorator.this, _elements));
+                }
+            });
+        }
     }
 
     /**
-     * Method stub to implement interface {@link ILightweightLabelDecorator}.
+     * The decoration does not depend on any property.
      *
+     * @param _obj      element
+     * @param _property name of the property
      * @return always <i>false</i>
      */
+    @Override()
     public boolean isLabelProperty(final Object _obj,
-                                   final String _s)
+                                   final String _property)
     {
         return false;
     }
-
-    /**
-     * Method stub to implement interface {@link ILightweightLabelDecorator}.
-     *
-     * @param _ilabelproviderlistener   not used
-     */
-    public void removeListener(final ILabelProviderListener _ilabelproviderlistener)
-    {
-    }
 }
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.mxadapter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local index of the names of all configuration items within MX. For each
+ * type definition the names are held sorted, so that a search with a match
+ * string starting with a fixed prefix only scans the names with this
+ * prefix. The index is synchronized incrementally with the MX server (only
+ * the configuration items changed since the last synchronization are
+ * transferred) and persisted in a compressed file.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ */
+public class NameIndex
+{
+    /**
+     * Version of the index file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * File where the index is stored.
+     */
+    private final File file;
+
+    /**
+     * Sorted names depending on the type definition. The values are the file
+     * name and the file path of the configuration item.
+     */
+    private final Map<String,TreeMap<String,String[]>> typeDefs = new HashMap<String,TreeMap<String,String[]>>();
+
+    /**
+     * Identifier of the MX server for which the index is synchronized.
+     */
+    private String serverId;
+
+    /**
+     * Stamp of the last synchronization returned from the MX server;
+     * <code>null</code> if never synchronized.
+     */
+    private String syncStamp;
+
+    /**
+     * Initializes the name index and loads the index from the
+     * <code>_file</code> (if the file exists and could be read).
+     *
+     * @param _file     file where the index is stored
+     */
+    public NameIndex(final File _file)
+    {
+        this.file = _file;
+        if (_file.exists())  {
+            try  {
+                this.load();
+            } catch (final IOException e)  {
+                // index not readable, index is synchronized again
+                this.typeDefs.clear();
+                this.serverId = null;
+                this.syncStamp = null;
+            }
+        }
+    }
+
+    /**
+     * Reads the index from the {@link #file}.
+     *
+     * @throws IOException if the index could not be read
+     */
+    private void load()
+        throws IOException
+    {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(this.file))));
+        try  {
+            if (in.readInt() == NameIndex.VERSION)  {
+                this.serverId = in.readUTF();
+                this.syncStamp = in.readUTF();
+                final int typeDefCount = in.readInt();
+                for (int typeDefIdx = 0; typeDefIdx < typeDefCount; typeDefIdx++)  {
+                    final TreeMap<String,String[]> names = new TreeMap<String,String[]>();
+                    this.typeDefs.put(in.readUTF(), names);
+                    final int nameCount = in.readInt();
+                    for (int nameIdx = 0; nameIdx < nameCount; nameIdx++)  {
+                        names.put(in.readUTF(), new String[]{in.readUTF(), in.readUTF()});
+                    }
+                }
+            }
+        } finally  {
+            in.close();
+        }
+    }
+
+    /**
+     * Stores the index into the {@link #file}.
+     *
+     * @throws IOException if the index could not be written
+     */
+    public synchronized void store()
+        throws IOException
+    {
+        this.file.getParentFile().mkdirs();
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(this.file))));
+        try  {
+            out.writeInt(NameIndex.VERSION);
+            out.writeUTF((this.serverId != null) ? this.serverId : ""); //$NON-NLS-1$
+            out.writeUTF((this.syncStamp != null) ? this.syncStamp : ""); //$NON-NLS-1$
+            out.writeInt(this.typeDefs.size());
+            for (final Map.Entry<String,TreeMap<String,String[]>> typeDefEntry : this.typeDefs.entrySet())  {
+                out.writeUTF(typeDefEntry.getKey());
+                out.writeInt(typeDefEntry.getValue().size());
+                for (final Map.Entry<String,String[]> nameEntry : typeDefEntry.getValue().entrySet())  {
+                    out.writeUTF(nameEntry.getKey());
+                    out.writeUTF(nameEntry.getValue()[0]);
+                    out.writeUTF(nameEntry.getValue()[1]);
+                }
+            }
+        } finally  {
+            out.close();
+        }
+    }
+
+    /**
+     * Returns the stamp of the last synchronization with the MX server with
+     * given <code>_serverId</code>.
+     *
+     * @param _serverId     identifier of the MX server
+     * @return stamp of the last synchronization; <code>null</code> if the
+     *         index was never synchronized with this server
+     */
+    public synchronized String getSyncStamp(final String _serverId)
+    {
+        return ((this.syncStamp != null) && !"".equals(this.syncStamp) && _serverId.equals(this.serverId)) //$NON-NLS-1$
+               ? this.syncStamp
+               : null;
+    }
+
+    /**
+     * Synchronizes the index with the changes from the MX server.
+     *
+     * @param _serverId     identifier of the MX server
+     * @param _syncStamp    new stamp of the synchronization
+     * @param _full         <i>true</i> if the changes contains all
+     *                      configuration items (and the current index must
+     *                      be cleared)
+     * @param _changed      changed or new configuration items (maps with
+     *                      type definition, name, file name and file path)
+     * @param _deleted      deleted configuration items (maps with type
+     *                      definition and name)
+     */
+    public synchronized void sync(final String _serverId,
+                                  final String _syncStamp,
+                                  final boolean _full,
+                                  final List<?> _changed,
+                                  final List<?> _deleted)
+    {
+        if (_full)  {
+            this.typeDefs.clear();
+        }
+        if (_changed != null)  {
+            for (final Object obj : _changed)  {
+                final Map<?,?> item = (Map<?,?>) obj;
+                final String typeDef = (String) item.get("TypeDef"); //$NON-NLS-1$
+                TreeMap<String,String[]> names = this.typeDefs.get(typeDef);
+                if (names == null)  {
+                    names = new TreeMap<String,String[]>();
+                    this.typeDefs.put(typeDef, names);
+                }
+                names.put((String) item.get("Name"), //$NON-NLS-1$
+                          new String[]{NameIndex.nonNull(item.get("FileName")), //$NON-NLS-1$
+                                       NameIndex.nonNull(item.get("FilePath"))}); //$NON-NLS-1$
+            }
+        }
+        if (_deleted != null)  {
+            for (final Object obj : _deleted)  {
+                final Map<?,?> item = (Map<?,?>) obj;
+                final TreeMap<String,String[]> names = this.typeDefs.get(item.get("TypeDef")); //$NON-NLS-1$
+                if (names != null)  {
+                    names.remove(item.get("Name")); //$NON-NLS-1$
+                }
+            }
+        }
+        this.serverId = _serverId;
+        this.syncStamp = _syncStamp;
+    }
+
+    /**
+     * Returns the string value of given object or an empty string if the
+     * object is <code>null</code>.
+     *
+     * @param _obj  object
+     * @return string value
+     */
+    private static String nonNull(final Object _obj)
+    {
+        return (_obj != null) ? _obj.toString() : ""; //$NON-NLS-1$
+    }
+
+    /**
+     * Searches for configuration items of given <code>_typeDefList</code>
+     * whose names match <code>_match</code>. The match could include the
+     * wildcards <code>*</code> and <code>?</code>. Only the names starting
+     * with the fixed prefix of the match (the part before the first wildcard)
+     * are scanned.
+     *
+     * @param _typeDefList  searched type definitions
+     * @param _match        match for the names
+     * @return found items as maps with type definition, name, file name and
+     *         file path (sorted by type definition and name)
+     */
+    public synchronized List<Map<String,String>> search(final Set<String> _typeDefList,
+                                                        final String _match)
+    {
+        // extract fixed prefix and build pattern for the wildcards
+        int prefixEnd = 0;
+        while ((prefixEnd < _match.length())
+                && (_match.charAt(prefixEnd) != '*') && (_match.charAt(prefixEnd) != '?'))  {
+            prefixEnd++;
+        }
+        final String prefix = _match.substring(0, prefixEnd);
+        final Pattern pattern;
+        if (prefixEnd == _match.length())  {
+            pattern = null;
+        } else  {
+            final StringBuilder regex = new StringBuilder();
+            for (final char ch : _match.toCharArray())  {
+                if (ch == '*')  {
+                    regex.append(".*"); //$NON-NLS-1$
+                } else if (ch == '?')  {
+                    regex.append('.');
+                } else  {
+                    regex.append(Pattern.quote(String.valueOf(ch)));
+                }
+            }
+            pattern = Pattern.compile(regex.toString(), Pattern.DOTALL);
+        }
+
+        final List<Map<String,String>> ret = new ArrayList<Map<String,String>>();
+        for (final String typeDef : new TreeSet<String>(_typeDefList))  {
+            final TreeMap<String,String[]> names = this.typeDefs.get(typeDef);
+            if (names != null)  {
+                final SortedMap<String,String[]> candidates;
+                if (pattern == null)  {
+                    candidates = names.containsKey(prefix)
+                                 ? names.subMap(prefix, prefix + '\0')
+                                 : new TreeMap<String,String[]>();
+                } else if ("".equals(prefix))  { //$NON-NLS-1$
+                    candidates = names;
+                } else  {
+                    candidates = names.subMap(prefix, prefix + Character.MAX_VALUE);
+                }
+                for (final Map.Entry<String,String[]> entry : candidates.entrySet())  {
+                    if ((pattern == null) || pattern.matcher(entry.getKey()).matches())  {
+                        final Map<String,String> item = new HashMap<String,String>();
+                        item.put("TypeDef", typeDef); //$NON-NLS-1$
+                        item.put("Name", entry.getKey()); //$NON-NLS-1$
+                        item.put("FileName", entry.getValue()[0]); //$NON-NLS-1$
+                        item.put("FilePath", entry.getValue()[1]); //$NON-NLS-1$
+                        ret.add(item);
+                    }
+                }
+            }
+        }
+        return ret;
+    }
+}
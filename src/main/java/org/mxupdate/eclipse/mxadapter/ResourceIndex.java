@@ -0,0 +1,643 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.mxadapter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Persistent per-project index of the configuration item files within the
+ * workspace. For each file (path relative to the project) the type
+ * definition, the MX name, the hash of the content, the modification
+ * stamp of the workspace resource and the time stamp and length of the file
+ * in the file system is stored. The index is updated incrementally from the
+ * workspace resource deltas (the index must be registered as
+ * {@link IResourceChangeListener}); entries with another modification stamp
+ * than the workspace resource, or with another time stamp or length than
+ * the file in the file system, are evaluated again on access. The
+ * modification stamp of the workspace resource alone is not enough,
+ * because it is persisted: files changed outside of Eclipse (e.g. by a
+ * switch of the branch of the version control system) or after a new
+ * import of the project keep their old modification stamp.
+ *
+ * <p>The type definition and the name are evaluated from the file name with
+ * the configured file prefixes and suffixes. For JPOs the package name is
+ * read from the file (the reading stops at the package line). The content
+ * hash and the hash of the canonical text form (see
+ * {@link DeploymentIndex#hashText(File, String)}) are only calculated on
+ * request and cached until the file is changed.</p>
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ */
+public class ResourceIndex
+    implements IResourceChangeListener, IResourceDeltaVisitor
+{
+    /**
+     * Name of the type definition for JPOs.
+     */
+    public static final String TYPEDEF_JPO = "JPO"; //$NON-NLS-1$
+
+    /**
+     * End of a file name which represents a JPO.
+     */
+    private static final String END_JPO_FILE = "_mxJPO.java"; //$NON-NLS-1$
+
+    /**
+     * Regular expression for the package line. The package name must be
+     * extracted to get the real name of the JPO used within MX.
+     *
+     * @see #extractJPOName(IFile)
+     */
+    private static final Pattern PATTERN_PACKAGE = Pattern.compile("^[ \\t]*package[ \\t]+([A-Za-z0-9\\._]*)[ \\t]*;"); //$NON-NLS-1$
+
+    /**
+     * Regular expression for the first line of a Java file after the package
+     * line. If such a line is found, the JPO has no package.
+     *
+     * @see #extractJPOName(IFile)
+     */
+    private static final Pattern PATTERN_NO_PACKAGE = Pattern.compile("^[ \\t]*(import|public|class|final|abstract)[ \\t]"); //$NON-NLS-1$
+
+    /**
+     * Separator of the values for one file in the index file.
+     */
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Related project of the index.
+     */
+    private final IProject project;
+
+    /**
+     * File where the index is stored.
+     */
+    private final File file;
+
+    /**
+     * Matcher for the file names. The matched value is an array with the
+     * type definition, the file prefix and the file suffix.
+     *
+     * @see #setMatcher(FileNameMatcher)
+     */
+    private volatile FileNameMatcher<String[]> matcher;
+
+    /**
+     * Mapping between the file paths and the related index entries.
+     */
+    private final Map<String,Entry> entries = new HashMap<String,Entry>();
+
+    /**
+     * Was the complete project already scanned within this session?
+     *
+     * @see #getFiles()
+     */
+    private boolean scanned;
+
+    /**
+     * Is the index changed since the last {@link #store()}?
+     */
+    private boolean modified;
+
+    /**
+     * Initializes the resource index and loads the index from the
+     * <code>_file</code> (if the file exists).
+     *
+     * @param _project  related project
+     * @param _file     file where the index is stored
+     * @param _matcher  matcher for the file names
+     * @throws IOException if the index file could not be read
+     */
+    public ResourceIndex(final IProject _project,
+                         final File _file,
+                         final FileNameMatcher<String[]> _matcher)
+        throws IOException
+    {
+        this.project = _project;
+        this.file = _file;
+        this.matcher = _matcher;
+        if (_file.exists())  {
+            final Properties props = new Properties();
+            final InputStream in = new FileInputStream(_file);
+            try  {
+                props.load(in);
+            } finally  {
+                in.close();
+            }
+            for (final String path : props.stringPropertyNames())  {
+                final String value = props.getProperty(path);
+                final int idx1 = value.indexOf(ResourceIndex.SEPARATOR);
+                final int idx2 = value.indexOf(ResourceIndex.SEPARATOR, idx1 + 1);
+                final int idx3 = value.indexOf(ResourceIndex.SEPARATOR, idx2 + 1);
+                final int idx4 = value.indexOf(ResourceIndex.SEPARATOR, idx3 + 1);
+                final int idx5 = value.indexOf(ResourceIndex.SEPARATOR, idx4 + 1);
+                final int idx6 = value.indexOf(ResourceIndex.SEPARATOR, idx5 + 1);
+                if ((idx1 > 0) && (idx2 > idx1) && (idx3 > idx2) && (idx4 > idx3) && (idx5 > idx4) && (idx6 > idx5))  {
+                    try  {
+                        final String hash = value.substring(idx4 + 1, idx5);
+                        final String textHash = value.substring(idx5 + 1, idx6);
+                        this.entries.put(path, new Entry(Long.parseLong(value.substring(0, idx1)),
+                                                         Long.parseLong(value.substring(idx1 + 1, idx2)),
+                                                         Long.parseLong(value.substring(idx2 + 1, idx3)),
+                                                         value.substring(idx3 + 1, idx4),
+                                                         value.substring(idx6 + 1),
+                                                         (hash.length() > 0) ? hash : null,
+                                                         (textHash.length() > 0) ? textHash : null));
+                    } catch (final NumberFormatException e)  {
+                        // ignore wrong entries, file is evaluated again
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Defines a new matcher for the file names (e.g. if the plug-in
+     * properties from the MX server are changed). All entries are evaluated
+     * again.
+     *
+     * @param _matcher  new matcher for the file names
+     */
+    public synchronized void setMatcher(final FileNameMatcher<String[]> _matcher)
+    {
+        this.matcher = _matcher;
+        this.entries.clear();
+        this.scanned = false;
+        this.modified = true;
+    }
+
+    /**
+     * Returns the index entry for given <code>_file</code>. If the file is
+     * not indexed or the index entry is outdated, the entry is evaluated.
+     *
+     * @param _file     file for which the entry is searched
+     * @return index entry; <code>null</code> if the file is not a
+     *         configuration item file
+     */
+    public Entry get(final IFile _file)
+    {
+        final String path = _file.getProjectRelativePath().toString();
+        Entry ret;
+        synchronized (this)  {
+            ret = this.entries.get(path);
+        }
+        if ((ret == null) || !ret.isCurrent(_file))  {
+            ret = this.evaluate(_file);
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the hash of the content of given <code>_file</code>. The hash
+     * is cached within the index entry of the file until the file is
+     * changed. For files which are not configuration item files, the hash is
+     * always calculated.
+     *
+     * @param _file     file for which the hash is searched
+     * @return hex string of the hash
+     * @throws IOException if the file could not be read
+     * @see DeploymentIndex#hash(File)
+     */
+    public String getHash(final IFile _file)
+        throws IOException
+    {
+        final Entry entry = this.get(_file);
+        final String ret;
+        if ((entry != null) && (entry.hash != null))  {
+            ret = entry.hash;
+        } else  {
+            ret = DeploymentIndex.hash(_file.getLocation().toFile());
+            // only cached if the file was not changed while the hash was calculated
+            if ((entry != null) && entry.isCurrent(_file))  {
+                this.put(_file.getProjectRelativePath().toString(),
+                         new Entry(entry.stamp, entry.localStamp, entry.length, entry.typeDef, entry.name,
+                                   ret, entry.textHash));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the hash of the canonical text form of given
+     * <code>_file</code> (independent of the character set and the line
+     * ends of the file). The hash is cached within the index entry of the
+     * file until the file is changed. For files which are not configuration
+     * item files, the hash is always calculated.
+     *
+     * @param _file     file for which the hash is searched
+     * @return hex string of the hash
+     * @throws CoreException    if the character set of the file could not
+     *                          be fetched
+     * @throws IOException      if the file could not be read
+     * @see DeploymentIndex#hashText(File, String)
+     */
+    public String getTextHash(final IFile _file)
+        throws CoreException, IOException
+    {
+        final Entry entry = this.get(_file);
+        final String ret;
+        if ((entry != null) && (entry.textHash != null))  {
+            ret = entry.textHash;
+        } else  {
+            ret = DeploymentIndex.hashText(_file.getLocation().toFile(), _file.getCharset());
+            // only cached if the file was not changed while the hash was calculated
+            if ((entry != null) && entry.isCurrent(_file))  {
+                this.put(_file.getProjectRelativePath().toString(),
+                         new Entry(entry.stamp, entry.localStamp, entry.length, entry.typeDef, entry.name,
+                                   entry.hash, ret));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Returns all configuration item files of the project. On first call
+     * within a session the complete project is scanned; afterwards the
+     * index is only updated from the resource deltas.
+     *
+     * @return list of all configuration item files
+     * @throws CoreException if the project could not be scanned
+     */
+    public List<IFile> getFiles()
+        throws CoreException
+    {
+        final boolean scan;
+        synchronized (this)  {
+            scan = !this.scanned;
+        }
+        if (scan)  {
+            final Map<String,Entry> found = new HashMap<String,Entry>();
+            this.project.accept(new IResourceProxyVisitor()  {
+                public boolean visit(final IResourceProxy _proxy)
+                {
+                    if (_proxy.getType() == IResource.FILE)  {
+                        final IFile file = (IFile) _proxy.requestResource();
+                        final Entry entry = ResourceIndex.this.get(file);
+                        if (entry != null)  {
+                            found.put(file.getProjectRelativePath().toString(), entry);
+                        }
+                    }
+                    return true;
+                }
+            }, IResource.NONE);
+            synchronized (this)  {
+                this.entries.keySet().retainAll(found.keySet());
+                this.scanned = true;
+                this.modified = true;
+            }
+        }
+
+        final List<IFile> ret = new ArrayList<IFile>();
+        synchronized (this)  {
+            for (final String path : this.entries.keySet())  {
+                ret.add(this.project.getFile(path));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Evaluates the index entry for given <code>_file</code> and stores the
+     * entry in the index.
+     *
+     * @param _file     file to evaluate
+     * @return evaluated entry; <code>null</code> if the file is not a
+     *         configuration item file
+     */
+    protected Entry evaluate(final IFile _file)
+    {
+        final long stamp = _file.getModificationStamp();
+        final File localFile = ResourceIndex.getLocalFile(_file);
+        final long localStamp = (localFile != null) ? localFile.lastModified() : 0;
+        final long length = (localFile != null) ? localFile.length() : 0;
+        final String path = _file.getProjectRelativePath().toString();
+        final String fileName = _file.getName();
+        final String[] match = this.matcher.match(fileName);
+
+        Entry ret = null;
+        if (match != null)  {
+            final String prefix = (match[1] != null) ? match[1] : ""; //$NON-NLS-1$
+            final String suffix = (match[2] != null) ? match[2] : ""; //$NON-NLS-1$
+            if (ResourceIndex.TYPEDEF_JPO.equals(match[0]) && fileName.endsWith(ResourceIndex.END_JPO_FILE))  {
+                try  {
+                    ret = new Entry(stamp, localStamp, length, match[0], ResourceIndex.extractJPOName(_file), null, null);
+                } catch (final IOException e)  {
+                    // file could not be read, evaluated again on next access
+                } catch (final CoreException e)  {
+                    // file could not be read, evaluated again on next access
+                }
+            } else if (fileName.length() >= (prefix.length() + suffix.length()))  {
+                ret = new Entry(stamp,
+                                localStamp,
+                                length,
+                                match[0],
+                                fileName.substring(prefix.length(), fileName.length() - suffix.length()),
+                                null,
+                                null);
+            }
+        }
+
+        if (ret != null)  {
+            this.put(path, ret);
+        } else  {
+            this.remove(path);
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the file in the file system for given workspace
+     * <code>_file</code>.
+     *
+     * @param _file     workspace file
+     * @return file in the file system; <code>null</code> if the file has no
+     *         local location
+     */
+    protected static File getLocalFile(final IFile _file)
+    {
+        return (_file.getLocation() != null) ? _file.getLocation().toFile() : null;
+    }
+
+    /**
+     * Extracts the MX name of a JPO from given <code>_file</code>. The name
+     * of the JPO is defined from the file name and the package name. The file
+     * is read line by line only until the package line (or the first line
+     * of the class declaration) is found.
+     *
+     * @param _file     JPO file
+     * @return MX name of the JPO
+     * @throws CoreException    if file content incl. character set could not
+     *                          be fetched
+     * @throws IOException      if file could not be read
+     * @see #PATTERN_PACKAGE
+     */
+    public static String extractJPOName(final IFile _file)
+        throws CoreException, IOException
+    {
+        String ret = _file.getName().substring(0, _file.getName().length() - ResourceIndex.END_JPO_FILE.length());
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(_file.getContents(), _file.getCharset()));
+        try  {
+            String line;
+            while ((line = reader.readLine()) != null)  {
+                final Matcher pckMatch = ResourceIndex.PATTERN_PACKAGE.matcher(line);
+                if (pckMatch.find())  {
+                    ret = pckMatch.group(1) + "." + ret; //$NON-NLS-1$
+                    break;
+                }
+                if (ResourceIndex.PATTERN_NO_PACKAGE.matcher(line).find())  {
+                    break;
+                }
+            }
+        } finally  {
+            reader.close();
+        }
+        return ret;
+    }
+
+    /**
+     * Stores given <code>_entry</code> for given <code>_path</code>.
+     *
+     * @param _path     path of the file relative to the project
+     * @param _entry    index entry
+     */
+    protected synchronized void put(final String _path,
+                                    final Entry _entry)
+    {
+        this.entries.put(_path, _entry);
+        this.modified = true;
+    }
+
+    /**
+     * Removes the entry for given <code>_path</code>.
+     *
+     * @param _path     path of the file relative to the project
+     */
+    protected synchronized void remove(final String _path)
+    {
+        if (this.entries.remove(_path) != null)  {
+            this.modified = true;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The delta of the {@link #project} is visited to update the index.
+     *
+     * @see #visit(IResourceDelta)
+     */
+    public void resourceChanged(final IResourceChangeEvent _event)
+    {
+        final IResourceDelta delta = (_event.getDelta() != null)
+                                     ? _event.getDelta().findMember(this.project.getFullPath())
+                                     : null;
+        if (delta != null)  {
+            try  {
+                delta.accept(this);
+            } catch (final CoreException e)  {
+                // not thrown from the visitor
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Removed files are removed from the index. For added files or files
+     * with changed content the entry is evaluated again.
+     */
+    public boolean visit(final IResourceDelta _delta)
+    {
+        final IResource resource = _delta.getResource();
+        if (resource.getType() == IResource.FILE)  {
+            final IFile resFile = (IFile) resource;
+            switch (_delta.getKind())  {
+                case IResourceDelta.REMOVED:
+                    this.remove(resFile.getProjectRelativePath().toString());
+                    break;
+                case IResourceDelta.ADDED:
+                    this.evaluate(resFile);
+                    break;
+                case IResourceDelta.CHANGED:
+                    if ((_delta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0)  {
+                        this.evaluate(resFile);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stores the index into the {@link #file} if the index is changed.
+     *
+     * @throws IOException if the index could not be written
+     */
+    public synchronized void store()
+        throws IOException
+    {
+        if (this.modified)  {
+            final Properties props = new Properties();
+            for (final Map.Entry<String,Entry> entry : this.entries.entrySet())  {
+                props.setProperty(entry.getKey(),
+                                  new StringBuilder()
+                                        .append(entry.getValue().stamp).append(ResourceIndex.SEPARATOR)
+                                        .append(entry.getValue().localStamp).append(ResourceIndex.SEPARATOR)
+                                        .append(entry.getValue().length).append(ResourceIndex.SEPARATOR)
+                                        .append(entry.getValue().typeDef).append(ResourceIndex.SEPARATOR)
+                                        .append((entry.getValue().hash != null) ? entry.getValue().hash : "") //$NON-NLS-1$
+                                                .append(ResourceIndex.SEPARATOR)
+                                        .append((entry.getValue().textHash != null) ? entry.getValue().textHash : "") //$NON-NLS-1$
+                                                .append(ResourceIndex.SEPARATOR)
+                                        .append(entry.getValue().name)
+                                        .toString());
+            }
+            this.file.getParentFile().mkdirs();
+            final OutputStream out = new FileOutputStream(this.file);
+            try  {
+                props.store(out, null);
+            } finally  {
+                out.close();
+            }
+            this.modified = false;
+        }
+    }
+
+    /**
+     * Index entry of one configuration item file.
+     */
+    public static final class Entry
+    {
+        /** Modification stamp of the workspace resource. */
+        private final long stamp;
+
+        /** Time stamp of the file in the file system. */
+        private final long localStamp;
+
+        /** Length of the file in the file system. */
+        private final long length;
+
+        /** Type definition of the configuration item. */
+        private final String typeDef;
+
+        /** MX name of the configuration item. */
+        private final String name;
+
+        /** Hash of the content; <code>null</code> if not calculated. */
+        private final String hash;
+
+        /**
+         * Hash of the canonical text form of the content; <code>null</code>
+         * if not calculated.
+         */
+        private final String textHash;
+
+        /**
+         * Initializes the index entry.
+         *
+         * @param _stamp        modification stamp of the workspace resource
+         * @param _localStamp   time stamp of the file in the file system
+         * @param _length       length of the file in the file system
+         * @param _typeDef      type definition
+         * @param _name         MX name
+         * @param _hash         hash of the content (or <code>null</code>)
+         * @param _textHash     hash of the canonical text form of the
+         *                      content (or <code>null</code>)
+         */
+        private Entry(final long _stamp,
+                      final long _localStamp,
+                      final long _length,
+                      final String _typeDef,
+                      final String _name,
+                      final String _hash,
+                      final String _textHash)
+        {
+            this.stamp = _stamp;
+            this.localStamp = _localStamp;
+            this.length = _length;
+            this.typeDef = _typeDef;
+            this.name = _name;
+            this.hash = _hash;
+            this.textHash = _textHash;
+        }
+
+        /**
+         * Checks if this entry is still valid for given <code>_file</code>:
+         * the modification stamp of the workspace resource, and the time
+         * stamp and the length of the file in the file system must be the
+         * same.
+         *
+         * @param _file     workspace file of this entry
+         * @return <i>true</i> if the entry is valid; otherwise <i>false</i>
+         */
+        private boolean isCurrent(final IFile _file)
+        {
+            final File localFile = ResourceIndex.getLocalFile(_file);
+            return (this.stamp == _file.getModificationStamp())
+                    && (this.localStamp == ((localFile != null) ? localFile.lastModified() : 0))
+                    && (this.length == ((localFile != null) ? localFile.length() : 0));
+        }
+
+        /**
+         * Returns the type definition of the configuration item.
+         *
+         * @return type definition
+         */
+        public String getTypeDef()
+        {
+            return this.typeDef;
+        }
+
+        /**
+         * Returns the MX name of the configuration item.
+         *
+         * @return MX name
+         */
+        public String getName()
+        {
+            return this.name;
+        }
+    }
+}
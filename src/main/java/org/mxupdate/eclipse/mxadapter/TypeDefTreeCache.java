@@ -0,0 +1,134 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.mxadapter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Map;
+
+/**
+ * Persistent cache of the type definition tree returned from the MX server.
+ * The tree is only valid for the same MxUpdate server version and the same
+ * plug-in properties (identified by their hash) with which the tree was
+ * stored; otherwise the tree must be fetched again from the MX server.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ */
+public class TypeDefTreeCache
+{
+    /**
+     * File where the type definition tree is stored.
+     */
+    private final File file;
+
+    /**
+     * Server version of the cached {@link #tree}.
+     */
+    private String version;
+
+    /**
+     * Hash of the plug-in properties of the cached {@link #tree}.
+     */
+    private String propertiesHash;
+
+    /**
+     * Cached type definition tree; <code>null</code> if not loaded.
+     */
+    private Map<?,?> tree;
+
+    /**
+     * Initializes the type definition tree cache.
+     *
+     * @param _file     file where the tree is stored
+     */
+    public TypeDefTreeCache(final File _file)
+    {
+        this.file = _file;
+    }
+
+    /**
+     * Returns the cached type definition tree if the tree was stored for the
+     * same <code>_version</code> and <code>_propertiesHash</code>. If the
+     * tree is not already loaded, the tree is read from the {@link #file}.
+     *
+     * @param _version          current server version
+     * @param _propertiesHash   hash of the current plug-in properties
+     * @return cached tree; <code>null</code> if not cached or not valid
+     */
+    public synchronized Map<?,?> get(final String _version,
+                                     final String _propertiesHash)
+    {
+        if ((this.tree == null) && this.file.exists())  {
+            try  {
+                final ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(this.file)));
+                try  {
+                    this.version = (String) in.readObject();
+                    this.propertiesHash = (String) in.readObject();
+                    this.tree = (Map<?,?>) in.readObject();
+                } finally  {
+                    in.close();
+                }
+            } catch (final Exception e)  {
+                // cache file not readable, tree is fetched again
+                this.tree = null;
+            }
+        }
+        return ((this.tree != null) && (_version != null) && (_propertiesHash != null)
+                        && _version.equals(this.version) && _propertiesHash.equals(this.propertiesHash))
+               ? this.tree
+               : null;
+    }
+
+    /**
+     * Stores the type definition <code>_tree</code> for given
+     * <code>_version</code> and <code>_propertiesHash</code>.
+     *
+     * @param _version          server version
+     * @param _propertiesHash   hash of the plug-in properties
+     * @param _tree             type definition tree
+     * @throws IOException if the tree could not be written
+     */
+    public synchronized void put(final String _version,
+                                 final String _propertiesHash,
+                                 final Map<?,?> _tree)
+        throws IOException
+    {
+        this.version = _version;
+        this.propertiesHash = _propertiesHash;
+        this.tree = _tree;
+        this.file.getParentFile().mkdirs();
+        final ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(this.file)));
+        try  {
+            out.writeObject(_version);
+            out.writeObject(_propertiesHash);
+            out.writeObject(_tree);
+        } finally  {
+            out.close();
+        }
+    }
+}
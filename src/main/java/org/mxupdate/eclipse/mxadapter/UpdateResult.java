@@ -0,0 +1,120 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.mxadapter;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.mxupdate.eclipse.adapter.IUpdateResult;
+
+/**
+ * Merged per-file result of an update which is done in chunks (and perhaps
+ * in parallel). The methods are synchronized so that the result could be
+ * filled from different update threads.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ */
+public class UpdateResult
+    implements IUpdateResult
+{
+    /**
+     * Successfully updated files.
+     */
+    private final Set<IFile> updated = new HashSet<IFile>();
+
+    /**
+     * Failed files and related error messages.
+     */
+    private final Map<IFile,String> failed = new LinkedHashMap<IFile,String>();
+
+    /**
+     * Marks given <code>_files</code> as successfully updated. Files which
+     * are already marked as failed are not changed.
+     *
+     * @param _files    updated files
+     */
+    public synchronized void addUpdated(final Collection<IFile> _files)
+    {
+        for (final IFile file : _files)  {
+            if (!this.failed.containsKey(file))  {
+                this.updated.add(file);
+            }
+        }
+    }
+
+    /**
+     * Marks given <code>_file</code> as failed with the <code>_error</code>
+     * message.
+     *
+     * @param _file     failed file
+     * @param _error    error message
+     */
+    public synchronized void addFailed(final IFile _file,
+                                       final String _error)
+    {
+        this.updated.remove(_file);
+        this.failed.put(_file, _error);
+    }
+
+    /**
+     * Marks given <code>_files</code> as failed with the <code>_error</code>
+     * message.
+     *
+     * @param _files    failed files
+     * @param _error    error message
+     */
+    public synchronized void addFailed(final Collection<IFile> _files,
+                                       final String _error)
+    {
+        for (final IFile file : _files)  {
+            this.addFailed(file, _error);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized Set<IFile> getUpdatedFiles()
+    {
+        return new HashSet<IFile>(this.updated);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized Map<IFile,String> getFailedFiles()
+    {
+        return new LinkedHashMap<IFile,String>(this.failed);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized boolean isSuccessful()
+    {
+        return this.failed.isEmpty();
+    }
+}
@@ -59,4 +59,33 @@ public interface IConnector
      *         transfered; otherwise <i>false</i>
      */
     boolean isUpdateByFileContent();
+
+    /**
+     * Checks if the underlying communication channel to the MX server (e.g.
+     * the child process or the SSH channel) is still alive.
+     *
+     * @return <i>true</i> if the communication channel is alive; otherwise
+     *         <i>false</i>
+     */
+    boolean isAlive();
+
+    /**
+     * Returns an identifier of the MX server this connector is connected to
+     * (e.g. the URL of the server). The identifier is used to check on which
+     * server a configuration item was deployed.
+     *
+     * @return identifier of the MX server
+     */
+    String getServerId();
+
+    /**
+     * Opens a new independent session to the MX server with the same
+     * settings as this connector. The new session is used to execute
+     * Dispatcher calls in parallel and must be disconnected by the caller.
+     *
+     * @return new connector with its own session
+     * @throws Exception if the new session could not be opened
+     */
+    IConnector newSession()
+        throws Exception;
 }
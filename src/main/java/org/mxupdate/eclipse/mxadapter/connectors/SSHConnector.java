@@ -122,6 +122,15 @@ public class SSHConnector
      */
     private final SSHOutputStream in = new SSHOutputStream();
 
+    /**
+     * Settings of the SSH connection and the MQL console in the order of the
+     * constructor parameters (SSH server, SSH port, SSH user, SSH password,
+     * MQL path, MX user and MX password).
+     *
+     * @see #newSession()
+     */
+    private final Object[] settings;
+
     /**
      * Input buffer used from the {@link #err} to store the errors from the SSH
      * server / MQL console.
@@ -169,11 +178,13 @@ public class SSHConnector
         {
             int ret = 0;
 
-            while (SSHConnector.this.chars.isEmpty())  {
-                try {
-                    Thread.sleep(1000);
-                } catch (final InterruptedException e) {
-                    throw new IOException(e);
+            synchronized (SSHConnector.this.chars)  {
+                while (SSHConnector.this.chars.isEmpty())  {
+                    try {
+                        SSHConnector.this.chars.wait();
+                    } catch (final InterruptedException e) {
+                        throw new IOException(e);
+                    }
                 }
             }
 
@@ -228,6 +239,7 @@ public class SSHConnector
         super(_updateByFileContent);
 
         this.log = _log;
+        this.settings = new Object[]{_sshServer, _sshPort, _sshUser, _sshPassword, _mqlPath, _mqlUser, _mqlPassword};
 
         this.jsch = new JSch();
         this.session = this.jsch.getSession(_sshUser, _sshServer, _sshPort);
@@ -251,7 +263,7 @@ public class SSHConnector
                         .append("\" pass \"").append(this.convertMql(_mqlPassword)).append("\";") //$NON-NLS-1$ //$NON-NLS-2$
                 .append(SSHConnector.PRINT_CONTEXT)
                 .append('\n');
-        this.chars.add(cmd.toString());
+        this.send(cmd.toString());
         final String bck = this.in.readLine();
         // check if login was successfully
         if (!bck.startsWith(SSHConnector.CHECK_CONTEXT))  {
@@ -286,7 +298,7 @@ public class SSHConnector
             .append(SSHConnector.PRINT_CONTEXT)
             .append('\n');
 
-        this.chars.add(cmd.toString());
+        this.send(cmd.toString());
 
         // get result (must not be the context, otherwise an error happened!)
         final String ret = this.in.readLine();
@@ -303,6 +315,20 @@ public class SSHConnector
         return ret;
     }
 
+    /**
+     * Appends given <code>_text</code> to the {@link #chars output buffer}
+     * and wakes up the {@link #out output stream} waiting for new text.
+     *
+     * @param _text     text to send to the SSH server
+     */
+    private void send(final String _text)
+    {
+        synchronized (this.chars)  {
+            this.chars.add(_text);
+            this.chars.notifyAll();
+        }
+    }
+
     /**
      * Reads current stack of read errors.
      *
@@ -330,6 +356,53 @@ public class SSHConnector
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * The connector is alive if the SSH {@link #session} is connected and the
+     * {@link #channel} to the MQL console is not closed.
+     *
+     * @see #session
+     * @see #channel
+     */
+    public boolean isAlive()
+    {
+        return this.session.isConnected() && !this.channel.isClosed();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return SSH user, server and port together with the path of the MQL
+     *         program
+     */
+    public String getServerId()
+    {
+        return new StringBuilder()
+                .append("ssh://").append(this.settings[2]).append('@') //$NON-NLS-1$
+                .append(this.settings[0]).append(':').append(this.settings[1])
+                .append('/').append(this.settings[4])
+                .toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     * A new SSH session with a new MQL console is opened with the same
+     * {@link #settings}.
+     */
+    public IConnector newSession()
+        throws Exception
+    {
+        return new SSHConnector((String) this.settings[0],
+                                (Integer) this.settings[1],
+                                (String) this.settings[2],
+                                (String) this.settings[3],
+                                (String) this.settings[4],
+                                (String) this.settings[5],
+                                (String) this.settings[6],
+                                this.log,
+                                this.isUpdateByFileContent());
+    }
+
     /**
      * Converts given string by escaping the &quot; so that in escape mode on
      * string could be handled with &quot; and '.
@@ -405,6 +478,14 @@ public class SSHConnector
          */
         private final Stack<InBufferLine> inBuf = new Stack<InBufferLine>();
 
+        /**
+         * Is the stream closed (because the channel to the SSH server is
+         * closed)? Synchronized with the {@link #inBuf inbounds buffer}.
+         *
+         * @see #close()
+         */
+        private boolean closed;
+
         /**
          * Buffer class for one line (which ends with new line).
          */
@@ -460,26 +541,51 @@ public class SSHConnector
                         Activator.getDefault().getConsole().logTrace(SSHConnector.LOG_INBOUND_PREFIX + line.buffer.toString());
                     }
                 }
-                line.hasNewLine = true;
+                synchronized (this.inBuf)  {
+                    line.hasNewLine = true;
+                    this.inBuf.notifyAll();
+                }
             } else  {
                 line.buffer.append((char) _char);
             }
         }
 
+        /**
+         * {@inheritDoc}
+         * The stream is closed from the channel if the channel to the SSH
+         * server is closed; a thread waiting within {@link #readLine()} is
+         * woken up.
+         */
+        @Override()
+        public void close()
+        {
+            synchronized (this.inBuf)  {
+                this.closed = true;
+                this.inBuf.notifyAll();
+            }
+        }
+
         /**
          * Reads one line from the console. The method waits till the line is
          * complete.
          *
          * @return string of one line
+         * @throws IOException          if the channel to the SSH server is
+         *                              closed before the line is complete
          * @throws InterruptedException if the thread is interrupted
          */
         protected String readLine()
-            throws InterruptedException
+            throws IOException, InterruptedException
         {
-            while (this.inBuf.isEmpty() || !this.inBuf.firstElement().hasNewLine)  {
-                Thread.sleep(5000);
+            synchronized (this.inBuf)  {
+                while (this.inBuf.isEmpty() || !this.inBuf.firstElement().hasNewLine)  {
+                    if (this.closed)  {
+                        throw new IOException(Messages.getString("MxSSHClient.ConnectionClosed")); //$NON-NLS-1$
+                    }
+                    this.inBuf.wait();
+                }
+                return this.inBuf.remove(0).buffer.toString();
             }
-            return this.inBuf.remove(0).buffer.toString();
         }
     };
 }
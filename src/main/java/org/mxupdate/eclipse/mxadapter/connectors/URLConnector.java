@@ -24,19 +24,22 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.io.Writer;
 import java.net.URL;
+import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.Vector;
 
 import org.apache.commons.io.IOUtils;
 import org.eclipse.core.resources.IProject;
 import org.mxupdate.eclipse.Activator;
+import org.mxupdate.eclipse.Messages;
 import org.mxupdate.eclipse.util.CommunicationUtil;
 import org.osgi.framework.Bundle;
 
@@ -51,6 +54,20 @@ import org.osgi.framework.Bundle;
 public class URLConnector
     extends AbstractConnector
 {
+    /**
+     * Size of the buffers used to read the input and error stream of the
+     * server process.
+     */
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    /**
+     * Char set used to convert the bytes of the error stream of the server
+     * process into characters. Each byte is one character (as for the
+     * {@link InputStreamHandler input stream}), independent of the platform
+     * char set.
+     */
+    private static final Charset ERROR_CHARSET = Charset.forName("ISO-8859-1"); //$NON-NLS-1$
+
     /**
      * Classes for the server which must be copied so that the server process
      * works. The Base64 stuff is copied from the Apache commons jar library
@@ -81,6 +98,13 @@ public class URLConnector
      */
     private final Writer out;
 
+    /**
+     * Monitor notified from the {@link #inHandler input stream handler} and
+     * the {@link #errHandler error stream handler} if new characters are
+     * read, so that {@link #readOneWord()} must not poll.
+     */
+    private final Object signal = new Object();
+
     /**
      * Handler for the input stream.
      *
@@ -100,6 +124,55 @@ public class URLConnector
      */
     private final boolean connected;
 
+    /**
+     * Path to the project temporary folder.
+     *
+     * @see #newSession()
+     */
+    private final File projectPath;
+
+    /**
+     * Bundle of the plug-in.
+     *
+     * @see #newSession()
+     */
+    private final Bundle bundle;
+
+    /**
+     * Path of the Java executable.
+     *
+     * @see #newSession()
+     */
+    private final String javaPath;
+
+    /**
+     * Path of the MX Jar library.
+     *
+     * @see #newSession()
+     */
+    private final String mxJarPath;
+
+    /**
+     * URL of the MX server.
+     *
+     * @see #newSession()
+     */
+    private final String url;
+
+    /**
+     * Name of the MX user.
+     *
+     * @see #newSession()
+     */
+    private final String user;
+
+    /**
+     * Password of the MX user.
+     *
+     * @see #newSession()
+     */
+    private final String passwd;
+
     /**
      * Initializes the URL connector to MX database. First the required
      * {@link #SERVER_CLASSES Java classes} and {@link #CODEC_LIB codec library}
@@ -165,6 +238,14 @@ public class URLConnector
     {
         super(_updateByFileContent);
 
+        this.projectPath = _projectPath;
+        this.bundle = _bundle;
+        this.javaPath = _javaPath;
+        this.mxJarPath = _mxJarPath;
+        this.url = _url;
+        this.user = _user;
+        this.passwd = _passwd;
+
         // copy the required classes and JAR library to temporary project dir.
         if (!_projectPath.exists())  {
             _projectPath.mkdirs();
@@ -197,8 +278,8 @@ public class URLConnector
         this.process = pb.start();
 
         this.out = new OutputStreamWriter(this.process.getOutputStream());
-        this.inHandler = new InputStreamHandler(this.process.getInputStream());
-        this.errHandler = new ErrorStreamHandler(this.process.getErrorStream());
+        this.inHandler = new InputStreamHandler(this.process.getInputStream(), this.signal);
+        this.errHandler = new ErrorStreamHandler(this.process.getErrorStream(), this.signal);
         new Thread(this.inHandler).start();
         new Thread(this.errHandler).start();
 
@@ -300,13 +381,18 @@ public class URLConnector
     private String readOneWord()
         throws Exception
     {
-        while (!this.inHandler.wordExists() && this.errHandler.isEmpty())  {
-            Thread.sleep(1000);
-        }
-        if (!this.errHandler.isEmpty())  {
-            throw new Exception(this.errHandler.read());
+        synchronized (this.signal)  {
+            while (!this.inHandler.wordExists() && this.errHandler.isEmpty())  {
+                if (this.inHandler.isClosed())  {
+                    throw new Exception(Messages.getString("URLConnector.ConnectionClosed")); //$NON-NLS-1$
+                }
+                this.signal.wait();
+            }
+            if (!this.errHandler.isEmpty())  {
+                throw new Exception(this.errHandler.read());
+            }
+            return this.inHandler.readWord();
         }
-        return this.inHandler.readWord();
     }
 
 
@@ -354,6 +440,45 @@ public class URLConnector
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * The connector is alive if the Java {@link #process} is not terminated.
+     *
+     * @see #process
+     */
+    public boolean isAlive()
+    {
+        boolean ret;
+        try  {
+            this.process.exitValue();
+            ret = false;
+        } catch (final IllegalThreadStateException e)  {
+            ret = true;
+        }
+        return ret;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@link #url} of the MX server
+     */
+    public String getServerId()
+    {
+        return this.url;
+    }
+
+    /**
+     * {@inheritDoc}
+     * A new Java {@link #process} with the same settings is started.
+     */
+    public IConnector newSession()
+        throws Exception
+    {
+        return new URLConnector(this.projectPath, this.bundle, this.javaPath, this.mxJarPath,
+                                this.url, this.user, this.passwd, this.isUpdateByFileContent());
+    }
+
     /**
      * Copy the content of the <code>_from</code> URL to the target
      * <code>_to</code> file.
@@ -396,7 +521,13 @@ public class URLConnector
         /**
          * Error input stream.
          */
-        private final InputStream in;
+        private final Reader in;
+
+        /**
+         * Monitor notified if new characters are read or the stream is
+         * closed.
+         */
+        private final Object signal;
 
         /**
          * Used to store already read characters from the
@@ -407,38 +538,36 @@ public class URLConnector
         /**
          * Initializes the {@in error input stream}.
          *
-         * @param _in new input stream
+         * @param _in       new input stream
+         * @param _signal   monitor notified for new read characters
          */
-        public ErrorStreamHandler(final InputStream _in)
+        public ErrorStreamHandler(final InputStream _in,
+                                  final Object _signal)
         {
-            this.in = _in;
+            this.in = new InputStreamReader(_in, URLConnector.ERROR_CHARSET);
+            this.signal = _signal;
         }
 
         /**
-         * <p>Reads from the {@link #in error input stream} current existing
-         * characters and stores them in {@link #buffer}. If no characters
-         * exists, this thread waits for 1s and starts again.</p>
-         * <p>In the case of an thrown exception (e.g. {@link #in} is closed,
-         * ...), an error will be thrown.</p>
+         * <p>Reads from the {@link #in error input stream} and stores the
+         * characters in {@link #buffer}. The read blocks until characters
+         * exists; for each read block the {@link #signal} is notified.</p>
+         * <p>If the {@link #in} is closed, the thread ends.</p>
          */
-        @Override
+        @Override()
         public void run()
         {
+            final char[] chars = new char[URLConnector.READ_BUFFER_SIZE];
             try {
-                while (true)  {
-                    synchronized (this.in) {
-                        synchronized(this.buffer)  {
-                            while (this.in.available() > 0)  {
-                                this.buffer.append((char) this.in.read());
-                            }
-                        }
+                int len;
+                while ((len = this.in.read(chars)) >= 0)  {
+                    synchronized (this.signal)  {
+                        this.buffer.append(chars, 0, len);
+                        this.signal.notifyAll();
                     }
-                    Thread.sleep(1000);
                 }
-            } catch (final InterruptedException e) {
-                throw new Error(e);
             } catch (final IOException e) {
-                throw new Error(e);
+                // stream closed
             }
         }
 
@@ -451,25 +580,23 @@ public class URLConnector
          */
         public boolean isEmpty()
         {
-            synchronized (this.buffer)  {
+            synchronized (this.signal)  {
                 return this.buffer.length() == 0;
             }
         }
 
         /**
-         * Reads current read buffer. A synchronize on {@link #buffer} is done
-         * so that the method waits until no characters are read anymore by
-         * {@link #run()}.
+         * Reads current read buffer and clears the {@link #buffer}.
          *
          * @return string
          * @see #buffer
          */
         public String read()
         {
-            synchronized (this.buffer)  {
+            synchronized (this.signal)  {
                 final String ret = this.buffer.toString();
                 this.buffer.delete(0, this.buffer.length());
-                return ret.toString();
+                return ret;
             }
         }
     }
@@ -486,42 +613,84 @@ public class URLConnector
          */
         private final InputStream in;
 
+        /**
+         * Monitor notified if new characters are read or the stream is
+         * closed.
+         */
+        private final Object signal;
+
         /**
          * Buffer to store read characters.
          */
-        private final Vector<Integer> buffer = new Vector<Integer>();
+        private final StringBuilder buffer = new StringBuilder();
+
+        /**
+         * Index within the {@link #buffer} up to which no space exists, so
+         * that already checked characters are not searched again.
+         *
+         * @see #wordExists()
+         */
+        private int checked;
+
+        /**
+         * Is the {@link #in input stream} closed?
+         */
+        private boolean closed;
 
         /**
          * Initializes the input stream handler.
          *
          * @param _in       input stream of the process
+         * @param _signal   monitor notified for new read characters
          */
-        public InputStreamHandler(final InputStream _in)
+        public InputStreamHandler(final InputStream _in,
+                                  final Object _signal)
         {
             this.in = _in;
+            this.signal = _signal;
         }
 
         /**
-         * <p>Reads from the {@link #in input stream} current existing
-         * characters and stores them in {@link #buffer}. If no characters
-         * exists, this thread waits for 1s and starts again.</p>
-         * <p>In the case of an thrown exception (e.g. {@link #in} is closed,
-         * ...), an error will be thrown.</p>
+         * <p>Reads from the {@link #in input stream} and stores the
+         * characters in {@link #buffer}. The read blocks until characters
+         * exists; for each read block the {@link #signal} is notified.</p>
+         * <p>If the {@link #in} is closed, the thread ends and
+         * {@link #closed} is set.</p>
          */
         @Override()
         public void run()
         {
+            final byte[] bytes = new byte[URLConnector.READ_BUFFER_SIZE];
             try {
-                while (true)  {
-                    while (this.in.available() > 0)  {
-                        this.buffer.add(this.in.read());
+                int len;
+                while ((len = this.in.read(bytes)) >= 0)  {
+                    synchronized (this.signal)  {
+                        for (int idx = 0; idx < len; idx++)  {
+                            this.buffer.append((char) (bytes[idx] & 0xff));
+                        }
+                        this.signal.notifyAll();
                     }
-                    Thread.sleep(1000);
                 }
-            } catch (final InterruptedException e) {
-                throw new Error(e);
             } catch (final IOException e) {
-                throw new Error(e);
+                // stream closed
+            } finally  {
+                synchronized (this.signal)  {
+                    this.closed = true;
+                    this.signal.notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Checks if the input stream is closed.
+         *
+         * @return <i>true</i> if closed; otherwise <i>false</i>
+         * @see #closed
+         */
+        public boolean isClosed()
+        {
+            synchronized (this.signal)  {
+                return this.closed;
             }
         }
 
@@ -534,7 +703,13 @@ public class URLConnector
          */
         public boolean wordExists()
         {
-            return this.buffer.contains(32);
+            synchronized (this.signal)  {
+                final int idx = this.buffer.indexOf(" ", this.checked); //$NON-NLS-1$
+                if (idx < 0)  {
+                    this.checked = this.buffer.length();
+                }
+                return idx >= 0;
+            }
         }
 
         /**
@@ -545,12 +720,13 @@ public class URLConnector
          */
         public String readWord()
         {
-            final StringBuilder ret = new StringBuilder();
-            int bck;
-            while ((bck = this.buffer.remove(0)) != 32)  {
-                ret.append((char) bck);
+            synchronized (this.signal)  {
+                final int idx = this.buffer.indexOf(" "); //$NON-NLS-1$
+                final String ret = this.buffer.substring(0, idx);
+                this.buffer.delete(0, idx + 1);
+                this.checked = 0;
+                return ret;
             }
-            return ret.toString();
         }
     }
 }
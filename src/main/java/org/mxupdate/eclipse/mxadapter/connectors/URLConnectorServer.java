@@ -57,7 +57,7 @@ public class URLConnectorServer
      * @see #connect()
      * @see #disconnect()
      */
-    private final boolean connected = false;
+    private boolean connected = false;
 
     /**
      * URL of the host for the MX connection.
@@ -160,7 +160,9 @@ public class URLConnectorServer
             System.out.flush();
         }
 
-        this.mxContext.disconnect();
+        if (this.connected)  {
+            this.mxContext.disconnect();
+        }
     }
 
     /**
@@ -177,6 +179,7 @@ public class URLConnectorServer
         this.mxContext = new Context(this.host);
         this.mxContext.resetContext(this.user, this.passwd, null);
         this.mxContext.connect();
+        this.connected = true;
     }
 
     /**
@@ -0,0 +1,494 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.mxadapter.metrics;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Emits custom Java Flight Recorder events for the MX adapter and the
+ * connectors. The events are defined dynamically with the
+ * <code>jdk.jfr.EventFactory</code> which is accessed via reflection, so that
+ * the plug-in still runs on Java runtimes without Flight Recorder. If the
+ * Flight Recorder is not available or the event type is not enabled in the
+ * current recording, a shared no-operation {@link Span} is returned and
+ * nothing is allocated or measured. The primitive values are only boxed if
+ * the event is recorded; values which must be computed (e.g. converted to a
+ * string) should only be set if the {@link Span#isEnabled() span is
+ * enabled}. The enabled state of an event type is only checked via
+ * reflection once per {@link #ENABLED_CHECK_NANOS interval}, so that a new
+ * started recording is used after at most this interval.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ */
+public final class FlightRecorderEvents
+{
+    /**
+     * Prefix of all event names.
+     */
+    private static final String EVENT_PREFIX = "org.mxupdate.eclipse."; //$NON-NLS-1$
+
+    /**
+     * Category of all events.
+     */
+    private static final String CATEGORY = "MxUpdate"; //$NON-NLS-1$
+
+    /**
+     * Interval in nanoseconds in which the enabled state of an event type is
+     * checked again (one second).
+     */
+    private static final long ENABLED_CHECK_NANOS = 1000L * 1000L * 1000L;
+
+    /**
+     * Span used if no event must be recorded.
+     */
+    private static final Span NOOP = new Span(null, null);
+
+    /**
+     * Bridge to the Flight Recorder or <code>null</code> if the Flight
+     * Recorder is not available.
+     */
+    private static final Bridge BRIDGE = Bridge.create();
+
+    /**
+     * Event types. The first field of all event types is always the name of
+     * the project.
+     */
+    public enum EventType
+    {
+        /** Connect to the MX database. */
+        CONNECT("Connect", "MX Connect", //$NON-NLS-1$ //$NON-NLS-2$
+                new String[]{"project", "mode"}, //$NON-NLS-1$ //$NON-NLS-2$
+                new Class<?>[]{String.class, String.class}),
+
+        /** Call of a Dispatcher method. */
+        DISPATCH("Dispatch", "MX Dispatch", //$NON-NLS-1$ //$NON-NLS-2$
+                 new String[]{"project", "method", "requestBytes", "responseBytes", "error"}, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+                 new Class<?>[]{String.class, String.class, long.class, long.class, boolean.class}),
+
+        /** Encoding of the arguments for a Dispatcher method. */
+        ENCODE("Encode", "MX Encode", //$NON-NLS-1$ //$NON-NLS-2$
+               new String[]{"project", "method", "bytes"}, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+               new Class<?>[]{String.class, String.class, long.class}),
+
+        /** Decoding of the return value of a Dispatcher method. */
+        DECODE("Decode", "MX Decode", //$NON-NLS-1$ //$NON-NLS-2$
+               new String[]{"project", "method", "bytes"}, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+               new Class<?>[]{String.class, String.class, long.class}),
+
+        /** Update of a batch of configuration items. */
+        UPDATE_BATCH("UpdateBatch", "MX Update Batch", //$NON-NLS-1$ //$NON-NLS-2$
+                     new String[]{"project", "files", "compile"}, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                     new Class<?>[]{String.class, int.class, boolean.class});
+
+        /** Name of the event type (without prefix). */
+        private final String eventName;
+
+        /** Label of the event type. */
+        private final String label;
+
+        /** Names of the fields. */
+        private final String[] fieldNames;
+
+        /** Types of the fields. */
+        private final Class<?>[] fieldTypes;
+
+        /**
+         * Initializes the event type.
+         *
+         * @param _eventName    name of the event
+         * @param _label        label of the event
+         * @param _fieldNames   names of the fields
+         * @param _fieldTypes   types of the fields
+         */
+        private EventType(final String _eventName,
+                          final String _label,
+                          final String[] _fieldNames,
+                          final Class<?>[] _fieldTypes)
+        {
+            this.eventName = _eventName;
+            this.label = _label;
+            this.fieldNames = _fieldNames;
+            this.fieldTypes = _fieldTypes;
+        }
+
+        /**
+         * Returns the index of the field with given <code>_name</code>.
+         *
+         * @param _name     name of the field
+         * @return index of the field; <code>-1</code> if not defined
+         */
+        int indexOf(final String _name)
+        {
+            return Arrays.asList(this.fieldNames).indexOf(_name);
+        }
+    }
+
+    /**
+     * The constructor is defined to avoid external initialization.
+     */
+    private FlightRecorderEvents()
+    {
+    }
+
+    /**
+     * Begins a new event of given <code>_type</code> for given
+     * <code>_project</code>. The returned span must be
+     * {@link Span#commit() committed} at the end of the measured operation.
+     *
+     * @param _type     event type
+     * @param _project  name of the project
+     * @return started span; no-operation span if Flight Recorder is not
+     *         available or the event type is not enabled
+     */
+    public static Span begin(final EventType _type,
+                             final String _project)
+    {
+        final Span ret;
+        final Object event = (FlightRecorderEvents.BRIDGE != null)
+                             ? FlightRecorderEvents.BRIDGE.begin(_type)
+                             : null;
+        if (event == null)  {
+            ret = FlightRecorderEvents.NOOP;
+        } else  {
+            ret = new Span(_type, event);
+            ret.set("project", _project); //$NON-NLS-1$
+        }
+        return ret;
+    }
+
+    /**
+     * Span of one Flight Recorder event.
+     */
+    public static final class Span
+    {
+        /** Related event type. */
+        private final EventType type;
+
+        /** Flight Recorder event; <code>null</code> for a no-operation span. */
+        private final Object event;
+
+        /**
+         * Initializes the span.
+         *
+         * @param _type     event type
+         * @param _event    Flight Recorder event
+         */
+        private Span(final EventType _type,
+                     final Object _event)
+        {
+            this.type = _type;
+            this.event = _event;
+        }
+
+        /**
+         * Checks if the event of this span is recorded.
+         *
+         * @return <i>true</i> if the event is recorded; <i>false</i> for a
+         *         no-operation span
+         */
+        public boolean isEnabled()
+        {
+            return this.event != null;
+        }
+
+        /**
+         * Defines the <code>_value</code> of the field with given
+         * <code>_name</code>. The value is only boxed if the event is
+         * recorded.
+         *
+         * @param _name     name of the field
+         * @param _value    new value
+         * @return this span instance
+         */
+        public Span set(final String _name,
+                        final long _value)
+        {
+            return (this.event != null) ? this.set(_name, Long.valueOf(_value)) : this;
+        }
+
+        /**
+         * Defines the <code>_value</code> of the field with given
+         * <code>_name</code>. The value is only boxed if the event is
+         * recorded.
+         *
+         * @param _name     name of the field
+         * @param _value    new value
+         * @return this span instance
+         */
+        public Span set(final String _name,
+                        final int _value)
+        {
+            return (this.event != null) ? this.set(_name, Integer.valueOf(_value)) : this;
+        }
+
+        /**
+         * Defines the <code>_value</code> of the field with given
+         * <code>_name</code>.
+         *
+         * @param _name     name of the field
+         * @param _value    new value
+         * @return this span instance
+         */
+        public Span set(final String _name,
+                        final boolean _value)
+        {
+            return (this.event != null) ? this.set(_name, Boolean.valueOf(_value)) : this;
+        }
+
+        /**
+         * Defines the <code>_value</code> of the field with given
+         * <code>_name</code>.
+         *
+         * @param _name     name of the field
+         * @param _value    new value
+         * @return this span instance
+         */
+        public Span set(final String _name,
+                        final Object _value)
+        {
+            if (this.event != null)  {
+                final int idx = this.type.indexOf(_name);
+                if (idx >= 0)  {
+                    FlightRecorderEvents.BRIDGE.set(this.event, idx, _value);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Ends and commits the event.
+         */
+        public void commit()
+        {
+            if (this.event != null)  {
+                FlightRecorderEvents.BRIDGE.commit(this.event);
+            }
+        }
+    }
+
+    /**
+     * Reflection based bridge to the Flight Recorder API.
+     */
+    private static final class Bridge
+    {
+        /** Event factory for each event type (index is the ordinal). */
+        private final Object[] factories;
+
+        /** Probe event of each event type to check if enabled. */
+        private final Object[] probes;
+
+        /** Method <code>EventFactory.newEvent()</code>. */
+        private final Method newEvent;
+
+        /** Method <code>Event.isEnabled()</code>. */
+        private final Method isEnabled;
+
+        /** Method <code>Event.begin()</code>. */
+        private final Method beginMethod;
+
+        /** Method <code>Event.end()</code>. */
+        private final Method endMethod;
+
+        /** Method <code>Event.shouldCommit()</code>. */
+        private final Method shouldCommit;
+
+        /** Method <code>Event.commit()</code>. */
+        private final Method commitMethod;
+
+        /** Method <code>Event.set(int, Object)</code>. */
+        private final Method setMethod;
+
+        /**
+         * Enabled state of each event type (index is the ordinal;
+         * <code>1</code> means enabled).
+         *
+         * @see #isEnabled(EventType)
+         */
+        private final AtomicIntegerArray enabled;
+
+        /**
+         * Time (from {@link System#nanoTime()}) of the next check of the
+         * enabled state of each event type (index is the ordinal).
+         *
+         * @see #isEnabled(EventType)
+         */
+        private final AtomicLongArray nextCheck;
+
+        /**
+         * Initializes the bridge by defining all event types.
+         *
+         * @throws Exception if the Flight Recorder API is not available
+         */
+        private Bridge()
+            throws Exception
+        {
+            final ClassLoader loader = ClassLoader.getSystemClassLoader();
+            final Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory", true, loader); //$NON-NLS-1$
+            final Class<?> eventClass = Class.forName("jdk.jfr.Event", true, loader); //$NON-NLS-1$
+            final Class<?> annotElemClass = Class.forName("jdk.jfr.AnnotationElement", true, loader); //$NON-NLS-1$
+            final Class<?> valueDescClass = Class.forName("jdk.jfr.ValueDescriptor", true, loader); //$NON-NLS-1$
+            final Class<?> nameClass = Class.forName("jdk.jfr.Name", true, loader); //$NON-NLS-1$
+            final Class<?> labelClass = Class.forName("jdk.jfr.Label", true, loader); //$NON-NLS-1$
+            final Class<?> categoryClass = Class.forName("jdk.jfr.Category", true, loader); //$NON-NLS-1$
+
+            final Constructor<?> annotElemCons = annotElemClass.getConstructor(Class.class, Object.class);
+            final Constructor<?> valueDescCons = valueDescClass.getConstructor(Class.class, String.class);
+            final Method create = factoryClass.getMethod("create", List.class, List.class); //$NON-NLS-1$
+
+            this.newEvent = factoryClass.getMethod("newEvent"); //$NON-NLS-1$
+            this.isEnabled = eventClass.getMethod("isEnabled"); //$NON-NLS-1$
+            this.beginMethod = eventClass.getMethod("begin"); //$NON-NLS-1$
+            this.endMethod = eventClass.getMethod("end"); //$NON-NLS-1$
+            this.shouldCommit = eventClass.getMethod("shouldCommit"); //$NON-NLS-1$
+            this.commitMethod = eventClass.getMethod("commit"); //$NON-NLS-1$
+            this.setMethod = eventClass.getMethod("set", int.class, Object.class); //$NON-NLS-1$
+
+            final EventType[] types = EventType.values();
+            this.factories = new Object[types.length];
+            this.probes = new Object[types.length];
+            this.enabled = new AtomicIntegerArray(types.length);
+            this.nextCheck = new AtomicLongArray(types.length);
+            final long now = System.nanoTime();
+            for (int idx = 0; idx < types.length; idx++)  {
+                this.nextCheck.set(idx, now);
+            }
+            for (final EventType type : types)  {
+                final Object category = Array.newInstance(String.class, 1);
+                Array.set(category, 0, FlightRecorderEvents.CATEGORY);
+                final List<Object> annotations = new ArrayList<Object>();
+                annotations.add(annotElemCons.newInstance(nameClass, FlightRecorderEvents.EVENT_PREFIX + type.eventName));
+                annotations.add(annotElemCons.newInstance(labelClass, type.label));
+                annotations.add(annotElemCons.newInstance(categoryClass, category));
+                final List<Object> fields = new ArrayList<Object>();
+                for (int idx = 0; idx < type.fieldNames.length; idx++)  {
+                    fields.add(valueDescCons.newInstance(type.fieldTypes[idx], type.fieldNames[idx]));
+                }
+                this.factories[type.ordinal()] = create.invoke(null, annotations, fields);
+                this.probes[type.ordinal()] = this.newEvent.invoke(this.factories[type.ordinal()]);
+            }
+        }
+
+        /**
+         * Creates the bridge to the Flight Recorder.
+         *
+         * @return bridge; <code>null</code> if the Flight Recorder is not
+         *         available
+         */
+        static Bridge create()
+        {
+            Bridge ret;
+            try  {
+                ret = new Bridge();
+            } catch (final Throwable e)  {
+                ret = null;
+            }
+            return ret;
+        }
+
+        /**
+         * Checks if given event <code>_type</code> is enabled. The enabled
+         * state is only evaluated again via reflection after
+         * {@link FlightRecorderEvents#ENABLED_CHECK_NANOS}.
+         *
+         * @param _type     event type
+         * @return <i>true</i> if enabled; otherwise <i>false</i>
+         * @throws Exception if the enabled state could not be evaluated
+         */
+        private boolean isEnabled(final EventType _type)
+            throws Exception
+        {
+            final int idx = _type.ordinal();
+            final long now = System.nanoTime();
+            final long next = this.nextCheck.get(idx);
+            if (((now - next) >= 0)
+                    && this.nextCheck.compareAndSet(idx, next, now + FlightRecorderEvents.ENABLED_CHECK_NANOS))  {
+                this.enabled.set(idx, (Boolean) this.isEnabled.invoke(this.probes[idx]) ? 1 : 0);
+            }
+            return this.enabled.get(idx) == 1;
+        }
+
+        /**
+         * Creates and begins a new event of given <code>_type</code> if the
+         * event type is enabled.
+         *
+         * @param _type     event type
+         * @return new started event; <code>null</code> if not enabled
+         * @see #isEnabled(EventType)
+         */
+        Object begin(final EventType _type)
+        {
+            Object ret = null;
+            try  {
+                if (this.isEnabled(_type))  {
+                    ret = this.newEvent.invoke(this.factories[_type.ordinal()]);
+                    this.beginMethod.invoke(ret);
+                }
+            } catch (final Exception e)  {
+                ret = null;
+            }
+            return ret;
+        }
+
+        /**
+         * Defines the <code>_value</code> of the field with given
+         * <code>_index</code> for <code>_event</code>.
+         *
+         * @param _event    event
+         * @param _index    index of the field
+         * @param _value    value
+         */
+        void set(final Object _event,
+                 final int _index,
+                 final Object _value)
+        {
+            try  {
+                this.setMethod.invoke(_event, _index, _value);
+            } catch (final Exception e)  {
+                // ignore, event is only diagnostic
+            }
+        }
+
+        /**
+         * Ends and commits given <code>_event</code>.
+         *
+         * @param _event    event to commit
+         */
+        void commit(final Object _event)
+        {
+            try  {
+                this.endMethod.invoke(_event);
+                if ((Boolean) this.shouldCommit.invoke(_event))  {
+                    this.commitMethod.invoke(_event);
+                }
+            } catch (final Exception e)  {
+                // ignore, event is only diagnostic
+            }
+        }
+    }
+}
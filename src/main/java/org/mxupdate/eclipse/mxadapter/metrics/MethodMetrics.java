@@ -0,0 +1,476 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.mxadapter.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collected metrics of one Dispatcher method for one project. All counters
+ * are updated lock free, so that the recording could be done from any thread
+ * without blocking the calls to MX.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see MetricsRegistry
+ */
+public final class MethodMetrics
+{
+    /**
+     * Upper bounds (in milliseconds) of the latency histogram buckets. A last
+     * additional bucket holds all calls with a latency above the last bound.
+     *
+     * @see #histogram
+     */
+    private static final long[] LATENCY_BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500,
+                                                  1000, 2000, 5000, 10000, 30000, 60000};
+
+    /**
+     * Factor to convert nano seconds to milliseconds.
+     */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /**
+     * Name of the project.
+     */
+    private final String project;
+
+    /**
+     * Name of the Dispatcher method.
+     */
+    private final String method;
+
+    /**
+     * Number of calls.
+     */
+    private final AtomicLong calls = new AtomicLong();
+
+    /**
+     * Number of failed calls (thrown by the connector or returned as
+     * exception from the Dispatcher).
+     */
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * Sum of all latencies in nano seconds.
+     */
+    private final AtomicLong latencyNanos = new AtomicLong();
+
+    /**
+     * Maximum latency in nano seconds.
+     */
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * Sum of all encode times in nano seconds.
+     */
+    private final AtomicLong encodeNanos = new AtomicLong();
+
+    /**
+     * Sum of all decode times in nano seconds.
+     */
+    private final AtomicLong decodeNanos = new AtomicLong();
+
+    /**
+     * Sum of all sent request bytes.
+     */
+    private final AtomicLong requestBytes = new AtomicLong();
+
+    /**
+     * Sum of all received response bytes.
+     */
+    private final AtomicLong responseBytes = new AtomicLong();
+
+    /**
+     * Latency histogram; the index is related to {@link #LATENCY_BOUNDS}.
+     */
+    private final AtomicLongArray histogram = new AtomicLongArray(MethodMetrics.LATENCY_BOUNDS.length + 1);
+
+    /**
+     * Initializes the metrics for given project and Dispatcher method.
+     *
+     * @param _project  name of the project
+     * @param _method   name of the Dispatcher method
+     */
+    MethodMetrics(final String _project,
+                  final String _method)
+    {
+        this.project = _project;
+        this.method = _method;
+    }
+
+    /**
+     * Records one call of the Dispatcher method.
+     *
+     * @param _latencyNanos     latency of the round trip in nano seconds
+     * @param _encodeNanos      time to encode the arguments in nano seconds
+     * @param _decodeNanos      time to decode the result in nano seconds
+     * @param _requestBytes     sent bytes
+     * @param _responseBytes    received bytes
+     * @param _error            <i>true</i> if the call failed
+     */
+    public void record(final long _latencyNanos,
+                       final long _encodeNanos,
+                       final long _decodeNanos,
+                       final long _requestBytes,
+                       final long _responseBytes,
+                       final boolean _error)
+    {
+        this.calls.incrementAndGet();
+        if (_error)  {
+            this.errors.incrementAndGet();
+        }
+        this.latencyNanos.addAndGet(_latencyNanos);
+        this.encodeNanos.addAndGet(_encodeNanos);
+        this.decodeNanos.addAndGet(_decodeNanos);
+        this.requestBytes.addAndGet(_requestBytes);
+        this.responseBytes.addAndGet(_responseBytes);
+
+        long max = this.maxLatencyNanos.get();
+        while ((_latencyNanos > max) && !this.maxLatencyNanos.compareAndSet(max, _latencyNanos))  {
+            max = this.maxLatencyNanos.get();
+        }
+
+        this.histogram.incrementAndGet(MethodMetrics.bucketIndex(_latencyNanos / MethodMetrics.NANOS_PER_MILLI));
+    }
+
+    /**
+     * Resets all counters.
+     */
+    public void reset()
+    {
+        this.calls.set(0);
+        this.errors.set(0);
+        this.latencyNanos.set(0);
+        this.maxLatencyNanos.set(0);
+        this.encodeNanos.set(0);
+        this.decodeNanos.set(0);
+        this.requestBytes.set(0);
+        this.responseBytes.set(0);
+        for (int idx = 0; idx < this.histogram.length(); idx++)  {
+            this.histogram.set(idx, 0);
+        }
+    }
+
+    /**
+     * Returns an approximate copy of current counters. The counters are read
+     * one by one without lock (so that the recording of a call is never
+     * blocked); a call recorded meanwhile could be counted only partly,
+     * e.g. within the number of calls, but not yet within the histogram.
+     *
+     * @return snapshot of the metrics
+     */
+    public Snapshot getSnapshot()
+    {
+        final long[] buckets = new long[this.histogram.length()];
+        for (int idx = 0; idx < buckets.length; idx++)  {
+            buckets[idx] = this.histogram.get(idx);
+        }
+        return new Snapshot(this.project,
+                            this.method,
+                            this.calls.get(),
+                            this.errors.get(),
+                            this.latencyNanos.get(),
+                            this.maxLatencyNanos.get(),
+                            this.encodeNanos.get(),
+                            this.decodeNanos.get(),
+                            this.requestBytes.get(),
+                            this.responseBytes.get(),
+                            buckets);
+    }
+
+    /**
+     * Evaluates for given latency the index of the histogram bucket.
+     *
+     * @param _latencyMillis    latency in milliseconds
+     * @return index of the histogram bucket
+     * @see #LATENCY_BOUNDS
+     */
+    private static int bucketIndex(final long _latencyMillis)
+    {
+        int idx = 0;
+        while ((idx < MethodMetrics.LATENCY_BOUNDS.length) && (_latencyMillis > MethodMetrics.LATENCY_BOUNDS[idx]))  {
+            idx++;
+        }
+        return idx;
+    }
+
+    /**
+     * Returns the upper bounds in milliseconds of the latency histogram
+     * buckets. The histogram of a {@link Snapshot} has one bucket more for
+     * all latencies above the last bound.
+     *
+     * @return copy of the latency bounds
+     */
+    public static long[] getLatencyBounds()
+    {
+        return MethodMetrics.LATENCY_BOUNDS.clone();
+    }
+
+    /**
+     * Immutable copy of the metrics of one Dispatcher method.
+     */
+    public static final class Snapshot
+    {
+        /** Name of the project. */
+        private final String project;
+
+        /** Name of the Dispatcher method. */
+        private final String method;
+
+        /** Number of calls. */
+        private final long calls;
+
+        /** Number of failed calls. */
+        private final long errors;
+
+        /** Sum of all latencies in nano seconds. */
+        private final long latencyNanos;
+
+        /** Maximum latency in nano seconds. */
+        private final long maxLatencyNanos;
+
+        /** Sum of all encode times in nano seconds. */
+        private final long encodeNanos;
+
+        /** Sum of all decode times in nano seconds. */
+        private final long decodeNanos;
+
+        /** Sum of all sent bytes. */
+        private final long requestBytes;
+
+        /** Sum of all received bytes. */
+        private final long responseBytes;
+
+        /** Latency histogram. */
+        private final long[] histogram;
+
+        /**
+         * Initializes the snapshot.
+         *
+         * @param _project          name of the project
+         * @param _method           name of the Dispatcher method
+         * @param _calls            number of calls
+         * @param _errors           number of failed calls
+         * @param _latencyNanos     sum of all latencies
+         * @param _maxLatencyNanos  maximum latency
+         * @param _encodeNanos      sum of all encode times
+         * @param _decodeNanos      sum of all decode times
+         * @param _requestBytes     sum of all sent bytes
+         * @param _responseBytes    sum of all received bytes
+         * @param _histogram        latency histogram
+         */
+        private Snapshot(final String _project,
+                         final String _method,
+                         final long _calls,
+                         final long _errors,
+                         final long _latencyNanos,
+                         final long _maxLatencyNanos,
+                         final long _encodeNanos,
+                         final long _decodeNanos,
+                         final long _requestBytes,
+                         final long _responseBytes,
+                         final long[] _histogram)
+        {
+            this.project = _project;
+            this.method = _method;
+            this.calls = _calls;
+            this.errors = _errors;
+            this.latencyNanos = _latencyNanos;
+            this.maxLatencyNanos = _maxLatencyNanos;
+            this.encodeNanos = _encodeNanos;
+            this.decodeNanos = _decodeNanos;
+            this.requestBytes = _requestBytes;
+            this.responseBytes = _responseBytes;
+            this.histogram = _histogram;
+        }
+
+        /**
+         * Returns the name of the project.
+         *
+         * @return project name
+         */
+        public String getProject()
+        {
+            return this.project;
+        }
+
+        /**
+         * Returns the name of the Dispatcher method.
+         *
+         * @return Dispatcher method
+         */
+        public String getMethod()
+        {
+            return this.method;
+        }
+
+        /**
+         * Returns the number of calls.
+         *
+         * @return number of calls
+         */
+        public long getCalls()
+        {
+            return this.calls;
+        }
+
+        /**
+         * Returns the number of failed calls.
+         *
+         * @return number of failed calls
+         */
+        public long getErrors()
+        {
+            return this.errors;
+        }
+
+        /**
+         * Returns the sum of all latencies.
+         *
+         * @return total latency in nano seconds
+         */
+        public long getTotalLatencyNanos()
+        {
+            return this.latencyNanos;
+        }
+
+        /**
+         * Returns the average latency.
+         *
+         * @return average latency in nano seconds (or 0 if no call was done)
+         */
+        public long getAverageLatencyNanos()
+        {
+            return (this.calls == 0) ? 0 : this.latencyNanos / this.calls;
+        }
+
+        /**
+         * Returns the maximum latency.
+         *
+         * @return maximum latency in nano seconds
+         */
+        public long getMaxLatencyNanos()
+        {
+            return this.maxLatencyNanos;
+        }
+
+        /**
+         * Returns the sum of all encode times.
+         *
+         * @return total encode time in nano seconds
+         */
+        public long getEncodeNanos()
+        {
+            return this.encodeNanos;
+        }
+
+        /**
+         * Returns the sum of all decode times.
+         *
+         * @return total decode time in nano seconds
+         */
+        public long getDecodeNanos()
+        {
+            return this.decodeNanos;
+        }
+
+        /**
+         * Returns the sum of all sent bytes.
+         *
+         * @return sent bytes
+         */
+        public long getRequestBytes()
+        {
+            return this.requestBytes;
+        }
+
+        /**
+         * Returns the sum of all received bytes.
+         *
+         * @return received bytes
+         */
+        public long getResponseBytes()
+        {
+            return this.responseBytes;
+        }
+
+        /**
+         * Returns the latency histogram. The bucket with index <i>i</i> counts
+         * the calls with a latency up to the <i>i</i>-th
+         * {@link MethodMetrics#getLatencyBounds() latency bound}; the last
+         * bucket counts all slower calls.
+         *
+         * @return copy of the latency histogram
+         */
+        public long[] getHistogram()
+        {
+            return this.histogram.clone();
+        }
+
+        /**
+         * Estimates the latency percentile from the histogram. The upper bound
+         * of the bucket where the percentile is located is returned.
+         *
+         * @param _percentile   percentile between 0 and 100
+         * @return estimated latency in milliseconds; <code>-1</code> if the
+         *         percentile is located in the last (unbounded) bucket or no
+         *         call was done
+         */
+        public long getLatencyPercentileMillis(final double _percentile)
+        {
+            long ret = -1;
+            if (this.calls > 0)  {
+                final long limit = (long) Math.ceil(this.calls * _percentile / 100.0);
+                long sum = 0;
+                for (int idx = 0; idx < MethodMetrics.LATENCY_BOUNDS.length; idx++)  {
+                    sum += this.histogram[idx];
+                    if (sum >= limit)  {
+                        ret = MethodMetrics.LATENCY_BOUNDS[idx];
+                        break;
+                    }
+                }
+            }
+            return ret;
+        }
+
+        /**
+         * Returns a readable string representation of the snapshot.
+         *
+         * @return string representation
+         */
+        @Override()
+        public String toString()
+        {
+            return new StringBuilder()
+                    .append(this.project).append('/').append(this.method)
+                    .append(": calls=").append(this.calls)
+                    .append(", errors=").append(this.errors)
+                    .append(", avg=").append(this.getAverageLatencyNanos() / MethodMetrics.NANOS_PER_MILLI).append("ms")
+                    .append(", max=").append(this.maxLatencyNanos / MethodMetrics.NANOS_PER_MILLI).append("ms")
+                    .append(", encode=").append(this.encodeNanos / MethodMetrics.NANOS_PER_MILLI).append("ms")
+                    .append(", decode=").append(this.decodeNanos / MethodMetrics.NANOS_PER_MILLI).append("ms")
+                    .append(", sent=").append(this.requestBytes)
+                    .append(", received=").append(this.responseBytes)
+                    .toString();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.mxadapter.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the call metrics for all Dispatcher methods depending on the
+ * projects. For each project and Dispatcher method the number of calls,
+ * errors, a latency histogram, the transferred bytes and the encode / decode
+ * times are collected. Other tools could fetch a
+ * {@link #getSnapshot() snapshot} or {@link #reset() reset} the collected
+ * metrics.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see MethodMetrics
+ */
+public class MetricsRegistry
+{
+    /**
+     * Mapping between the project names, the Dispatcher methods and the
+     * related metrics.
+     */
+    private final ConcurrentMap<String,ConcurrentMap<String,MethodMetrics>> metrics
+            = new ConcurrentHashMap<String,ConcurrentMap<String,MethodMetrics>>();
+
+    /**
+     * Returns the metrics for given <code>_project</code> and Dispatcher
+     * <code>_method</code>. If not already existing, the metrics are created.
+     *
+     * @param _project  name of the project
+     * @param _method   name of the Dispatcher method
+     * @return metrics of the Dispatcher method
+     */
+    public MethodMetrics getMethodMetrics(final String _project,
+                                          final String _method)
+    {
+        ConcurrentMap<String,MethodMetrics> projectMetrics = this.metrics.get(_project);
+        if (projectMetrics == null)  {
+            this.metrics.putIfAbsent(_project, new ConcurrentHashMap<String,MethodMetrics>());
+            projectMetrics = this.metrics.get(_project);
+        }
+        MethodMetrics ret = projectMetrics.get(_method);
+        if (ret == null)  {
+            projectMetrics.putIfAbsent(_method, new MethodMetrics(_project, _method));
+            ret = projectMetrics.get(_method);
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the snapshots of the metrics of all projects and Dispatcher
+     * methods.
+     *
+     * @return list of snapshots
+     */
+    public List<MethodMetrics.Snapshot> getSnapshot()
+    {
+        final List<MethodMetrics.Snapshot> ret = new ArrayList<MethodMetrics.Snapshot>();
+        for (final String project : this.metrics.keySet())  {
+            ret.addAll(this.getSnapshot(project));
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the snapshots of the metrics of all Dispatcher methods for given
+     * <code>_project</code>.
+     *
+     * @param _project  name of the project
+     * @return list of snapshots (empty if nothing is recorded for the
+     *         project)
+     */
+    public List<MethodMetrics.Snapshot> getSnapshot(final String _project)
+    {
+        final List<MethodMetrics.Snapshot> ret = new ArrayList<MethodMetrics.Snapshot>();
+        final ConcurrentMap<String,MethodMetrics> projectMetrics = this.metrics.get(_project);
+        if (projectMetrics != null)  {
+            for (final MethodMetrics methodMetrics : projectMetrics.values())  {
+                ret.add(methodMetrics.getSnapshot());
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Resets the metrics of all projects.
+     */
+    public void reset()
+    {
+        for (final String project : this.metrics.keySet())  {
+            this.reset(project);
+        }
+    }
+
+    /**
+     * Resets the metrics of given <code>_project</code>.
+     *
+     * @param _project  name of the project
+     */
+    public void reset(final String _project)
+    {
+        final ConcurrentMap<String,MethodMetrics> projectMetrics = this.metrics.get(_project);
+        if (projectMetrics != null)  {
+            for (final MethodMetrics methodMetrics : projectMetrics.values())  {
+                methodMetrics.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.mxadapter.traffic;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.mxupdate.eclipse.mxadapter.connectors.IConnector;
+
+/**
+ * Local connector simulating a MX server by answering the Dispatcher calls
+ * from a traffic recording. For each call the recorded answer for the same
+ * encoded arguments is returned after the recorded duration (scaled by the
+ * speed factor). If the same arguments were recorded more than once, the
+ * answers are returned in the recorded order; the last answer is repeated
+ * if more calls are done than recorded.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see TrafficReplayer
+ */
+public class SimulatorConnector
+    implements IConnector
+{
+    /**
+     * Recorded answers depending on the encoded arguments.
+     */
+    private final Map<String,LinkedList<TrafficEntry>> answers = new HashMap<String,LinkedList<TrafficEntry>>();
+
+    /**
+     * Speed factor; the recorded durations are divided by this factor. If
+     * zero or negative, the answers are returned without delay.
+     */
+    private final double speed;
+
+    /**
+     * Is the update done by file contents?
+     */
+    private final boolean updateByFileContent;
+
+    /**
+     * Initializes the simulator.
+     *
+     * @param _entries              recorded traffic
+     * @param _speed                speed factor
+     * @param _updateByFileContent  <i>true</i> if CI file content must be
+     *                              transferred; otherwise <i>false</i>
+     */
+    public SimulatorConnector(final List<TrafficEntry> _entries,
+                              final double _speed,
+                              final boolean _updateByFileContent)
+    {
+        this.speed = _speed;
+        this.updateByFileContent = _updateByFileContent;
+        for (final TrafficEntry entry : _entries)  {
+            final String key = SimulatorConnector.key(entry.getArgument(0), entry.getArgument(1), entry.getArgument(2));
+            LinkedList<TrafficEntry> list = this.answers.get(key);
+            if (list == null)  {
+                list = new LinkedList<TrafficEntry>();
+                this.answers.put(key, list);
+            }
+            list.add(entry);
+        }
+    }
+
+    /**
+     * Evaluates the key for the {@link #answers}.
+     *
+     * @param _arg1     first argument
+     * @param _arg2     second argument
+     * @param _arg3     third argument
+     * @return key
+     */
+    private static String key(final String _arg1,
+                              final String _arg2,
+                              final String _arg3)
+    {
+        return new StringBuilder()
+                .append(_arg1).append('\0')
+                .append(_arg2).append('\0')
+                .append(_arg3)
+                .toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The recorded answer is returned after the scaled recorded duration.
+     *
+     * @throws Exception if no answer was recorded for given arguments or if
+     *                   the recorded call failed
+     */
+    public String execute(final String _arg1,
+                          final String _arg2,
+                          final String _arg3)
+        throws Exception
+    {
+        final TrafficEntry entry;
+        synchronized (this.answers)  {
+            final LinkedList<TrafficEntry> list = this.answers.get(SimulatorConnector.key(_arg1, _arg2, _arg3));
+            if (list == null)  {
+                throw new Exception("no recorded answer found"); //$NON-NLS-1$
+            }
+            entry = (list.size() > 1) ? list.removeFirst() : list.getFirst();
+        }
+        if (this.speed > 0)  {
+            final long nanos = (long) (entry.getDurationNanos() / this.speed);
+            Thread.sleep(nanos / 1000000, (int) (nanos % 1000000));
+        }
+        if (entry.getError() != null)  {
+            throw new Exception(entry.getError());
+        }
+        return entry.getResponse();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Nothing must be done for the simulator.
+     */
+    public void disconnect()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see #updateByFileContent
+     */
+    public boolean isUpdateByFileContent()
+    {
+        return this.updateByFileContent;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The simulator is always alive.
+     */
+    public boolean isAlive()
+    {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return always <code>simulator</code>
+     */
+    public String getServerId()
+    {
+        return "simulator"; //$NON-NLS-1$
+    }
+
+    /**
+     * {@inheritDoc}
+     * The simulator has no real session, so the same instance is returned.
+     */
+    public IConnector newSession()
+    {
+        return this;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.mxadapter.traffic;
+
+/**
+ * One recorded Dispatcher call with the encoded request arguments, the
+ * encoded response (or the error message) and the timing information.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see TrafficRecorder
+ * @see TrafficReader
+ */
+public final class TrafficEntry
+{
+    /**
+     * Start of the call in nanoseconds relative to the start of the
+     * recording.
+     */
+    private final long offsetNanos;
+
+    /**
+     * Duration of the call in nanoseconds.
+     */
+    private final long durationNanos;
+
+    /**
+     * Encoded arguments of the call.
+     */
+    private final String[] arguments;
+
+    /**
+     * Encoded response of the call; <code>null</code> if the call failed.
+     */
+    private final String response;
+
+    /**
+     * Error message if the call failed; otherwise <code>null</code>.
+     */
+    private final String error;
+
+    /**
+     * Initializes the traffic entry.
+     *
+     * @param _offsetNanos      start of the call relative to the start of the
+     *                          recording
+     * @param _durationNanos    duration of the call
+     * @param _arguments        encoded arguments
+     * @param _response         encoded response
+     * @param _error            error message
+     */
+    public TrafficEntry(final long _offsetNanos,
+                        final long _durationNanos,
+                        final String[] _arguments,
+                        final String _response,
+                        final String _error)
+    {
+        this.offsetNanos = _offsetNanos;
+        this.durationNanos = _durationNanos;
+        this.arguments = _arguments;
+        this.response = _response;
+        this.error = _error;
+    }
+
+    /**
+     * Returns the start of the call relative to the start of the recording.
+     *
+     * @return offset in nanoseconds
+     * @see #offsetNanos
+     */
+    public long getOffsetNanos()
+    {
+        return this.offsetNanos;
+    }
+
+    /**
+     * Returns the duration of the call.
+     *
+     * @return duration in nanoseconds
+     * @see #durationNanos
+     */
+    public long getDurationNanos()
+    {
+        return this.durationNanos;
+    }
+
+    /**
+     * Returns the encoded argument with given <code>_index</code>.
+     *
+     * @param _index    index of the argument
+     * @return encoded argument
+     * @see #arguments
+     */
+    public String getArgument(final int _index)
+    {
+        return this.arguments[_index];
+    }
+
+    /**
+     * Returns the number of encoded arguments.
+     *
+     * @return number of arguments
+     * @see #arguments
+     */
+    public int getArgumentCount()
+    {
+        return this.arguments.length;
+    }
+
+    /**
+     * Returns the encoded response.
+     *
+     * @return encoded response; <code>null</code> if the call failed
+     * @see #response
+     */
+    public String getResponse()
+    {
+        return this.response;
+    }
+
+    /**
+     * Returns the error message if the call failed.
+     *
+     * @return error message; <code>null</code> if the call did not fail
+     * @see #error
+     */
+    public String getError()
+    {
+        return this.error;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.mxadapter.traffic;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads a traffic file written from the {@link TrafficRecorder}.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ */
+public final class TrafficReader
+{
+    /**
+     * The constructor is defined to avoid external initialization.
+     */
+    private TrafficReader()
+    {
+    }
+
+    /**
+     * Reads all recorded calls from given traffic <code>_file</code>. A last
+     * incomplete call (e.g. if Eclipse crashed while the call was written)
+     * is ignored.
+     *
+     * @param _file     traffic file
+     * @return list of all recorded calls (ordered by the recording)
+     * @throws IOException if the file could not be read or is not a traffic
+     *                     file
+     */
+    public static List<TrafficEntry> read(final File _file)
+        throws IOException
+    {
+        final List<TrafficEntry> ret = new ArrayList<TrafficEntry>();
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(_file)));
+        try  {
+            if ((in.readInt() != TrafficRecorder.MAGIC) || (in.readInt() != TrafficRecorder.VERSION))  {
+                throw new IOException("'" + _file + "' is not a traffic file or has an unknown version"); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            while (true)  {
+                final byte[] compressed;
+                try  {
+                    compressed = new byte[in.readInt()];
+                    in.readFully(compressed);
+                } catch (final EOFException e)  {
+                    break;
+                }
+                final DataInputStream entry = new DataInputStream(
+                        new InflaterInputStream(new ByteArrayInputStream(compressed)));
+                final long offset = entry.readLong();
+                final long duration = entry.readLong();
+                final String[] arguments = new String[entry.readInt()];
+                for (int idx = 0; idx < arguments.length; idx++)  {
+                    arguments[idx] = TrafficReader.readString(entry);
+                }
+                final String response = TrafficReader.readString(entry);
+                final String error = TrafficReader.readString(entry);
+                entry.close();
+                ret.add(new TrafficEntry(offset, duration, arguments, response, error));
+            }
+        } finally  {
+            in.close();
+        }
+        return ret;
+    }
+
+    /**
+     * Reads one string written as UTF-8 byte array with prefixed length.
+     *
+     * @param _in   input stream
+     * @return read string; <code>null</code> if the length is negative
+     * @throws IOException if the string could not be read
+     */
+    private static String readString(final DataInputStream _in)
+        throws IOException
+    {
+        final int length = _in.readInt();
+        final String ret;
+        if (length < 0)  {
+            ret = null;
+        } else  {
+            final byte[] bytes = new byte[length];
+            _in.readFully(bytes);
+            ret = new String(bytes, TrafficRecorder.ENCODING);
+        }
+        return ret;
+    }
+}
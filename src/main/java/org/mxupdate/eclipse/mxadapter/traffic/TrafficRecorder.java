@@ -0,0 +1,222 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.mxadapter.traffic;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Records the Dispatcher traffic (encoded requests, encoded responses and the
+ * timings) into a compact, compressed file. The file could be read with the
+ * {@link TrafficReader} and replayed with the {@link TrafficReplayer}.
+ *
+ * <p>Format of the file:</p>
+ * <ul>
+ * <li>magic number {@link #MAGIC} and version {@link #VERSION}</li>
+ * <li>for each call the length of the compressed call and the call
+ *     compressed with <b>deflate</b>: offset and duration in nanoseconds,
+ *     number of arguments, the arguments, the response and the error
+ *     message; all strings are written as UTF-8 byte arrays with prefixed
+ *     length (<code>-1</code> for <code>null</code>)</li>
+ * </ul>
+ *
+ * <p>Each call is compressed on its own and flushed to the file, so that the
+ * recorded calls are not lost if Eclipse crashes while recording.</p>
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ */
+public class TrafficRecorder
+{
+    /**
+     * Magic number at the start of a traffic file.
+     */
+    static final int MAGIC = 0x4D585452;
+
+    /**
+     * Version of the traffic file format.
+     */
+    static final int VERSION = 2;
+
+    /**
+     * Encoding of the strings.
+     */
+    static final String ENCODING = "UTF-8"; //$NON-NLS-1$
+
+    /**
+     * File where the traffic is recorded.
+     */
+    private final File file;
+
+    /**
+     * Output stream to the {@link #file}.
+     */
+    private final DataOutputStream out;
+
+    /**
+     * Compressor of the calls (reused for all calls).
+     */
+    private final Deflater deflater = new Deflater();
+
+    /**
+     * Buffer of one compressed call (reused for all calls).
+     */
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    /**
+     * Is the recording closed? Calls recorded after the close (e.g. from
+     * another thread still executing a Dispatcher call) are ignored.
+     *
+     * @see #close()
+     */
+    private boolean closed = false;
+
+    /**
+     * Start time of the recording in nanoseconds.
+     */
+    private final long start = System.nanoTime();
+
+    /**
+     * Initializes the recorder and writes the header into the traffic
+     * <code>_file</code>.
+     *
+     * @param _file     file where the traffic is recorded
+     * @throws IOException if the file could not be created
+     */
+    public TrafficRecorder(final File _file)
+        throws IOException
+    {
+        this.file = _file;
+        if (_file.getParentFile() != null)  {
+            _file.getParentFile().mkdirs();
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(_file)));
+        this.out.writeInt(TrafficRecorder.MAGIC);
+        this.out.writeInt(TrafficRecorder.VERSION);
+        this.out.flush();
+    }
+
+    /**
+     * Returns the nanoseconds since the start of the recording.
+     *
+     * @return offset in nanoseconds
+     */
+    public long getOffsetNanos()
+    {
+        return System.nanoTime() - this.start;
+    }
+
+    /**
+     * Returns the file where the traffic is recorded.
+     *
+     * @return file of the recording
+     * @see #file
+     */
+    public File getFile()
+    {
+        return this.file;
+    }
+
+    /**
+     * Records one Dispatcher call. The call is compressed and flushed to the
+     * {@link #file}. If the recording is already {@link #closed}, the call is
+     * ignored.
+     *
+     * @param _offsetNanos      start of the call relative to the start of
+     *                          the recording
+     * @param _durationNanos    duration of the call
+     * @param _arguments        encoded arguments
+     * @param _response         encoded response (or <code>null</code>)
+     * @param _error            error message (or <code>null</code>)
+     * @throws IOException if the call could not be written
+     */
+    public synchronized void record(final long _offsetNanos,
+                                    final long _durationNanos,
+                                    final String[] _arguments,
+                                    final String _response,
+                                    final String _error)
+        throws IOException
+    {
+        if (!this.closed)  {
+            this.buffer.reset();
+            this.deflater.reset();
+            final DeflaterOutputStream deflated = new DeflaterOutputStream(this.buffer, this.deflater);
+            final DataOutputStream entry = new DataOutputStream(deflated);
+            entry.writeLong(_offsetNanos);
+            entry.writeLong(_durationNanos);
+            entry.writeInt(_arguments.length);
+            for (final String argument : _arguments)  {
+                TrafficRecorder.writeString(entry, argument);
+            }
+            TrafficRecorder.writeString(entry, _response);
+            TrafficRecorder.writeString(entry, _error);
+            entry.flush();
+            deflated.finish();
+
+            this.out.writeInt(this.buffer.size());
+            this.buffer.writeTo(this.out);
+            this.out.flush();
+        }
+    }
+
+    /**
+     * Writes given <code>_value</code> as UTF-8 byte array with prefixed
+     * length.
+     *
+     * @param _out      output stream
+     * @param _value    string to write
+     * @throws IOException if the string could not be written
+     */
+    private static void writeString(final DataOutputStream _out,
+                                    final String _value)
+        throws IOException
+    {
+        if (_value == null)  {
+            _out.writeInt(-1);
+        } else  {
+            final byte[] bytes = _value.getBytes(TrafficRecorder.ENCODING);
+            _out.writeInt(bytes.length);
+            _out.write(bytes);
+        }
+    }
+
+    /**
+     * Closes the recording. Calls recorded afterwards are ignored.
+     *
+     * @throws IOException if the file could not be closed
+     * @see #closed
+     */
+    public synchronized void close()
+        throws IOException
+    {
+        if (!this.closed)  {
+            this.closed = true;
+            this.deflater.end();
+            this.out.close();
+        }
+    }
+}
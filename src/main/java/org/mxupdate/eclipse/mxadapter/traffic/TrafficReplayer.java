@@ -0,0 +1,231 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.mxadapter.traffic;
+
+import java.io.File;
+import java.util.List;
+
+import org.mxupdate.eclipse.mxadapter.connectors.IConnector;
+
+/**
+ * Replays a traffic recording against a {@link IConnector}. The calls are
+ * sent at the original pace or accelerated by a speed factor, so that a
+ * recorded session could be reproduced deterministically while tuning the
+ * transports.
+ *
+ * <p>The replayer could also be started as Java program with the path of the
+ * traffic file and the optional speed factor as parameters; then the
+ * recording is replayed against a {@link SimulatorConnector} answering from
+ * the same recording.</p>
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ */
+public class TrafficReplayer
+{
+    /**
+     * Recorded calls which must be replayed.
+     */
+    private final List<TrafficEntry> entries;
+
+    /**
+     * Speed factor; the recorded offsets are divided by this factor. If zero
+     * or negative, the calls are sent without any delay.
+     */
+    private final double speed;
+
+    /**
+     * Initializes the replayer.
+     *
+     * @param _entries  recorded calls
+     * @param _speed    speed factor (<code>1</code> means original pace)
+     */
+    public TrafficReplayer(final List<TrafficEntry> _entries,
+                           final double _speed)
+    {
+        this.entries = _entries;
+        this.speed = _speed;
+    }
+
+    /**
+     * Replays all recorded calls against given <code>_connector</code>.
+     *
+     * @param _connector    connector used to replay
+     * @return result of the replay
+     * @throws InterruptedException if the replay is interrupted
+     */
+    public Result replay(final IConnector _connector)
+        throws InterruptedException
+    {
+        final Result ret = new Result();
+        final long start = System.nanoTime();
+        for (final TrafficEntry entry : this.entries)  {
+            // wait for the (scaled) original start of the call
+            if (this.speed > 0)  {
+                final long wait = (long) (entry.getOffsetNanos() / this.speed) - (System.nanoTime() - start);
+                if (wait > 0)  {
+                    Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+                }
+            }
+
+            final long callStart = System.nanoTime();
+            String response = null;
+            boolean error = false;
+            try  {
+                response = _connector.execute(entry.getArgument(0), entry.getArgument(1), entry.getArgument(2));
+            } catch (final Exception e)  {
+                error = true;
+            }
+            ret.calls++;
+            ret.originalNanos += entry.getDurationNanos();
+            ret.replayNanos += System.nanoTime() - callStart;
+            if (error)  {
+                ret.errors++;
+            }
+            if (error != (entry.getError() != null)
+                    || ((response != null) && !response.equals(entry.getResponse())))  {
+                ret.mismatches++;
+            }
+        }
+        ret.totalNanos = System.nanoTime() - start;
+        return ret;
+    }
+
+    /**
+     * Replays given traffic file against a {@link SimulatorConnector}.
+     *
+     * @param _args     path of the traffic file and optional speed factor
+     * @throws Exception if the replay failed
+     */
+    public static void main(final String... _args)
+        throws Exception
+    {
+        if (_args.length < 1)  {
+            System.err.println("usage: TrafficReplayer <traffic file> [speed factor]"); //$NON-NLS-1$
+        } else  {
+            final double speed = (_args.length > 1) ? Double.parseDouble(_args[1]) : 1.0;
+            final List<TrafficEntry> entries = TrafficReader.read(new File(_args[0]));
+            final IConnector connector = new SimulatorConnector(entries, speed, true);
+            System.out.println(new TrafficReplayer(entries, speed).replay(connector));
+        }
+    }
+
+    /**
+     * Result of a replay.
+     */
+    public static final class Result
+    {
+        /** Number of replayed calls. */
+        private long calls;
+
+        /** Number of failed calls. */
+        private long errors;
+
+        /** Number of calls with another response than recorded. */
+        private long mismatches;
+
+        /** Sum of the recorded durations of all calls in nanoseconds. */
+        private long originalNanos;
+
+        /** Sum of the replayed durations of all calls in nanoseconds. */
+        private long replayNanos;
+
+        /** Total duration of the replay in nanoseconds. */
+        private long totalNanos;
+
+        /**
+         * Returns the number of replayed calls.
+         *
+         * @return number of calls
+         */
+        public long getCalls()
+        {
+            return this.calls;
+        }
+
+        /**
+         * Returns the number of failed calls.
+         *
+         * @return number of errors
+         */
+        public long getErrors()
+        {
+            return this.errors;
+        }
+
+        /**
+         * Returns the number of calls where the response differs from the
+         * recorded response.
+         *
+         * @return number of mismatches
+         */
+        public long getMismatches()
+        {
+            return this.mismatches;
+        }
+
+        /**
+         * Returns the sum of the recorded durations of all calls.
+         *
+         * @return duration in nanoseconds
+         */
+        public long getOriginalNanos()
+        {
+            return this.originalNanos;
+        }
+
+        /**
+         * Returns the sum of the replayed durations of all calls.
+         *
+         * @return duration in nanoseconds
+         */
+        public long getReplayNanos()
+        {
+            return this.replayNanos;
+        }
+
+        /**
+         * Returns the total duration of the replay.
+         *
+         * @return duration in nanoseconds
+         */
+        public long getTotalNanos()
+        {
+            return this.totalNanos;
+        }
+
+        /**
+         * Returns the string representation of the result.
+         *
+         * @return string representation
+         */
+        @Override()
+        public String toString()
+        {
+            return "[calls = " + this.calls //$NON-NLS-1$
+                    + ", errors = " + this.errors //$NON-NLS-1$
+                    + ", mismatches = " + this.mismatches //$NON-NLS-1$
+                    + ", recorded call time = " + (this.originalNanos / 1000000) + "ms" //$NON-NLS-1$ //$NON-NLS-2$
+                    + ", replayed call time = " + (this.replayNanos / 1000000) + "ms" //$NON-NLS-1$ //$NON-NLS-2$
+                    + ", total replay time = " + (this.totalNanos / 1000000) + "ms]"; //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+}
@@ -27,6 +27,7 @@ import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Text;
@@ -117,6 +118,31 @@ public class AuthenticationDialog
         this.userName = _userName;
     }
 
+    /**
+     * {@inheritDoc}
+     * If called outside of the user interface thread (e.g. from a background
+     * job which connects to MX), the dialog is opened synchronously within
+     * the user interface thread.
+     */
+    @Override()
+    public int open()
+    {
+        final int ret;
+        if (Display.getCurrent() != null)  {
+            ret = super.open();
+        } else  {
+            final int[] bck = new int[1];
+            Display.getDefault().syncExec(new Runnable()  {
+                public void run()
+                {
+                    bck[0] = AuthenticationDialog.super.open();
+                }
+            });
+            ret = bck[0];
+        }
+        return ret;
+    }
+
     /**
      * Adds the {@link #textUserName user name text box} and the
      * {@link #textPassword password text box} to the <code>_parent</code>
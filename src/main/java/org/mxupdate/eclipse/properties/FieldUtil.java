@@ -192,6 +192,56 @@ public final class FieldUtil
         });
     }
 
+    /**
+     * Appends a new integer field. If the entered text is not a number, the
+     * property is marked as {@link ProjectProperties#setWrong(String) wrong}.
+     *
+     * @param _parent       parent composite where the field is added
+     * @param _properties   properties where to store updated value
+     * @param _propertyKey  property key
+     * @param _default      default value of the integer field
+     */
+    public static void addIntegerField(final Composite _parent,
+                                       final ProjectProperties _properties,
+                                       final String _propertyKey,
+                                       final int _default)
+    {
+        final Label labelField = new Label(_parent, SWT.LEFT);
+        final GridData labelGridData = new GridData();
+        labelGridData.widthHint = FieldUtil.LABEL_WIDTH;
+        labelField.setLayoutData(labelGridData);
+        labelField.setText(Messages.getString(new StringBuilder(ProjectProperties.MSG_PREFIX).append(_propertyKey)));
+
+        final Text textField = new Text(_parent, SWT.LEFT | SWT.BORDER);
+        final GridData textGridData = new GridData();
+        textGridData.horizontalSpan = 3;
+        textGridData.widthHint = 50;
+        textField.setLayoutData(textGridData);
+        textField.setText(String.valueOf(_properties.getInteger(_propertyKey, _default)));
+        textField.addKeyListener(new KeyAdapter()  {
+            @Override()
+            public void keyReleased(final KeyEvent _event)
+            {
+                try  {
+                    _properties.setInteger(_propertyKey, Integer.parseInt(textField.getText()));
+                } catch (final NumberFormatException ex)  {
+                    _properties.setWrong(_propertyKey);
+                }
+            }
+        });
+        textField.addFocusListener(new FocusAdapter() {
+            @Override()
+            public void focusLost(final FocusEvent _event)
+            {
+                try  {
+                    _properties.setInteger(_propertyKey, Integer.parseInt(textField.getText()));
+                } catch (final NumberFormatException ex)  {
+                    _properties.setWrong(_propertyKey);
+                }
+            }
+        });
+    }
+
     /**
      * Appends a file field with a button to choose a file from the file
      * system.
@@ -68,6 +68,56 @@ public class ProjectProperties
      */
     private static final String PROP_IMAGE_CONFIG = "ImageConfiguration"; //$NON-NLS-1$
 
+    /**
+     * Key of the property for the maximum number of files updated within one
+     * Dispatcher call. Zero means that all files are updated within one
+     * call, so that MxUpdate could order all files of the update by their
+     * dependencies.
+     * <p>The update log of MX is only returned with the answer of a
+     * Dispatcher call. So the log is shown incrementally (after each chunk)
+     * only if a chunk size is defined; with the default (all files within
+     * one call) the log is shown after the complete update. A chunk size
+     * changes the deployment semantics: files of different chunks are not
+     * ordered by their dependencies.</p>
+     *
+     * @see #getUpdateChunkSize()
+     */
+    public static final String PROP_UPDATE_CHUNK_SIZE = "Update.ChunkSize"; //$NON-NLS-1$
+
+    /**
+     * Default value for the {@link #PROP_UPDATE_CHUNK_SIZE chunk size}
+     * (unlimited, means one Dispatcher call for all files).
+     */
+    public static final int DEFAULT_UPDATE_CHUNK_SIZE = 0;
+
+    /**
+     * Key of the property for the number of parallel MX sessions used for an
+     * update.
+     *
+     * @see #getUpdateParallelism()
+     */
+    public static final String PROP_UPDATE_PARALLELISM = "Update.Parallelism"; //$NON-NLS-1$
+
+    /**
+     * Default value for the {@link #PROP_UPDATE_PARALLELISM parallelism}
+     * (only one session, means the update is done sequentially).
+     */
+    public static final int DEFAULT_UPDATE_PARALLELISM = 1;
+
+    /**
+     * Key of the property to deploy changed files automatically with the
+     * {@link org.mxupdate.eclipse.builder.DeployBuilder deploy builder}.
+     *
+     * @see #isAutoDeploy()
+     */
+    public static final String PROP_UPDATE_AUTO_DEPLOY = "Update.AutoDeploy"; //$NON-NLS-1$
+
+    /**
+     * Default value for the {@link #PROP_UPDATE_AUTO_DEPLOY auto deploy}
+     * (changed files are not deployed automatically).
+     */
+    public static final boolean DEFAULT_UPDATE_AUTO_DEPLOY = false;
+
     /**
      * Key where the project mode is stored.
      */
@@ -192,6 +242,43 @@ public class ProjectProperties
         this.store();
     }
 
+    /**
+     * Returns the maximum number of files updated within one Dispatcher call.
+     *
+     * @return chunk size; zero if all files are updated within one call
+     * @see #PROP_UPDATE_CHUNK_SIZE
+     */
+    public int getUpdateChunkSize()
+    {
+        return Math.max(0, this.getInteger(ProjectProperties.PROP_UPDATE_CHUNK_SIZE,
+                                           ProjectProperties.DEFAULT_UPDATE_CHUNK_SIZE));
+    }
+
+    /**
+     * Returns the number of parallel MX sessions used for an update.
+     *
+     * @return parallelism (at minimum one)
+     * @see #PROP_UPDATE_PARALLELISM
+     */
+    public int getUpdateParallelism()
+    {
+        return Math.max(1, this.getInteger(ProjectProperties.PROP_UPDATE_PARALLELISM,
+                                           ProjectProperties.DEFAULT_UPDATE_PARALLELISM));
+    }
+
+    /**
+     * Checks if changed files must be deployed automatically.
+     *
+     * @return <i>true</i> if changed files are deployed automatically;
+     *         otherwise <i>false</i>
+     * @see #PROP_UPDATE_AUTO_DEPLOY
+     */
+    public boolean isAutoDeploy()
+    {
+        return this.getBoolean(ProjectProperties.PROP_UPDATE_AUTO_DEPLOY,
+                               ProjectProperties.DEFAULT_UPDATE_AUTO_DEPLOY);
+    }
+
     /**
      * Returns for given <code>_key</code> related string value in the
      * {@link #properties}. If no value for the <code>_key</code> is defined,
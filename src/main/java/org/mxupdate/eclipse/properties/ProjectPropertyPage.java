@@ -36,8 +36,10 @@ import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Group;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.dialogs.PropertyPage;
+import org.mxupdate.eclipse.builder.DeployBuilder;
 
 /**
  * Common preference page for the MxUpdate eclipse plug-in to define URL, name
@@ -147,6 +149,18 @@ try {
             mapMode2Comp.put(mode, modeComposite);
         }
 
+        // update settings (independent of the project mode)
+        final Group updateGroup = FieldUtil.createGroup(_parent, "Update.Group"); //$NON-NLS-1$
+        FieldUtil.addIntegerField(updateGroup, this.properties,
+                                  ProjectProperties.PROP_UPDATE_CHUNK_SIZE,
+                                  ProjectProperties.DEFAULT_UPDATE_CHUNK_SIZE);
+        FieldUtil.addIntegerField(updateGroup, this.properties,
+                                  ProjectProperties.PROP_UPDATE_PARALLELISM,
+                                  ProjectProperties.DEFAULT_UPDATE_PARALLELISM);
+        FieldUtil.addBooleanField(updateGroup, this.properties,
+                                  ProjectProperties.PROP_UPDATE_AUTO_DEPLOY,
+                                  ProjectProperties.DEFAULT_UPDATE_AUTO_DEPLOY);
+
         this.properties.checkValuesValid();
 
         return _parent;
@@ -160,6 +174,8 @@ try {
         boolean ret = true;
         try {
             this.properties.store();
+            DeployBuilder.configure((IProject) this.getElement().getAdapter(IProject.class),
+                                    this.properties.isAutoDeploy());
         } catch (final CoreException e) {
             // TODO Auto-generated catch block
             e.printStackTrace();
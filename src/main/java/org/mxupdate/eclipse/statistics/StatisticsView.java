@@ -0,0 +1,391 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.statistics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jface.action.Action;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.SashForm;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Listener;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
+import org.eclipse.ui.part.ViewPart;
+import org.mxupdate.eclipse.Activator;
+import org.mxupdate.eclipse.Messages;
+import org.mxupdate.eclipse.adapter.IDeploymentAdapter;
+import org.mxupdate.eclipse.mxadapter.MXAdapter;
+import org.mxupdate.eclipse.mxadapter.metrics.MethodMetrics;
+
+/**
+ * View showing the live statistics of all project adapters. For each adapter
+ * the connection state, the health of the connector, the in-flight and queued
+ * requests and the transferred bytes per second are shown. For each
+ * Dispatcher method the call statistics and a rolling latency chart are
+ * shown. The Dispatcher traffic of all adapters could be recorded for a later
+ * replay.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see org.mxupdate.eclipse.mxadapter.metrics.MetricsRegistry
+ */
+public class StatisticsView
+    extends ViewPart
+{
+    /**
+     * Refresh interval of the statistics in milliseconds.
+     */
+    private static final int REFRESH_INTERVAL = 1000;
+
+    /**
+     * Number of intervals shown in the rolling latency chart.
+     */
+    private static final int HISTORY_SIZE = 60;
+
+    /**
+     * Index of the column in the {@link #methodTable} for the latency chart.
+     */
+    private static final int COLUMN_CHART = 8;
+
+    /**
+     * Table with the adapters of all projects.
+     */
+    private Table adapterTable;
+
+    /**
+     * Table with the statistics of all Dispatcher methods.
+     */
+    private Table methodTable;
+
+    /**
+     * Rolling history of the Dispatcher methods. The key is the project name
+     * and the method name separated by a tab.
+     */
+    private final Map<String,MethodHistory> histories = new HashMap<String,MethodHistory>();
+
+    /**
+     * Time stamp in nanoseconds of the last refresh.
+     */
+    private long lastRefresh;
+
+    /**
+     * Runnable to refresh the statistics periodically.
+     */
+    private final Runnable refresher = new Runnable()  {
+        public void run()
+        {
+            if (!StatisticsView.this.methodTable.isDisposed())  {
+                StatisticsView.this.refresh();
+                StatisticsView.this.methodTable.getDisplay().timerExec(StatisticsView.REFRESH_INTERVAL, this);
+            }
+        }
+    };
+
+    /**
+     * Creates the table for the adapters {@link #adapterTable} and the table
+     * for the Dispatcher methods {@link #methodTable}.
+     *
+     * @param _parent   parent composite element where the new GUI elements
+     *                  must be added
+     */
+    @Override()
+    public void createPartControl(final Composite _parent)
+    {
+        final SashForm sash = new SashForm(_parent, SWT.VERTICAL);
+
+        this.adapterTable = this.createTable(sash,
+                                             "StatisticsView.ColumnProject", //$NON-NLS-1$
+                                             "StatisticsView.ColumnState", //$NON-NLS-1$
+                                             "StatisticsView.ColumnHealth", //$NON-NLS-1$
+                                             "StatisticsView.ColumnInFlight", //$NON-NLS-1$
+                                             "StatisticsView.ColumnQueued", //$NON-NLS-1$
+                                             "StatisticsView.ColumnBytesPerSecond"); //$NON-NLS-1$
+        this.methodTable = this.createTable(sash,
+                                            "StatisticsView.ColumnProject", //$NON-NLS-1$
+                                            "StatisticsView.ColumnMethod", //$NON-NLS-1$
+                                            "StatisticsView.ColumnCalls", //$NON-NLS-1$
+                                            "StatisticsView.ColumnErrors", //$NON-NLS-1$
+                                            "StatisticsView.ColumnAverage", //$NON-NLS-1$
+                                            "StatisticsView.ColumnPercentile95", //$NON-NLS-1$
+                                            "StatisticsView.ColumnMax", //$NON-NLS-1$
+                                            "StatisticsView.ColumnBytesPerSecond", //$NON-NLS-1$
+                                            "StatisticsView.ColumnLatencyChart"); //$NON-NLS-1$
+        this.methodTable.getColumn(StatisticsView.COLUMN_CHART).setWidth(StatisticsView.HISTORY_SIZE * 3);
+        this.methodTable.addListener(SWT.PaintItem, new Listener()  {
+            public void handleEvent(final Event _event)
+            {
+                if (_event.index == StatisticsView.COLUMN_CHART)  {
+                    StatisticsView.this.paintChart(_event);
+                }
+            }
+        });
+        sash.setWeights(new int[]{1, 2});
+
+        // reset button
+        this.getViewSite().getActionBars().getMenuManager().add(new Action(Messages.getString("StatisticsView.ResetButton")) { //$NON-NLS-1$
+            @Override()
+            public void run()
+            {
+                Activator.getDefault().getMetrics().reset();
+                StatisticsView.this.histories.clear();
+                StatisticsView.this.refresh();
+            }
+        });
+
+        // record traffic button
+        final Action recordAction = new Action(Messages.getString("StatisticsView.RecordTrafficButton"), //$NON-NLS-1$
+                                               Action.AS_CHECK_BOX)  {
+            @Override()
+            public void run()
+            {
+                Activator.getDefault().setTrafficRecording(this.isChecked());
+            }
+        };
+        recordAction.setChecked(Activator.getDefault().isTrafficRecording());
+        this.getViewSite().getActionBars().getMenuManager().add(recordAction);
+
+        this.refresher.run();
+    }
+
+    /**
+     * Creates a new table with given column labels.
+     *
+     * @param _parent   parent composite
+     * @param _columns  keys of the column labels
+     * @return new created table
+     */
+    protected Table createTable(final Composite _parent,
+                                final String... _columns)
+    {
+        final Table table = new Table(_parent, SWT.FULL_SELECTION | SWT.BORDER | SWT.V_SCROLL | SWT.H_SCROLL);
+        table.setHeaderVisible(true);
+        table.setLinesVisible(true);
+        for (final String column : _columns)  {
+            final TableColumn tableColumn = new TableColumn(table, SWT.NONE);
+            tableColumn.setText(Messages.getString(column));
+            tableColumn.setWidth(100);
+        }
+        return table;
+    }
+
+    /**
+     * Refreshes the {@link #adapterTable} and the {@link #methodTable}. The
+     * rates and the rolling latency history are calculated from the
+     * differences against the previous refresh.
+     */
+    protected void refresh()
+    {
+        final long now = System.nanoTime();
+        final double seconds = (this.lastRefresh == 0) ? 0 : (now - this.lastRefresh) / 1000000000.0;
+        this.lastRefresh = now;
+
+        // methods
+        final List<MethodMetrics.Snapshot> snapshots = Activator.getDefault().getMetrics().getSnapshot();
+        Collections.sort(snapshots, new Comparator<MethodMetrics.Snapshot>()  {
+            public int compare(final MethodMetrics.Snapshot _snapshot1,
+                               final MethodMetrics.Snapshot _snapshot2)
+            {
+                int ret = _snapshot1.getProject().compareTo(_snapshot2.getProject());
+                if (ret == 0)  {
+                    ret = _snapshot1.getMethod().compareTo(_snapshot2.getMethod());
+                }
+                return ret;
+            }
+        });
+        final Map<String,Double> projectRates = new HashMap<String,Double>();
+        this.methodTable.setRedraw(false);
+        this.methodTable.setItemCount(snapshots.size());
+        int idx = 0;
+        for (final MethodMetrics.Snapshot snapshot : snapshots)  {
+            final String key = snapshot.getProject() + '\t' + snapshot.getMethod();
+            MethodHistory history = this.histories.get(key);
+            if (history == null)  {
+                history = new MethodHistory();
+                this.histories.put(key, history);
+            }
+            final double rate = history.update(snapshot, seconds);
+            final Double projectRate = projectRates.get(snapshot.getProject());
+            projectRates.put(snapshot.getProject(), (projectRate == null) ? rate : (projectRate + rate));
+
+            final TableItem item = this.methodTable.getItem(idx++);
+            item.setData(history);
+            item.setText(new String[]{
+                    snapshot.getProject(),
+                    snapshot.getMethod(),
+                    String.valueOf(snapshot.getCalls()),
+                    String.valueOf(snapshot.getErrors()),
+                    String.valueOf(snapshot.getAverageLatencyNanos() / 1000000),
+                    String.valueOf(snapshot.getLatencyPercentileMillis(95)),
+                    String.valueOf(snapshot.getMaxLatencyNanos() / 1000000),
+                    String.valueOf(Math.round(rate)),
+                    ""}); //$NON-NLS-1$
+        }
+        this.methodTable.setRedraw(true);
+        this.methodTable.redraw();
+
+        // adapters
+        final Map<String,IDeploymentAdapter> adapters = Activator.getDefault().getAdapters();
+        this.adapterTable.setRedraw(false);
+        this.adapterTable.setItemCount(adapters.size());
+        idx = 0;
+        for (final Map.Entry<String,IDeploymentAdapter> entry : adapters.entrySet())  {
+            final IDeploymentAdapter adapter = entry.getValue();
+            final boolean connected = adapter.isConnected();
+            final Double rate = projectRates.get(entry.getKey());
+            final List<String> texts = new ArrayList<String>();
+            texts.add(entry.getKey());
+            texts.add(Messages.getString(connected
+                                         ? "StatisticsView.StateConnected" //$NON-NLS-1$
+                                         : "StatisticsView.StateDisconnected")); //$NON-NLS-1$
+            if (adapter instanceof MXAdapter)  {
+                final MXAdapter mxAdapter = (MXAdapter) adapter;
+                texts.add(!connected
+                          ? "" //$NON-NLS-1$
+                          : Messages.getString(mxAdapter.isConnectorAlive()
+                                               ? "StatisticsView.HealthAlive" //$NON-NLS-1$
+                                               : "StatisticsView.HealthDead")); //$NON-NLS-1$
+                texts.add(String.valueOf(mxAdapter.getInFlightRequests()));
+                texts.add(String.valueOf(mxAdapter.getQueuedRequests()));
+            } else  {
+                texts.add(""); //$NON-NLS-1$
+                texts.add(""); //$NON-NLS-1$
+                texts.add(""); //$NON-NLS-1$
+            }
+            texts.add(String.valueOf((rate == null) ? 0 : Math.round(rate)));
+            this.adapterTable.getItem(idx++).setText(texts.toArray(new String[texts.size()]));
+        }
+        this.adapterTable.setRedraw(true);
+    }
+
+    /**
+     * Paints the rolling latency chart of a Dispatcher method.
+     *
+     * @param _event    paint event of the table item
+     */
+    protected void paintChart(final Event _event)
+    {
+        final MethodHistory history = (MethodHistory) _event.item.getData();
+        if (history != null)  {
+            final GC gc = _event.gc;
+            final int width = this.methodTable.getColumn(StatisticsView.COLUMN_CHART).getWidth() - 4;
+            final int height = _event.height - 4;
+            final double max = history.getMaxLatency();
+            if ((max > 0) && (width > 0) && (height > 0))  {
+                final int[] points = new int[StatisticsView.HISTORY_SIZE * 2];
+                for (int idx = 0; idx < StatisticsView.HISTORY_SIZE; idx++)  {
+                    points[idx * 2] = _event.x + 2 + (idx * width / (StatisticsView.HISTORY_SIZE - 1));
+                    points[idx * 2 + 1] = _event.y + 2 + height - (int) (history.getLatency(idx) * height / max);
+                }
+                gc.setForeground(_event.display.getSystemColor(SWT.COLOR_DARK_BLUE));
+                gc.drawPolyline(points);
+            }
+        }
+    }
+
+    /**
+     * Sets the focus to the method table.
+     */
+    @Override()
+    public void setFocus()
+    {
+        this.methodTable.setFocus();
+    }
+
+    /**
+     * Rolling history of one Dispatcher method.
+     */
+    private static final class MethodHistory
+    {
+        /** Number of calls at the last refresh. */
+        private long calls;
+
+        /** Sum of the latencies in nanoseconds at the last refresh. */
+        private long latencyNanos;
+
+        /** Transferred bytes at the last refresh. */
+        private long bytes;
+
+        /** Average latency in milliseconds for each refresh interval. */
+        private final double[] latencies = new double[StatisticsView.HISTORY_SIZE];
+
+        /** Current write position within {@link #latencies}. */
+        private int pos;
+
+        /**
+         * Updates the history for given <code>_snapshot</code>.
+         *
+         * @param _snapshot     current snapshot of the metrics
+         * @param _seconds      seconds since last refresh
+         * @return transferred bytes per second since last refresh
+         */
+        double update(final MethodMetrics.Snapshot _snapshot,
+                      final double _seconds)
+        {
+            final long newBytes = _snapshot.getRequestBytes() + _snapshot.getResponseBytes();
+            final long deltaCalls = _snapshot.getCalls() - this.calls;
+            final long deltaLatency = _snapshot.getTotalLatencyNanos() - this.latencyNanos;
+            final long deltaBytes = newBytes - this.bytes;
+            this.calls = _snapshot.getCalls();
+            this.latencyNanos = _snapshot.getTotalLatencyNanos();
+            this.bytes = newBytes;
+
+            this.latencies[this.pos] = (deltaCalls > 0) ? (deltaLatency / deltaCalls / 1000000.0) : 0;
+            this.pos = (this.pos + 1) % StatisticsView.HISTORY_SIZE;
+
+            return ((_seconds > 0) && (deltaBytes > 0)) ? (deltaBytes / _seconds) : 0;
+        }
+
+        /**
+         * Returns the average latency of the refresh interval with given
+         * <code>_index</code> (0 is the oldest interval).
+         *
+         * @param _index    index of the refresh interval
+         * @return average latency in milliseconds
+         */
+        double getLatency(final int _index)
+        {
+            return this.latencies[(this.pos + _index) % StatisticsView.HISTORY_SIZE];
+        }
+
+        /**
+         * Returns the maximum average latency of all refresh intervals.
+         *
+         * @return maximum latency in milliseconds
+         */
+        double getMaxLatency()
+        {
+            double ret = 0;
+            for (final double latency : this.latencies)  {
+                ret = Math.max(ret, latency);
+            }
+            return ret;
+        }
+    }
+}
@@ -23,8 +23,11 @@ package org.mxupdate.eclipse.util;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.codec.binary.Base64;
 
@@ -36,6 +39,13 @@ import org.apache.commons.codec.binary.Base64;
  */
 public final class CommunicationUtil
 {
+    /**
+     * Minimum size in bytes of a serialized object so that the object is
+     * compressed by {@link #encode(Object, boolean)}. Smaller objects are not
+     * compressed because the compression would not reduce the size.
+     */
+    private static final int COMPRESS_MIN_SIZE = 1024;
+
     /**
      * Private constructor so that this utility could not be initialized.
      */
@@ -52,19 +62,53 @@ public final class CommunicationUtil
      */
     public static String encode(final Object _object)
         throws IOException
+    {
+        return CommunicationUtil.encode(_object, false);
+    }
+
+    /**
+     * Encodes given <code>_object</code> to a string with <b>base64</b>. If
+     * <code>_compress</code> is set, the serialized object is compressed with
+     * <b>GZIP</b> before the encoding (only if the serialized object has at
+     * least {@link #COMPRESS_MIN_SIZE} bytes). The compression is detected
+     * automatically by {@link #decode(String)}.
+     *
+     * @param _object   object to encode
+     * @param _compress <i>true</i> if the object could be compressed;
+     *                  otherwise <i>false</i>
+     * @return encoded string
+     * @throws IOException if encode failed
+     */
+    public static String encode(final Object _object,
+                                final boolean _compress)
+        throws IOException
     {
         final ByteArrayOutputStream out = new ByteArrayOutputStream();
         final ObjectOutputStream oos = new ObjectOutputStream(out);
         oos.writeObject(_object);
         oos.close();
-        return new String(Base64.encodeBase64(out.toByteArray()));
+
+        final byte[] bytes;
+        if (_compress && (out.size() >= CommunicationUtil.COMPRESS_MIN_SIZE))  {
+            final ByteArrayOutputStream zipped = new ByteArrayOutputStream(out.size() / 4);
+            final GZIPOutputStream gzip = new GZIPOutputStream(zipped);
+            out.writeTo(gzip);
+            gzip.close();
+            bytes = zipped.toByteArray();
+        } else  {
+            bytes = out.toByteArray();
+        }
+        return new String(Base64.encodeBase64(bytes));
     }
 
     /**
      * Decodes given string value to an object of given type
      * <code>&lt;T&gt;</code>. First the string is <b>base64</b> decoded, then
      * the object instance is extracted from the decoded bytes via the Java
-     * &quot;standard&quot; feature of the {@link ObjectInputStream}.
+     * &quot;standard&quot; feature of the {@link ObjectInputStream}. If the
+     * decoded bytes starts with the <b>GZIP</b> magic number, the bytes are
+     * uncompressed before (a serialized object always starts with
+     * <code>0xACED</code>).
      *
      * @param <T>   type of the object which must be decoded
      * @param _arg  string argument with encoded instance of
@@ -82,7 +126,14 @@ public final class CommunicationUtil
         throws IOException, ClassNotFoundException
     {
         final byte[] bytes = Base64.decodeBase64(_arg.getBytes());
-        final ByteArrayInputStream in = new ByteArrayInputStream(bytes);
+        final InputStream in;
+        if ((bytes.length > 1)
+                && ((bytes[0] & 0xff) == (GZIPInputStream.GZIP_MAGIC & 0xff))
+                && ((bytes[1] & 0xff) == (GZIPInputStream.GZIP_MAGIC >> 8)))  {
+            in = new GZIPInputStream(new ByteArrayInputStream(bytes));
+        } else  {
+            in = new ByteArrayInputStream(bytes);
+        }
         final ObjectInputStream ois = new ObjectInputStream(in);
         final T ret = (T) ois.readObject();
         ois.close();
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Line level delta between a base text and a target text. The delta is a
+ * list of operations which could be serialized within the Dispatcher
+ * protocol:
+ * <ul>
+ * <li>an <code>int[]{start, count}</code> copies <code>count</code> lines of
+ *     the base text beginning with line <code>start</code> (zero based)</li>
+ * <li>a {@link String} inserts the string</li>
+ * </ul>
+ * The line separators are part of the lines, so that the target text is
+ * rebuilt exactly (independent of the used line separators).
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ */
+public final class LineDelta
+{
+    /**
+     * Maximum number of positions of a line within the base text checked for
+     * the longest copy.
+     */
+    private static final int MAX_CANDIDATES = 32;
+
+    /**
+     * Private constructor so that this utility could not be initialized.
+     */
+    private LineDelta()
+    {
+    }
+
+    /**
+     * Creates the delta to rebuild the <code>_target</code> text from the
+     * <code>_base</code> text. The lines following the last copied lines of
+     * the base text are checked first, so that unchanged parts are copied
+     * with one operation; otherwise the longest copy from other positions of
+     * the same line within the base text is used (moved blocks).
+     *
+     * @param _base     base text
+     * @param _target   target text
+     * @return list of delta operations
+     */
+    public static List<Object> create(final String _base,
+                                      final String _target)
+    {
+        final List<String> base = LineDelta.split(_base);
+        final List<String> target = LineDelta.split(_target);
+
+        // positions of the lines within the base text
+        final Map<String,List<Integer>> positions = new HashMap<String,List<Integer>>();
+        for (int idx = 0; idx < base.size(); idx++)  {
+            List<Integer> list = positions.get(base.get(idx));
+            if (list == null)  {
+                list = new ArrayList<Integer>(1);
+                positions.put(base.get(idx), list);
+            }
+            if (list.size() < LineDelta.MAX_CANDIDATES)  {
+                list.add(idx);
+            }
+        }
+
+        final List<Object> ret = new ArrayList<Object>();
+        final StringBuilder insert = new StringBuilder();
+        int next = 0;
+        int idx = 0;
+        while (idx < target.size())  {
+            int start = next;
+            int count = LineDelta.matchLength(base, next, target, idx);
+            if (count == 0)  {
+                final List<Integer> candidates = positions.get(target.get(idx));
+                if (candidates != null)  {
+                    for (final Integer candidate : candidates)  {
+                        final int length = LineDelta.matchLength(base, candidate, target, idx);
+                        if (length > count)  {
+                            start = candidate;
+                            count = length;
+                        }
+                    }
+                }
+            }
+            if (count == 0)  {
+                insert.append(target.get(idx++));
+            } else  {
+                if (insert.length() > 0)  {
+                    ret.add(insert.toString());
+                    insert.setLength(0);
+                }
+                ret.add(new int[]{start, count});
+                idx += count;
+                next = start + count;
+            }
+        }
+        if (insert.length() > 0)  {
+            ret.add(insert.toString());
+        }
+        return ret;
+    }
+
+    /**
+     * Rebuilds the target text from the <code>_base</code> text and the
+     * <code>_delta</code> operations.
+     *
+     * @param _base     base text
+     * @param _delta    delta operations
+     * @return rebuilt target text
+     * @throws IllegalArgumentException if the delta does not match the base
+     *                                  text
+     * @see #create(String, String)
+     */
+    public static String apply(final String _base,
+                               final List<?> _delta)
+    {
+        final List<String> base = LineDelta.split(_base);
+        final StringBuilder ret = new StringBuilder();
+        for (final Object operation : _delta)  {
+            if (operation instanceof String)  {
+                ret.append((String) operation);
+            } else if (operation instanceof int[])  {
+                final int[] copy = (int[]) operation;
+                if ((copy.length != 2) || (copy[0] < 0) || (copy[1] < 0) || ((copy[0] + copy[1]) > base.size()))  {
+                    throw new IllegalArgumentException("copy operation out of range of the base text"); //$NON-NLS-1$
+                }
+                for (int idx = copy[0]; idx < (copy[0] + copy[1]); idx++)  {
+                    ret.append(base.get(idx));
+                }
+            } else  {
+                throw new IllegalArgumentException("unknown delta operation " + operation); //$NON-NLS-1$
+            }
+        }
+        return ret.toString();
+    }
+
+    /**
+     * Returns the number of characters inserted by the <code>_delta</code>
+     * (without the copied lines). The size could be used to decide if a
+     * delta is smaller than the complete target text.
+     *
+     * @param _delta    delta operations
+     * @return number of inserted characters
+     */
+    public static int getInsertedLength(final List<?> _delta)
+    {
+        int ret = 0;
+        for (final Object operation : _delta)  {
+            if (operation instanceof String)  {
+                ret += ((String) operation).length();
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Evaluates the number of equal lines of the <code>_base</code> text
+     * beginning at <code>_baseIdx</code> and of the <code>_target</code> text
+     * beginning at <code>_targetIdx</code>.
+     *
+     * @param _base         lines of the base text
+     * @param _baseIdx      start line within the base text
+     * @param _target       lines of the target text
+     * @param _targetIdx    start line within the target text
+     * @return number of equal lines
+     */
+    private static int matchLength(final List<String> _base,
+                                   final int _baseIdx,
+                                   final List<String> _target,
+                                   final int _targetIdx)
+    {
+        int ret = 0;
+        while (((_baseIdx + ret) < _base.size())
+                && ((_targetIdx + ret) < _target.size())
+                && _base.get(_baseIdx + ret).equals(_target.get(_targetIdx + ret)))  {
+            ret++;
+        }
+        return ret;
+    }
+
+    /**
+     * Splits given <code>_text</code> into lines. The line separators
+     * (<code>\r\n</code>, <code>\r</code> or <code>\n</code>) are kept at the
+     * end of the lines.
+     *
+     * @param _text     text to split
+     * @return list of lines
+     */
+    private static List<String> split(final String _text)
+    {
+        final List<String> ret = new ArrayList<String>();
+        int start = 0;
+        final int length = _text.length();
+        for (int idx = 0; idx < length; idx++)  {
+            final char ch = _text.charAt(idx);
+            if ((ch == '\r') && ((idx + 1) < length) && (_text.charAt(idx + 1) == '\n'))  {
+                idx++;
+                ret.add(_text.substring(start, idx + 1));
+                start = idx + 1;
+            } else if ((ch == '\r') || (ch == '\n'))  {
+                ret.add(_text.substring(start, idx + 1));
+                start = idx + 1;
+            }
+        }
+        if (start < length)  {
+            ret.add(_text.substring(start));
+        }
+        return ret;
+    }
+}
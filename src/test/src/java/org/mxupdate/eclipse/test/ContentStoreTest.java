@@ -0,0 +1,169 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+package org.mxupdate.eclipse.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.mxupdate.eclipse.mxadapter.ContentStore;
+import org.mxupdate.eclipse.mxadapter.DeploymentIndex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Test class for the {@link ContentStore}.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see ContentStore
+ */
+public class ContentStoreTest
+    extends AbstractTest
+{
+    /**
+     * Returns a not existing directory for the store within the target path.
+     *
+     * @param _name     name of the test
+     * @return directory of the store
+     */
+    private File newDir(final String _name)
+    {
+        final File ret = new File(this.getTargetPath(), "ContentStoreTest." + _name);
+        if (ret.exists())  {
+            for (final File file : ret.listFiles())  {
+                file.delete();
+            }
+            ret.delete();
+        }
+        return ret;
+    }
+
+    /**
+     * Checks that stored contents are returned again (also from a new store
+     * for the same directory) and that no temporary files remain.
+     *
+     * @throws IOException if the content could not be stored or read
+     */
+    @Test(description = "check that stored contents are returned again")
+    public void checkPutGet()
+        throws IOException
+    {
+        final File dir = this.newDir("checkPutGet");
+        final byte[] content1 = "first content\r\n\u00e4\u00f6\u00fc".getBytes("UTF-8");
+        final byte[] content2 = new byte[20000];
+        for (int idx = 0; idx < content2.length; idx++)  {
+            content2[idx] = (byte) idx;
+        }
+        final byte[] content3 = new byte[0];
+        final String hash1 = DeploymentIndex.hash(content1);
+        final String hash2 = DeploymentIndex.hash(content2);
+        final String hash3 = DeploymentIndex.hash(content3);
+
+        final ContentStore store = new ContentStore(dir);
+        store.put("file1.mxu", hash1, content1);
+        store.put("file2.mxu", hash2, content2);
+        store.put("file3.mxu", hash3, content3);
+        Assert.assertTrue(Arrays.equals(store.get("file1.mxu", hash1), content1), "text content");
+        Assert.assertTrue(Arrays.equals(store.get("file2.mxu", hash2), content2), "binary content");
+        Assert.assertTrue(Arrays.equals(store.get("file3.mxu", hash3), content3), "empty content");
+
+        final ContentStore store2 = new ContentStore(dir);
+        Assert.assertTrue(Arrays.equals(store2.get("file1.mxu", hash1), content1), "text content of new store");
+        Assert.assertTrue(Arrays.equals(store2.get("file2.mxu", hash2), content2), "binary content of new store");
+
+        Assert.assertEquals(dir.list().length, 3, "no temporary files");
+    }
+
+    /**
+     * Checks that a second store with an existing hash does not overwrite
+     * the stored content.
+     *
+     * @throws IOException if the content could not be stored or read
+     */
+    @Test(description = "check that an existing content is not written again")
+    public void checkPutExisting()
+        throws IOException
+    {
+        final File dir = this.newDir("checkPutExisting");
+        final byte[] content = "content".getBytes("UTF-8");
+        final String hash = DeploymentIndex.hash(content);
+
+        final ContentStore store = new ContentStore(dir);
+        store.put("file.mxu", hash, content);
+        store.put("file.mxu", hash, "other content".getBytes("UTF-8"));
+        Assert.assertTrue(Arrays.equals(store.get("file.mxu", hash), content));
+        Assert.assertEquals(dir.list().length, 1, "no temporary files");
+    }
+
+    /**
+     * Checks that removed and never stored contents are not found.
+     *
+     * @throws IOException if the content could not be stored or read
+     */
+    @Test(description = "check that removed and missing contents are not found")
+    public void checkRemoveMissing()
+        throws IOException
+    {
+        final File dir = this.newDir("checkRemoveMissing");
+        final byte[] content1 = "content 1".getBytes("UTF-8");
+        final byte[] content2 = "content 2".getBytes("UTF-8");
+        final String hash1 = DeploymentIndex.hash(content1);
+        final String hash2 = DeploymentIndex.hash(content2);
+
+        final ContentStore store = new ContentStore(dir);
+        Assert.assertNull(store.get("file1.mxu", hash1), "not existing directory");
+
+        store.put("file1.mxu", hash1, content1);
+        store.put("file2.mxu", hash2, content2);
+        store.remove("file1.mxu", hash1);
+        Assert.assertNull(store.get("file1.mxu", hash1), "removed content");
+        Assert.assertTrue(Arrays.equals(store.get("file2.mxu", hash2), content2), "other content not removed");
+        Assert.assertNull(store.get("file1.mxu", DeploymentIndex.hash(new byte[0])), "never stored content");
+
+        // remove of a not stored content is ignored
+        store.remove("file1.mxu", hash1);
+        Assert.assertTrue(Arrays.equals(store.get("file2.mxu", hash2), content2));
+    }
+
+    /**
+     * Checks that the remove of the content of one path does not remove the
+     * same content stored for another path.
+     *
+     * @throws IOException if the content could not be stored or read
+     */
+    @Test(description = "check that the remove of a content of one path does not remove the same content of other paths")
+    public void checkRemoveSameContent()
+        throws IOException
+    {
+        final File dir = this.newDir("checkRemoveSameContent");
+        final byte[] content = "same content".getBytes("UTF-8");
+        final String hash = DeploymentIndex.hash(content);
+
+        final ContentStore store = new ContentStore(dir);
+        store.put("dir/file1.mxu", hash, content);
+        store.put("dir/file2.mxu", hash, content);
+        Assert.assertNull(store.get("dir/file3.mxu", hash), "content of other path not found");
+
+        store.remove("dir/file1.mxu", hash);
+        Assert.assertNull(store.get("dir/file1.mxu", hash), "removed content");
+        Assert.assertTrue(Arrays.equals(store.get("dir/file2.mxu", hash), content), "same content of other path not removed");
+    }
+}
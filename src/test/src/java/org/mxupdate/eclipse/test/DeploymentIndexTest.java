@@ -0,0 +1,203 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+
+package org.mxupdate.eclipse.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.mxupdate.eclipse.mxadapter.DeploymentIndex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Test class for the {@link DeploymentIndex}.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see DeploymentIndex
+ */
+public class DeploymentIndexTest
+    extends AbstractTest
+{
+    /**
+     * Returns a not existing index file within the target path.
+     *
+     * @param _name     name of the test
+     * @return index file
+     */
+    private File newFile(final String _name)
+    {
+        final File ret = new File(this.getTargetPath(), "DeploymentIndexTest." + _name);
+        ret.delete();
+        return ret;
+    }
+
+    /**
+     * Writes given <code>_text</code> into the <code>_file</code>.
+     *
+     * @param _file     file to write
+     * @param _text     text to write
+     * @throws IOException if the file could not be written
+     */
+    private void write(final File _file,
+                       final String _text)
+        throws IOException
+    {
+        _file.getParentFile().mkdirs();
+        final OutputStream out = new FileOutputStream(_file);
+        try  {
+            out.write(_text.getBytes("ISO-8859-1"));
+        } finally  {
+            out.close();
+        }
+    }
+
+    /**
+     * Checks that stored entries are loaded again.
+     *
+     * @throws IOException if the index could not be stored or loaded
+     */
+    @Test(description = "check that stored entries are loaded again")
+    public void checkStoreLoad()
+        throws IOException
+    {
+        final File file = this.newFile("checkStoreLoad");
+        final DeploymentIndex index = new DeploymentIndex(file);
+        Assert.assertNull(index.get("TYPE_Part.tcl"), "not existing index is empty");
+        index.put("TYPE_Part.tcl", "abc", "server1", 1000);
+        index.put("dir/ATTRIBUTE_Name with spaces=1.tcl", "def", "server|2", 2000);
+        index.put("POLICY_Removed.tcl", "ghi", "server1", 3000);
+        index.remove("POLICY_Removed.tcl");
+        index.store();
+
+        final DeploymentIndex loaded = new DeploymentIndex(file);
+        Assert.assertEquals(loaded.get("TYPE_Part.tcl").getHash(), "abc");
+        Assert.assertEquals(loaded.get("TYPE_Part.tcl").getServerId(), "server1");
+        Assert.assertEquals(loaded.get("TYPE_Part.tcl").getTime(), 1000);
+        Assert.assertEquals(loaded.get("dir/ATTRIBUTE_Name with spaces=1.tcl").getHash(), "def");
+        Assert.assertEquals(loaded.get("dir/ATTRIBUTE_Name with spaces=1.tcl").getServerId(), "server|2",
+                            "separator within the server identifier");
+        Assert.assertNull(loaded.get("POLICY_Removed.tcl"), "removed entry is not stored");
+    }
+
+    /**
+     * Checks that wrong lines of the index file are ignored.
+     *
+     * @throws IOException if the index could not be loaded
+     */
+    @Test(description = "check that wrong lines of the index file are ignored")
+    public void checkCorruptLines()
+        throws IOException
+    {
+        final File file = this.newFile("checkCorruptLines");
+        this.write(file, "valid=abc|1000|server1\n"
+                + "noSeparator=abc\n"
+                + "oneSeparator=abc|1000\n"
+                + "noHash=|1000|server1\n"
+                + "wrongTime=abc|x1000|server1\n"
+                + "truncated=abc|10");
+
+        final DeploymentIndex index = new DeploymentIndex(file);
+        Assert.assertEquals(index.get("valid").getHash(), "abc");
+        Assert.assertNull(index.get("noSeparator"));
+        Assert.assertNull(index.get("oneSeparator"));
+        Assert.assertNull(index.get("noHash"));
+        Assert.assertNull(index.get("wrongTime"));
+        Assert.assertNull(index.get("truncated"));
+    }
+
+    /**
+     * Checks the evaluation of changed files.
+     *
+     * @throws IOException if the index could not be initialized
+     */
+    @Test(description = "check the evaluation of changed files")
+    public void checkChanged()
+        throws IOException
+    {
+        final DeploymentIndex index = new DeploymentIndex(this.newFile("checkChanged"));
+        Assert.assertTrue(index.isChanged("TYPE_Part.tcl", "abc", "server1"), "never deployed");
+        index.put("TYPE_Part.tcl", "abc", "server1", 1000);
+        Assert.assertFalse(index.isChanged("TYPE_Part.tcl", "abc", "server1"), "same hash and server");
+        Assert.assertTrue(index.isChanged("TYPE_Part.tcl", "def", "server1"), "other hash");
+        Assert.assertTrue(index.isChanged("TYPE_Part.tcl", "abc", "server2"), "other server");
+    }
+
+    /**
+     * Checks that the hash of a file is the same as the hash of the bytes.
+     *
+     * @throws IOException if the file could not be written or read
+     */
+    @Test(description = "check that the hash of a file is the same as the hash of the bytes")
+    public void checkHash()
+        throws IOException
+    {
+        final File file = this.newFile("checkHash");
+        final StringBuilder text = new StringBuilder();
+        for (int idx = 0; idx < 5000; idx++)  {
+            text.append("line ").append(idx).append('\n');
+        }
+        this.write(file, text.toString());
+
+        final String hash = DeploymentIndex.hash(file);
+        Assert.assertEquals(hash, DeploymentIndex.hash(text.toString().getBytes("ISO-8859-1")));
+        Assert.assertEquals(hash.length(), 40, "hex string of SHA-1");
+        Assert.assertEquals(DeploymentIndex.hash(new byte[0]), "da39a3ee5e6b4b0d3255bfef95601890afd80709");
+    }
+
+    /**
+     * Checks that the hash of the canonical text form does not depend on the
+     * line ends, the character set and a byte order mark of the file.
+     *
+     * @throws IOException if the file could not be written or read
+     */
+    @Test(description = "check the hash of the canonical text form")
+    public void checkHashText()
+        throws IOException
+    {
+        final StringBuilder text = new StringBuilder();
+        for (int idx = 0; idx < 5000; idx++)  {
+            text.append("line \u00e4\u00f6\u00fc ").append(idx).append('\n');
+        }
+        final String lf = text.toString();
+        final String hash = DeploymentIndex.hash(lf.getBytes("UTF-8"));
+
+        final File file = this.newFile("checkHashText");
+        this.write(file, lf);
+        Assert.assertEquals(DeploymentIndex.hashText(file, "ISO-8859-1"), hash, "LF with ISO-8859-1");
+        this.write(file, lf.replace("\n", "\r\n"));
+        Assert.assertEquals(DeploymentIndex.hashText(file, "ISO-8859-1"), hash, "CR LF with ISO-8859-1");
+        this.write(file, lf.replace("\n", "\r"));
+        Assert.assertEquals(DeploymentIndex.hashText(file, "ISO-8859-1"), hash, "CR with ISO-8859-1");
+        this.write(file, new String(("\ufeff" + lf.replace("\n", "\r\n")).getBytes("UTF-8"), "ISO-8859-1"));
+        Assert.assertEquals(DeploymentIndex.hashText(file, "UTF-8"), hash, "CR LF with UTF-8 and byte order mark");
+
+        // characters outside of the basic multilingual plane
+        final String supplementary = lf.replace("\u00e4", "\ud834\udd1e");
+        this.write(file, new String(supplementary.getBytes("UTF-8"), "ISO-8859-1"));
+        Assert.assertEquals(DeploymentIndex.hashText(file, "UTF-8"),
+                            DeploymentIndex.hash(supplementary.getBytes("UTF-8")),
+                            "supplementary characters");
+    }
+}
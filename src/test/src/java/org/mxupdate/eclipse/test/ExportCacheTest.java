@@ -0,0 +1,142 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+
+package org.mxupdate.eclipse.test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.mxupdate.eclipse.mxadapter.ExportCache;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Test class for the {@link ExportCache}.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see ExportCache
+ */
+public class ExportCacheTest
+{
+    /**
+     * Stores an entry for given <code>_name</code> with the type definition
+     * <code>type</code>, the file name <code>TYPE_&lt;name&gt;.tcl</code> and
+     * the stamp <code>1</code>.
+     *
+     * @param _cache    export cache
+     * @param _name     MX name
+     */
+    private void put(final ExportCache _cache,
+                     final String _name)
+    {
+        final Map<String,String> values = new HashMap<String,String>();
+        values.put("Code", "code of " + _name);
+        _cache.put("type", _name, "TYPE_" + _name + ".tcl", "1", values);
+    }
+
+    /**
+     * Checks that the entries are found by name and by file name.
+     */
+    @Test(description = "check that the entries are found by name and by file name")
+    public void checkGet()
+    {
+        final ExportCache cache = new ExportCache(10);
+        this.put(cache, "Part");
+
+        Assert.assertEquals(cache.get("type", "Part").getStamp(), "1");
+        Assert.assertEquals(cache.get("type", "Part").getValues().get("Code"), "code of Part");
+        Assert.assertEquals(cache.getByFileName("TYPE_Part.tcl").getName(), "Part");
+        Assert.assertNull(cache.get("attribute", "Part"), "other type definition");
+        Assert.assertNull(cache.getByFileName("TYPE_Other.tcl"));
+
+        cache.invalidate("TYPE_Part.tcl");
+        Assert.assertNull(cache.get("type", "Part"), "invalidated");
+        Assert.assertNull(cache.getByFileName("TYPE_Part.tcl"), "invalidated");
+    }
+
+    /**
+     * Checks that the least recently used entry is evicted and the file name
+     * of the evicted entry is removed.
+     */
+    @Test(description = "check that the least recently used entry and its file name are evicted")
+    public void checkEviction()
+    {
+        final ExportCache cache = new ExportCache(2);
+        this.put(cache, "A");
+        this.put(cache, "B");
+        // access A, so that B is the least recently used entry
+        Assert.assertNotNull(cache.get("type", "A"));
+        this.put(cache, "C");
+
+        Assert.assertNull(cache.get("type", "B"), "evicted");
+        Assert.assertNull(cache.getByFileName("TYPE_B.tcl"), "file name of evicted entry");
+        Assert.assertNotNull(cache.getByFileName("TYPE_A.tcl"));
+        Assert.assertNotNull(cache.getByFileName("TYPE_C.tcl"));
+
+        // a new entry for an evicted file name must be found again
+        this.put(cache, "B");
+        Assert.assertEquals(cache.getByFileName("TYPE_B.tcl").getName(), "B");
+    }
+
+    /**
+     * Checks that the file names are consistent if entries are replaced or
+     * if another entry uses the same file name.
+     */
+    @Test(description = "check that the file names are consistent for replaced entries")
+    public void checkFileNames()
+    {
+        final ExportCache cache = new ExportCache(2);
+        cache.put("type", "Part", "TYPE_Part.tcl", "1", null);
+        cache.put("type", "Part", "TYPE_Renamed.tcl", "2", null);
+        Assert.assertNull(cache.getByFileName("TYPE_Part.tcl"), "old file name of replaced entry");
+        Assert.assertEquals(cache.getByFileName("TYPE_Renamed.tcl").getStamp(), "2");
+
+        // another entry with the same file name replaces the entry
+        cache.put("type", "Other", "TYPE_Renamed.tcl", "3", null);
+        Assert.assertNull(cache.get("type", "Part"), "entry with same file name is removed");
+        Assert.assertEquals(cache.getByFileName("TYPE_Renamed.tcl").getName(), "Other");
+
+        // eviction of an entry must not remove the file name of another entry
+        cache.put("type", "X", "TYPE_X.tcl", "4", null);
+        cache.put("type", "Y", "TYPE_Y.tcl", "5", null);
+        Assert.assertNull(cache.get("type", "Other"), "evicted");
+        Assert.assertNull(cache.getByFileName("TYPE_Renamed.tcl"), "file name of evicted entry");
+        Assert.assertEquals(cache.getByFileName("TYPE_X.tcl").getName(), "X");
+        Assert.assertEquals(cache.getByFileName("TYPE_Y.tcl").getName(), "Y");
+
+        cache.clear();
+        Assert.assertNull(cache.get("type", "X"));
+        Assert.assertNull(cache.getByFileName("TYPE_Y.tcl"));
+    }
+
+    /**
+     * Checks that no entry is stored without cache size.
+     */
+    @Test(description = "check that no entry is stored without cache size")
+    public void checkNoSize()
+    {
+        final ExportCache cache = new ExportCache(0);
+        this.put(cache, "Part");
+        Assert.assertNull(cache.get("type", "Part"));
+        Assert.assertNull(cache.getByFileName("TYPE_Part.tcl"));
+    }
+}
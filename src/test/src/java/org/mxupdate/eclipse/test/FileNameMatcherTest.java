@@ -0,0 +1,184 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mxupdate.eclipse.mxadapter.FileNameMatcher;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Test class for the {@link FileNameMatcher}.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see FileNameMatcher
+ */
+public class FileNameMatcherTest
+{
+    /**
+     * Creates a configuration with given suffix, prefix and value triples.
+     *
+     * @param _values   suffix, prefix and value triples
+     * @return configuration for the file name matcher
+     */
+    private Map<String,Map<String,String>> config(final String... _values)
+    {
+        final Map<String,Map<String,String>> ret = new HashMap<String,Map<String,String>>();
+        for (int idx = 0; idx < _values.length; idx += 3)  {
+            Map<String,String> prefixes = ret.get(_values[idx]);
+            if (prefixes == null)  {
+                prefixes = new HashMap<String,String>();
+                ret.put(_values[idx], prefixes);
+            }
+            prefixes.put(_values[idx + 1], _values[idx + 2]);
+        }
+        return ret;
+    }
+
+    /**
+     * Checks the matching of prefixes and suffixes.
+     */
+    @Test(description = "check the matching of prefixes and suffixes")
+    public void checkMatch()
+    {
+        final FileNameMatcher<String> matcher = new FileNameMatcher<String>(this.config(
+                ".tcl", "TYPE_", "type",
+                ".tcl", "ATTRIBUTE_", "attribute",
+                ".tcl", "ATTRIBUTE_STRING_", "attributeString",
+                "_mxJPO.java", "", "jpo",
+                ".java", "X", "java"));
+
+        Assert.assertEquals(matcher.match("TYPE_Part.tcl"), "type");
+        Assert.assertEquals(matcher.match("ATTRIBUTE_Name.tcl"), "attribute");
+        Assert.assertEquals(matcher.match("ATTRIBUTE_STRING_Name.tcl"), "attributeString", "longest prefix wins");
+        Assert.assertEquals(matcher.match("XTest_mxJPO.java"), "jpo", "longest suffix wins");
+        Assert.assertEquals(matcher.match("XTest.java"), "java");
+        Assert.assertNull(matcher.match("POLICY_Test.tcl"), "no prefix matches");
+        Assert.assertNull(matcher.match("TYPE_Part.txt"), "no suffix matches");
+        Assert.assertNull(matcher.match(""), "empty name");
+        // cached results must be the same
+        Assert.assertEquals(matcher.match("TYPE_Part.tcl"), "type");
+        Assert.assertNull(matcher.match("POLICY_Test.tcl"));
+    }
+
+    /**
+     * Checks that a shorter suffix is used if no prefix of the longer suffix
+     * matches.
+     */
+    @Test(description = "check that a shorter suffix is used if no prefix of the longer suffix matches")
+    public void checkShorterSuffix()
+    {
+        final FileNameMatcher<String> matcher = new FileNameMatcher<String>(this.config(
+                "_mxJPO.java", "Y", "jpo",
+                ".java", "X", "java"));
+
+        Assert.assertEquals(matcher.match("XTest_mxJPO.java"), "java");
+        Assert.assertEquals(matcher.match("YTest_mxJPO.java"), "jpo");
+    }
+
+    /**
+     * Checks that <code>null</code> prefixes and suffixes are handled as
+     * empty strings.
+     */
+    @Test(description = "check that null prefixes and suffixes are handled as empty strings")
+    public void checkNull()
+    {
+        final FileNameMatcher<String> matcher = new FileNameMatcher<String>(this.config(
+                null, "TYPE_", "type",
+                ".tcl", null, "tcl"));
+
+        Assert.assertEquals(matcher.match("TYPE_Part.txt"), "type");
+        Assert.assertEquals(matcher.match("Part.tcl"), "tcl");
+    }
+
+    /**
+     * Checks that the file name matcher returns the same results as the
+     * linear scan over all suffixes and prefixes for a configuration similar
+     * to the MxUpdate admin types (each name is matched more than once, so
+     * that also the cached results are checked).
+     */
+    @Test(description = "check that the file name matcher returns the same results as the linear scan")
+    public void checkSameAsLinearScan()
+    {
+        // configuration similar to the MxUpdate admin types
+        final List<String> values = new ArrayList<String>();
+        for (int idx = 0; idx < 60; idx++)  {
+            values.add(".tcl");
+            values.add("ADMIN" + idx + "_");
+            values.add("admin" + idx);
+        }
+        values.add("_mxJPO.java");
+        values.add("");
+        values.add("jpo");
+        final Map<String,Map<String,String>> config = this.config(values.toArray(new String[values.size()]));
+        final FileNameMatcher<String> matcher = new FileNameMatcher<String>(config);
+
+        final List<String> names = new ArrayList<String>();
+        for (int idx = 0; idx < 1000; idx++)  {
+            names.add(((idx % 7) == 0)
+                      ? "Program" + idx + "_mxJPO.java"
+                      : "ADMIN" + (idx % 70) + "_Name" + idx + ".tcl");
+        }
+
+        final List<String> linear = new ArrayList<String>(names.size());
+        for (final String name : names)  {
+            linear.add(this.linearScan(config, name));
+        }
+        for (int round = 0; round < 2; round++)  {
+            final List<String> matched = new ArrayList<String>(names.size());
+            for (final String name : names)  {
+                matched.add(matcher.match(name));
+            }
+            Assert.assertEquals(matched, linear);
+        }
+    }
+
+    /**
+     * Linear scan over all suffixes and prefixes as done before the file name
+     * matcher was used.
+     *
+     * @param _config   configuration
+     * @param _name     file name
+     * @return found value
+     */
+    private String linearScan(final Map<String,Map<String,String>> _config,
+                              final String _name)
+    {
+        String ret = null;
+        for (final Map.Entry<String,Map<String,String>> suffixEntry : _config.entrySet())  {
+            if (_name.endsWith(suffixEntry.getKey()))  {
+                for (final Map.Entry<String,String> entry : suffixEntry.getValue().entrySet())  {
+                    if (_name.startsWith(entry.getKey()))  {
+                        ret = entry.getValue();
+                        break;
+                    }
+                }
+                break;
+            }
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+package org.mxupdate.eclipse.test;
+
+import java.util.List;
+
+import org.mxupdate.eclipse.util.LineDelta;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Test class for the {@link LineDelta}.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see LineDelta
+ */
+public class LineDeltaTest
+{
+    /**
+     * Creates a text with given number of numbered lines.
+     *
+     * @param _lines    number of lines
+     * @return text
+     */
+    private String text(final int _lines)
+    {
+        final StringBuilder ret = new StringBuilder();
+        for (int idx = 0; idx < _lines; idx++)  {
+            ret.append("line ").append(idx).append('\n');
+        }
+        return ret.toString();
+    }
+
+    /**
+     * Creates the delta between <code>_base</code> and <code>_target</code>
+     * and checks that the target is rebuilt from the delta.
+     *
+     * @param _base     base text
+     * @param _target   target text
+     * @return created delta
+     */
+    private List<Object> roundTrip(final String _base,
+                                   final String _target)
+    {
+        final List<Object> delta = LineDelta.create(_base, _target);
+        Assert.assertEquals(LineDelta.apply(_base, delta), _target);
+        return delta;
+    }
+
+    /**
+     * Checks that the target is rebuilt for different changes.
+     */
+    @Test(description = "check that the target is rebuilt for different changes")
+    public void checkRoundTrip()
+    {
+        final String base = this.text(100);
+        this.roundTrip(base, base);
+        this.roundTrip(base, "");
+        this.roundTrip("", base);
+        this.roundTrip(base, "new first line\n" + base);
+        this.roundTrip(base, base + "new last line without line separator");
+        this.roundTrip(base, base.replace("line 50\n", "changed line 50\n"));
+        this.roundTrip(base, base.replace("line 10\n", ""));
+        this.roundTrip(base, this.text(60).substring(this.text(40).length()) + this.text(40) + base.substring(this.text(60).length()));
+        this.roundTrip("a\r\nb\rc\nd", "a\nb\r\nc\nd\r\n");
+        this.roundTrip("x\nx\nx\n", "x\ny\nx\nx\nx\nx\n");
+    }
+
+    /**
+     * Checks that for one changed line within a large text only the changed
+     * line is inserted.
+     */
+    @Test(description = "check that for one changed line within a large text only the changed line is inserted")
+    public void checkSmallDelta()
+    {
+        final String base = this.text(20000);
+        final List<Object> delta = this.roundTrip(base, base.replace("line 10000\n", "changed line\n"));
+        Assert.assertEquals(delta.size(), 3, "copy, insert, copy");
+        Assert.assertEquals(LineDelta.getInsertedLength(delta), "changed line\n".length());
+    }
+
+    /**
+     * Checks that a delta not matching the base text is rejected.
+     */
+    @Test(description = "check that a delta not matching the base text is rejected",
+          expectedExceptions = IllegalArgumentException.class)
+    public void checkWrongBase()
+    {
+        final List<Object> delta = LineDelta.create(this.text(10), this.text(10));
+        LineDelta.apply(this.text(5), delta);
+    }
+}
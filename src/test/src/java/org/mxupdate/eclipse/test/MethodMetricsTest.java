@@ -0,0 +1,97 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+
+package org.mxupdate.eclipse.test;
+
+import org.mxupdate.eclipse.mxadapter.metrics.MethodMetrics;
+import org.mxupdate.eclipse.mxadapter.metrics.MetricsRegistry;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Test class for the {@link MethodMetrics}.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see MethodMetrics
+ */
+public class MethodMetricsTest
+{
+    /**
+     * Factor to convert milliseconds to nano seconds.
+     */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /**
+     * Records given number of calls with given latency.
+     *
+     * @param _metrics          metrics where the calls are recorded
+     * @param _calls            number of calls
+     * @param _latencyMillis    latency in milliseconds
+     */
+    private void record(final MethodMetrics _metrics,
+                        final int _calls,
+                        final long _latencyMillis)
+    {
+        for (int idx = 0; idx < _calls; idx++)  {
+            _metrics.record(_latencyMillis * MethodMetricsTest.NANOS_PER_MILLI, 0, 0, 0, 0, false);
+        }
+    }
+
+    /**
+     * Checks the percentiles estimated from the latency histogram.
+     */
+    @Test(description = "check the percentiles estimated from the latency histogram")
+    public void checkPercentile()
+    {
+        final MethodMetrics metrics = new MetricsRegistry().getMethodMetrics("project", "method");
+        this.record(metrics, 90, 1);
+        this.record(metrics, 6, 40);
+        this.record(metrics, 4, 150);
+
+        final MethodMetrics.Snapshot snapshot = metrics.getSnapshot();
+        Assert.assertEquals(snapshot.getCalls(), 100);
+        Assert.assertEquals(snapshot.getLatencyPercentileMillis(50), 1);
+        Assert.assertEquals(snapshot.getLatencyPercentileMillis(90), 1);
+        Assert.assertEquals(snapshot.getLatencyPercentileMillis(95), 50);
+        Assert.assertEquals(snapshot.getLatencyPercentileMillis(99), 200);
+        Assert.assertEquals(snapshot.getLatencyPercentileMillis(100), 200);
+    }
+
+    /**
+     * Checks that no percentile is estimated without calls or for calls in
+     * the last unbounded bucket.
+     */
+    @Test(description = "check that no percentile is estimated without calls or in the unbounded bucket")
+    public void checkPercentileUnknown()
+    {
+        final MethodMetrics metrics = new MetricsRegistry().getMethodMetrics("project", "method");
+        Assert.assertEquals(metrics.getSnapshot().getLatencyPercentileMillis(95), -1);
+
+        final long[] bounds = MethodMetrics.getLatencyBounds();
+        this.record(metrics, 10, bounds[bounds.length - 1] + 1);
+        Assert.assertEquals(metrics.getSnapshot().getLatencyPercentileMillis(95), -1);
+
+        metrics.reset();
+        Assert.assertEquals(metrics.getSnapshot().getCalls(), 0);
+        Assert.assertEquals(metrics.getSnapshot().getLatencyPercentileMillis(95), -1);
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2008-2010 The MxUpdate Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Revision:        $Rev$
+ * Last Changed:    $Date$
+ * Last Changed By: $Author$
+ */
+
+
+package org.mxupdate.eclipse.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.mxupdate.eclipse.mxadapter.NameIndex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Test class for the {@link NameIndex}.
+ *
+ * @author The MxUpdate Team
+ * @version $Id$
+ * @see NameIndex
+ */
+public class NameIndexTest
+    extends AbstractTest
+{
+    /**
+     * Returns a not existing index file within the target path.
+     *
+     * @param _name     name of the test
+     * @return index file
+     */
+    private File newFile(final String _name)
+    {
+        final File ret = new File(this.getTargetPath(), "NameIndexTest." + _name);
+        ret.delete();
+        return ret;
+    }
+
+    /**
+     * Creates the list of configuration items for a synchronization.
+     *
+     * @param _values   type definition and name pairs
+     * @return list of configuration items
+     */
+    private List<Map<String,String>> items(final String... _values)
+    {
+        final List<Map<String,String>> ret = new ArrayList<Map<String,String>>();
+        for (int idx = 0; idx < _values.length; idx += 2)  {
+            final Map<String,String> item = new HashMap<String,String>();
+            item.put("TypeDef", _values[idx]);
+            item.put("Name", _values[idx + 1]);
+            item.put("FileName", _values[idx].toUpperCase() + "_" + _values[idx + 1] + ".tcl");
+            item.put("FilePath", _values[idx]);
+            ret.add(item);
+        }
+        return ret;
+    }
+
+    /**
+     * Creates a name index synchronized with some types and attributes.
+     *
+     * @param _file     file of the name index
+     * @return name index
+     */
+    private NameIndex newIndex(final File _file)
+    {
+        final NameIndex ret = new NameIndex(_file);
+        ret.sync("server1", "stamp1", true,
+                 this.items("type", "Part",
+                            "type", "Parts",
+                            "type", "Port",
+                            "type", "Document",
+                            "type", "P*rt",
+                            "attribute", "Part Name",
+                            "attribute", "Weight"),
+                 null);
+        return ret;
+    }
+
+    /**
+     * Searches in the <code>_index</code> and returns the found names (with
+     * type definition as prefix).
+     *
+     * @param _index    name index
+     * @param _match    match for the names
+     * @param _typeDefs searched type definitions
+     * @return found names
+     */
+    private List<String> search(final NameIndex _index,
+                                final String _match,
+                                final String... _typeDefs)
+    {
+        final Set<String> typeDefs = new HashSet<String>(Arrays.asList(_typeDefs));
+        final List<String> ret = new ArrayList<String>();
+        for (final Map<String,String> item : _index.search(typeDefs, _match))  {
+            ret.add(item.get("TypeDef") + ":" + item.get("Name"));
+        }
+        return ret;
+    }
+
+    /**
+     * Checks the search with prefixes and the wildcards <code>*</code> and
+     * <code>?</code>.
+     */
+    @Test(description = "check the search with prefixes and wildcards")
+    public void checkSearch()
+    {
+        final NameIndex index = this.newIndex(this.newFile("checkSearch"));
+
+        Assert.assertEquals(this.search(index, "Part", "type"),
+                            Arrays.asList("type:Part"),
+                            "without wildcard only the name itself");
+        Assert.assertEquals(this.search(index, "Pa", "type"),
+                            Arrays.asList(),
+                            "without wildcard no prefix search");
+        Assert.assertEquals(this.search(index, "Part*", "type"),
+                            Arrays.asList("type:Part", "type:Parts"));
+        Assert.assertEquals(this.search(index, "P?rt", "type"),
+                            Arrays.asList("type:P*rt", "type:Part", "type:Port"),
+                            "? matches exactly one character");
+        Assert.assertEquals(this.search(index, "*t", "type"),
+                            Arrays.asList("type:Document", "type:P*rt", "type:Part", "type:Port"));
+        Assert.assertEquals(this.search(index, "P*t*", "type", "attribute"),
+                            Arrays.asList("attribute:Part Name", "type:P*rt", "type:Part", "type:Parts", "type:Port"),
+                            "sorted by type definition and name");
+        Assert.assertEquals(this.search(index, "*", "attribute", "unknown"),
+                            Arrays.asList("attribute:Part Name", "attribute:Weight"));
+        Assert.assertEquals(this.search(index, "W.*ght", "attribute"),
+                            Arrays.asList(),
+                            "regular expression characters are quoted");
+
+        final Map<String,String> item = index.search(new HashSet<String>(Arrays.asList("type")), "Document").get(0);
+        Assert.assertEquals(item.get("FileName"), "TYPE_Document.tcl");
+        Assert.assertEquals(item.get("FilePath"), "type");
+    }
+
+    /**
+     * Checks the incremental synchronization and the synchronization stamp.
+     */
+    @Test(description = "check the incremental synchronization and the synchronization stamp")
+    public void checkSync()
+    {
+        final NameIndex index = this.newIndex(this.newFile("checkSync"));
+        Assert.assertEquals(index.getSyncStamp("server1"), "stamp1");
+        Assert.assertNull(index.getSyncStamp("server2"), "other server");
+
+        index.sync("server1", "stamp2", false,
+                   this.items("type", "New"),
+                   this.items("type", "Parts", "attribute", "Weight", "unknown", "Other"));
+        Assert.assertEquals(index.getSyncStamp("server1"), "stamp2");
+        Assert.assertEquals(this.search(index, "*", "type", "attribute"),
+                            Arrays.asList("attribute:Part Name",
+                                          "type:Document", "type:New", "type:P*rt", "type:Part", "type:Port"));
+
+        index.sync("server2", "stamp3", true, this.items("type", "Other"), null);
+        Assert.assertNull(index.getSyncStamp("server1"));
+        Assert.assertEquals(this.search(index, "*", "type", "attribute"),
+                            Arrays.asList("type:Other"),
+                            "full synchronization replaces the index");
+    }
+
+    /**
+     * Checks that the stored index is loaded again.
+     *
+     * @throws IOException if the index could not be stored
+     */
+    @Test(description = "check that the stored index is loaded again")
+    public void checkStoreLoad()
+        throws IOException
+    {
+        final File file = this.newFile("checkStoreLoad");
+        this.newIndex(file).store();
+
+        final NameIndex loaded = new NameIndex(file);
+        Assert.assertEquals(loaded.getSyncStamp("server1"), "stamp1");
+        Assert.assertEquals(this.search(loaded, "*", "type", "attribute"),
+                            this.search(this.newIndex(this.newFile("checkStoreLoad.compare")), "*", "type", "attribute"));
+    }
+
+    /**
+     * Checks that a corrupt index file results in an empty index which must
+     * be synchronized again.
+     *
+     * @throws IOException if the corrupt file could not be written
+     */
+    @Test(description = "check that a corrupt index file results in an empty index")
+    public void checkCorruptFile()
+        throws IOException
+    {
+        final File file = this.newFile("checkCorruptFile");
+        file.getParentFile().mkdirs();
+        final OutputStream out = new FileOutputStream(file);
+        try  {
+            out.write("no index".getBytes("UTF-8"));
+        } finally  {
+            out.close();
+        }
+
+        final NameIndex index = new NameIndex(file);
+        Assert.assertNull(index.getSyncStamp("server1"));
+        Assert.assertEquals(this.search(index, "*", "type"), Arrays.asList());
+
+        // a truncated index is also not used
+        this.newIndex(file).store();
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try  {
+            raf.setLength(raf.length() / 2);
+        } finally  {
+            raf.close();
+        }
+        final NameIndex truncated = new NameIndex(file);
+        Assert.assertNull(truncated.getSyncStamp("server1"));
+        Assert.assertEquals(this.search(truncated, "*", "type"), Arrays.asList());
+    }
+}